@@ -0,0 +1,88 @@
+package shield.client;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import shield.client.schema.ColumnInfo;
+import shield.client.schema.Table;
+
+/**
+ * Cost of encoding the values written to Redis and decoding the values read from it, for rows
+ * shaped like TPC-C customers: a few numeric columns and partly filled string columns
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+  @Param({"raw", "compact"})
+  public String codecName;
+
+  /**
+   * Size above which compact values are compressed, 0 to never compress them
+   */
+  @Param({"0", "256"})
+  public int compressionThreshold;
+
+  private CacheCodec codec;
+  private byte[][] rows;
+  private byte[][] encoded;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    Table table = new Table("customer", null);
+    table.addColumn(new ColumnInfo("C_ID", Integer.class));
+    table.addColumn(new ColumnInfo("C_D_ID", Integer.class));
+    table.addColumn(new ColumnInfo("C_LAST", String.class, 16));
+    table.addColumn(new ColumnInfo("C_BALANCE", Integer.class));
+    table.addColumn(new ColumnInfo("C_PAYMENT_CNT", Integer.class));
+    table.addColumn(new ColumnInfo("C_DATA", String.class, 500));
+    codec = CacheCodec.create(codecName, compressionThreshold);
+    codec.registerTable(table);
+
+    Random random = new Random(0);
+    rows = new byte[256][];
+    encoded = new byte[rows.length][];
+    for (int i = 0; i < rows.length; i++) {
+      byte[] row = new byte[table.getRowSize()];
+      table.putInt(0, i, row);
+      table.putInt(1, i % 10, row);
+      table.putString(2, "BARPRIESE" + i % 7, row);
+      table.putInt(3, random.nextInt(100000) - 10, row);
+      table.putInt(4, random.nextInt(10), row);
+      StringBuilder data = new StringBuilder();
+      for (int c = 300 + random.nextInt(200); c > 0; c--) {
+        data.append((char) ('a' + random.nextInt(26)));
+      }
+      table.putString(5, data.toString(), row);
+      rows[i] = row;
+      encoded[i] = codec.encode("customer", row);
+    }
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    next = (next + 1) & (rows.length - 1);
+    return codec.encode("customer", rows[next]);
+  }
+
+  @Benchmark
+  public byte[] decode() {
+    next = (next + 1) & (rows.length - 1);
+    return codec.decode("customer", encoded[next]);
+  }
+}
@@ -0,0 +1,105 @@
+package shield.client;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of acquiring and releasing key locks when transactions do not conflict, alone and with
+ * clients sharing the table. Each thread locks keys of its own, so requests are granted unless two
+ * keys share a stripe, and what is measured is hashing, stripe monitors and statistics
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyLockTableBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class TableState {
+
+    @Param({"65536"})
+    public int nbStripes;
+
+    KeyLockTable locks;
+
+    @Setup
+    public void setup() {
+      locks = new KeyLockTable(nbStripes);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TransactionState {
+
+    long[] keys = new long[1024];
+    int next = 0;
+
+    @Setup
+    public void setup() {
+      long thread = Thread.currentThread().getId();
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = (thread << 32) ^ (i * 0x9E3779B97F4A7C15L);
+      }
+    }
+
+    long nextKey() {
+      next = (next + 1) & (keys.length - 1);
+      return keys[next];
+    }
+  }
+
+  @Benchmark
+  public KeyLockTable.AcquireResult shared(TableState t, TransactionState s) {
+    int stripe = t.locks.stripeOf(s.nextKey());
+    long ts = t.locks.newTimestamp();
+    KeyLockTable.AcquireResult result = t.locks.lockShared(stripe, ts, 0, 0);
+    t.locks.unlockShared(stripe, ts);
+    return result;
+  }
+
+  @Benchmark
+  public KeyLockTable.AcquireResult exclusive(TableState t, TransactionState s) {
+    int stripe = t.locks.stripeOf(s.nextKey());
+    long ts = t.locks.newTimestamp();
+    KeyLockTable.AcquireResult result = t.locks.lockExclusive(stripe, ts, 0, 0);
+    t.locks.unlockExclusive(stripe, ts);
+    return result;
+  }
+
+  /**
+   * Shared lock upgraded to exclusive, as by a read-modify-write
+   */
+  @Benchmark
+  public KeyLockTable.AcquireResult upgrade(TableState t, TransactionState s) {
+    int stripe = t.locks.stripeOf(s.nextKey());
+    long ts = t.locks.newTimestamp();
+    t.locks.lockShared(stripe, ts, 0, 0);
+    KeyLockTable.AcquireResult result = t.locks.lockExclusive(stripe, ts, 0, 0);
+    t.locks.unlockExclusive(stripe, ts);
+    return result;
+  }
+
+  @Benchmark
+  @Threads(8)
+  public KeyLockTable.AcquireResult sharedConcurrent(TableState t, TransactionState s) {
+    return shared(t, s);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public KeyLockTable.AcquireResult exclusiveConcurrent(TableState t, TransactionState s) {
+    return exclusive(t, s);
+  }
+}
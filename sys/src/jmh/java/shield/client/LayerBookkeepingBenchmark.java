@@ -0,0 +1,261 @@
+package shield.client;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tikv.common.BytePairWrapper;
+import org.tikv.shade.com.google.protobuf.ByteString;
+
+/**
+ * Client-side CPU cost of a transaction, without any I/O: transactions are run through
+ * RedisPostgresClient (statements, prefetch model, key locks, Redis batches, metrics) against an
+ * in-memory map standing in for Redis and one standing in for TiKV.
+ *
+ * Transactions are drawn from a fixed set of templates, each accessing the same keys in the same
+ * layers, so the prefetch model learns their dependencies as it would for a real workload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayerBookkeepingBenchmark {
+
+  private static final String[] TABLES = {"warehouse", "district", "customer", "stock"};
+
+  /**
+   * Redis, as a map from the 8-byte keys of the rows to their encoded values
+   */
+  static final class MapCache implements RedisCache {
+
+    final Map<Long, byte[]> values = new ConcurrentHashMap<>();
+
+    private static long id(byte[] key) {
+      return ByteBuffer.wrap(key).getLong();
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+      return values.get(id(key));
+    }
+
+    @Override
+    public void set(byte[] key, byte[] value) {
+      values.put(id(key), value);
+    }
+
+    @Override
+    public void setnx(byte[] key, byte[] value) {
+      values.putIfAbsent(id(key), value);
+    }
+
+    @Override
+    public void del(byte[] key) {
+      values.remove(id(key));
+    }
+
+    /**
+     * Commands are applied as they are queued, GETs are read back once synced
+     */
+    @Override
+    public Batch batch() {
+      return new Batch() {
+        @Override
+        public Supplier<byte[]> get(byte[] key) {
+          byte[] value = MapCache.this.get(key);
+          return () -> value;
+        }
+
+        @Override
+        public void set(byte[] key, byte[] value) {
+          MapCache.this.set(key, value);
+        }
+
+        @Override
+        public void setnx(byte[] key, byte[] value) {
+          MapCache.this.setnx(key, value);
+        }
+
+        @Override
+        public void del(byte[] key) {
+          MapCache.this.del(key);
+        }
+
+        @Override
+        public void mget(byte[]... keys) {
+          for (byte[] key : keys) {
+            MapCache.this.get(key);
+          }
+        }
+
+        @Override
+        public void sync() {
+        }
+
+        @Override
+        public void close() {
+        }
+      };
+    }
+
+    @Override
+    public long getMemoryUsage() {
+      return -1;
+    }
+  }
+
+  /**
+   * TiKV, as a map from the keys of the rows to their last committed value
+   */
+  static final class MapStore implements KVStore {
+
+    final Map<ByteString, ByteString> values = new ConcurrentHashMap<>();
+
+    @Override
+    public long getTimestamp() {
+      return 0;
+    }
+
+    @Override
+    public ByteString get(ByteString key, long version) {
+      return values.get(key);
+    }
+
+    @Override
+    public Map<ByteString, ByteString> batchGet(List<ByteString> keys, long version) {
+      Map<ByteString, ByteString> found = new HashMap<>();
+      for (ByteString key : keys) {
+        ByteString value = values.get(key);
+        if (value != null) {
+          found.put(key, value);
+        }
+      }
+      return found;
+    }
+
+    @Override
+    public void commit(List<BytePairWrapper> writes) {
+      for (BytePairWrapper write : writes) {
+        values.put(ByteString.copyFrom(write.getKey()), ByteString.copyFrom(write.getValue()));
+      }
+    }
+  }
+
+  /**
+   * State shared by the clients of a process: locks, and the fake cache and store
+   */
+  @State(Scope.Benchmark)
+  public static class ProcessState {
+
+    @Param({"10000"})
+    public int nbKeys;
+
+    KeyLockTable keyLocks;
+    MapCache cache;
+    MapStore store;
+
+    @Setup
+    public void setup() {
+      keyLocks = new KeyLockTable(65536);
+      cache = new MapCache();
+      store = new MapStore();
+      ByteString value = ByteString.copyFrom(new byte[64]);
+      for (String table : TABLES) {
+        for (int key = 0; key < nbKeys; key++) {
+          store.values.put(ByteString.copyFromUtf8(table + key), value);
+        }
+      }
+    }
+  }
+
+  /**
+   * State of one client
+   */
+  @State(Scope.Thread)
+  public static class ClientState {
+
+    @Param({"4"})
+    public int nbLayers;
+
+    @Param({"8"})
+    public int layerSize;
+
+    private static final int NB_TEMPLATES = 256;
+
+    /**
+     * Keys of each layer of each template
+     */
+    String[][][] templates;
+    int nextTemplate = 0;
+    long txnId = 0;
+    int txnType = 0;
+
+    RedisPostgresClient client;
+
+    @Setup
+    public void setup(ProcessState process) throws Exception {
+      templates = new String[NB_TEMPLATES][nbLayers][layerSize];
+      long seed = Thread.currentThread().getId();
+      for (int t = 0; t < NB_TEMPLATES; t++) {
+        for (int l = 0; l < nbLayers; l++) {
+          for (int k = 0; k < layerSize; k++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            templates[t][l][k] = Long.toString((seed >>> 33) % process.nbKeys);
+          }
+        }
+      }
+      // Default configuration: Redis and prefetching enabled, near cache disabled
+      client = new RedisPostgresClient(null, process.keyLocks, process.cache, process.store);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      client.requestExecutor.shutdown();
+    }
+  }
+
+  @Benchmark
+  public int transaction(ProcessState p, ClientState c, Blackhole bh) throws Exception {
+    String[][] template = c.templates[c.nextTemplate];
+    c.nextTemplate = (c.nextTemplate + 1) % c.templates.length;
+    c.txnId++;
+
+    int nbResults = 0;
+    for (int layer = 0; layer < template.length; layer++) {
+      String table = TABLES[layer % TABLES.length];
+      for (String key : template[layer]) {
+        c.client.read(table, key, c.txnType, c.txnId);
+      }
+      List<byte[]> results = c.client.executeOps();
+      nbResults += results.size();
+      bh.consume(results);
+    }
+    bh.consume(c.client.commitTransaction());
+    return nbResults;
+  }
+
+  @Benchmark
+  @Threads(8)
+  public int transactionConcurrent(ProcessState p, ClientState c, Blackhole bh) throws Exception {
+    return transaction(p, c, bh);
+  }
+}
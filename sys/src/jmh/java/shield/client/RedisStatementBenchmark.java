@@ -0,0 +1,65 @@
+package shield.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import shield.util.Utility;
+
+/**
+ * Cost of encoding the Redis keys of a layer: once per statement for its GET or fill, and once more
+ * for the MGET that commits the layer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisStatementBenchmark {
+
+  @Param({"1", "8", "32"})
+  public int layerSize;
+
+  private RedisStatement[] statements;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    statements = new RedisStatement[1024];
+    for (int i = 0; i < statements.length; i++) {
+      statements[i] = new RedisStatement(RedisStatement.RedisRequestType.GET, "stock",
+          Utility.hashPersistent("stock" + i), null, 0, i);
+    }
+  }
+
+  @Benchmark
+  public byte[] getKey() {
+    next = (next + 1) & (statements.length - 1);
+    return statements[next].getKey();
+  }
+
+  /**
+   * Keys of a whole layer, as gathered for its commit
+   */
+  @Benchmark
+  public void layerKeys(Blackhole bh) {
+    List<byte[]> layerKeys = new ArrayList<>(layerSize);
+    for (int i = 0; i < layerSize; i++) {
+      next = (next + 1) & (statements.length - 1);
+      layerKeys.add(statements[next].getKey());
+    }
+    bh.consume(layerKeys.toArray(new byte[0][]));
+  }
+}
@@ -0,0 +1,120 @@
+package shield.client.prefetch;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of learning layer dependencies: one tracker observing the layers that follow its key, and
+ * the shared model updated and queried by several clients at once
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrefetchTrackerBenchmark {
+
+  private static final int NB_LAYERS = 1024;
+
+  private static LayerKeys[] layers(int layerSize, int nbDistinct) {
+    LayerKeys[] layers = new LayerKeys[NB_LAYERS];
+    for (int i = 0; i < NB_LAYERS; i++) {
+      layers[i] = new LayerKeys();
+      int variant = i % nbDistinct;
+      for (int j = 0; j < layerSize; j++) {
+        layers[i].add("stock", variant * 1000003L + j * 7919L, null);
+      }
+      layers[i].seal();
+    }
+    return layers;
+  }
+
+  @State(Scope.Thread)
+  public static class TrackerState {
+
+    /**
+     * Number of distinct sets following the key: 1 is fully predictable, more than
+     * PREFETCH_LEN_THRES stops tracking after a few observations
+     */
+    @Param({"1", "4"})
+    public int nbDistinct;
+
+    @Param({"8"})
+    public int layerSize;
+
+    LayerKeys[] layers;
+    PrefetchTracker tracker;
+    int next = 0;
+
+    @Setup
+    public void setup() {
+      layers = layers(layerSize, nbDistinct);
+      tracker = new PrefetchTracker();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class ModelState {
+
+    @Param({"100000"})
+    public int maxTrackers;
+
+    PrefetchModel model;
+
+    @Setup
+    public void setup() {
+      model = new PrefetchModel(maxTrackers);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ClientState {
+
+    LayerKeys[] layers;
+    int next = 0;
+
+    @Setup
+    public void setup() {
+      layers = layers(8, NB_LAYERS);
+    }
+  }
+
+  @Benchmark
+  public PrefetchTracker observeSubsequentLayer(TrackerState s) {
+    s.next = (s.next + 1) & (NB_LAYERS - 1);
+    s.tracker.observeSubsequentLayer(s.layers[s.next]);
+    return s.tracker;
+  }
+
+  /**
+   * One layer of prefetch bookkeeping in executeOps: observe the dependencies of the previous
+   * layer, then look up the prefetch set of each key of this one
+   */
+  @Benchmark
+  @Threads(4)
+  public int observeAndPredict(ModelState m, ClientState c) {
+    LayerKeys previous = c.layers[c.next];
+    c.next = (c.next + 1) & (NB_LAYERS - 1);
+    LayerKeys layer = c.layers[c.next];
+    m.model.observeLayer(0, previous, layer);
+    int predicted = 0;
+    for (int i = 0; i < layer.size(); i++) {
+      LayerKeys prefetchSet = m.model.getPrefetchSet(0, layer.getId(i));
+      if (prefetchSet != null) {
+        predicted += prefetchSet.size();
+      }
+    }
+    return predicted;
+  }
+}
@@ -0,0 +1,116 @@
+package shield.client.schema;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of reading and updating the columns of a row, through the boxing getColumn and updateColumn
+ * and through the typed accessors. The table has the layout of TPC-C's district table
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableBenchmark {
+
+  private Table table;
+  private byte[] row;
+  private int counter = 0;
+  private final StringView view = new StringView();
+
+  @Setup
+  public void setup() {
+    // Columns all have an explicit size, so the table never needs its node's configuration
+    table = new Table("district", null);
+    table.addColumn(new ColumnInfo("D_ID", Integer.class));
+    table.addColumn(new ColumnInfo("D_W_ID", Integer.class));
+    table.addColumn(new ColumnInfo("D_NAME", String.class, 10));
+    table.addColumn(new ColumnInfo("D_STREET_1", String.class, 20));
+    table.addColumn(new ColumnInfo("D_STREET_2", String.class, 20));
+    table.addColumn(new ColumnInfo("D_CITY", String.class, 20));
+    table.addColumn(new ColumnInfo("D_STATE", String.class, 2));
+    table.addColumn(new ColumnInfo("D_ZIP", String.class, 9));
+    table.addColumn(new ColumnInfo("D_TAX", Integer.class));
+    table.addColumn(new ColumnInfo("D_YTD", Integer.class));
+    table.addColumn(new ColumnInfo("D_NEXT_O_ID", Integer.class));
+    row = new byte[table.getRowSize()];
+    table.updateColumn("D_NEXT_O_ID", 3001, row);
+    table.updateColumn("D_NAME", "district", row);
+  }
+
+  @Benchmark
+  public Object getIntColumn() {
+    return table.getColumn("D_NEXT_O_ID", row);
+  }
+
+  @Benchmark
+  public Object getStringColumn() {
+    return table.getColumn("D_NAME", row);
+  }
+
+  @Benchmark
+  public byte[] updateIntColumn() {
+    table.updateColumn("D_NEXT_O_ID", counter++, row);
+    return row;
+  }
+
+  @Benchmark
+  public byte[] updateStringColumn() {
+    table.updateColumn("D_CITY", "Ithaca", row);
+    return row;
+  }
+
+  /**
+   * Read-modify-write of a counter column, as NewOrder does with D_NEXT_O_ID
+   */
+  @Benchmark
+  public byte[] incrementIntColumn() {
+    int next = (Integer) table.getColumn("D_NEXT_O_ID", row);
+    table.updateColumn("D_NEXT_O_ID", next + 1, row);
+    return row;
+  }
+
+  @Benchmark
+  public int getInt() {
+    return table.getInt(10, row);
+  }
+
+  @Benchmark
+  public String getString() {
+    return table.getString(2, row);
+  }
+
+  @Benchmark
+  public int getStringView() {
+    return table.getString(2, row, view).length();
+  }
+
+  @Benchmark
+  public byte[] putInt() {
+    table.putInt(10, counter++, row);
+    return row;
+  }
+
+  @Benchmark
+  public byte[] putString() {
+    table.putString(5, "Ithaca", row);
+    return row;
+  }
+
+  @Benchmark
+  public byte[] incrementInt() {
+    table.putInt(10, table.getInt(10, row) + 1, row);
+    return row;
+  }
+}
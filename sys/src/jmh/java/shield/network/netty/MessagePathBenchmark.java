@@ -0,0 +1,183 @@
+package shield.network.netty;
+
+import com.google.protobuf.ByteString;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import shield.network.NetworkQueue;
+import shield.network.messages.Msg;
+import shield.network.messages.Msg.ClientMessageResp;
+
+/**
+ * Cost of sending and receiving a response carrying read values. The copy benchmarks follow the
+ * previous path: serialize to a byte array, copy it into a buffer, and copy frames back out into a
+ * byte array before parsing. The pooled benchmarks serialize into pooled buffers and parse frames
+ * as the decoder does, from the direct buffers the transport reads into. Run with -prof gc to
+ * compare allocations per message.
+ *
+ * roundTrip sends messages over loopback through the same senders, receivers and pipeline as the
+ * nodes, and waits for the echo
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagePathBenchmark {
+
+  @Param({"1", "16"})
+  public int readValues;
+
+  @Param({"100"})
+  public int valueSize;
+
+  private final ByteBufAllocator alloc = PooledByteBufAllocator.DEFAULT;
+  private final MessageDecoder decoder = new MessageDecoder();
+  private Msg.Message message;
+  private ByteBuf frame;
+  private int frameSize;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    ClientMessageResp.Builder resp = ClientMessageResp.newBuilder()
+        .setRespType(ClientMessageResp.RespType.OPERATION)
+        .setIsError(false);
+    for (int i = 0; i < readValues; i++) {
+      byte[] value = new byte[valueSize];
+      random.nextBytes(value);
+      resp.addReadValues(ByteString.copyFrom(value));
+    }
+    message = Msg.Message.newBuilder()
+        .setMessageType(Msg.Message.Type.ClientRespMessage)
+        .setClientRespMsg(resp)
+        .build();
+    ByteBuf encoded = NettyTCPSender.encode(alloc, message);
+    frame = alloc.directBuffer(encoded.readableBytes());
+    frame.writeBytes(encoded);
+    encoded.release();
+    frameSize = frame.readInt();
+  }
+
+  @TearDown
+  public void tearDown() {
+    frame.release();
+  }
+
+  @Benchmark
+  public int copyEncode() {
+    byte[] bytes = message.toByteArray();
+    ByteBuf buf = alloc.buffer(bytes.length + 4);
+    buf.writeInt(bytes.length);
+    buf.writeBytes(bytes);
+    int size = buf.readableBytes();
+    buf.release();
+    return size;
+  }
+
+  @Benchmark
+  public int pooledEncode() {
+    ByteBuf buf = NettyTCPSender.encode(alloc, message);
+    int size = buf.readableBytes();
+    buf.release();
+    return size;
+  }
+
+  @Benchmark
+  public Msg.Message copyDecode() throws IOException {
+    byte[] bytes = new byte[frameSize];
+    frame.getBytes(frame.readerIndex(), bytes);
+    return Msg.Message.parseFrom(bytes);
+  }
+
+  @Benchmark
+  public Msg.Message pooledDecode() throws IOException {
+    return decoder.parse(frame, frameSize);
+  }
+
+  /**
+   * Two endpoints on loopback: the server echoes every message back to the client
+   */
+  @State(Scope.Benchmark)
+  public static class Loopback {
+
+    private ExecutorService workers;
+    private InetSocketAddress serverAddress;
+    private NettyTCPSender clientSender;
+    private final SynchronousQueue<Msg.Message> responses = new SynchronousQueue<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+      workers = Executors.newCachedThreadPool();
+      serverAddress = new InetSocketAddress("127.0.0.1", freePort());
+      InetSocketAddress clientAddress = new InetSocketAddress("127.0.0.1", freePort());
+      NettyTCPSender serverSender = new NettyTCPSender(1, workers);
+      new NettyTCPReceiver(serverAddress, new Queue() {
+        @Override
+        public void addWork(Msg.Message msg) {
+          serverSender.send(msg, clientAddress);
+        }
+      }, 1, workers);
+      clientSender = new NettyTCPSender(1, workers);
+      new NettyTCPReceiver(clientAddress, new Queue() {
+        @Override
+        public void addWork(Msg.Message msg) {
+          try {
+            responses.put(msg);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }, 1, workers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      workers.shutdownNow();
+    }
+
+    private static int freePort() throws IOException {
+      try (ServerSocket socket = new ServerSocket(0)) {
+        return socket.getLocalPort();
+      }
+    }
+
+    private abstract static class Queue implements NetworkQueue {
+
+      @Override
+      public void addWork(byte[] msg) {
+        throw new IllegalStateException("Messages are parsed by the decoder");
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Msg.Message roundTrip(Loopback loopback) throws InterruptedException {
+    loopback.clientSender.send(message, loopback.serverAddress);
+    return loopback.responses.take();
+  }
+}
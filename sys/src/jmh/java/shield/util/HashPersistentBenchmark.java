@@ -0,0 +1,67 @@
+package shield.util;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of turning a (table, key) pair into the id under which clients cache and lock a row, as
+ * done by every create*Statement of RedisPostgresClient
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashPersistentBenchmark {
+
+  private static final int NB_KEYS = 1024;
+
+  @Param({"warehouse", "order_line"})
+  public String table;
+
+  private String[] keys;
+  private String[] rows;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    keys = new String[NB_KEYS];
+    rows = new String[NB_KEYS];
+    for (int i = 0; i < NB_KEYS; i++) {
+      keys[i] = Integer.toString(i * 7919) + "_" + Integer.toString(i % 10);
+      rows[i] = table + keys[i];
+    }
+  }
+
+  private int nextIndex() {
+    next = (next + 1) & (NB_KEYS - 1);
+    return next;
+  }
+
+  /**
+   * Hash of a row name built beforehand
+   */
+  @Benchmark
+  public long hashRow() {
+    return Utility.hashPersistent(rows[nextIndex()]);
+  }
+
+  /**
+   * Concatenation and hash, as in createReadStatement
+   */
+  @Benchmark
+  public long concatAndHash() {
+    return Utility.hashPersistent(table + keys[nextIndex()]);
+  }
+}
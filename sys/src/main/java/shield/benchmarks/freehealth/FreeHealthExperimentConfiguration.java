@@ -4,6 +4,7 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import shield.benchmarks.utils.ClientUtils;
+import shield.benchmarks.utils.StatisticsCollector;
 import shield.config.Configuration;
 
 import java.io.FileReader;
@@ -42,6 +43,12 @@ public class FreeHealthExperimentConfiguration extends Configuration {
      */
     public String RUN_NAME = "";
 
+    /**
+     * Format of the latency files written by the clients: "text", or "binary" to be decoded offline
+     * by StatisticsReader
+     */
+    public StatisticsCollector.Format STATS_FORMAT = StatisticsCollector.Format.TEXT;
+
     /**
      * Experiment dir
      */
@@ -197,6 +204,8 @@ public class FreeHealthExperimentConfiguration extends Configuration {
         RAMP_DOWN = getPropInt(prop, "ramp_down", RAMP_DOWN);
         EXP_LENGTH = getPropInt(prop, "exp_length", EXP_LENGTH);
         RUN_NAME = getPropString(prop, "run_name", RUN_NAME);
+        STATS_FORMAT = StatisticsCollector.Format.valueOf(
+            getPropString(prop, "stats_format", STATS_FORMAT.name()).toUpperCase());
         EXP_DIR = getPropString(prop, "exp_dir", EXP_DIR);
         KEY_FILE_NAME = getPropString(prop, "key_file_name", KEY_FILE_NAME);
         NB_LOADER_THREADS = getPropInt(prop, "nb_loader_threads", NB_LOADER_THREADS);
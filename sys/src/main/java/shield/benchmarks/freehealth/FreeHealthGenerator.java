@@ -457,11 +457,17 @@ public class FreeHealthGenerator {
         return probIncrementer;
     }
 
-    public void runNextTransaction() {
+    /**
+     * Runs a transaction drawn from the mix
+     *
+     * @return the type of the transaction that was run, or null if none was drawn
+     */
+    public Transactions runNextTransaction() {
         int x = Generator.generateInt(0,100);
         System.out.println("Next Ran Number " + x);
         int nbAborts;
         BenchmarkTransaction trx;
+        Transactions type = null;
         long start = System.currentTimeMillis();
         long end = 0;
         resetProbComp(); // reset probability incrementer
@@ -470,7 +476,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.ADD_DRUG_INTERACTION + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-            trxStats.get(Transactions.ADD_DRUG_INTERACTION).addTransaction(nbAborts, end-start);
+            type = Transactions.ADD_DRUG_INTERACTION;
+            trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.ADD_DRUG_INTERACTION + "] End");
         }
         else if (x < probComp(config.PROB_TRX_GET_DRUG_INTERACTIONS)) {
@@ -478,7 +485,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.GET_DRUG_INTERACTIONS + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.GET_DRUG_INTERACTIONS).addTransaction(nbAborts,end-start);
+             type = Transactions.GET_DRUG_INTERACTIONS;
+             trxStats.get(type).addTransaction(nbAborts,end-start);
             System.out.println("[" + Transactions.GET_DRUG_INTERACTIONS + "] End");
         }
         else if (x < probComp(config.PROB_TRX_GET_PRESCRIPTIONS)) {
@@ -486,7 +494,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.GET_PRESCRIPTIONS + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.GET_PRESCRIPTIONS).addTransaction(nbAborts, end-start);
+             type = Transactions.GET_PRESCRIPTIONS;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.GET_PRESCRIPTIONS + "] End");
         }
         else if (x < probComp(config.PROB_TRX_PRESCRIBE_DRUG)) {
@@ -494,7 +503,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.PRESCRIBE_DRUG + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.PRESCRIBE_DRUG).addTransaction(nbAborts, end-start);
+             type = Transactions.PRESCRIBE_DRUG;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.PRESCRIBE_DRUG + "] End");
         }
         else if (x < probComp(config.PROB_TRX_REMOVE_DRUG_INTERACTION)) {
@@ -502,7 +512,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.REMOVE_DRUG_INTERACTION + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.REMOVE_DRUG_INTERACTION).addTransaction(nbAborts, end-start);
+             type = Transactions.REMOVE_DRUG_INTERACTION;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.REMOVE_DRUG_INTERACTION + "] End");
         }
         else if (x < probComp(config.PROB_TRX_ADD_EPISODE_CONTENT)) {
@@ -510,7 +521,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.ADD_EPISODE_CONTENT + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.ADD_EPISODE_CONTENT).addTransaction(nbAborts, end-start);
+             type = Transactions.ADD_EPISODE_CONTENT;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.ADD_EPISODE_CONTENT + "] End");
         }
         else if (x < probComp(config.PROB_TRX_CREATE_ENCOUNTER)) {
@@ -518,7 +530,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.CREATE_ENCOUNTER + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.CREATE_ENCOUNTER).addTransaction(nbAborts, end-start);
+             type = Transactions.CREATE_ENCOUNTER;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.CREATE_ENCOUNTER + "] End");
         }
         else if (x < probComp(config.PROB_TRX_GET_EPISODE_CONTENT)) {
@@ -526,7 +539,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.GET_EPISODE_CONTENT + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.GET_EPISODE_CONTENT).addTransaction(nbAborts, end-start);
+             type = Transactions.GET_EPISODE_CONTENT;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.GET_EPISODE_CONTENT + "] End");
         }
         else if (x < probComp(config.PROB_TRX_GET_EPISODES)) {
@@ -534,7 +548,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.GET_EPISODES + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.GET_EPISODES).addTransaction(nbAborts, end-start);
+             type = Transactions.GET_EPISODES;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.GET_EPISODES + "] End");
         }
         else if (x < probComp(config.PROB_TRX_INVALIDATE_EPISODE)) {
@@ -542,7 +557,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.INVALIDATE_EPISODE + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.INVALIDATE_EPISODE).addTransaction(nbAborts, end-start);
+             type = Transactions.INVALIDATE_EPISODE;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.INVALIDATE_EPISODE + "] End");
         }
         else if (x < probComp(config.PROB_TRX_UPDATE_EPISODE_CONTENT)) {
@@ -550,7 +566,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.UPDATE_EPISODE_CONTENT + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.UPDATE_EPISODE_CONTENT).addTransaction(nbAborts, end-start);
+             type = Transactions.UPDATE_EPISODE_CONTENT;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.UPDATE_EPISODE_CONTENT + "] End");
         }
         else if (x < probComp(config.PROB_TRX_UPDATE_EPISODES)) {
@@ -558,7 +575,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.UPDATE_EPISODES + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.UPDATE_EPISODES).addTransaction(nbAborts, end-start);
+             type = Transactions.UPDATE_EPISODES;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.UPDATE_EPISODES + "] End");
         }
         else if (x < probComp(config.PROB_TRX_CREATE_PATIENT)) {
@@ -566,7 +584,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.CREATE_PATIENT + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.CREATE_PATIENT).addTransaction(nbAborts, end-start);
+             type = Transactions.CREATE_PATIENT;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.CREATE_PATIENT + "] End");
         }
         else if (x < probComp(config.PROB_TRX_GET_PATIENT_DATA)) {
@@ -574,7 +593,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.GET_PATIENT_DATA + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.GET_PATIENT_DATA).addTransaction(nbAborts,end-start);
+             type = Transactions.GET_PATIENT_DATA;
+             trxStats.get(type).addTransaction(nbAborts,end-start);
             System.out.println("[" + Transactions.GET_PATIENT_DATA + "] End");
         }
         else if (x < probComp(config.PROB_TRX_GET_PATIENT_NAMES)) {
@@ -582,7 +602,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.GET_PATIENT_NAMES + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.GET_PATIENT_NAMES).addTransaction(nbAborts, end-start);
+             type = Transactions.GET_PATIENT_NAMES;
+             trxStats.get(type).addTransaction(nbAborts, end-start);
             System.out.println("[" + Transactions.GET_PATIENT_NAMES + "] End");
         }
         else if (x < probComp(config.PROB_TRX_LOOKUP_PATIENT)) {
@@ -590,7 +611,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.LOOKUP_PATIENT + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.LOOKUP_PATIENT).addTransaction(nbAborts,end-start);
+             type = Transactions.LOOKUP_PATIENT;
+             trxStats.get(type).addTransaction(nbAborts,end-start);
             System.out.println("[" + Transactions.LOOKUP_PATIENT + "] End");
         }
         else if (x < probComp(config.PROB_TRX_UPDATE_PATIENT_DATA)) {
@@ -598,7 +620,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.UPDATE_PATIENT_DATA + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.UPDATE_PATIENT_DATA).addTransaction(nbAborts,end-start);
+             type = Transactions.UPDATE_PATIENT_DATA;
+             trxStats.get(type).addTransaction(nbAborts,end-start);
             System.out.println("[" + Transactions.UPDATE_PATIENT_DATA + "] End");
         }
         else if (x < probComp(config.PROB_TRX_GET_PMH)) {
@@ -606,7 +629,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.GET_PMH + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.GET_PMH).addTransaction(nbAborts,end-start);
+             type = Transactions.GET_PMH;
+             trxStats.get(type).addTransaction(nbAborts,end-start);
             System.out.println("[" + Transactions.GET_PMH + "] End");
         }
         else if (x < probComp(config.PROB_TRX_SAVE_PMH)) {
@@ -614,7 +638,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.SAVE_PMH + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.SAVE_PMH).addTransaction(nbAborts,end-start);
+             type = Transactions.SAVE_PMH;
+             trxStats.get(type).addTransaction(nbAborts,end-start);
             System.out.println("[" + Transactions.SAVE_PMH + "] End");
         }
         else if (x < probComp(config.PROB_TRX_CHECK_LOGIN)) {
@@ -622,7 +647,8 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.CHECK_LOGIN + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.CHECK_LOGIN).addTransaction(nbAborts,end-start);
+             type = Transactions.CHECK_LOGIN;
+             trxStats.get(type).addTransaction(nbAborts,end-start);
             System.out.println("[" + Transactions.CHECK_LOGIN + "] End");
         }
         else if (x < probComp(config.PROB_TRX_GET_USER)) {
@@ -630,9 +656,11 @@ public class FreeHealthGenerator {
             System.out.println("[" + Transactions.GET_USER + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-             trxStats.get(Transactions.GET_USER).addTransaction(nbAborts,end-start);
+             type = Transactions.GET_USER;
+             trxStats.get(type).addTransaction(nbAborts,end-start);
             System.out.println("[" + Transactions.GET_USER + "] End");
         }
+        return type;
     }
 
     public FreeHealthExperimentConfiguration getConfig() {
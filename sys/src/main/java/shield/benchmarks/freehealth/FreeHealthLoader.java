@@ -8,6 +8,7 @@ import shield.benchmarks.utils.ClientUtils;
 import shield.benchmarks.utils.Generator;
 import shield.client.ClientBase;
 import shield.client.DatabaseAbortException;
+import shield.client.RedisPostgresClient;
 import shield.client.schema.Table;
 
 import java.io.IOException;
@@ -40,7 +41,9 @@ public class FreeHealthLoader {
 
         if (config.MUST_LOAD_KEYS) {
             System.out.println("Begin loading data");
+            RedisPostgresClient.enableBulkLoad();
             loadData(config, expConfigFile);
+            RedisPostgresClient.finishBulkLoad();
         }
 
         System.out.println("Data loaded");
@@ -242,8 +245,8 @@ public class FreeHealthLoader {
                     continue;
                 }
 
-                String dob = (String) patientsIdentityTable.getColumn("DOB", results.get(0));
-                String name = (String) patientsIdentityTable.getColumn("NAME", results.get(0));
+                String dob = patientsIdentityTable.getString("DOB", results.get(0));
+                String name = patientsIdentityTable.getString("NAME", results.get(0));
                 System.out.println("dob: " + dob);
                 System.out.println("name: " + name);
 
@@ -279,13 +282,13 @@ public class FreeHealthLoader {
         Integer nextPID = config.NB_PATIENTS / config.NB_HOSPITALS;
 
         byte[] ECIDrow = nextSharedID.createNewRow(config.PAD_COLUMNS);
-        nextSharedID.updateColumn("NEXT_ID", nextECID, ECIDrow);
+        nextSharedID.putInt("NEXT_ID", nextECID, ECIDrow);
         byte[] PRIDrow = nextSharedID.createNewRow(config.PAD_COLUMNS);
-        nextSharedID.updateColumn("NEXT_ID", nextPRID, PRIDrow);
+        nextSharedID.putInt("NEXT_ID", nextPRID, PRIDrow);
         byte[] EPIDrow = nextSharedID.createNewRow(config.PAD_COLUMNS);
-        nextSharedID.updateColumn("NEXT_ID", nextEPID, EPIDrow);
+        nextSharedID.putInt("NEXT_ID", nextEPID, EPIDrow);
         byte[] PIDrow = nextSharedID.createNewRow(config.PAD_COLUMNS);
-        nextSharedID.updateColumn("NEXT_ID", nextPID, PIDrow);
+        nextSharedID.putInt("NEXT_ID", nextPID, PIDrow);
 
         for (int hospital = 0; hospital < config.NB_HOSPITALS; hospital++){
             boolean success = false;
@@ -348,30 +351,30 @@ public class FreeHealthLoader {
                     row = usersTable.createNewRow(config.PAD_COLUMNS);
                     Integer userId = start;
                     System.out.println("[User] " + userId);
-                    usersTable.updateColumn("USER_ID", userId, row);
+                    usersTable.putInt("USER_ID", userId, row);
                     Integer validity = Generator.generateInt(0, 1);
-                    usersTable.updateColumn("VALIDITY", validity, row);
+                    usersTable.putInt("VALIDITY", validity, row);
                     String login = "username" + userId.toString();
-                    usersTable.updateColumn("LOGIN", login, row);
+                    usersTable.putString("LOGIN", login, row);
                     String password = "password" + userId.toString();
-                    usersTable.updateColumn("PASSWORD", password, row);
+                    usersTable.putString("PASSWORD", password, row);
                     String lastlogin = generator.getTime();
-                    usersTable.updateColumn("LASTLOGIN", lastlogin, row);
+                    usersTable.putString("LASTLOGIN", lastlogin, row);
                     String name = generator.RandString(14, 24, false);
-                    usersTable.updateColumn("NAME", name, row);
+                    usersTable.putString("NAME", name, row);
                     String title = generator.RandString(0, 2, false);
-                    usersTable.updateColumn("TITLE", title, row);
+                    usersTable.putString("TITLE", title, row);
                     Integer gender = Generator.generateInt(0, 3);
-                    usersTable.updateColumn("GENDER", gender.toString(), row);
+                    usersTable.putString("GENDER", gender.toString(), row);
                     String mail = generator.RandString(14, 24, false);
-                    usersTable.updateColumn("MAIL", mail, row);
+                    usersTable.putString("MAIL", mail, row);
                     String language = generator.RandString(14, 24, false);
-                    usersTable.updateColumn("LANGUAGE", language, row);
+                    usersTable.putString("LANGUAGE", language, row);
                     client.write(FreeHealthConstants.usersTable, userId.toString(), row);
 
                     // update login to userID mapping
                     row = usersByLoginTable.createNewRow(config.PAD_COLUMNS);
-                    usersByLoginTable.updateColumn("USER_ID", userId, row);
+                    usersByLoginTable.putInt("USER_ID", userId, row);
                     client.write(FreeHealthConstants.usersByLoginTable, login, row);
 
                     client.commitTransaction();
@@ -419,27 +422,27 @@ public class FreeHealthLoader {
                     row = patientsTable.createNewRow(config.PAD_COLUMNS);
                     Integer pid = start;
                     System.out.println("[Patient] " + pid);
-                    patientsTable.updateColumn("IDENT_ID", pid, row);
+                    patientsTable.putInt("IDENT_ID", pid, row);
                     String name = "name" + pid % (config.NB_PATIENTS/2);
-                    patientsTable.updateColumn("NAME", name, row);
+                    patientsTable.putString("NAME", name, row);
                     String dateOfBirth = generator.IDtoDate(pid);
-                    patientsTable.updateColumn("DOB", dateOfBirth, row);
+                    patientsTable.putString("DOB", dateOfBirth, row);
                     Integer userUuid = pid % config.NB_USERS;
-                    patientsTable.updateColumn("USER_UUID", userUuid, row);
+                    patientsTable.putInt("USER_UUID", userUuid, row);
                     String gender = generator.RandString(14, 24, false);
-                    patientsTable.updateColumn("GENDER", gender, row);
+                    patientsTable.putString("GENDER", gender, row);
                     Integer zip = generator.RandZipCode();
-                    patientsTable.updateColumn("ZIP", zip, row);
+                    patientsTable.putInt("ZIP", zip, row);
                     String country = generator.RandString(14, 24, false);
-                    patientsTable.updateColumn("COUNTRY", country, row);
+                    patientsTable.putString("COUNTRY", country, row);
                     String mails = generator.RandString(14, 24, false);
-                    patientsTable.updateColumn("MAILS", mails, row);
+                    patientsTable.putString("MAILS", mails, row);
                     String tels = generator.RandString(9, 10, false);
-                    patientsTable.updateColumn("TELS", tels, row);
+                    patientsTable.putString("TELS", tels, row);
                     String note = generator.RandString(0, 100, false);
-                    patientsTable.updateColumn("NOTE", note, row);
+                    patientsTable.putString("NOTE", note, row);
                     Integer isActive = 1;
-                    patientsTable.updateColumn("IDENT_ISACTIVE", isActive, row);
+                    patientsTable.putInt("IDENT_ISACTIVE", isActive, row);
                     client.write(FreeHealthConstants.patientsIdentityTable, pid.toString(), row);
                     // TODO: might want to multi-thread this since they are deterministic
                     addToIndexList(client, config, patientsNameTable, name, pid);
@@ -468,11 +471,11 @@ public class FreeHealthLoader {
             valueRow = table.createNewRow(config.PAD_COLUMNS);
             values = new SerializableIDSet(config);
         } else {
-            String strValList = (String) table.getColumn("ID_LIST", valueRow);
+            String strValList = table.getString("ID_LIST", valueRow);
             values = new SerializableIDSet(config, strValList);
         }
         values.add(value);
-        table.updateColumn("ID_LIST", values.serialize(), valueRow);
+        table.putString("ID_LIST", values.serialize(), valueRow);
         client.write(table.getTableName(), key, valueRow);
     }
 
@@ -509,21 +512,21 @@ public class FreeHealthLoader {
                     row = pmhTable.createNewRow(config.PAD_COLUMNS);
                     Integer pmhid = start;
                     System.out.println("[PMH] " + pmhid);
-                    pmhTable.updateColumn("ID", pmhid, row);
+                    pmhTable.putInt("ID", pmhid, row);
                     Integer patientUuid = pmhid / config.NB_PMH_PER_PATIENT;
-                    pmhTable.updateColumn("PATIENT_UUID", patientUuid, row);
+                    pmhTable.putInt("PATIENT_UUID", patientUuid, row);
                     Integer userUuid = patientUuid % config.NB_USERS;
-                    pmhTable.updateColumn("USER_UUID", userUuid, row);
+                    pmhTable.putInt("USER_UUID", userUuid, row);
                     Integer categoryId = Generator.generateInt(0, 10);
-                    pmhTable.updateColumn("CATEGORY_ID", categoryId, row);
+                    pmhTable.putInt("CATEGORY_ID", categoryId, row);
                     String label = generator.RandString(14, 24, false);
-                    pmhTable.updateColumn("LABEL", label, row);
+                    pmhTable.putString("LABEL", label, row);
                     Integer valid = Generator.generateInt(0, 1);
-                    pmhTable.updateColumn("VALID", valid, row);
+                    pmhTable.putInt("VALID", valid, row);
                     String comment = generator.RandString(14, 100, false);
-                    pmhTable.updateColumn("COMMENT", comment, row);
+                    pmhTable.putString("COMMENT", comment, row);
                     String creationdatetime = generator.RandDate(2000, 2018);
-                    pmhTable.updateColumn("CREATIONDATETIME", creationdatetime, row);
+                    pmhTable.putString("CREATIONDATETIME", creationdatetime, row);
                     client.write(FreeHealthConstants.pmhTable, pmhid.toString(), row);
 
                     // TODO: might want to multi-thread this since they are deterministic
@@ -573,13 +576,13 @@ public class FreeHealthLoader {
                     // generate drug with random name
                     row = drugsTable.createNewRow(config.PAD_COLUMNS);
                     System.out.println("[Drug] " + drugid);
-                    drugsTable.updateColumn("ID", drugid, row);
+                    drugsTable.putInt("ID", drugid, row);
                     String name = generator.RandString(14, 24, false);
-                    drugsTable.updateColumn("NAME", name, row);
+                    drugsTable.putString("NAME", name, row);
                     Integer strength = Generator.generateInt(0, 10);
-                    drugsTable.updateColumn("STRENGTH", strength, row);
+                    drugsTable.putInt("STRENGTH", strength, row);
                     Integer atcID = drugid * 2;
-                    drugsTable.updateColumn("ATC_ID", atcID, row);
+                    drugsTable.putInt("ATC_ID", atcID, row);
                     client.write(FreeHealthConstants.drugsTable, drugid.toString(), row);
 
                     client.commitTransaction();
@@ -618,22 +621,22 @@ public class FreeHealthLoader {
                                 interactions1Row = drugInteractionsTable.createNewRow(config.PAD_COLUMNS);
                                 interactingIDs = new SerializableIDSet(config);
                             } else {
-                                String interactionIDsStr = (String) drugInteractionsTable.getColumn("INTERACTIONS", interactions1Row);
+                                String interactionIDsStr = drugInteractionsTable.getString("INTERACTIONS", interactions1Row);
                                 interactingIDs = new SerializableIDSet(config, interactionIDsStr);
                             }
                             interactingIDs.add(interactingDrugID); // add drug 2 as an interacting drug
-                            drugInteractionsTable.updateColumn("INTERACTIONS", interactingIDs.serialize(), interactions1Row);
+                            drugInteractionsTable.putString("INTERACTIONS", interactingIDs.serialize(), interactions1Row);
                             client.write(FreeHealthConstants.drugInteractionsTable, drugid.toString(), interactions1Row);
 
                             if (isRowEmpty(interactions2Row)){
                                 interactions2Row = drugInteractionsTable.createNewRow(config.PAD_COLUMNS);
                                 interactingIDs = new SerializableIDSet(config);
                             } else {
-                                String interactionIDsStr = (String) drugInteractionsTable.getColumn("INTERACTIONS", interactions2Row);
+                                String interactionIDsStr = drugInteractionsTable.getString("INTERACTIONS", interactions2Row);
                                 interactingIDs = new SerializableIDSet(config, interactionIDsStr);
                             }
                             interactingIDs.add(drugid); // add drug 1 as an interacting drug
-                            drugInteractionsTable.updateColumn("INTERACTIONS", interactingIDs.serialize(), interactions2Row);
+                            drugInteractionsTable.putString("INTERACTIONS", interactingIDs.serialize(), interactions2Row);
                             client.write(FreeHealthConstants.drugInteractionsTable, interactingDrugID.toString(), interactions2Row);
 
 
@@ -686,21 +689,21 @@ public class FreeHealthLoader {
                     // create episode in episodes table
                     row = episodesTable.createNewRow(config.PAD_COLUMNS);
                     Integer episodeId = start;
-                    episodesTable.updateColumn("EPISODE_ID", episodeId, row);
+                    episodesTable.putInt("EPISODE_ID", episodeId, row);
                     Integer patientUid = episodeId / config.NB_EPISODES_PER_PATIENT;
-                    episodesTable.updateColumn("PATIENT_UID", patientUid, row);
+                    episodesTable.putInt("PATIENT_UID", patientUid, row);
                     Integer isvalid = 1;
-                    episodesTable.updateColumn("ISVALID", isvalid, row);
+                    episodesTable.putInt("ISVALID", isvalid, row);
                     String label = generator.RandString(14, 24, false);
-                    episodesTable.updateColumn("LABEL", label, row);
+                    episodesTable.putString("LABEL", label, row);
                     String userdate = generator.RandDate(2000, 2018);
-                    episodesTable.updateColumn("USERDATE", userdate, row);
+                    episodesTable.putString("USERDATE", userdate, row);
                     String datecreation = userdate;
-                    episodesTable.updateColumn("DATECREATION", datecreation, row);
+                    episodesTable.putString("DATECREATION", datecreation, row);
                     Integer creator = patientUid % config.NB_USERS;
-                    episodesTable.updateColumn("CREATOR", creator, row);
+                    episodesTable.putInt("CREATOR", creator, row);
                     Integer prior = 1;
-                    episodesTable.updateColumn("PRIOR", prior, row);
+                    episodesTable.putInt("PRIOR", prior, row);
 
                     client.write(FreeHealthConstants.episodesTable, episodeId.toString(), row);
 
@@ -717,22 +720,22 @@ public class FreeHealthLoader {
 
                         row = prescriptionsTable.createNewRow(config.PAD_COLUMNS);
                         Integer prescriptionID = episodeId;
-                        prescriptionsTable.updateColumn("ID", prescriptionID, row);
-                        prescriptionsTable.updateColumn("PATIENT_UUID", patientUid, row);
+                        prescriptionsTable.putInt("ID", prescriptionID, row);
+                        prescriptionsTable.putInt("PATIENT_UUID", patientUid, row);
                         String plabel = generator.RandString(14, 24, false);
-                        prescriptionsTable.updateColumn("LABEL",plabel, row);
+                        prescriptionsTable.putString("LABEL",plabel, row);
                         Integer drug = Generator.generateInt(0, config.NB_DRUGS - 1); //TODO: should this be -1 here?
-                        prescriptionsTable.updateColumn("DRUG", drug, row);
+                        prescriptionsTable.putInt("DRUG", drug, row);
                         String dosage = generator.RandString(14, 24, false);
-                        prescriptionsTable.updateColumn("DOSAGE", dosage, row);
+                        prescriptionsTable.putString("DOSAGE", dosage, row);
                         String startDate = generator.RandDate(2010, 2018);
-                        prescriptionsTable.updateColumn("STARTDATE", startDate, row);
+                        prescriptionsTable.putString("STARTDATE", startDate, row);
                         String endDate = generator.RandDate(2019, 2021);
-                        prescriptionsTable.updateColumn("ENDDATE", endDate, row);
-                        prescriptionsTable.updateColumn("DATECREATION", startDate, row);
-                        prescriptionsTable.updateColumn("VALID", 1, row);
+                        prescriptionsTable.putString("ENDDATE", endDate, row);
+                        prescriptionsTable.putString("DATECREATION", startDate, row);
+                        prescriptionsTable.putInt("VALID", 1, row);
                         String prescComment = generator.RandString(14, 100, false);
-                        prescriptionsTable.updateColumn("COMMENT", prescComment, row);
+                        prescriptionsTable.putString("COMMENT", prescComment, row);
                         client.write(FreeHealthConstants.prescriptionsTable, prescriptionID.toString(), row);
 
                         addToIndexList(client, config, prescriptionsByPatientTable, patientUid.toString(), prescriptionID);
@@ -742,11 +745,11 @@ public class FreeHealthLoader {
 
                     // create new row for this episode content
                     byte[] contentRow = episodesContentTable.createNewRow(config.PAD_COLUMNS);
-                    episodesContentTable.updateColumn("CONTENT_ID", episodeId, contentRow);
-                    episodesContentTable.updateColumn("EPISODE_ID", episodeId, contentRow);
+                    episodesContentTable.putInt("CONTENT_ID", episodeId, contentRow);
+                    episodesContentTable.putInt("EPISODE_ID", episodeId, contentRow);
                     Integer contentType = isPrescription ? FreeHealthConstants.PRESCRIPTION_CONTENT_TYPE : 0;
-                    episodesContentTable.updateColumn("CONTENT_TYPE", contentType, contentRow);
-                    episodesContentTable.updateColumn("CONTENT", episodeContent, contentRow);
+                    episodesContentTable.putInt("CONTENT_TYPE", contentType, contentRow);
+                    episodesContentTable.putString("CONTENT", episodeContent, contentRow);
                     client.write(FreeHealthConstants.episodesContentTable, episodeId.toString(), contentRow);
 
                     addToIndexList(client, config, episodesContentByEpisodeTable, episodeId.toString(), episodeId);
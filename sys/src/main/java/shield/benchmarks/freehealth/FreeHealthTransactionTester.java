@@ -2,6 +2,7 @@ package shield.benchmarks.freehealth;
 
 import java.sql.SQLException;
 import org.json.simple.parser.ParseException;
+import shield.benchmarks.freehealth.utils.FreeHealthConstants.Transactions;
 import shield.benchmarks.utils.ClientUtils;
 import shield.benchmarks.utils.StatisticsCollector;
 import shield.client.ClientBase;
@@ -39,7 +40,7 @@ public class FreeHealthTransactionTester {
 
         generator = new FreeHealthGenerator(client, config);
 
-        stats = new StatisticsCollector(config.RUN_NAME);
+        stats = new StatisticsCollector(config.RUN_NAME, config.STATS_FORMAT);
 
 
         System.out.println("Begin Client " + client.getBlockId() + System.currentTimeMillis());
@@ -58,9 +59,9 @@ public class FreeHealthTransactionTester {
                 measurementKey = StatisticsCollector.addBegin(stats);
             }
             System.out.println(warmUp + " " + warmDown + " " + expiredTime);
-            generator.runNextTransaction();
+            Transactions type = generator.runNextTransaction();
             if (!warmUp && !warmDown) {
-                StatisticsCollector.addEnd(stats, measurementKey);
+                StatisticsCollector.addEnd(stats, measurementKey, type == null ? -1 : type.ordinal());
             }
             nbExecuted++;
             expiredTime = System.currentTimeMillis() - beginTime;
@@ -3,6 +3,7 @@ package shield.benchmarks.freehealth;
 import java.sql.SQLException;
 import java.util.Random;
 import org.json.simple.parser.ParseException;
+import shield.benchmarks.freehealth.utils.FreeHealthConstants.Transactions;
 import shield.benchmarks.utils.ClientUtils;
 import shield.benchmarks.utils.StatisticsCollector;
 import shield.client.ClientBase;
@@ -44,7 +45,7 @@ public class StartFreeHealthTrxClient {
         expConfigFile = args[0];
         config = new FreeHealthExperimentConfiguration(expConfigFile);
 
-        stats = new StatisticsCollector(config.RUN_NAME);
+        stats = new StatisticsCollector(config.RUN_NAME, config.STATS_FORMAT);
 
         ClientBase client = ClientUtils.createClient(config.CLIENT_TYPE, expConfigFile);
         client.registerClient();
@@ -69,9 +70,9 @@ public class StartFreeHealthTrxClient {
                 measurementKey = StatisticsCollector.addBegin(stats);
             }
             System.out.println(warmUp + " " + warmDown + " " + expiredTime);
-            generator.runNextTransaction();
+            Transactions type = generator.runNextTransaction();
             if (!warmUp && !warmDown) {
-                StatisticsCollector.addEnd(stats, measurementKey);
+                StatisticsCollector.addEnd(stats, measurementKey, type == null ? -1 : type.ordinal());
             }
             nbExecuted++;
             expiredTime = System.currentTimeMillis() - beginTime;
@@ -64,16 +64,16 @@ public class AddDrugInteraction extends BenchmarkTransaction {
             if (isEmptyRow(results.get(1))) {
                 interactions2Row = drugInteractionsTable.createNewRow(config.PAD_COLUMNS);
             }
-            String interactionIDsStr = (String) drugInteractionsTable.getColumn("INTERACTIONS", interactions1Row);
+            String interactionIDsStr = drugInteractionsTable.getString("INTERACTIONS", interactions1Row);
             SerializableIDSet interactingIDs = new SerializableIDSet(config, interactionIDsStr);
             interactingIDs.add(drug2ID); // add drug 2 as an interacting drug
-            drugInteractionsTable.updateColumn("INTERACTIONS", interactingIDs.serialize(), interactions1Row);
+            drugInteractionsTable.putString("INTERACTIONS", interactingIDs.serialize(), interactions1Row);
             client.write(FreeHealthConstants.drugInteractionsTable, drug1ID.toString(), interactions1Row);
 
-            interactionIDsStr = (String) drugInteractionsTable.getColumn("INTERACTIONS", interactions2Row);
+            interactionIDsStr = drugInteractionsTable.getString("INTERACTIONS", interactions2Row);
             interactingIDs = new SerializableIDSet(config, interactionIDsStr);
             interactingIDs.add(drug1ID); // add drug 1 as an interacting drug
-            drugInteractionsTable.updateColumn("INTERACTIONS", interactingIDs.serialize(), interactions2Row);
+            drugInteractionsTable.putString("INTERACTIONS", interactingIDs.serialize(), interactions2Row);
             client.write(FreeHealthConstants.drugInteractionsTable, drug2ID.toString(), interactions2Row);
 
             client.commitTransaction();
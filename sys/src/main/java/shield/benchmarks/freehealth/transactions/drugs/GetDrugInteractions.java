@@ -63,7 +63,7 @@ public class GetDrugInteractions extends BenchmarkTransaction {
             }
 
 
-            String interactionIDsStr = (String) drugInteractionsTable.getColumn("INTERACTIONS", results.get(0));
+            String interactionIDsStr = drugInteractionsTable.getString("INTERACTIONS", results.get(0));
             List<Integer> interactingDrugIDs = (new SerializableIDSet(config, interactionIDsStr)).toList();
 
             for (int i = 0; i < interactingDrugIDs.size() - 1; i++) {
@@ -75,10 +75,10 @@ public class GetDrugInteractions extends BenchmarkTransaction {
             for (byte[] drugRow : results) {
                 if (!isEmptyRow(drugRow)) { // just add drugs that have an entry
                     Drug drug = new Drug(
-                            (Integer) drugsTable.getColumn("ID", drugRow),
-                            (String) drugsTable.getColumn("NAME", drugRow),
-                            (Integer) drugsTable.getColumn("STRENGTH", drugRow),
-                            (Integer) drugsTable.getColumn("ATC_ID", drugRow));
+                            drugsTable.getInt("ID", drugRow),
+                            drugsTable.getString("NAME", drugRow),
+                            drugsTable.getInt("STRENGTH", drugRow),
+                            drugsTable.getInt("ATC_ID", drugRow));
                     interactingDrugs.add(drug);
                 }
             }
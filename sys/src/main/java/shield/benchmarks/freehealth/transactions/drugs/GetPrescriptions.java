@@ -62,7 +62,7 @@ public class GetPrescriptions extends BenchmarkTransaction {
                 return true;
             }
 
-            String prescIDstr = (String) prescriptionsByPatientTable.getColumn("ID_LIST", results.get(0));
+            String prescIDstr = prescriptionsByPatientTable.getString("ID_LIST", results.get(0));
             List<Integer> prescriptionIDs = (new SerializableIDSet(config, prescIDstr)).toList();
 
             for (int i = 0; i < prescriptionIDs.size() - 1; i++) {
@@ -74,16 +74,16 @@ public class GetPrescriptions extends BenchmarkTransaction {
             for (byte[] prescriptionRow : results) {
                 if (!isEmptyRow(prescriptionRow)) {
                     Prescription prescription = new Prescription(
-                            (Integer) prescriptionsTable.getColumn("ID", prescriptionRow),
-                            (Integer) prescriptionsTable.getColumn("PATIENT_UUID", prescriptionRow),
-                            (String) prescriptionsTable.getColumn("LABEL", prescriptionRow),
-                            (Integer) prescriptionsTable.getColumn("DRUG", prescriptionRow),
-                            (String) prescriptionsTable.getColumn("DOSAGE", prescriptionRow),
-                            (String) prescriptionsTable.getColumn("STARTDATE", prescriptionRow),
-                            (String) prescriptionsTable.getColumn("ENDDATE", prescriptionRow),
-                            (String) prescriptionsTable.getColumn("DATECREATION", prescriptionRow),
-                            (Integer) prescriptionsTable.getColumn("VALID", prescriptionRow),
-                            (String) prescriptionsTable.getColumn("COMMENT", prescriptionRow)); // set prescription ID to null and update next
+                            prescriptionsTable.getInt("ID", prescriptionRow),
+                            prescriptionsTable.getInt("PATIENT_UUID", prescriptionRow),
+                            prescriptionsTable.getString("LABEL", prescriptionRow),
+                            prescriptionsTable.getInt("DRUG", prescriptionRow),
+                            prescriptionsTable.getString("DOSAGE", prescriptionRow),
+                            prescriptionsTable.getString("STARTDATE", prescriptionRow),
+                            prescriptionsTable.getString("ENDDATE", prescriptionRow),
+                            prescriptionsTable.getString("DATECREATION", prescriptionRow),
+                            prescriptionsTable.getInt("VALID", prescriptionRow),
+                            prescriptionsTable.getString("COMMENT", prescriptionRow)); // set prescription ID to null and update next
                     prescriptions.add(prescription);
                 }
             }
@@ -67,7 +67,7 @@ public class PrescribeDrug extends BenchmarkTransaction {
 
             // get patient to prescribe drug to from episode
             byte[] episodeRow = results.get(0);
-            Integer patientID = (Integer) episodesTable.getColumn("PATIENT_UID", episodeRow);
+            Integer patientID = episodesTable.getInt("PATIENT_UID", episodeRow);
 
             client.read(FreeHealthConstants.prescriptionsByPatientTable, patientID.toString());
             client.read(FreeHealthConstants.patientsIdentityTable, patientID.toString());
@@ -98,14 +98,14 @@ public class PrescribeDrug extends BenchmarkTransaction {
             byte[] patientPrescriptionsRow = results.get(0);
             SerializableIDSet patientPrescriptions;
             if (!isEmptyRow(patientPrescriptionsRow)) { // if patient currently has no prescriptions, we don't need to check for drug interactions
-                String prescIDstr = (String) prescriptionsByPatientTable.getColumn("ID_LIST", patientPrescriptionsRow);
+                String prescIDstr = prescriptionsByPatientTable.getString("ID_LIST", patientPrescriptionsRow);
                 patientPrescriptions = new SerializableIDSet(config, prescIDstr);
 
                 results = client.readAndExecute(FreeHealthConstants.drugInteractionsTable, prescription.getDrug().toString());
 
                 byte[] drugInteractionsRow = results.get(0);
                 if (!isEmptyRow(drugInteractionsRow)) { // drug has no interactions so nothing to check
-                    String interactionIDsStr = (String) drugInteractionsTable.getColumn("INTERACTIONS", drugInteractionsRow);
+                    String interactionIDsStr = drugInteractionsTable.getString("INTERACTIONS", drugInteractionsRow);
                     SerializableIDSet interactingDrugIDs = new SerializableIDSet(config, interactionIDsStr);
                     interactingDrugIDs.intersect(patientPrescriptions);
                     if (interactingDrugIDs.size() > 0) {
@@ -122,7 +122,7 @@ public class PrescribeDrug extends BenchmarkTransaction {
             /////// create the prescription and necessary mappings ///////
 
             // add patient to prescription mapping
-            prescriptionsByPatientTable.updateColumn("ID_LIST", patientPrescriptions.serialize(), patientPrescriptionsRow);
+            prescriptionsByPatientTable.putString("ID_LIST", patientPrescriptions.serialize(), patientPrescriptionsRow);
             patientPrescriptions.add(prescription.getDrug());
             client.write(FreeHealthConstants.prescriptionsByPatientTable, patientID.toString(), patientPrescriptionsRow);
 
@@ -139,31 +139,31 @@ public class PrescribeDrug extends BenchmarkTransaction {
 
             // get the next prescription id from DB
             byte[] prescIDrow = results.get(0);
-            Integer prescriptionID = (Integer) nextSharedID.getColumn("NEXT_ID", prescIDrow);
+            Integer prescriptionID = nextSharedID.getInt("NEXT_ID", prescIDrow);
             int nextID = (prescriptionID + 1) % (config.MAX_PRESCRIPTIONS / config.NB_HOSPITALS);
-            nextSharedID.updateColumn("NEXT_ID", nextID, prescIDrow);
+            nextSharedID.putInt("NEXT_ID", nextID, prescIDrow);
             client.write(FreeHealthConstants.nextSharedIDTable, nextPrescriptionKey, prescIDrow); // increment next presc ID
             prescription.setId(generator.idFromHospitalID(hospital, prescriptionID));
 
             // get the next episode content id from DB
             byte[] contentIDrow = results.get(1);
-            Integer epContentID = (Integer) nextSharedID.getColumn("NEXT_ID", contentIDrow);
+            Integer epContentID = nextSharedID.getInt("NEXT_ID", contentIDrow);
             nextID = (epContentID + 1) % (config.MAX_EPISODE_CONTENTS / config.NB_HOSPITALS);
-            nextSharedID.updateColumn("NEXT_ID", nextID, contentIDrow);
+            nextSharedID.putInt("NEXT_ID", nextID, contentIDrow);
             client.writeAndExecute(FreeHealthConstants.nextSharedIDTable, nextEpisodeContentKey, contentIDrow); // increment next content ID
 
             // create prescription
             byte[] prescriptionRow = prescriptionsTable.createNewRow(config.PAD_COLUMNS);
-            prescriptionsTable.updateColumn("ID", prescription.getId(), prescriptionRow);
-            prescriptionsTable.updateColumn("PATIENT_UUID", prescription.getPatientUuid(), prescriptionRow);
-            prescriptionsTable.updateColumn("LABEL", prescription.getLabel(), prescriptionRow);
-            prescriptionsTable.updateColumn("DRUG", prescription.getDrug(), prescriptionRow);
-            prescriptionsTable.updateColumn("DOSAGE", prescription.getDosage(), prescriptionRow);
-            prescriptionsTable.updateColumn("STARTDATE", prescription.getStartdate(), prescriptionRow);
-            prescriptionsTable.updateColumn("ENDDATE", prescription.getEnddate(), prescriptionRow);
-            prescriptionsTable.updateColumn("DATECREATION", prescription.getDatecreation(), prescriptionRow);
-            prescriptionsTable.updateColumn("VALID", prescription.getValid(), prescriptionRow);
-            prescriptionsTable.updateColumn("COMMENT", prescription.getComment(), prescriptionRow);
+            prescriptionsTable.putInt("ID", prescription.getId(), prescriptionRow);
+            prescriptionsTable.putInt("PATIENT_UUID", prescription.getPatientUuid(), prescriptionRow);
+            prescriptionsTable.putString("LABEL", prescription.getLabel(), prescriptionRow);
+            prescriptionsTable.putInt("DRUG", prescription.getDrug(), prescriptionRow);
+            prescriptionsTable.putString("DOSAGE", prescription.getDosage(), prescriptionRow);
+            prescriptionsTable.putString("STARTDATE", prescription.getStartdate(), prescriptionRow);
+            prescriptionsTable.putString("ENDDATE", prescription.getEnddate(), prescriptionRow);
+            prescriptionsTable.putString("DATECREATION", prescription.getDatecreation(), prescriptionRow);
+            prescriptionsTable.putInt("VALID", prescription.getValid(), prescriptionRow);
+            prescriptionsTable.putString("COMMENT", prescription.getComment(), prescriptionRow);
             client.write(FreeHealthConstants.prescriptionsTable, prescription.getId().toString(), prescriptionRow);
 
             /////// create episode content for the prescription ///////
@@ -175,10 +175,10 @@ public class PrescribeDrug extends BenchmarkTransaction {
 
             // create new row for this episode content and write its value to DB
             byte[] contentRow = episodesContentTable.createNewRow(config.PAD_COLUMNS);
-            episodesContentTable.updateColumn("CONTENT_ID", prescriptionEpContent.getContentId(), contentRow);
-            episodesContentTable.updateColumn("EPISODE_ID", prescriptionEpContent.getEpisodeId(), contentRow);
-            episodesContentTable.updateColumn("CONTENT_TYPE", prescriptionEpContent.getContentType(), contentRow);
-            episodesContentTable.updateColumn("CONTENT", prescriptionEpContent.getXmlContent(), contentRow);
+            episodesContentTable.putInt("CONTENT_ID", prescriptionEpContent.getContentId(), contentRow);
+            episodesContentTable.putInt("EPISODE_ID", prescriptionEpContent.getEpisodeId(), contentRow);
+            episodesContentTable.putInt("CONTENT_TYPE", prescriptionEpContent.getContentType(), contentRow);
+            episodesContentTable.putString("CONTENT", prescriptionEpContent.getXmlContent(), contentRow);
             client.write(FreeHealthConstants.episodesContentTable, prescriptionEpContent.getContentId().toString(), contentRow);
 
             // update mapping of episode ID to episode contents
@@ -187,11 +187,11 @@ public class PrescribeDrug extends BenchmarkTransaction {
             if (isEmptyRow(contentIDMapRow)) {
                 contentIDMapRow = episodesContentByEpisodeTable.createNewRow(config.PAD_COLUMNS);
             }
-            String contentIDstr = (String) episodesContentByEpisodeTable.getColumn("ID_LIST", contentIDMapRow);
+            String contentIDstr = episodesContentByEpisodeTable.getString("ID_LIST", contentIDMapRow);
             SerializableIDSet episodeContentMapIDs = new SerializableIDSet(config, contentIDstr);
 
             episodeContentMapIDs.add(prescriptionEpContent.getContentId());
-            episodesContentByEpisodeTable.updateColumn("ID_LIST", episodeContentMapIDs.serialize(), contentIDMapRow);
+            episodesContentByEpisodeTable.putString("ID_LIST", episodeContentMapIDs.serialize(), contentIDMapRow);
             client.write(FreeHealthConstants.episodesContentByEpisodeTable, episodeID.toString(), contentIDMapRow);
 
             client.commitTransaction();
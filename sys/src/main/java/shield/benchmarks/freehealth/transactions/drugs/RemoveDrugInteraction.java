@@ -64,16 +64,16 @@ public class RemoveDrugInteraction extends BenchmarkTransaction {
                 return true;
             }
 
-            String interactionIDsStr = (String) drugInteractionsTable.getColumn("INTERACTIONS", interactions1Row);
+            String interactionIDsStr = drugInteractionsTable.getString("INTERACTIONS", interactions1Row);
             SerializableIDSet interactingIDs = new SerializableIDSet(config, interactionIDsStr);
             interactingIDs.remove(drug2ID); // remove drug 2 from list of interacting drugs (if no interaction, this does nothing)
-            drugInteractionsTable.updateColumn("INTERACTIONS", interactingIDs.serialize(), interactions1Row);
+            drugInteractionsTable.putString("INTERACTIONS", interactingIDs.serialize(), interactions1Row);
             client.write(FreeHealthConstants.drugInteractionsTable, drug1ID.toString(), interactions1Row);
 
-            interactionIDsStr = (String) drugInteractionsTable.getColumn("INTERACTIONS", interactions2Row);
+            interactionIDsStr = drugInteractionsTable.getString("INTERACTIONS", interactions2Row);
             interactingIDs = new SerializableIDSet(config, interactionIDsStr);
             interactingIDs.remove(drug1ID); // remove drug 1 from list of interacting drugs (if no interaction, this does nothing)
-            drugInteractionsTable.updateColumn("INTERACTIONS", interactingIDs.serialize(), interactions2Row);
+            drugInteractionsTable.putString("INTERACTIONS", interactingIDs.serialize(), interactions2Row);
             client.write(FreeHealthConstants.drugInteractionsTable, drug2ID.toString(), interactions2Row);
 
             client.commitTransaction();
@@ -69,18 +69,18 @@ public class AddEpisodeContent extends BenchmarkTransaction {
 
             byte[] contentIDrow = results.get(0);
 
-            Integer epContentID = (Integer) nextSharedID.getColumn("NEXT_ID", contentIDrow);
+            Integer epContentID = nextSharedID.getInt("NEXT_ID", contentIDrow);
             Integer nextID = (epContentID + 1) % (config.MAX_EPISODE_CONTENTS / config.NB_HOSPITALS);
-            nextSharedID.updateColumn("NEXT_ID", nextID, contentIDrow);
+            nextSharedID.putInt("NEXT_ID", nextID, contentIDrow);
             client.writeAndExecute(FreeHealthConstants.nextSharedIDTable, nextEpisodeContentKey, contentIDrow); // increment next content ID
             content.setContentId(generator.idFromHospitalID(hospital, epContentID));
 
             // create new row for this episode content and write its value to DB
             byte[] contentRow = episodesContentTable.createNewRow(config.PAD_COLUMNS);
-            episodesContentTable.updateColumn("CONTENT_ID", content.getContentId(), contentRow);
-            episodesContentTable.updateColumn("EPISODE_ID", content.getEpisodeId(), contentRow);
-            episodesContentTable.updateColumn("CONTENT_TYPE", content.getContentType(), contentRow);
-            episodesContentTable.updateColumn("CONTENT", content.getXmlContent(), contentRow);
+            episodesContentTable.putInt("CONTENT_ID", content.getContentId(), contentRow);
+            episodesContentTable.putInt("EPISODE_ID", content.getEpisodeId(), contentRow);
+            episodesContentTable.putInt("CONTENT_TYPE", content.getContentType(), contentRow);
+            episodesContentTable.putString("CONTENT", content.getXmlContent(), contentRow);
             client.write(FreeHealthConstants.episodesContentTable, content.getContentId().toString(), contentRow);
 
             // update mapping of episode ID to episode contents
@@ -89,10 +89,10 @@ public class AddEpisodeContent extends BenchmarkTransaction {
             if (isEmptyRow(contentIDMapRow)) {
                 contentIDMapRow = episodesContentByEpisodeTable.createNewRow(config.PAD_COLUMNS);
             }
-            String contentIDstr = (String) episodesContentByEpisodeTable.getColumn("ID_LIST", contentIDMapRow);
+            String contentIDstr = episodesContentByEpisodeTable.getString("ID_LIST", contentIDMapRow);
             SerializableIDSet episodeContentMapIDs = new SerializableIDSet(config, contentIDstr);
             episodeContentMapIDs.add(content.getContentId());
-            episodesContentByEpisodeTable.updateColumn("ID_LIST", episodeContentMapIDs.serialize(), contentIDMapRow);
+            episodesContentByEpisodeTable.putString("ID_LIST", episodeContentMapIDs.serialize(), contentIDMapRow);
             client.write(FreeHealthConstants.episodesContentByEpisodeTable, episodeID.toString(), contentIDMapRow);
 
             client.commitTransaction();
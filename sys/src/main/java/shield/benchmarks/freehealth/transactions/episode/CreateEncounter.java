@@ -54,23 +54,23 @@ public class CreateEncounter extends BenchmarkTransaction {
                 client.abortTransaction();
                 return false; // something is wrong with the next shared ID table
             }
-            Integer episodeID = (Integer) nextSharedID.getColumn("NEXT_ID", episodeIDrow);
+            Integer episodeID = nextSharedID.getInt("NEXT_ID", episodeIDrow);
 
             Integer nextID = (episodeID + 1) % (config.MAX_EPISODES / config.NB_HOSPITALS);
-            nextSharedID.updateColumn("NEXT_ID", nextID, episodeIDrow);
+            nextSharedID.putInt("NEXT_ID", nextID, episodeIDrow);
             client.writeAndExecute(FreeHealthConstants.nextSharedIDTable, episodeKey, episodeIDrow); // increment next episode ID
             encounter.setEpisodeId(generator.idFromHospitalID(hospital, episodeID));
 
             // create new row for this encounter episode and write its value to DB
             byte[] episodeRow = episodesTable.createNewRow(config.PAD_COLUMNS);
-            episodesTable.updateColumn("EPISODE_ID", encounter.getEpisodeId(), episodeRow);
-            episodesTable.updateColumn("PATIENT_UID", encounter.getPatientUid(), episodeRow);
-            episodesTable.updateColumn("ISVALID", encounter.getIsvalid(), episodeRow);
-            episodesTable.updateColumn("LABEL", encounter.getLabel(), episodeRow);
-            episodesTable.updateColumn("USERDATE", encounter.getUserdate(), episodeRow);
-            episodesTable.updateColumn("DATECREATION", encounter.getDatecreation(), episodeRow);
-            episodesTable.updateColumn("CREATOR", encounter.getCreator(), episodeRow);
-            episodesTable.updateColumn("PRIOR", encounter.getPrior(), episodeRow);
+            episodesTable.putInt("EPISODE_ID", encounter.getEpisodeId(), episodeRow);
+            episodesTable.putInt("PATIENT_UID", encounter.getPatientUid(), episodeRow);
+            episodesTable.putInt("ISVALID", encounter.getIsvalid(), episodeRow);
+            episodesTable.putString("LABEL", encounter.getLabel(), episodeRow);
+            episodesTable.putString("USERDATE", encounter.getUserdate(), episodeRow);
+            episodesTable.putString("DATECREATION", encounter.getDatecreation(), episodeRow);
+            episodesTable.putInt("CREATOR", encounter.getCreator(), episodeRow);
+            episodesTable.putInt("PRIOR", encounter.getPrior(), episodeRow);
             client.write(FreeHealthConstants.episodesContentByEpisodeTable, encounter.getEpisodeId().toString(), episodeRow);
 
             client.commitTransaction();
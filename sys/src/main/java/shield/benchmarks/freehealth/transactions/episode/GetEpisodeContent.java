@@ -62,7 +62,7 @@ public class GetEpisodeContent extends BenchmarkTransaction {
                 return true;
             }
 
-            String contentIDstr = (String) episodesContentByEpisodeTable.getColumn("ID_LIST", results.get(0));
+            String contentIDstr = episodesContentByEpisodeTable.getString("ID_LIST", results.get(0));
             List<Integer> contentIDs;
 
             try {
@@ -88,10 +88,10 @@ public class GetEpisodeContent extends BenchmarkTransaction {
             for (byte[] contentRow : results) {
                 if (!isEmptyRow(contentRow)) {
                     EpisodeContent content = new EpisodeContent(
-                            (Integer) episodesContentTable.getColumn("CONTENT_ID", contentRow),
-                            (Integer) episodesContentTable.getColumn("EPISODE_ID", contentRow),
-                            (Integer) episodesContentTable.getColumn("CONTENT_TYPE", contentRow),
-                            ((String) episodesContentTable.getColumn("CONTENT", contentRow)).replace("\0", ""),
+                            episodesContentTable.getInt("CONTENT_ID", contentRow),
+                            episodesContentTable.getInt("EPISODE_ID", contentRow),
+                            episodesContentTable.getInt("CONTENT_TYPE", contentRow),
+                            (episodesContentTable.getString("CONTENT", contentRow)).replace("\0", ""),
                             null); // set prescription ID to null and update next
                     if (content.getContentType().equals(FreeHealthConstants.PRESCRIPTION_CONTENT_TYPE))
                         content.setPrescription(Integer.parseInt(content.getXmlContent()));
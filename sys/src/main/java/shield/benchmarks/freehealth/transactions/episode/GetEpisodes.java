@@ -61,7 +61,7 @@ public class GetEpisodes extends BenchmarkTransaction {
                 if (isEmptyRow(episodesByPatientRow)) {
                     episodesByPatientRow = episodesByUserTable.createNewRow(config.PAD_COLUMNS);
                 }
-                String epByPatientStr = (String) episodesByPatientTable.getColumn("ID_LIST", episodesByPatientRow);
+                String epByPatientStr = episodesByPatientTable.getString("ID_LIST", episodesByPatientRow);
                 SerializableIDSet episodeIDsByPatient = new SerializableIDSet(config, epByPatientStr);
                 episodeIDs.union(episodeIDsByPatient);
             }
@@ -72,7 +72,7 @@ public class GetEpisodes extends BenchmarkTransaction {
                 if (isEmptyRow(episodesByUserRow)) {
                     episodesByUserRow = episodesByUserTable.createNewRow(config.PAD_COLUMNS);
                 }
-                String epByUserStr = (String) episodesByUserTable.getColumn("ID_LIST", episodesByUserRow);
+                String epByUserStr = episodesByUserTable.getString("ID_LIST", episodesByUserRow);
                 SerializableIDSet episodeIDsByUser = new SerializableIDSet(config, epByUserStr);
                 if (patientID.isPresent()) {
                     episodeIDs.intersect(episodeIDsByUser);
@@ -98,14 +98,14 @@ public class GetEpisodes extends BenchmarkTransaction {
             for (byte[] episodeRow : results) {
                 if (!isEmptyRow(episodeRow)) { // only add readable episodes
                     Episode episode = new Episode(
-                            (Integer) episodesTable.getColumn("EPISODE_ID", episodeRow),
-                            (Integer) episodesTable.getColumn("PATIENT_UID", episodeRow),
-                            (Integer) episodesTable.getColumn("ISVALID", episodeRow),
-                            (String) episodesTable.getColumn("LABEL", episodeRow),
-                            (String) episodesTable.getColumn("USERDATE", episodeRow),
-                            (String) episodesTable.getColumn("DATECREATION", episodeRow),
-                            (Integer) episodesTable.getColumn("CREATOR", episodeRow),
-                            (Integer) episodesTable.getColumn("PRIOR", episodeRow)
+                            episodesTable.getInt("EPISODE_ID", episodeRow),
+                            episodesTable.getInt("PATIENT_UID", episodeRow),
+                            episodesTable.getInt("ISVALID", episodeRow),
+                            episodesTable.getString("LABEL", episodeRow),
+                            episodesTable.getString("USERDATE", episodeRow),
+                            episodesTable.getString("DATECREATION", episodeRow),
+                            episodesTable.getInt("CREATOR", episodeRow),
+                            episodesTable.getInt("PRIOR", episodeRow)
                     );
                     // filter by validity if necessary
                     if (isValid.isPresent()) {
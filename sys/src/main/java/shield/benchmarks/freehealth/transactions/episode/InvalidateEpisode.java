@@ -50,7 +50,7 @@ public class InvalidateEpisode extends BenchmarkTransaction {
 
             // invalidate the episode
             byte[] episodeRow = result.get(0);
-            episodesTable.updateColumn("ISVALID", 0, episodeRow);
+            episodesTable.putInt("ISVALID", 0, episodeRow);
             client.write(FreeHealthConstants.episodesTable, episodeID.toString(), episodeRow);
 
             client.commitTransaction();
@@ -51,8 +51,8 @@ public class UpdateEpisodeContent extends BenchmarkTransaction {
 
             // create new row for this episode content and write its value to DB
             byte[] contentRow = results.get(0);
-            episodesContentTable.updateColumn("CONTENT_TYPE", content.getContentType(), contentRow);
-            episodesContentTable.updateColumn("CONTENT", content.getXmlContent(), contentRow);
+            episodesContentTable.putInt("CONTENT_TYPE", content.getContentType(), contentRow);
+            episodesContentTable.putString("CONTENT", content.getXmlContent(), contentRow);
             client.write(FreeHealthConstants.episodesContentTable, content.getContentId().toString(), contentRow);
 
             client.commitTransaction();
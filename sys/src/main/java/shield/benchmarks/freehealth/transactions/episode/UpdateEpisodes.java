@@ -60,12 +60,12 @@ public class UpdateEpisodes extends BenchmarkTransaction {
                 }
                 // update all the columns that aren't null in the episode to update
                 Episode episode = episodeList.get(i);
-                if (episode.getIsvalid() != null) episodesTable.updateColumn("ISVALID", episode.getIsvalid(), episodeRow);
-                if (episode.getLabel() != null) episodesTable.updateColumn("LABEL", episode.getLabel(), episodeRow);
-                if (episode.getUserdate() != null) episodesTable.updateColumn("USERDATE", episode.getUserdate(), episodeRow);
-                if (episode.getDatecreation() != null) episodesTable.updateColumn("DATECREATION", episode.getDatecreation(), episodeRow);
-                if (episode.getCreator() != null) episodesTable.updateColumn("CREATOR", episode.getCreator(), episodeRow);
-                if (episode.getPrior() != null) episodesTable.updateColumn("PRIOR", episode.getPrior(), episodeRow);
+                if (episode.getIsvalid() != null) episodesTable.putInt("ISVALID", episode.getIsvalid(), episodeRow);
+                if (episode.getLabel() != null) episodesTable.putString("LABEL", episode.getLabel(), episodeRow);
+                if (episode.getUserdate() != null) episodesTable.putString("USERDATE", episode.getUserdate(), episodeRow);
+                if (episode.getDatecreation() != null) episodesTable.putString("DATECREATION", episode.getDatecreation(), episodeRow);
+                if (episode.getCreator() != null) episodesTable.putInt("CREATOR", episode.getCreator(), episodeRow);
+                if (episode.getPrior() != null) episodesTable.putInt("PRIOR", episode.getPrior(), episodeRow);
                 client.write(FreeHealthConstants.episodesTable, episode.getEpisodeId().toString(), episodeRow);
             }
 
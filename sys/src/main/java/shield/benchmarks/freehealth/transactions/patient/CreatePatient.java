@@ -61,9 +61,9 @@ public class CreatePatient extends BenchmarkTransaction {
                 client.abortTransaction();
                 return false;
             }
-            Integer patientID = (Integer) nextSharedID.getColumn("NEXT_ID", patientIDrow);
+            Integer patientID = nextSharedID.getInt("NEXT_ID", patientIDrow);
             Integer nextID = (patientID + 1) % (config.MAX_PATIENTS / config.NB_HOSPITALS);
-            nextSharedID.updateColumn("NEXT_ID", nextID, patientIDrow);
+            nextSharedID.putInt("NEXT_ID", nextID, patientIDrow);
             client.writeAndExecute(FreeHealthConstants.nextSharedIDTable, nextPatientKey, patientIDrow); // increment next presc ID
 
             patient.setID(generator.idFromHospitalID(hospital, patientID));
@@ -73,17 +73,17 @@ public class CreatePatient extends BenchmarkTransaction {
             patient.setUserUuid(patient.getID() % config.NB_USERS);
 
             byte[] newPatientRow = patientsTable.createNewRow(config.PAD_COLUMNS);
-            patientsTable.updateColumn("IDENT_ID", patient.getID(), newPatientRow);
-            patientsTable.updateColumn("NAME", patient.getName(), newPatientRow);
-            patientsTable.updateColumn("DOB", patient.getDateOfBirth(), newPatientRow);
-            patientsTable.updateColumn("USER_UUID", patient.getUserUuid(), newPatientRow);
-            patientsTable.updateColumn("GENDER", patient.getGender(), newPatientRow);
-            patientsTable.updateColumn("ZIP", patient.getZip(), newPatientRow);
-            patientsTable.updateColumn("COUNTRY", patient.getCountry(), newPatientRow);
-            patientsTable.updateColumn("MAILS", patient.getMails(), newPatientRow);
-            patientsTable.updateColumn("TELS", patient.getTels(), newPatientRow);
-            patientsTable.updateColumn("NOTE", patient.getNote(), newPatientRow);
-            patientsTable.updateColumn("IDENT_ISACTIVE", patient.getIsActive(), newPatientRow);
+            patientsTable.putInt("IDENT_ID", patient.getID(), newPatientRow);
+            patientsTable.putString("NAME", patient.getName(), newPatientRow);
+            patientsTable.putString("DOB", patient.getDateOfBirth(), newPatientRow);
+            patientsTable.putInt("USER_UUID", patient.getUserUuid(), newPatientRow);
+            patientsTable.putString("GENDER", patient.getGender(), newPatientRow);
+            patientsTable.putInt("ZIP", patient.getZip(), newPatientRow);
+            patientsTable.putString("COUNTRY", patient.getCountry(), newPatientRow);
+            patientsTable.putString("MAILS", patient.getMails(), newPatientRow);
+            patientsTable.putString("TELS", patient.getTels(), newPatientRow);
+            patientsTable.putString("NOTE", patient.getNote(), newPatientRow);
+            patientsTable.putInt("IDENT_ISACTIVE", patient.getIsActive(), newPatientRow);
             client.write(FreeHealthConstants.patientsIdentityTable, patient.getID().toString(), newPatientRow);
 
 //            If patientNameRow is empty, create a new row otherwise update list of UUIDs, same for DOB and
@@ -111,10 +111,10 @@ public class CreatePatient extends BenchmarkTransaction {
         if (isEmptyRow(valueRow)) {
             valueRow = table.createNewRow(config.PAD_COLUMNS);
         }
-        String strValList = (String) table.getColumn("ID_LIST", valueRow);
+        String strValList = table.getString("ID_LIST", valueRow);
         SerializableIDSet values = new SerializableIDSet(config, strValList);
         values.add(value);
-        table.updateColumn("ID_LIST", values.serialize(), valueRow);
+        table.putString("ID_LIST", values.serialize(), valueRow);
         client.write(table.getTableName(), key, valueRow);
     }
 
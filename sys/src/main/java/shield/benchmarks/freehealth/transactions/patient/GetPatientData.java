@@ -53,16 +53,16 @@ public class GetPatientData extends BenchmarkTransaction {
             }
 
             Patient resPatient = new Patient(uuid,
-                    (String) patientsTable.getColumn("NAME", patientRow),
-                    (String) patientsTable.getColumn("DOB", patientRow),
-                    (Integer) patientsTable.getColumn("USER_UUID", patientRow),
-                    (String) patientsTable.getColumn("GENDER", patientRow),
-                    (Integer) patientsTable.getColumn("ZIP", patientRow),
-                    (String) patientsTable.getColumn("COUNTRY", patientRow),
-                    (String) patientsTable.getColumn("MAILS", patientRow),
-                    (String) patientsTable.getColumn("TELS", patientRow),
-                    (String) patientsTable.getColumn("NOTE", patientRow),
-                    (Integer) patientsTable.getColumn("IDENT_ISACTIVE", patientRow)
+                    patientsTable.getString("NAME", patientRow),
+                    patientsTable.getString("DOB", patientRow),
+                    patientsTable.getInt("USER_UUID", patientRow),
+                    patientsTable.getString("GENDER", patientRow),
+                    patientsTable.getInt("ZIP", patientRow),
+                    patientsTable.getString("COUNTRY", patientRow),
+                    patientsTable.getString("MAILS", patientRow),
+                    patientsTable.getString("TELS", patientRow),
+                    patientsTable.getString("NOTE", patientRow),
+                    patientsTable.getInt("IDENT_ISACTIVE", patientRow)
             );
 
             client.commitTransaction();
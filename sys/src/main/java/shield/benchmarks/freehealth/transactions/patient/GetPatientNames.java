@@ -50,7 +50,7 @@ public class GetPatientNames extends BenchmarkTransaction {
             List<String> names = new ArrayList<>();
             for (byte[] patientRow : results) {
                 if (!isEmptyRow(patientRow)) {
-                    names.add((String) patientsTable.getColumn("NAME", patientRow));
+                    names.add(patientsTable.getString("NAME", patientRow));
                 }
             }
 
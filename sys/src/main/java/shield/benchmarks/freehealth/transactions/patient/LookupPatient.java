@@ -74,7 +74,7 @@ public class LookupPatient extends BenchmarkTransaction {
                 // this works because all three tables are structured identically
                 byte[] nameRow = results.get(0);
                 if (isEmptyRow(results.get(0))) nameRow = patientsNameTable.createNewRow(config.PAD_COLUMNS);
-                ids = new SerializableIDSet(config, (String) patientsNameTable.getColumn("ID_LIST", nameRow));
+                ids = new SerializableIDSet(config, patientsNameTable.getString("ID_LIST", nameRow));
             } else {
                 ids = new SerializableIDSet(config);
             }
@@ -82,7 +82,7 @@ public class LookupPatient extends BenchmarkTransaction {
                 for (int i = 1; i < results.size(); i++){
                     byte[] nameRow = results.get(i);
                     if (isEmptyRow(results.get(i))) nameRow = patientsNameTable.createNewRow(config.PAD_COLUMNS);
-                    ids.intersect(new SerializableIDSet(config, (String) patientsNameTable.getColumn("ID_LIST", nameRow)));
+                    ids.intersect(new SerializableIDSet(config, patientsNameTable.getString("ID_LIST", nameRow)));
                 }
             }
 
@@ -75,7 +75,7 @@ public class UpdatePatientData extends BenchmarkTransaction {
                         throw new DatabaseAbortException();
                     // update the index mapping in the name table
                     String newName = (String) value;
-                    String oldName = ((String) patientsTable.getColumn("NAME", patientRow)).replace("\0", ""); // remove padding from read string
+                    String oldName = (patientsTable.getString("NAME", patientRow)).replace("\0", ""); // remove padding from read string
                     if (oldName.equals(newName)) {
                         // no need to update if the old and new names are the same
                         client.commitTransaction();
@@ -94,7 +94,7 @@ public class UpdatePatientData extends BenchmarkTransaction {
                     // remove id from old name mapping
                     SerializableIDSet oldNameIDs = new SerializableIDSet(
                             generator.getConfig(),
-                            (String) patientsNameTable.getColumn("ID_LIST", oldNameRow)
+                            patientsNameTable.getString("ID_LIST", oldNameRow)
                     );
                     oldNameIDs.remove(uuid);
 
@@ -106,14 +106,14 @@ public class UpdatePatientData extends BenchmarkTransaction {
                     } else {
                         newNameIDs = new SerializableIDSet(
                                 generator.getConfig(),
-                                (String) patientsNameTable.getColumn("ID_LIST", newNameRow)
+                                patientsNameTable.getString("ID_LIST", newNameRow)
                         );
                     }
                     newNameIDs.add(uuid);
 
                     // write updates to table
-                    patientsNameTable.updateColumn("ID_LIST", oldNameIDs.serialize(), oldNameRow);
-                    patientsNameTable.updateColumn("ID_LIST", newNameIDs.serialize(), newNameRow);
+                    patientsNameTable.putString("ID_LIST", oldNameIDs.serialize(), oldNameRow);
+                    patientsNameTable.putString("ID_LIST", newNameIDs.serialize(), newNameRow);
                     client.write(FreeHealthConstants.patientsIdentityByNameTable, oldName, oldNameRow);
                     client.write(FreeHealthConstants.patientsIdentityByNameTable, newName, newNameRow);
                     break;
@@ -126,9 +126,9 @@ public class UpdatePatientData extends BenchmarkTransaction {
                         client.commitTransaction();
                         return true;
                     }
-                    String prev = (String) patientsTable.getColumn("GENDER", patientRow);
+                    String prev = patientsTable.getString("GENDER", patientRow);
                     if (prev.equals(toSave)) break;
-                    patientsTable.updateColumn("GENDER", toSave, patientRow);
+                    patientsTable.putString("GENDER", toSave, patientRow);
                     client.write(FreeHealthConstants.patientsIdentityTable, uuid.toString(), patientRow);
                     break;
                 case "DOB":
@@ -137,7 +137,7 @@ public class UpdatePatientData extends BenchmarkTransaction {
 
                     // update the index mapping in the DOB table
                     String newDOB = (String) value;
-                    String oldDOB = ((String) patientsTable.getColumn("DOB", patientRow)).replace("\0", ""); // remove padding from read string
+                    String oldDOB = (patientsTable.getString("DOB", patientRow)).replace("\0", ""); // remove padding from read string
                     if (oldDOB.equals(newDOB)) {
                         // no need to update if the old and new DOBs are the same
                         client.commitTransaction();
@@ -155,7 +155,7 @@ public class UpdatePatientData extends BenchmarkTransaction {
                     // remove id from old Dob mapping
                     SerializableIDSet oldDOBIDs = new SerializableIDSet(
                             generator.getConfig(),
-                            (String) patientsDOBTable.getColumn("ID_LIST", oldDOBRow)
+                            patientsDOBTable.getString("ID_LIST", oldDOBRow)
                     );
                     oldDOBIDs.remove(uuid);
 
@@ -167,14 +167,14 @@ public class UpdatePatientData extends BenchmarkTransaction {
                     } else {
                         newDOBIDs = new SerializableIDSet(
                                 generator.getConfig(),
-                                (String) patientsDOBTable.getColumn("ID_LIST", newDOBRow)
+                                patientsDOBTable.getString("ID_LIST", newDOBRow)
                         );
                     }
                     newDOBIDs.add(uuid);
 
                     // write updates to table
-                    patientsDOBTable.updateColumn("ID_LIST", oldDOBIDs.serialize(), oldDOBRow);
-                    patientsDOBTable.updateColumn("ID_LIST", newDOBIDs.serialize(), newDOBRow);
+                    patientsDOBTable.putString("ID_LIST", oldDOBIDs.serialize(), oldDOBRow);
+                    patientsDOBTable.putString("ID_LIST", newDOBIDs.serialize(), newDOBRow);
                     client.write(FreeHealthConstants.patientsIdentityByDOBTable, oldDOB, oldDOBRow);
                     client.write(FreeHealthConstants.patientsIdentityByDOBTable, newDOB, newDOBRow);
                     break;
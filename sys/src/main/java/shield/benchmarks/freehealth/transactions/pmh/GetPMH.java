@@ -56,7 +56,7 @@ public class GetPMH extends BenchmarkTransaction {
             results = client.readAndExecute(FreeHealthConstants.pmhByPatientTable, patientID.toString()); // look up PMH list
             if (!(isEmptyRow(results.get(0)))) { // make sure patient has some PMH
                 byte[] pmhIDrow = results.get(0);
-                SerializableIDSet pmhIDs = new SerializableIDSet(config, (String) pmhByPatientTable.getColumn("ID_LIST", pmhIDrow));
+                SerializableIDSet pmhIDs = new SerializableIDSet(config, pmhByPatientTable.getString("ID_LIST", pmhIDrow));
                 if (pmhIDs.size() != 0) { // only add to pmh result if there are actually PMHs
                     List<Integer> pmhIDlist = pmhIDs.toList();
                     for (int i = 0; i < pmhIDlist.size() - 1; i++) {
@@ -66,14 +66,14 @@ public class GetPMH extends BenchmarkTransaction {
                     for (byte[] result : results) {
                         if (!isEmptyRow(result))
                             priorMedicalHistory.add(new PMH(
-                                    (Integer) pmhTable.getColumn("ID", result),
-                                    (Integer) pmhTable.getColumn("PATIENT_UUID", result),
-                                    (Integer) pmhTable.getColumn("USER_UUID", result),
-                                    (Integer) pmhTable.getColumn("CATEGORY_ID", result),
-                                    (String) pmhTable.getColumn("LABEL", result),
-                                    (Integer) pmhTable.getColumn("VALID", result),
-                                    (String) pmhTable.getColumn("COMMENT", result),
-                                    (String) pmhTable.getColumn("CREATIONDATETIME", result)
+                                    pmhTable.getInt("ID", result),
+                                    pmhTable.getInt("PATIENT_UUID", result),
+                                    pmhTable.getInt("USER_UUID", result),
+                                    pmhTable.getInt("CATEGORY_ID", result),
+                                    pmhTable.getString("LABEL", result),
+                                    pmhTable.getInt("VALID", result),
+                                    pmhTable.getString("COMMENT", result),
+                                    pmhTable.getString("CREATIONDATETIME", result)
                             ));
                     }
                 }
@@ -62,14 +62,14 @@ public class SavePMH extends BenchmarkTransaction {
                 newPMHRow = pmhTable.createNewRow(config.PAD_COLUMNS);
             }
 
-            pmhTable.updateColumn("ID", pmhToSave.getId(), newPMHRow);
-            pmhTable.updateColumn("PATIENT_UUID", pmhToSave.getPatientUuid(), newPMHRow);
-            pmhTable.updateColumn("USER_UUID", pmhToSave.getUserUuid(), newPMHRow);
-            pmhTable.updateColumn("CATEGORY_ID", pmhToSave.getCategoryId(), newPMHRow);
-            pmhTable.updateColumn("LABEL", pmhToSave.getLabel(), newPMHRow);
-            pmhTable.updateColumn("VALID", pmhToSave.getValid(), newPMHRow);
-            pmhTable.updateColumn("COMMENT", pmhToSave.getComment(), newPMHRow);
-            pmhTable.updateColumn("CREATIONDATETIME", pmhToSave.getCreationdatetime(), newPMHRow);
+            pmhTable.putInt("ID", pmhToSave.getId(), newPMHRow);
+            pmhTable.putInt("PATIENT_UUID", pmhToSave.getPatientUuid(), newPMHRow);
+            pmhTable.putInt("USER_UUID", pmhToSave.getUserUuid(), newPMHRow);
+            pmhTable.putInt("CATEGORY_ID", pmhToSave.getCategoryId(), newPMHRow);
+            pmhTable.putString("LABEL", pmhToSave.getLabel(), newPMHRow);
+            pmhTable.putInt("VALID", pmhToSave.getValid(), newPMHRow);
+            pmhTable.putString("COMMENT", pmhToSave.getComment(), newPMHRow);
+            pmhTable.putString("CREATIONDATETIME", pmhToSave.getCreationdatetime(), newPMHRow);
             client.write(FreeHealthConstants.pmhTable, pmhToSave.getId().toString(), newPMHRow);
 
             client.read(FreeHealthConstants.pmhByPatientTable, pmhToSave.getPatientUuid().toString()); // look up PMH by patient list
@@ -80,9 +80,9 @@ public class SavePMH extends BenchmarkTransaction {
             if (isEmptyRow(pmhPatientIDsRow)) {
                 pmhPatientIDsRow = pmhByPatientTable.createNewRow(config.PAD_COLUMNS);
             }
-            SerializableIDSet pmhPatientIDs = new SerializableIDSet(config, (String) pmhByPatientTable.getColumn("ID_LIST", pmhPatientIDsRow));
+            SerializableIDSet pmhPatientIDs = new SerializableIDSet(config, pmhByPatientTable.getString("ID_LIST", pmhPatientIDsRow));
             pmhPatientIDs.add(pmhToSave.getId());
-            pmhByPatientTable.updateColumn("ID_LIST", pmhPatientIDs.serialize(), pmhPatientIDsRow);
+            pmhByPatientTable.putString("ID_LIST", pmhPatientIDs.serialize(), pmhPatientIDsRow);
             client.write(FreeHealthConstants.pmhByPatientTable, pmhToSave.getPatientUuid().toString(), pmhPatientIDsRow);
 
             // update user ID to PMH ids mapping
@@ -90,9 +90,9 @@ public class SavePMH extends BenchmarkTransaction {
             if (isEmptyRow(pmhUserIDsRow)) {
                 pmhUserIDsRow = pmhByUserTable.createNewRow(config.PAD_COLUMNS);
             }
-            SerializableIDSet pmhUserIDs = new SerializableIDSet(config, (String) pmhByUserTable.getColumn("ID_LIST", pmhUserIDsRow));
+            SerializableIDSet pmhUserIDs = new SerializableIDSet(config, pmhByUserTable.getString("ID_LIST", pmhUserIDsRow));
             pmhUserIDs.add(pmhToSave.getId());
-            pmhByUserTable.updateColumn("ID_LIST", pmhUserIDs.serialize(), pmhUserIDsRow);
+            pmhByUserTable.putString("ID_LIST", pmhUserIDs.serialize(), pmhUserIDsRow);
             client.write(FreeHealthConstants.pmhByUserTable, pmhToSave.getUserUuid().toString(), pmhUserIDsRow);
 
             client.commitTransaction();
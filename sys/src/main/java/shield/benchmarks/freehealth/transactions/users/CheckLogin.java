@@ -57,7 +57,7 @@ public class CheckLogin extends BenchmarkTransaction {
                 return true;
             }
 
-            Integer uuid = (Integer) usersByLoginTable.getColumn("USER_ID", loginRow);
+            Integer uuid = usersByLoginTable.getInt("USER_ID", loginRow);
             results = client.readAndExecute(FreeHealthConstants.usersTable, uuid.toString());
             byte[] userRow = results.get(0);
             if (isEmptyRow(userRow)) {
@@ -67,11 +67,11 @@ public class CheckLogin extends BenchmarkTransaction {
                 return true;
             }
 
-            String savedPassword = (String) usersTable.getColumn("PASSWORD", userRow);
+            String savedPassword = usersTable.getString("PASSWORD", userRow);
             loginSuccessful = password.equals(savedPassword);
 
             // update last login time
-            usersTable.updateColumn("LASTLOGIN", generator.getTime(), userRow);
+            usersTable.putString("LASTLOGIN", generator.getTime(), userRow);
             client.write(FreeHealthConstants.usersTable, uuid.toString(), userRow);
 
             client.commitTransaction();
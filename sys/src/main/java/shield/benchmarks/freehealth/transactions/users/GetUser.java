@@ -52,16 +52,16 @@ public class GetUser extends BenchmarkTransaction {
             }
 
             User user = new User(
-                    (Integer) usersTable.getColumn("USER_ID", userRow),
-                    (Integer) usersTable.getColumn("VALIDITY", userRow),
-                    (String) usersTable.getColumn("LOGIN", userRow),
-                    (String) usersTable.getColumn("PASSWORD", userRow),
-                    (String) usersTable.getColumn("LASTLOGIN", userRow),
-                    (String) usersTable.getColumn("NAME", userRow),
-                    (String) usersTable.getColumn("TITLE", userRow),
-                    (String) usersTable.getColumn("GENDER", userRow),
-                    (String) usersTable.getColumn("MAIL", userRow),
-                    (String) usersTable.getColumn("LANGUAGE", userRow));
+                    usersTable.getInt("USER_ID", userRow),
+                    usersTable.getInt("VALIDITY", userRow),
+                    usersTable.getString("LOGIN", userRow),
+                    usersTable.getString("PASSWORD", userRow),
+                    usersTable.getString("LASTLOGIN", userRow),
+                    usersTable.getString("NAME", userRow),
+                    usersTable.getString("TITLE", userRow),
+                    usersTable.getString("GENDER", userRow),
+                    usersTable.getString("MAIL", userRow),
+                    usersTable.getString("LANGUAGE", userRow));
 
             client.commitTransaction();
             return true;
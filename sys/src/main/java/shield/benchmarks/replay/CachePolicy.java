@@ -0,0 +1,65 @@
+package shield.benchmarks.replay;
+
+/**
+ * An in-JVM model of a cache eviction policy, replayed over a {@link Trace}. Keys have unit size,
+ * as traces do not record value sizes.
+ *
+ * Like the clients against Redis, the replay first looks up all the keys of a layer, then commits
+ * the layer: the keys that missed are filled, and policies that score whole layers (as the MGET
+ * that commits a layer in our Redis) update the scores of the layer's keys.
+ */
+public interface CachePolicy {
+
+  enum Type {
+    LRU,
+    LFU,
+    GDSF,
+    LIFE,
+    /**
+     * DeToX's MIN-FSL score
+     */
+    DETOX,
+    /**
+     * DeToX's AVG-FSL score
+     */
+    DETOX_AVG;
+
+    public CachePolicy create(int capacity, int nbKeys) {
+      switch (this) {
+        case LRU:
+          return new LruPolicy(capacity, nbKeys);
+        case LFU:
+          return new ScoredPolicy.Lfu(capacity, nbKeys);
+        case GDSF:
+          return new ScoredPolicy.Gdsf(capacity, nbKeys);
+        case LIFE:
+          return new ScoredPolicy.Life(capacity, nbKeys);
+        case DETOX:
+          return new ScoredPolicy.Detox(capacity, nbKeys, false);
+        case DETOX_AVG:
+          return new ScoredPolicy.Detox(capacity, nbKeys, true);
+        default:
+          throw new IllegalArgumentException(this.toString());
+      }
+    }
+  }
+
+  /**
+   * Looks up key
+   *
+   * @return whether key is cached
+   */
+  boolean get(int key);
+
+  /**
+   * Fills the keys of a layer that are not cached, evicting keys as needed, and commits the layer
+   *
+   * @param keys keys[from] to keys[to - 1] are the keys of the layer
+   */
+  void commitLayer(int[] keys, int from, int to);
+
+  /**
+   * Number of keys cached
+   */
+  int size();
+}
@@ -0,0 +1,90 @@
+package shield.benchmarks.replay;
+
+import java.util.Arrays;
+
+/**
+ * Least recently used eviction. Recency is a list threaded through per-key arrays, so that
+ * accesses are constant time and allocate nothing.
+ */
+public class LruPolicy implements CachePolicy {
+
+  private static final int NONE = -1;
+  /**
+   * Marks keys that are not cached in prev
+   */
+  private static final int ABSENT = -2;
+
+  private final int capacity;
+  private final int[] prev;
+  private final int[] next;
+  private int head = NONE;
+  private int tail = NONE;
+  private int size = 0;
+
+  public LruPolicy(int capacity, int nbKeys) {
+    this.capacity = capacity;
+    this.prev = new int[nbKeys];
+    this.next = new int[nbKeys];
+    Arrays.fill(prev, ABSENT);
+  }
+
+  @Override
+  public boolean get(int key) {
+    if (prev[key] == ABSENT) {
+      return false;
+    }
+    if (head != key) {
+      unlink(key);
+      linkAtHead(key);
+    }
+    return true;
+  }
+
+  @Override
+  public void commitLayer(int[] keys, int from, int to) {
+    for (int i = from; i < to; i++) {
+      int key = keys[i];
+      if (prev[key] != ABSENT) {
+        continue;
+      }
+      if (size == capacity) {
+        int evicted = tail;
+        unlink(evicted);
+        prev[evicted] = ABSENT;
+        size--;
+      }
+      linkAtHead(key);
+      size++;
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private void linkAtHead(int key) {
+    prev[key] = NONE;
+    next[key] = head;
+    if (head != NONE) {
+      prev[head] = key;
+    }
+    head = key;
+    if (tail == NONE) {
+      tail = key;
+    }
+  }
+
+  private void unlink(int key) {
+    if (prev[key] != NONE) {
+      next[prev[key]] = next[key];
+    } else {
+      head = next[key];
+    }
+    if (next[key] != NONE) {
+      prev[next[key]] = prev[key];
+    } else {
+      tail = prev[key];
+    }
+  }
+}
@@ -0,0 +1,334 @@
+package shield.benchmarks.replay;
+
+import java.util.Arrays;
+
+/**
+ * Policies that evict the cached key with the lowest score, as the score-based policies of our
+ * Redis (evict.c, t_string.c). Ties are broken by evicting the key whose score was set first.
+ *
+ * Redis evicts the best of a few sampled keys, and approximates frequencies with logarithmic
+ * counters; here the lowest score is always evicted, and frequencies are exact counts of the
+ * accesses since a key was filled.
+ *
+ * Scores are kept in a binary min-heap indexed by key, so that updating the score of a cached key
+ * is logarithmic.
+ */
+public abstract class ScoredPolicy implements CachePolicy {
+
+  /**
+   * Weight of the age factor L in scores, as GDSF_L_FACTOR and MIN_FSL_L_FACTOR in Redis
+   */
+  static final double L_FACTOR = 0.9;
+
+  /**
+   * Scores of keys filled but not committed yet. Like keys without a score in Redis, they are only
+   * evicted if nothing else can be
+   */
+  static final double UNCOMMITTED = Double.MAX_VALUE;
+
+  private final int capacity;
+
+  private final int[] heapKeys;
+  private final double[] heapScores;
+  private final long[] heapSeqs;
+  private int size = 0;
+  private long clock = 0;
+
+  /**
+   * Position of each key in the heap, -1 if the key is not cached
+   */
+  private final int[] positions;
+
+  /**
+   * Accesses of each cached key since it was filled
+   */
+  protected final int[] freqs;
+
+  /**
+   * Running age factor L: the score of the last key evicted
+   */
+  protected double age = 0;
+
+  ScoredPolicy(int capacity, int nbKeys) {
+    this.capacity = capacity;
+    this.heapKeys = new int[capacity];
+    this.heapScores = new double[capacity];
+    this.heapSeqs = new long[capacity];
+    this.positions = new int[nbKeys];
+    this.freqs = new int[nbKeys];
+    Arrays.fill(positions, -1);
+  }
+
+  /**
+   * Score of a key when it is filled
+   */
+  abstract double fillScore(int key);
+
+  /**
+   * Called on a lookup that hit
+   */
+  void onHit(int key) {
+  }
+
+  /**
+   * Called once the keys of a layer are all cached (unless the layer is larger than the cache)
+   */
+  void onCommit(int[] keys, int from, int to) {
+  }
+
+  /**
+   * Called when key is evicted
+   */
+  void onEvict(int key) {
+  }
+
+  @Override
+  public boolean get(int key) {
+    if (positions[key] < 0) {
+      return false;
+    }
+    freqs[key]++;
+    onHit(key);
+    return true;
+  }
+
+  @Override
+  public void commitLayer(int[] keys, int from, int to) {
+    for (int i = from; i < to; i++) {
+      int key = keys[i];
+      if (positions[key] >= 0) {
+        continue;
+      }
+      if (size == capacity) {
+        evict();
+      }
+      freqs[key] = 1;
+      int position = size++;
+      heapKeys[position] = key;
+      positions[key] = position;
+      heapScores[position] = fillScore(key);
+      heapSeqs[position] = clock++;
+      siftUp(position);
+    }
+    onCommit(keys, from, to);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  boolean isCached(int key) {
+    return positions[key] >= 0;
+  }
+
+  void setScore(int key, double score) {
+    int position = positions[key];
+    if (position < 0) {
+      return;
+    }
+    double previous = heapScores[position];
+    heapScores[position] = score;
+    heapSeqs[position] = clock++;
+    if (score < previous) {
+      siftUp(position);
+    } else {
+      siftDown(position);
+    }
+  }
+
+  private void evict() {
+    int key = heapKeys[0];
+    if (heapScores[0] != UNCOMMITTED) {
+      age = heapScores[0];
+    }
+    positions[key] = -1;
+    onEvict(key);
+    size--;
+    if (size > 0) {
+      move(size, 0);
+      siftDown(0);
+    }
+  }
+
+  private boolean less(int a, int b) {
+    return heapScores[a] < heapScores[b]
+        || (heapScores[a] == heapScores[b] && heapSeqs[a] < heapSeqs[b]);
+  }
+
+  private void siftUp(int position) {
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (!less(position, parent)) {
+        return;
+      }
+      swap(position, parent);
+      position = parent;
+    }
+  }
+
+  private void siftDown(int position) {
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= size) {
+        return;
+      }
+      if (child + 1 < size && less(child + 1, child)) {
+        child++;
+      }
+      if (!less(child, position)) {
+        return;
+      }
+      swap(position, child);
+      position = child;
+    }
+  }
+
+  private void swap(int a, int b) {
+    int key = heapKeys[a];
+    double score = heapScores[a];
+    long seq = heapSeqs[a];
+    move(b, a);
+    heapKeys[b] = key;
+    heapScores[b] = score;
+    heapSeqs[b] = seq;
+    positions[key] = b;
+  }
+
+  private void move(int from, int to) {
+    heapKeys[to] = heapKeys[from];
+    heapScores[to] = heapScores[from];
+    heapSeqs[to] = heapSeqs[from];
+    positions[heapKeys[to]] = to;
+  }
+
+  /**
+   * Least frequently used: score F
+   */
+  public static class Lfu extends ScoredPolicy {
+
+    public Lfu(int capacity, int nbKeys) {
+      super(capacity, nbKeys);
+    }
+
+    @Override
+    double fillScore(int key) {
+      return 1;
+    }
+
+    @Override
+    void onHit(int key) {
+      setScore(key, freqs[key]);
+    }
+  }
+
+  /**
+   * GDSF: score F / S + L, updated on every access (S = 1)
+   */
+  public static class Gdsf extends ScoredPolicy {
+
+    public Gdsf(int capacity, int nbKeys) {
+      super(capacity, nbKeys);
+    }
+
+    @Override
+    double fillScore(int key) {
+      return 1 + age * L_FACTOR;
+    }
+
+    @Override
+    void onHit(int key) {
+      setScore(key, freqs[key] + age * L_FACTOR);
+    }
+  }
+
+  /**
+   * LIFE (PACMan): score 1 / (S + 1) on commit, S being the number of keys of the layer, so that
+   * keys of large layers are evicted first
+   */
+  public static class Life extends ScoredPolicy {
+
+    public Life(int capacity, int nbKeys) {
+      super(capacity, nbKeys);
+    }
+
+    @Override
+    double fillScore(int key) {
+      return UNCOMMITTED;
+    }
+
+    @Override
+    void onCommit(int[] keys, int from, int to) {
+      double score = 1.0 / (to - from + 1);
+      for (int i = from; i < to; i++) {
+        setScore(keys[i], score);
+      }
+    }
+  }
+
+  /**
+   * DeToX: on commit, every key of the layer gets the score min(F) / S + L, min(F) being the lowest
+   * frequency among the layer's keys and S the number of keys of the layer (MIN-FSL). A layer is
+   * only sped up if all its keys hit, so its keys are worth as much as its least frequent one.
+   *
+   * With average set, each key's score is instead the average of the min(F) / S of the layers it
+   * was committed with, plus L (AVG-FSL).
+   */
+  public static class Detox extends ScoredPolicy {
+
+    private final boolean average;
+    private final double[] totalFs;
+    private final int[] numberFs;
+
+    public Detox(int capacity, int nbKeys, boolean average) {
+      super(capacity, nbKeys);
+      this.average = average;
+      this.totalFs = average ? new double[nbKeys] : null;
+      this.numberFs = average ? new int[nbKeys] : null;
+    }
+
+    @Override
+    double fillScore(int key) {
+      return UNCOMMITTED;
+    }
+
+    @Override
+    void onCommit(int[] keys, int from, int to) {
+      int minF = Integer.MAX_VALUE;
+      int s = 0;
+      for (int i = from; i < to; i++) {
+        if (isCached(keys[i])) {
+          minF = Math.min(minF, freqs[keys[i]]);
+          s++;
+        } else {
+          minF = 1;
+        }
+      }
+      if (s == 0) {
+        return;
+      }
+      double fs = ((double) minF) / s;
+      for (int i = from; i < to; i++) {
+        int key = keys[i];
+        if (!isCached(key)) {
+          continue;
+        }
+        if (average) {
+          totalFs[key] += fs;
+          numberFs[key]++;
+          setScore(key, totalFs[key] / numberFs[key] + age * L_FACTOR);
+        } else {
+          setScore(key, fs + age * L_FACTOR);
+        }
+      }
+    }
+
+    @Override
+    void onEvict(int key) {
+      if (average) {
+        totalFs[key] = 0;
+        numberFs[key] = 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package shield.benchmarks.replay;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A trace of layered transactions, as consumed by the offline simulator and written by
+ * TraceRecorder: one transaction per line, each key followed by ',' and each layer by ';'.
+ * Whatever follows the last ';' of a line (e.g. TraceRecorder's annotations) is ignored.
+ *
+ * The file is parsed in a single streaming pass into flat arrays, and keys are renumbered densely
+ * from 0, so that cache models can index their per-key state by key and many replays can share
+ * one trace.
+ */
+public class Trace {
+
+  /**
+   * Keys of all layers, back to back
+   */
+  private int[] keys = new int[1 << 16];
+  private int nbRequests = 0;
+
+  /**
+   * End (exclusive) of each layer in keys
+   */
+  private int[] layerEnds = new int[1 << 12];
+  private int nbLayers = 0;
+
+  /**
+   * End (exclusive) of each transaction in layerEnds
+   */
+  private int[] txnEnds = new int[1 << 10];
+  private int nbTxns = 0;
+
+  /**
+   * Dense ids of numeric keys, open addressing
+   */
+  private long[] idKeys = new long[1 << 16];
+  private int[] idValues = new int[1 << 16];
+  private int nbIds = 0;
+
+  /**
+   * Dense ids of non-numeric keys
+   */
+  private final Map<String, Integer> namedKeys = new HashMap<>();
+
+  private int nbKeys = 0;
+
+  private Trace() {
+    Arrays.fill(idValues, -1);
+  }
+
+  public static Trace load(String fileName) throws IOException {
+    try (Reader in = new BufferedReader(new FileReader(fileName), 1 << 16)) {
+      return parse(in);
+    }
+  }
+
+  static Trace parse(Reader in) throws IOException {
+    Trace trace = new Trace();
+    char[] buffer = new char[1 << 16];
+    StringBuilder token = new StringBuilder();
+    long number = 0;
+    boolean numeric = true;
+    // Keys and layers of the current line, kept until the line is complete
+    int lineRequests = trace.nbRequests;
+    int lineLayers = trace.nbLayers;
+    boolean comment = false;
+
+    int read;
+    while ((read = in.read(buffer)) > 0) {
+      for (int i = 0; i < read; i++) {
+        char c = buffer[i];
+        if (c == '\n') {
+          if (trace.nbLayers > lineLayers) {
+            // Keys after the last ';' of a line are ignored, as by the simulator
+            trace.nbRequests = trace.layerEnds[trace.nbLayers - 1];
+            trace.endTransaction();
+          } else {
+            trace.nbRequests = lineRequests;
+          }
+          lineRequests = trace.nbRequests;
+          lineLayers = trace.nbLayers;
+          token.setLength(0);
+          number = 0;
+          numeric = true;
+          comment = false;
+        } else if (comment) {
+          continue;
+        } else if (c == ',') {
+          trace.addKey(numeric && token.length() > 0 ? trace.idOf(number) : trace.idOf(token.toString()));
+          token.setLength(0);
+          number = 0;
+          numeric = true;
+        } else if (c == ';') {
+          trace.endLayer();
+          token.setLength(0);
+          number = 0;
+          numeric = true;
+        } else if (c == '#') {
+          comment = true;
+        } else if (c != '\r') {
+          token.append(c);
+          if (numeric && c >= '0' && c <= '9' && token.length() < 19) {
+            number = number * 10 + (c - '0');
+          } else {
+            numeric = false;
+          }
+        }
+      }
+    }
+    if (trace.nbLayers > lineLayers) {
+      trace.nbRequests = trace.layerEnds[trace.nbLayers - 1];
+      trace.endTransaction();
+    } else {
+      trace.nbRequests = lineRequests;
+    }
+    return trace;
+  }
+
+  private void addKey(int key) {
+    if (nbRequests == keys.length) {
+      keys = Arrays.copyOf(keys, keys.length * 2);
+    }
+    keys[nbRequests++] = key;
+  }
+
+  private void endLayer() {
+    if (nbLayers == layerEnds.length) {
+      layerEnds = Arrays.copyOf(layerEnds, layerEnds.length * 2);
+    }
+    layerEnds[nbLayers++] = nbRequests;
+  }
+
+  private void endTransaction() {
+    if (nbTxns == txnEnds.length) {
+      txnEnds = Arrays.copyOf(txnEnds, txnEnds.length * 2);
+    }
+    txnEnds[nbTxns++] = nbLayers;
+  }
+
+  private int idOf(String key) {
+    Integer id = namedKeys.get(key);
+    if (id == null) {
+      id = nbKeys++;
+      namedKeys.put(key, id);
+    }
+    return id;
+  }
+
+  private int idOf(long key) {
+    int mask = idKeys.length - 1;
+    int slot = mix(key) & mask;
+    while (idValues[slot] != -1) {
+      if (idKeys[slot] == key) {
+        return idValues[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    idKeys[slot] = key;
+    idValues[slot] = nbKeys++;
+    if (++nbIds * 2 > idKeys.length) {
+      growIds();
+    }
+    return nbKeys - 1;
+  }
+
+  private void growIds() {
+    long[] oldKeys = idKeys;
+    int[] oldValues = idValues;
+    idKeys = new long[oldKeys.length * 2];
+    idValues = new int[oldKeys.length * 2];
+    Arrays.fill(idValues, -1);
+    int mask = idKeys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != -1) {
+        int slot = mix(oldKeys[i]) & mask;
+        while (idValues[slot] != -1) {
+          slot = (slot + 1) & mask;
+        }
+        idKeys[slot] = oldKeys[i];
+        idValues[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private static int mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+
+  public int getNbTransactions() {
+    return nbTxns;
+  }
+
+  public int getNbLayers() {
+    return nbLayers;
+  }
+
+  public int getNbRequests() {
+    return nbRequests;
+  }
+
+  /**
+   * Number of distinct keys. Keys are numbered from 0 to getNbKeys() - 1
+   */
+  public int getNbKeys() {
+    return nbKeys;
+  }
+
+  /**
+   * Layers of transaction txn are firstLayer(txn) to firstLayer(txn + 1) - 1
+   */
+  public int firstLayer(int txn) {
+    return txn == 0 ? 0 : txnEnds[txn - 1];
+  }
+
+  /**
+   * Keys of layer layer are keys()[firstKey(layer)] to keys()[firstKey(layer + 1) - 1]
+   */
+  public int firstKey(int layer) {
+    return layer == 0 ? 0 : layerEnds[layer - 1];
+  }
+
+  public int[] keys() {
+    return keys;
+  }
+}
@@ -0,0 +1,181 @@
+package shield.benchmarks.replay;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays a layered transaction trace (as written by TraceRecorder or consumed by the offline
+ * simulator) against in-JVM models of the eviction policies, and reports their plain, layer and
+ * transactional hit rates. Each (policy, cache size) pair is replayed independently, in parallel
+ * on the available cores.
+ *
+ * A layer is sped up if all of its keys hit, a transaction is a transactional hit if all of its
+ * keys hit. All the keys of a trace are treated as reads, as by the simulator.
+ *
+ * Usage: TraceReplay trace_file [policies] [cache sizes] [warmup transactions] [threads], e.g.
+ * TraceReplay trace.txt lru,gdsf,detox 1000,10000,100000 100000. Policies default to all of them,
+ * and cache sizes to a sweep from 0.1% to 100% of the distinct keys.
+ */
+public class TraceReplay {
+
+  /**
+   * Outcome of replaying a trace against one policy and cache size
+   */
+  public static class Result {
+
+    public final CachePolicy.Type policy;
+    public final int capacity;
+    public long requests = 0;
+    public long hits = 0;
+    public long layers = 0;
+    public long layerHits = 0;
+    public long transactions = 0;
+    public long transactionHits = 0;
+    public long nanos = 0;
+
+    Result(CachePolicy.Type policy, int capacity) {
+      this.policy = policy;
+      this.capacity = capacity;
+    }
+
+    public double getHitRate() {
+      return ((double) hits) / requests;
+    }
+
+    public double getLayerHitRate() {
+      return ((double) layerHits) / layers;
+    }
+
+    public double getTransactionalHitRate() {
+      return ((double) transactionHits) / transactions;
+    }
+
+    /**
+     * Requests replayed per second, warmup included
+     */
+    public double getThroughput(long totalRequests) {
+      return totalRequests * 1e9 / nanos;
+    }
+  }
+
+  /**
+   * Replays trace against a new cache of the given policy and capacity. The first warmupTxns
+   * transactions fill the cache but are not counted
+   */
+  public static Result replay(Trace trace, CachePolicy.Type type, int capacity, int warmupTxns) {
+    CachePolicy policy = type.create(capacity, trace.getNbKeys());
+    Result result = new Result(type, capacity);
+    int[] keys = trace.keys();
+    long start = System.nanoTime();
+
+    for (int txn = 0; txn < trace.getNbTransactions(); txn++) {
+      boolean counted = txn >= warmupTxns;
+      boolean txnHit = true;
+      int lastLayer = trace.firstLayer(txn + 1);
+      for (int layer = trace.firstLayer(txn); layer < lastLayer; layer++) {
+        int from = trace.firstKey(layer);
+        int to = trace.firstKey(layer + 1);
+        int layerHits = 0;
+        for (int i = from; i < to; i++) {
+          if (policy.get(keys[i])) {
+            layerHits++;
+          }
+        }
+        policy.commitLayer(keys, from, to);
+
+        boolean layerHit = layerHits == to - from;
+        txnHit &= layerHit;
+        if (counted) {
+          result.requests += to - from;
+          result.hits += layerHits;
+          result.layers++;
+          if (layerHit) {
+            result.layerHits++;
+          }
+        }
+      }
+      if (counted) {
+        result.transactions++;
+        if (txnHit) {
+          result.transactionHits++;
+        }
+      }
+    }
+
+    result.nanos = System.nanoTime() - start;
+    return result;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println(
+          "Usage: TraceReplay trace_file [policies] [cache sizes] [warmup transactions] [threads]");
+      System.exit(-1);
+    }
+    List<CachePolicy.Type> policies = new ArrayList<>();
+    if (args.length > 1 && !args[1].isEmpty()) {
+      for (String policy : args[1].split(",")) {
+        policies.add(CachePolicy.Type.valueOf(policy.trim().toUpperCase(Locale.ROOT)));
+      }
+    } else {
+      for (CachePolicy.Type policy : CachePolicy.Type.values()) {
+        policies.add(policy);
+      }
+    }
+    int warmupTxns = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+    int nbThreads = args.length > 4 ? Integer.parseInt(args[4])
+        : Runtime.getRuntime().availableProcessors();
+
+    long loadStart = System.nanoTime();
+    Trace trace = loadTrace(args[0]);
+    System.out.printf("Loaded %d transactions, %d layers, %d requests, %d distinct keys in %.1fs\n",
+        trace.getNbTransactions(), trace.getNbLayers(), trace.getNbRequests(), trace.getNbKeys(),
+        (System.nanoTime() - loadStart) / 1e9);
+
+    List<Integer> sizes = new ArrayList<>();
+    if (args.length > 2 && !args[2].isEmpty()) {
+      for (String size : args[2].split(",")) {
+        sizes.add((int) Double.parseDouble(size.trim()));
+      }
+    } else {
+      // By default, sweep from 0.1% to 100% of the distinct keys
+      for (double fraction : new double[]{0.001, 0.01, 0.05, 0.1, 0.25, 0.5, 1.0}) {
+        sizes.add((int) Math.ceil(trace.getNbKeys() * fraction));
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    List<Future<Result>> results = new ArrayList<>();
+    for (CachePolicy.Type policy : policies) {
+      for (int size : sizes) {
+        int capacity = Math.max(1, size);
+        results.add(executor.submit(() -> replay(trace, policy, capacity, warmupTxns)));
+      }
+    }
+
+    System.out.printf("%-10s %12s %10s %10s %10s %12s\n", "policy", "cache_size", "hit_rate",
+        "layer_hit", "txn_hit", "Mreq/s");
+    for (Future<Result> future : results) {
+      Result result = future.get();
+      System.out.printf("%-10s %12d %10.4f %10.4f %10.4f %12.2f\n", result.policy,
+          result.capacity, result.getHitRate(), result.getLayerHitRate(),
+          result.getTransactionalHitRate(), result.getThroughput(trace.getNbRequests()) / 1e6);
+    }
+    executor.shutdown();
+  }
+
+  private static Trace loadTrace(String fileName) {
+    try {
+      return Trace.load(fileName);
+    } catch (IOException e) {
+      System.err.println("Could not read " + fileName + ": " + e);
+      System.exit(-1);
+      return null;
+    }
+  }
+}
@@ -61,17 +61,17 @@ public class AmalgamateTransaction extends BenchmarkTransaction{
       rowSavingsCus1 = results.get(1);
       rowCheckingsCus2 = results.get(2);
 
-      balCC1 = (Integer) checkingsTable.getColumn("C_BAL", rowCheckingsCus1);
-      balSC1= (Integer) savingsTable.getColumn("S_BAL", rowSavingsCus1);
-      balCC2 = (Integer) checkingsTable.getColumn("C_BAL", rowCheckingsCus2);
+      balCC1 = checkingsTable.getInt("C_BAL", rowCheckingsCus1);
+      balSC1= savingsTable.getInt("S_BAL", rowSavingsCus1);
+      balCC2 = checkingsTable.getInt("C_BAL", rowCheckingsCus2);
       total = balSC1 + balCC1;
       balCC2+=total;
       balCC1 = 0;
       balSC1 = 0;
 
-      checkingsTable.updateColumn("C_BAL", balCC1, rowCheckingsCus1);
-      savingsTable.updateColumn("S_BAL", balSC1, rowSavingsCus1);
-      checkingsTable.updateColumn("C_BAL", balCC2, rowCheckingsCus2);
+      checkingsTable.putInt("C_BAL", balCC1, rowCheckingsCus1);
+      savingsTable.putInt("S_BAL", balSC1, rowSavingsCus1);
+      checkingsTable.putInt("C_BAL", balCC2, rowCheckingsCus2);
       ((RedisPostgresClient) client).write(SmallBankConstants.kCheckingsTable, custId1.toString(), rowCheckingsCus1, SmallBankTransactionType.AMALGAMATE.ordinal(), this.txn_id);
       ((RedisPostgresClient) client).write(SmallBankConstants.kSavingsTable, custId1.toString(), rowSavingsCus1, SmallBankTransactionType.AMALGAMATE.ordinal(), this.txn_id);
       ((RedisPostgresClient) client).write(SmallBankConstants.kCheckingsTable, custId2.toString(), rowCheckingsCus2, SmallBankTransactionType.AMALGAMATE.ordinal(), this.txn_id);
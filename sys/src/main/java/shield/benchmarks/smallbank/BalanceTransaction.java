@@ -59,8 +59,8 @@ public class BalanceTransaction extends BenchmarkTransaction{
       balCC1 = null;
       balSC1 = null;
       try {
-          balCC1 = (Integer) checkingsTable.getColumn("C_BAL", rowCheckingsCus1);
-          balSC1 = (Integer) savingsTable.getColumn("S_BAL", rowSavingsCus1);
+          balCC1 = checkingsTable.getInt("C_BAL", rowCheckingsCus1);
+          balSC1 = savingsTable.getInt("S_BAL", rowSavingsCus1);
       } catch(RuntimeException e) {
           System.out.println("BROKEN CUSTOMER ID IS: " + custId.toString());
       }
@@ -48,8 +48,8 @@ public class DepositCheckingTransaction extends BenchmarkTransaction{
       }
       results = ((RedisPostgresClient) client).readAndExecute(SmallBankConstants.kCheckingsTable, custId.toString(), SmallBankTransactionType.DEPOSIT_CHECKING.ordinal(), this.txn_id);
       rowCheckingsCus1 = results.get(0);
-      balCC1 = (Integer) checkingsTable.getColumn("C_BAL", rowCheckingsCus1);
-      checkingsTable.updateColumn("C_BAL", balCC1 - amount, rowCheckingsCus1);
+      balCC1 = checkingsTable.getInt("C_BAL", rowCheckingsCus1);
+      checkingsTable.putInt("C_BAL", balCC1 - amount, rowCheckingsCus1);
       ((RedisPostgresClient) client).write(SmallBankConstants.kCheckingsTable,custId.toString(), rowCheckingsCus1, SmallBankTransactionType.DEPOSIT_CHECKING.ordinal(), this.txn_id);
       client.commitTransaction();
       return true;
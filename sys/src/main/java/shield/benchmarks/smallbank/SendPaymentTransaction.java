@@ -55,8 +55,8 @@ public class SendPaymentTransaction extends BenchmarkTransaction{
       src = results.get(0);
       dest = results.get(1);
 
-      srcCC = (Integer) checkingsTable.getColumn("C_BAL", src);
-      destCC = (Integer) checkingsTable.getColumn("C_BAL", dest);
+      srcCC = checkingsTable.getInt("C_BAL", src);
+      destCC = checkingsTable.getInt("C_BAL", dest);
 
       if (srcCC < amount) {
         // Insufficient money
@@ -65,8 +65,8 @@ public class SendPaymentTransaction extends BenchmarkTransaction{
         return true;
       }
 
-      checkingsTable.updateColumn("C_BAL", srcCC - amount, src);
-      checkingsTable.updateColumn("C_BAL", destCC + amount, dest);
+      checkingsTable.putInt("C_BAL", srcCC - amount, src);
+      checkingsTable.putInt("C_BAL", destCC + amount, dest);
       ((RedisPostgresClient) client).write(SmallBankConstants.kCheckingsTable, srcCust.toString(), src, SmallBankTransactionType.SEND_PAYMENT.ordinal(), this.txn_id);
       ((RedisPostgresClient) client).write(SmallBankConstants.kCheckingsTable, destCust.toString(), dest, SmallBankTransactionType.SEND_PAYMENT.ordinal(), this.txn_id);
 
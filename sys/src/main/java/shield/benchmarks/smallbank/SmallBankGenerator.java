@@ -57,18 +57,25 @@ public class SmallBankGenerator {
 
   }
 
-  public void runNextTransaction() {
+  /**
+   * Runs a transaction drawn from the mix
+   *
+   * @return the type of the transaction that was run
+   */
+  public Transactions runNextTransaction() {
     int x = Generator.generateInt(0,100);
     int nbAborts;
     long begin = System.currentTimeMillis();
     long end = 0;
     BenchmarkTransaction trx;
+    Transactions type;
     if (x < config.PROB_TRX_AMALGAMATE) {
       trx = GenerateAmalgamateInput();
 //      System.out.println("[" + Transactions.AMALGAMATE+ "] Begin");
       nbAborts = trx.run();
       end = System.currentTimeMillis();
-      trxStats.get(Transactions.AMALGAMATE).addTransaction(nbAborts, end-begin);
+      type = Transactions.AMALGAMATE;
+      trxStats.get(type).addTransaction(nbAborts, end-begin);
 //      System.out.println("[" + Transactions.AMALGAMATE + "] End");
     }
     else if (x < config.PROB_TRX_AMALGAMATE+ config.PROB_TRX_TRANSACT_SAVINGS) {
@@ -77,7 +84,8 @@ public class SmallBankGenerator {
       nbAborts = trx.run();
       end = System.currentTimeMillis();
 //       System.out.println("[" + Transactions.TRANSACT_SAVINGS+ "] End");
-      trxStats.get(Transactions.TRANSACT_SAVINGS).addTransaction(nbAborts, end-begin);
+      type = Transactions.TRANSACT_SAVINGS;
+      trxStats.get(type).addTransaction(nbAborts, end-begin);
     } else if (x < config.PROB_TRX_AMALGAMATE + config.PROB_TRX_TRANSACT_SAVINGS+
         config.PROB_TRX_SEND_PAYMENT) {
       trx = GenerateSendPaymentInput();
@@ -85,7 +93,8 @@ public class SmallBankGenerator {
       nbAborts = trx.run();
       end = System.currentTimeMillis();
 //       System.out.println("[" + Transactions.SEND_PAYMENT+ "] End");
-      trxStats.get(Transactions.SEND_PAYMENT).addTransaction(nbAborts, end-begin);
+      type = Transactions.SEND_PAYMENT;
+      trxStats.get(type).addTransaction(nbAborts, end-begin);
     } else if (x < config.PROB_TRX_AMALGAMATE + config.PROB_TRX_TRANSACT_SAVINGS+
         config.PROB_TRX_SEND_PAYMENT + config.PROB_TRX_BALANCE){
       trx = GenerateBalanceInput();
@@ -93,7 +102,8 @@ public class SmallBankGenerator {
       nbAborts = trx.run();
       end = System.currentTimeMillis();
 //       System.out.println("[" + Transactions.BALANCE+ "] End");
-      trxStats.get(Transactions.BALANCE).addTransaction(nbAborts, end-begin);
+      type = Transactions.BALANCE;
+      trxStats.get(type).addTransaction(nbAborts, end-begin);
     } else if (x < config.PROB_TRX_AMALGAMATE + config.PROB_TRX_TRANSACT_SAVINGS+
         config.PROB_TRX_SEND_PAYMENT + config.PROB_TRX_BALANCE +
         config.PROB_TRX_DEPOSIT_CHECKING){
@@ -102,15 +112,18 @@ public class SmallBankGenerator {
       nbAborts = trx.run();
       end = System.currentTimeMillis();
 //       System.out.println("[" + Transactions.DEPOSIT_CHECKING+ "] End");
-      trxStats.get(Transactions.DEPOSIT_CHECKING).addTransaction(nbAborts,end-begin);
+      type = Transactions.DEPOSIT_CHECKING;
+      trxStats.get(type).addTransaction(nbAborts,end-begin);
     } else {
       trx = GenerateWriteCheckTransaction();
 //      System.out.println("[" + Transactions.WRITE_CHECK+ "] Begin");
       nbAborts = trx.run();
       end = System.currentTimeMillis();
 //       System.out.println("[" + Transactions.WRITE_CHECK+ "] End");
-      trxStats.get(Transactions.WRITE_CHECK).addTransaction(nbAborts,end-begin);
+      type = Transactions.WRITE_CHECK;
+      trxStats.get(type).addTransaction(nbAborts,end-begin);
     }
+    return type;
   }
 
   public AmalgamateTransaction GenerateAmalgamateInput() {
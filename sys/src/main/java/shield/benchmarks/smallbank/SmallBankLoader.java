@@ -39,7 +39,9 @@ public class SmallBankLoader {
 
     if (sbConfig.MUST_LOAD_KEYS) {
       System.out.println("Begin loading data");
+      RedisPostgresClient.enableBulkLoad();
       loadData(sbConfig, expConfigFile);
+      RedisPostgresClient.finishBulkLoad();
     }
 
     System.out.println("Data loaded");
@@ -142,32 +144,32 @@ public class SmallBankLoader {
                break;
                // Update account table
                row = accountsTable.createNewRow(config.PAD_COLUMNS);
-               accountsTable.updateColumn("A_CUST_ID", custId, row);
-               accountsTable.updateColumn("A_CUST_NAME",
+               accountsTable.putInt("A_CUST_ID", custId, row);
+               accountsTable.putString("A_CUST_NAME",
                    generator.RandString(10, config.NAME_SIZE, false), row);
-               accountsTable.updateColumn("A_DATA",
+               accountsTable.putString("A_DATA",
                    generator.RandString(config.VAR_DATA_SIZE / 2, config.VAR_DATA_SIZE, false),
                    row);
                client.writeAndExecute(SmallBankConstants.kAccountsTable, custId.toString(), row);
 
                // Update savings table
                row = savingsTable.createNewRow(config.PAD_COLUMNS);
-               savingsTable.updateColumn("S_CUST_ID", custId, row);
-               savingsTable.updateColumn("S_BAL",
+               savingsTable.putInt("S_CUST_ID", custId, row);
+               savingsTable.putInt("S_BAL",
                    Generator.getGaussian(config.MIN_BALANCE, config.MAX_BALANCE), row);
-               savingsTable.updateColumn("S_DATA",
+               savingsTable.putString("S_DATA",
                    generator.RandString(config.VAR_DATA_SIZE / 2, config.VAR_DATA_SIZE, false),
                    row);
-               savingsTable.updateColumn("S_BAL",
+               savingsTable.putInt("S_BAL",
                    Generator.getGaussian(config.MIN_BALANCE, config.MAX_BALANCE), row);
                client.writeAndExecute(SmallBankConstants.kSavingsTable, custId.toString(), row);
 
                // Update checkings table
                row = checkingsTable.createNewRow(config.PAD_COLUMNS);
-               checkingsTable.updateColumn("C_CUST_ID", custId, row);
-               checkingsTable.updateColumn("C_BAL",
+               checkingsTable.putInt("C_CUST_ID", custId, row);
+               checkingsTable.putInt("C_BAL",
                    Generator.getGaussian(config.MIN_BALANCE, config.MAX_BALANCE), row);
-               checkingsTable.updateColumn("C_DATA",
+               checkingsTable.putString("C_DATA",
                    generator.RandString(config.VAR_DATA_SIZE / 2, config.VAR_DATA_SIZE, false),
                    row);
                if (row == null) {
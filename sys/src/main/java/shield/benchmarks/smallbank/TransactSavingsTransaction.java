@@ -48,7 +48,7 @@ public class TransactSavingsTransaction extends BenchmarkTransaction{
       results = ((RedisPostgresClient) client).readAndExecute(SmallBankConstants.kSavingsTable, cust.toString(), SmallBankTransactionType.TRANSACT_SAVINGS.ordinal(), this.txn_id);
       row = results.get(0);
 
-      balance = (Integer) savingsTable.getColumn("S_BAL", row);
+      balance = savingsTable.getInt("S_BAL", row);
 
       if (balance< amount) {
           // Insufficient money
@@ -58,7 +58,7 @@ public class TransactSavingsTransaction extends BenchmarkTransaction{
         return true;
       }
 
-      savingsTable.updateColumn("S_BAL", balance - amount, row);
+      savingsTable.putInt("S_BAL", balance - amount, row);
       ((RedisPostgresClient) client).write(SmallBankConstants.kSavingsTable, cust.toString(), row, SmallBankTransactionType.TRANSACT_SAVINGS.ordinal(), this.txn_id);
       client.commitTransaction();
 
@@ -56,8 +56,8 @@ public class WriteCheckTransaction extends BenchmarkTransaction{
       rowCheckingsCus1 = results.get(0);
       rowSavingsCus1 = results.get(1);
 
-      balCC1 = (Integer) checkingsTable.getColumn("C_BAL", rowCheckingsCus1);
-      balSC1= (Integer) savingsTable.getColumn("S_BAL", rowSavingsCus1);
+      balCC1 = checkingsTable.getInt("C_BAL", rowCheckingsCus1);
+      balSC1= savingsTable.getInt("S_BAL", rowSavingsCus1);
       total = balSC1 + balCC1;
       if (total < amount) {
         // Pay a penalty fee
@@ -66,7 +66,7 @@ public class WriteCheckTransaction extends BenchmarkTransaction{
         balCC1 = balCC1 - amount;
       }
 
-      checkingsTable.updateColumn("C_BAL", balCC1, rowCheckingsCus1);
+      checkingsTable.putInt("C_BAL", balCC1, rowCheckingsCus1);
 
       ((RedisPostgresClient) client).write(SmallBankConstants.kCheckingsTable, custId1.toString(), rowCheckingsCus1, SmallBankTransactionType.WRITE_CHECK.ordinal(), this.txn_id);
 
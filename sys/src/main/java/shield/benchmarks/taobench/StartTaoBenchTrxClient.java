@@ -4,9 +4,7 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReadWriteLock;
 
 import org.json.simple.parser.ParseException;
 import shield.benchmarks.utils.CacheStats;
@@ -15,6 +13,8 @@ import shield.benchmarks.utils.StatisticsCollector;
 import shield.benchmarks.utils.TrxStats;
 import shield.client.ClientTransaction;
 import shield.client.DatabaseAbortException;
+import shield.client.KeyLockTable;
+import shield.client.NearCache;
 import shield.client.ClientBase;
 import shield.client.RedisPostgresClient;
 
@@ -32,13 +32,15 @@ public class StartTaoBenchTrxClient {
         public TaoBenchExperimentConfiguration tpcConfig;
         public String expConfigFile;
         public HashMap<TaoBenchConstants.Transactions, TrxStats> trxStats;
-        public Map<Long, ReadWriteLock> keyLocks;
+        public KeyLockTable keyLocks;
+        public long redisMemoryUsage;
 
-        BenchmarkRunnable(int threadNumber, TaoBenchExperimentConfiguration tpcConfig, String expConfigFile, Map<Long, ReadWriteLock> keyLocks) {
+        BenchmarkRunnable(int threadNumber, TaoBenchExperimentConfiguration tpcConfig, String expConfigFile, KeyLockTable keyLocks) {
             this.threadNumber = threadNumber;
             this.tpcConfig = tpcConfig;
             this.expConfigFile = expConfigFile;
             this.keyLocks = keyLocks;
+            this.redisMemoryUsage = -1;
         }
 
         @Override
@@ -55,7 +57,8 @@ public class StartTaoBenchTrxClient {
             boolean warmUp;
             boolean warmDown;
 
-            stats = new StatisticsCollector(tpcConfig.RUN_NAME + "_thread" + this.threadNumber);
+            stats = new StatisticsCollector(tpcConfig.RUN_NAME + "_thread" + this.threadNumber,
+                tpcConfig.STATS_FORMAT);
 
             try {
                 RedisPostgresClient client = (RedisPostgresClient) ClientUtils.createClient(tpcConfig.CLIENT_TYPE, expConfigFile, keyLocks, 7000 + this.threadNumber, this.threadNumber);
@@ -79,9 +82,9 @@ public class StartTaoBenchTrxClient {
                     if (!warmUp && !warmDown) {
                         measurementKey = StatisticsCollector.addBegin(stats);
                     }
-                    taoBenchGenerator.runNextTransaction();
+                    TaoBenchConstants.Transactions type = taoBenchGenerator.runNextTransaction();
                     if (!warmUp && !warmDown) {
-                        StatisticsCollector.addEnd(stats, measurementKey);
+                        StatisticsCollector.addEnd(stats, measurementKey, type.ordinal());
                     }
                     nbExecuted++;
                     expiredTime = System.currentTimeMillis() - beginTime;
@@ -98,6 +101,7 @@ public class StartTaoBenchTrxClient {
 
                 taoBenchGenerator.printStats();
                 trxStats = taoBenchGenerator.getTrxStats();
+                redisMemoryUsage = client.getRedisMemoryUsage();
             } catch (Exception e) {}
         }
     }
@@ -115,7 +119,7 @@ public class StartTaoBenchTrxClient {
         // Contains the experiment paramaters
         expConfigFile = args[0];
         tpcConfig = new TaoBenchExperimentConfiguration(expConfigFile);
-        Map<Long, ReadWriteLock> keyLocks = new ConcurrentHashMap<>(); // only make one lock map for all clients
+        KeyLockTable keyLocks = new KeyLockTable(tpcConfig.KEY_LOCK_STRIPES); // only make one lock table for all clients
 
         Thread[] threads = new Thread[tpcConfig.THREADS];
         BenchmarkRunnable[] runnables = new BenchmarkRunnable[tpcConfig.THREADS];
@@ -125,10 +129,14 @@ public class StartTaoBenchTrxClient {
             threads[i].start();
         }
 
+        CacheStats.startIntervalReports(tpcConfig.METRICS_INTERVAL, TaoBenchConstants.Transactions.values());
+
         HashMap<TaoBenchConstants.Transactions, TrxStats> combinedStats = new HashMap<>();
+        long redisMemoryUsage = -1;
 
         for (int i = 0; i < threads.length; i++) {
             threads[i].join();
+            redisMemoryUsage = Math.max(redisMemoryUsage, runnables[i].redisMemoryUsage);
 
             HashMap<TaoBenchConstants.Transactions, TrxStats> threadStats = runnables[i].trxStats;
             threadStats.forEach((txn, stat) -> {
@@ -148,8 +156,16 @@ public class StartTaoBenchTrxClient {
         System.out.println("Average throughput: " + txnsExecuted / tpcConfig.EXP_LENGTH + " txn/s");
         System.out.println("Average latency: " + ((float) combinedStats.values().stream().map(TrxStats::getTimeExecuted).reduce(0L, Long::sum)) / txnsExecuted + "ms");
 
+        NearCache nearCache = RedisPostgresClient.getNearCache();
+        if (nearCache != null) {
+            System.out.println("Near cache (L1) memory usage ~" + nearCache.getBytes() + " bytes, " + nearCache.getNbEntries() + " entries; "
+                    + nearCache.getEvictions() + " evicted, " + nearCache.getInvalidations() + " invalidated");
+        }
+        System.out.println("Redis (L2) memory usage: " + redisMemoryUsage + " bytes");
+        System.out.println();
+        CacheStats.printReport(TaoBenchConstants.Transactions.values());
         System.out.println();
-        CacheStats.printReport();
+        keyLocks.printReport(TaoBenchConstants.Transactions.values());
         System.exit(0);
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import shield.benchmarks.utils.ClientUtils;
 import shield.benchmarks.utils.ClientUtils.ClientType;
+import shield.benchmarks.utils.StatisticsCollector;
 import shield.config.Configuration;
 
 /**
@@ -24,6 +25,18 @@ public class TaoBenchExperimentConfiguration extends Configuration {
 
     public int REQ_THREADS_PER_BM_THREAD = 3;
 
+    /**
+     * Number of lock stripes shared by all the clients of the process. Keys hashing to the same
+     * stripe share a lock
+     */
+    public int KEY_LOCK_STRIPES = 1 << 16;
+
+    /**
+     * Period (in seconds) at which cache and latency metrics are printed during the run. 0 only
+     * prints them at the end
+     */
+    public int METRICS_INTERVAL = 10;
+
     public double PROB_TRX_READ= 58.0; //49.0; //  59.0; //
     public double PROB_TRX_READ_TXN = 83.0; // 89.0; // 84.0; //
     public double PROB_TRX_READ_SCAN = 100.0; // 97.0; //
@@ -62,6 +75,12 @@ public class TaoBenchExperimentConfiguration extends Configuration {
      */
     public String RUN_NAME = "";
 
+    /**
+     * Format of the latency files written by the clients: "text", or "binary" to be decoded offline
+     * by StatisticsReader
+     */
+    public StatisticsCollector.Format STATS_FORMAT = StatisticsCollector.Format.TEXT;
+
     /**
      * Experiment dir
      */
@@ -172,11 +191,15 @@ public class TaoBenchExperimentConfiguration extends Configuration {
 
         THREADS = getPropInt(prop, "threads", THREADS);
         REQ_THREADS_PER_BM_THREAD = getPropInt(prop, "req_threads_per_bm_thread", REQ_THREADS_PER_BM_THREAD);
+        KEY_LOCK_STRIPES = getPropInt(prop, "key_lock_stripes", KEY_LOCK_STRIPES);
+        METRICS_INTERVAL = getPropInt(prop, "metrics_interval", METRICS_INTERVAL);
 
         RAMP_UP = getPropInt(prop, "ramp_up", RAMP_UP);
         RAMP_DOWN = getPropInt(prop, "ramp_down", RAMP_DOWN);
         EXP_LENGTH = getPropInt(prop, "exp_length", EXP_LENGTH);
         RUN_NAME = getPropString(prop, "run_name", RUN_NAME);
+        STATS_FORMAT = StatisticsCollector.Format.valueOf(
+            getPropString(prop, "stats_format", STATS_FORMAT.name()).toUpperCase());
         EXP_DIR = getPropString(prop, "exp_dir", EXP_DIR);
         KEY_FILE_NAME = getPropString(prop, "key_file_name", KEY_FILE_NAME);
         NB_LOADER_THREADS = getPropInt(prop, "nb_loader_threads", NB_LOADER_THREADS);
@@ -67,7 +67,12 @@ public class TaoBenchGenerator {
                 new ColumnInfo("EDGE_DATA", String.class, config.VAR_DATA_SIZE));
     }
 
-    public void runNextTransaction() {
+    /**
+     * Runs a transaction drawn from the mix
+     *
+     * @return the type of the transaction that was run
+     */
+    public Transactions runNextTransaction() {
 
         // TBU
         int x = Generator.generateInt(0,100);
@@ -75,43 +80,50 @@ public class TaoBenchGenerator {
         long begin = System.currentTimeMillis();
         long end = 0;
         BenchmarkTransaction trx;
+        Transactions type;
         if (x < config.PROB_TRX_READ) {
             trx = GenerateReadInput();
 //            System.out.println("[" + TaoBenchConstants.Transactions.READ + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-            trxStats.get(TaoBenchConstants.Transactions.READ).addTransaction(nbAborts, end-begin);
+            type = TaoBenchConstants.Transactions.READ;
+            trxStats.get(type).addTransaction(nbAborts, end-begin);
 //            System.out.println("[" + TaoBenchConstants.Transactions.READ + "] End");
         } else if (x < config.PROB_TRX_READ_TXN) {
             trx = GenerateReadTxnInput(config.TXN_SIZES_5, config.TXN_WEIGHTS_5);
 //            System.out.println("[" + TaoBenchConstants.Transactions.READTRANSACTION + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-            trxStats.get(TaoBenchConstants.Transactions.READTRANSACTION).addTransaction(nbAborts, end - begin);
+            type = TaoBenchConstants.Transactions.READTRANSACTION;
+            trxStats.get(type).addTransaction(nbAborts, end - begin);
 //            System.out.println("[" + TaoBenchConstants.Transactions.READTRANSACTION + "] End");
         } else if (x < config.PROB_TRX_READ_SCAN) {
             trx = GenerateReadScanInput(config.TXN_SIZES_6, config.TXN_WEIGHTS_6);
 //            System.out.println("[" + TaoBenchConstants.Transactions.SCAN + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-            trxStats.get(TaoBenchConstants.Transactions.SCAN).addTransaction(nbAborts, end - begin);
+            type = TaoBenchConstants.Transactions.SCAN;
+            trxStats.get(type).addTransaction(nbAborts, end - begin);
 //            System.out.println("[" + TaoBenchConstants.Transactions.SCAN + "] End");
         } else if (x < config.PROB_TRX_WRITE) {
             trx = GenerateWriteInput();
 //            System.out.println("[" + TaoBenchConstants.Transactions.UPDATE + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-            trxStats.get(TaoBenchConstants.Transactions.WRITE).addTransaction(nbAborts, end-begin);
+            type = TaoBenchConstants.Transactions.WRITE;
+            trxStats.get(type).addTransaction(nbAborts, end-begin);
 //            System.out.println("[" + TaoBenchConstants.Transactions.UPDATE + "] End");
         } else {
             trx = GenerateWriteTxnInput(config.TXN_SIZES_7, config.TXN_WEIGHTS_7); // TBU
 //            System.out.println("[" + TaoBenchConstants.Transactions.WRITETRANSACTION + "] Begin");
             nbAborts = trx.run();
             end = System.currentTimeMillis();
-            trxStats.get(TaoBenchConstants.Transactions.WRITETRANSACTION).addTransaction(nbAborts,
+            type = TaoBenchConstants.Transactions.WRITETRANSACTION;
+            trxStats.get(type).addTransaction(nbAborts,
                     end - begin);
 //            System.out.println("[" + TaoBenchConstants.Transactions.WRITETRANSACTION + "] End");
         }
+        return type;
     }
 
     public PointRead GenerateReadInput() {
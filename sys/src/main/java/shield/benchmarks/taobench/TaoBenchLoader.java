@@ -42,7 +42,9 @@ public class TaoBenchLoader {
 
         if (tbConfig.MUST_LOAD_KEYS) {
             System.out.println("Begin loading data");
+            RedisPostgresClient.enableBulkLoad();
             loadData(tbConfig, expConfigFile);
+            RedisPostgresClient.finishBulkLoad();
         }
 
         System.out.println("Data loaded");
@@ -136,28 +138,28 @@ public class TaoBenchLoader {
                             break;
                         // Update objects table
                         row = objectsTable.createNewRow(config.PAD_COLUMNS);
-                        objectsTable.updateColumn("OBJ_ID", custId, row);
-                        objectsTable.updateColumn("OBJ_TIME", System.currentTimeMillis(), row);
-                        objectsTable.updateColumn("OBJ_DATA",
+                        objectsTable.putInt("OBJ_ID", custId, row);
+                        objectsTable.putLong("OBJ_TIME", System.currentTimeMillis(), row);
+                        objectsTable.putString("OBJ_DATA",
                                 generator.RandDiscreteString(config.DATA_SIZES, config.DATA_WEIGHTS, false),
                                 row);
                         client.write(TaoBenchConstants.kObjectsTable, custId.toString(), row);
 
                         row = objectsTable.createNewRow(config.PAD_COLUMNS);
-                        objectsTable.updateColumn("OBJ_ID", custId2, row);
-                        objectsTable.updateColumn("OBJ_TIME", System.currentTimeMillis() + 1, row);
-                        objectsTable.updateColumn("OBJ_DATA",
+                        objectsTable.putInt("OBJ_ID", custId2, row);
+                        objectsTable.putLong("OBJ_TIME", System.currentTimeMillis() + 1, row);
+                        objectsTable.putString("OBJ_DATA",
                                 generator.RandDiscreteString(config.DATA_SIZES, config.DATA_WEIGHTS, false),
                                 row);
                         client.write(TaoBenchConstants.kObjectsTable, custId2.toString(), row);
 
 //                        // Update edges table
                         row = edgesTable.createNewRow(config.PAD_COLUMNS);
-                        edgesTable.updateColumn("EDGE_ID", custId, row);
-                        edgesTable.updateColumn("EDGE_TYPE", 100, row); // Type irrelevant
-                        edgesTable.updateColumn("EDGE_ID2", custId2, row);
-                        edgesTable.updateColumn("EDGE_TIME", System.currentTimeMillis(), row);
-                        edgesTable.updateColumn("EDGE_DATA",
+                        edgesTable.putInt("EDGE_ID", custId, row);
+                        edgesTable.putInt("EDGE_TYPE", 100, row); // Type irrelevant
+                        edgesTable.putInt("EDGE_ID2", custId2, row);
+                        edgesTable.putLong("EDGE_TIME", System.currentTimeMillis(), row);
+                        edgesTable.putString("EDGE_DATA",
                                 generator.RandDiscreteString(config.DATA_SIZES, config.DATA_WEIGHTS, false),
                                 row);
                         String edgeStr = custId.toString() + ":" + custId2.toString();
@@ -89,7 +89,7 @@ public class DeliveryTransaction extends BenchmarkTransaction {
         return true;
       }
 
-      noId = (Integer) earliestNewOrderTable.getColumn(2, earliestNo);
+      noId = earliestNewOrderTable.getInt(2, earliestNo);
       noKey = new NewOrderKey(wid, did, noId);
       results = ((RedisPostgresClient) client).readForUpdateAndExecute(TPCCConstants.kNewOrderTable, noKey.str(),
               TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
@@ -107,7 +107,7 @@ public class DeliveryTransaction extends BenchmarkTransaction {
       // Update the earliest new order table
       noId = noId + 1;
 //      System.out.println("[Delivery] Earliest New Order is Now " + wid + " " + did + " " + noId);
-      earliestNewOrderTable.updateColumn(2, noId, no);
+      earliestNewOrderTable.putInt(2, noId, no);
       ((RedisPostgresClient) client).update(TPCCConstants.kEarliestNewOrderTable, enoKey.str(), no,
               TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
 
@@ -130,8 +130,8 @@ public class DeliveryTransaction extends BenchmarkTransaction {
 
       results = client.execute();
       order = results.get(0);
-      cid = (Integer) orderTable.getColumn(3, order);
-      olCnt = (Integer) orderTable.getColumn(6, order);
+      cid = orderTable.getInt(3, order);
+      olCnt = orderTable.getInt(6, order);
 
 //      System.out.println("[Delivery] Order count is " + olCnt);
 
@@ -142,10 +142,10 @@ public class DeliveryTransaction extends BenchmarkTransaction {
         try {
           olKey = new OrderLineKey(wid, did, noId, i);
           olRow = results.get(i + 1);
-          total += (Integer) orderLineTable.getColumn(8, olRow);
+          total += orderLineTable.getInt(8, olRow);
           // Now update the delivery to the current time
           date = generator.getTime();
-          orderLineTable.updateColumn(6, date, olRow);
+          orderLineTable.putString(6, date, olRow);
           ((RedisPostgresClient) client).update(TPCCConstants.kOrderLineTable, olKey.str(), olRow,
                   TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
         } catch (Exception e) {
@@ -158,7 +158,7 @@ public class DeliveryTransaction extends BenchmarkTransaction {
 
      }
 
-      orderTable.updateColumn(5, carrierId, order);
+      orderTable.putInt(5, carrierId, order);
       ((RedisPostgresClient) client).update(TPCCConstants.kOrderTable, oKey.str(), order,
               TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
 
@@ -169,9 +169,9 @@ public class DeliveryTransaction extends BenchmarkTransaction {
               TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
       // results = client.readAndExecute(TPCCConstants.kCustomerTable, cKey.str());
       custRow = results.get(0);
-      delCount = (Integer) customerTable.getColumn(19, custRow);
-      customerTable.updateColumn(16, total, custRow);
-      customerTable.updateColumn(19, 1 + delCount, custRow);
+      delCount = customerTable.getInt(19, custRow);
+      customerTable.putInt(16, total, custRow);
+      customerTable.putInt(19, 1 + delCount, custRow);
       ((RedisPostgresClient) client).update(TPCCConstants.kCustomerTable, cKey.str(), custRow,
               TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
       client.commitTransaction();
@@ -224,7 +224,7 @@ public class DeliveryTransaction extends BenchmarkTransaction {
         return true;
       }
 
-      noId = (Integer) earliestNewOrderTable.getColumn(2, earliestNo);
+      noId = earliestNewOrderTable.getInt(2, earliestNo);
 
       noKey = new NewOrderKey(wid, did, noId);
       results = ((RedisPostgresClient) client).readAndExecute(TPCCConstants.kNewOrderTable, noKey.str(),
@@ -242,7 +242,7 @@ public class DeliveryTransaction extends BenchmarkTransaction {
       // Update the earliest new order table
       noId = noId + 1;
 //      System.out.println("[Delivery] Earliest New Order is Now " + wid + " " + did + " " + noId);
-      earliestNewOrderTable.updateColumn(2, noId, no);
+      earliestNewOrderTable.putInt(2, noId, no);
       ((RedisPostgresClient) client).update(TPCCConstants.kEarliestNewOrderTable, enoKey.str(), no,
               TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
 
@@ -255,13 +255,13 @@ public class DeliveryTransaction extends BenchmarkTransaction {
       results = ((RedisPostgresClient) client).readForUpdateAndExecute(TPCCConstants.kOrderTable,
           oKey.str(), TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
       order = results.get(0);
-      cid = (Integer) orderTable.getColumn(3, order);
-      olCnt = (Integer) orderTable.getColumn(6, order);
+      cid = orderTable.getInt(3, order);
+      olCnt = orderTable.getInt(6, order);
 
       assert (olCnt>= 5 && olCnt <=15 );
 
       // Update Carrier id
-      orderTable.updateColumn(5, carrierId, order);
+      orderTable.putInt(5, carrierId, order);
       ((RedisPostgresClient) client).update(TPCCConstants.kOrderTable, oKey.str(), order,
               TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
 
@@ -271,10 +271,10 @@ public class DeliveryTransaction extends BenchmarkTransaction {
         results = ((RedisPostgresClient) client).readForUpdateAndExecute(TPCCConstants.kOrderLineTable, olKey.str(),
                 TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
         olRow = results.get(0);
-        total += (Integer) orderLineTable.getColumn(8, olRow);
+        total += orderLineTable.getInt(8, olRow);
         // Now update the delivery to the current time
         date = generator.getTime();
-        orderLineTable.updateColumn(6, date, olRow);
+        orderLineTable.putString(6, date, olRow);
         ((RedisPostgresClient) client).update(TPCCConstants.kOrderLineTable, olKey.str(), olRow,
                 TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
       }
@@ -285,9 +285,9 @@ public class DeliveryTransaction extends BenchmarkTransaction {
               TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
      // results = client.readAndExecute(TPCCConstants.kCustomerTable, cKey.str());
       custRow = results.get(0);
-      delCount = (Integer) customerTable.getColumn(19, custRow);
-      customerTable.updateColumn(16, total, custRow);
-      customerTable.updateColumn(19, 1 + delCount, custRow);
+      delCount = customerTable.getInt(19, custRow);
+      customerTable.putInt(16, total, custRow);
+      customerTable.putInt(19, 1 + delCount, custRow);
       ((RedisPostgresClient) client).update(TPCCConstants.kCustomerTable, cKey.str(), custRow,
               TPCCConstants.Transactions.DELIVERY.ordinal(), this.txn_id);
       client.commitTransaction();
@@ -347,7 +347,7 @@ public class DeliveryTransaction extends BenchmarkTransaction {
         return true;
       }
 
-      noId = (Integer) earliestNewOrderTable.getColumn(2, earliestNo);
+      noId = earliestNewOrderTable.getInt(2, earliestNo);
       noKey = new NewOrderKey(wid, did, noId);
       results = client.readAndExecute(TPCCConstants.kNewOrderTable, noKey.str());
       no = results.get(0);
@@ -363,7 +363,7 @@ public class DeliveryTransaction extends BenchmarkTransaction {
       // Update the earliest new order table
       noId = noId + 1;
       System.out.println("[Delivery] Earliest New Order is Now " + wid + " " + did + " " + noId);
-      earliestNewOrderTable.updateColumn(2, noId, no);
+      earliestNewOrderTable.putInt(2, noId, no);
       client.write(TPCCConstants.kEarliestNewOrderTable, enoKey.str(), no);
 
       // Delete a record (for now, write the empty value)
@@ -374,13 +374,13 @@ public class DeliveryTransaction extends BenchmarkTransaction {
       results = client.readAndExecute(TPCCConstants.kOrderTable,
           oKey.str());
       order = results.get(0);
-      cid = (Integer) orderTable.getColumn(3, order);
-      olCnt = (Integer) orderTable.getColumn(6, order);
+      cid = orderTable.getInt(3, order);
+      olCnt = orderTable.getInt(6, order);
 
       assert (olCnt>= 5 && olCnt <=15 );
 
       // Update Carrier id
-      orderTable.updateColumn(5, carrierId, order);
+      orderTable.putInt(5, carrierId, order);
       client.write(TPCCConstants.kOrderTable, oKey.str(), order);
 
 
@@ -401,17 +401,17 @@ public class DeliveryTransaction extends BenchmarkTransaction {
       for (int i = 0 ; i < olCnt; i++) {
         olRow = results.get(i+1);
         olKey = new OrderLineKey(wid, did, noId, i);
-        total += (Integer) orderLineTable.getColumn(8, olRow);
+        total += orderLineTable.getInt(8, olRow);
         // Now update the delivery to the current time
         date = generator.getTime();
-        orderLineTable.updateColumn(6, date, olRow);
+        orderLineTable.putInt(6, date, olRow);
         client.write(TPCCConstants.kOrderLineTable, olKey.str(), olRow);
       }
 
       // Read and update customer table
-      delCount = (Integer) customerTable.getColumn(19, custRow);
-      customerTable.updateColumn(16, total, custRow);
-      customerTable.updateColumn(19, 1 + delCount, custRow);
+      delCount = customerTable.getInt(19, custRow);
+      customerTable.putInt(16, total, custRow);
+      customerTable.putInt(19, 1 + delCount, custRow);
       client.write(TPCCConstants.kCustomerTable, cKey.str(), custRow);
       client.commitTransaction();
       return true;
@@ -9,6 +9,7 @@ import shield.benchmarks.tpcc.utils.TPCCConstants;
 import shield.benchmarks.utils.BenchmarkTransaction;
 import shield.client.RedisPostgresClient;
 import shield.client.DatabaseAbortException;
+import shield.client.schema.StringView;
 import shield.client.schema.Table;
 
 public class NewOrderTransaction extends BenchmarkTransaction{
@@ -72,19 +73,19 @@ public class NewOrderTransaction extends BenchmarkTransaction{
       byte[] oRow;
       byte[] result;
       int cDiscount;
-      String cLastName;
-      String cCredit;
+      StringView cLastName = new StringView();
+      StringView cCredit = new StringView();
       int itemId;
       int olQuantity;
       int supplyWid;
       int price;
       boolean allLocal;
       int sQuantity;
-      String distInfo;
+      StringView distInfo = new StringView();
       int stock;
       int amount = 0;
-      String sData;
-      String iData;
+      StringView sData = new StringView();
+      StringView iData = new StringView();
       int sYtd;
       int remoteCount;
 
@@ -121,16 +122,16 @@ public class NewOrderTransaction extends BenchmarkTransaction{
       dRow = results.get(1);
       cRow = results.get(2);
 
-      wTax = (Integer) warehouseTable.getColumn(7, wRow);
-      dTax = (Integer) districtTable.getColumn(8, dRow);
-      dNextOid = (Integer) districtTable.getColumn(10, dRow);
+      wTax = warehouseTable.getInt(7, wRow);
+      dTax = districtTable.getInt(8, dRow);
+      dNextOid = districtTable.getInt(10, dRow);
 //      System.out.println("[NewOrder] Wid: " + wid + " " + did + " " + dNextOid);
 
-      cDiscount = (Integer) customerTable.getColumn(15, cRow);
-      cLastName = (String) customerTable.getColumn(5, cRow);
-      cCredit = (String) customerTable.getColumn(13, cRow);
+      cDiscount = customerTable.getInt(15, cRow);
+      customerTable.getString(5, cRow, cLastName);
+      customerTable.getString(13, cRow, cCredit);
 
-      districtTable.updateColumn(10, dNextOid + 1, dRow);
+      districtTable.putInt(10, dNextOid + 1, dRow);
       ((RedisPostgresClient) client).update(TPCCConstants.kDistrictTable, dKey.str(), dRow,
               TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
 
@@ -138,30 +139,30 @@ public class NewOrderTransaction extends BenchmarkTransaction{
 
       newOrderKey = new NewOrderKey(wid, did, dNextOid);
       oRow = newOrderTable.createNewRow(config.PAD_COLUMNS);
-      newOrderTable.updateColumn(0, dNextOid, oRow);
-      newOrderTable.updateColumn(1, did, oRow);
-      newOrderTable.updateColumn(2, wid, oRow);
+      newOrderTable.putInt(0, dNextOid, oRow);
+      newOrderTable.putInt(1, did, oRow);
+      newOrderTable.putInt(2, wid, oRow);
       ((RedisPostgresClient) client).write(TPCCConstants.kNewOrderTable, newOrderKey.str(), oRow,
               TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
 
       // Write order - update secondary index
       oRow = orderByCustTable.createNewRow(config.PAD_COLUMNS);
       orderByCustomerKey = new OrderByCustomerKey(wid, did, cid);
-      orderByCustTable.updateColumn(0, dNextOid, oRow);
+      orderByCustTable.putInt(0, dNextOid, oRow);
       ((RedisPostgresClient) client).write(TPCCConstants.kOrderByCustomerTable, orderByCustomerKey.str(),
           oRow, TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
 
       // Write order
       oRow = orderTable.createNewRow(config.PAD_COLUMNS);
       orderKey = new OrderKey(wid, did, dNextOid);
-      orderTable.updateColumn(0, dNextOid, oRow);
-      orderTable.updateColumn(1, did, oRow);
-      orderTable.updateColumn(2, wid, oRow);
-      orderTable.updateColumn(3, cid, oRow);
-      orderTable.updateColumn(4, generator.getTime(), oRow);
-      orderTable.updateColumn(5, 0, oRow);
-      orderTable.updateColumn(6, olCnt, oRow);
-      orderTable.updateColumn(7, allLocal ? 1 : 0, oRow);
+      orderTable.putInt(0, dNextOid, oRow);
+      orderTable.putInt(1, did, oRow);
+      orderTable.putInt(2, wid, oRow);
+      orderTable.putInt(3, cid, oRow);
+      orderTable.putString(4, generator.getTime(), oRow);
+      orderTable.putInt(5, 0, oRow);
+      orderTable.putInt(6, olCnt, oRow);
+      orderTable.putInt(7, allLocal ? 1 : 0, oRow);
       ((RedisPostgresClient) client).write(TPCCConstants.kOrderTable, orderKey.str(), oRow,
               TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
 
@@ -198,17 +199,17 @@ public class NewOrderTransaction extends BenchmarkTransaction{
           client.abortTransaction();
           return true;
         }
-        price = (Integer) itemTable.getColumn(3,oRow);
-        iData = (String) itemTable.getColumn(4, oRow);
+        price = itemTable.getInt(3,oRow);
+        itemTable.getString(4, oRow, iData);
 
         // Result from stock table
         stockKey = new StockKey(supplyWid,iid);
         oRow = results.get(iids.size() + itemId);
-        sQuantity = (Integer) stockTable.getColumn(2,oRow);
-        distInfo = (String) stockTable.getColumn(3+ did, oRow);
-        sData = (String) stockTable.getColumn(16, oRow);
-        sYtd = (Integer) stockTable.getColumn(13, oRow);
-        remoteCount = (Integer) stockTable.getColumn(15, oRow);
+        sQuantity = stockTable.getInt(2,oRow);
+        stockTable.getString(3+ did, oRow, distInfo);
+        stockTable.getString(16, oRow, sData);
+        sYtd = stockTable.getInt(13, oRow);
+        remoteCount = stockTable.getInt(15, oRow);
         sYtd+=olQuantity;
         stock = sQuantity - olQuantity;
         if (stock<0) {
@@ -216,26 +217,26 @@ public class NewOrderTransaction extends BenchmarkTransaction{
         } else {
           stock  = sQuantity- olQuantity;
         }
-        stockTable.updateColumn(2,stock,oRow);
-        stockTable.updateColumn(13,sYtd,oRow);
-        stockTable.updateColumn(14,1,oRow);
-        stockTable.updateColumn(15, wid != supplyWid? remoteCount+1:remoteCount, oRow);
+        stockTable.putInt(2,stock,oRow);
+        stockTable.putInt(13,sYtd,oRow);
+        stockTable.putInt(14,1,oRow);
+        stockTable.putInt(15, wid != supplyWid? remoteCount+1:remoteCount, oRow);
         ((RedisPostgresClient) client).update(TPCCConstants.kStockTable, stockKey.str(), oRow,
                 TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
 
         orderLineKey = new OrderLineKey(wid,did,dNextOid,itemId);
         oRow = orderLineTable.createNewRow(config.PAD_COLUMNS);
-        orderLineTable.updateColumn(0, dNextOid,oRow);
-        orderLineTable.updateColumn(1, did, oRow);
-        orderLineTable.updateColumn(2, wid, oRow);
-        orderLineTable.updateColumn(3, itemId, oRow);
-        orderLineTable.updateColumn(4, iid, oRow);
-        orderLineTable.updateColumn(5, supplyWid, oRow);
+        orderLineTable.putInt(0, dNextOid,oRow);
+        orderLineTable.putInt(1, did, oRow);
+        orderLineTable.putInt(2, wid, oRow);
+        orderLineTable.putInt(3, itemId, oRow);
+        orderLineTable.putInt(4, iid, oRow);
+        orderLineTable.putInt(5, supplyWid, oRow);
         // ol_deliver_g set to null
-        orderLineTable.updateColumn(6, "", oRow);
-        orderLineTable.updateColumn(7, olQuantity, oRow);
+        orderLineTable.putString(6, "", oRow);
+        orderLineTable.putInt(7, olQuantity, oRow);
         amount += (int) ((double) olQuantity * (double) price);
-        orderLineTable.updateColumn(8, olQuantity*price, oRow);
+        orderLineTable.putInt(8, olQuantity*price, oRow);
         ((RedisPostgresClient) client).write(TPCCConstants.kOrderLineTable, orderLineKey.str(),
             oRow, TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
         itemId++;
@@ -274,19 +275,19 @@ public class NewOrderTransaction extends BenchmarkTransaction{
       byte[] cRow;
       byte[] oRow;
       int cDiscount;
-      String cLastName;
-      String cCredit;
+      StringView cLastName = new StringView();
+      StringView cCredit = new StringView();
       int itemId;
       int olQuantity;
       int supplyWid;
       int price;
       boolean allLocal;
       int sQuantity;
-      String distInfo;
+      StringView distInfo = new StringView();
       int stock;
       int amount = 0;
-      String sData;
-      String iData;
+      StringView sData = new StringView();
+      StringView iData = new StringView();
       int sYtd;
       int remoteCount;
 
@@ -321,16 +322,16 @@ public class NewOrderTransaction extends BenchmarkTransaction{
       dRow = results.get(1);
       cRow = results.get(2);
 
-      wTax = (Integer) warehouseTable.getColumn(7, wRow);
-      dTax = (Integer) districtTable.getColumn(8, dRow);
-      dNextOid = (Integer) districtTable.getColumn(10, dRow);
+      wTax = warehouseTable.getInt(7, wRow);
+      dTax = districtTable.getInt(8, dRow);
+      dNextOid = districtTable.getInt(10, dRow);
 //      System.out.println("[NewOrder] Wid: " + wid + " " + did + " " + dNextOid);
 
-      cDiscount = (Integer) customerTable.getColumn(15, cRow);
-      cLastName = (String) customerTable.getColumn(5, cRow);
-      cCredit = (String) customerTable.getColumn(13, cRow);
+      cDiscount = customerTable.getInt(15, cRow);
+      customerTable.getString(5, cRow, cLastName);
+      customerTable.getString(13, cRow, cCredit);
 
-      districtTable.updateColumn(10, dNextOid + 1, dRow);
+      districtTable.putInt(10, dNextOid + 1, dRow);
       ((RedisPostgresClient) client).update(TPCCConstants.kDistrictTable, dKey.str(), dRow,
               TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
 
@@ -338,30 +339,30 @@ public class NewOrderTransaction extends BenchmarkTransaction{
 
       newOrderKey = new NewOrderKey(wid, did, dNextOid);
       oRow = newOrderTable.createNewRow(config.PAD_COLUMNS);
-      newOrderTable.updateColumn(0, dNextOid, oRow);
-      newOrderTable.updateColumn(1, did, oRow);
-      newOrderTable.updateColumn(2, wid, oRow);
+      newOrderTable.putInt(0, dNextOid, oRow);
+      newOrderTable.putInt(1, did, oRow);
+      newOrderTable.putInt(2, wid, oRow);
       ((RedisPostgresClient) client).write(TPCCConstants.kNewOrderTable, newOrderKey.str(), oRow,
               TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
 
       // Write order - update secondary index
       oRow = orderByCustTable.createNewRow(config.PAD_COLUMNS);
       orderByCustomerKey = new OrderByCustomerKey(wid, did, cid);
-      orderByCustTable.updateColumn(0, dNextOid, oRow);
+      orderByCustTable.putInt(0, dNextOid, oRow);
       ((RedisPostgresClient) client).write(TPCCConstants.kOrderByCustomerTable, orderByCustomerKey.str(),
           oRow, TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
 
       // Write order
       oRow = orderTable.createNewRow(config.PAD_COLUMNS);
       orderKey = new OrderKey(wid, did, dNextOid);
-      orderTable.updateColumn(0, dNextOid, oRow);
-      orderTable.updateColumn(1, did, oRow);
-      orderTable.updateColumn(2, wid, oRow);
-      orderTable.updateColumn(3, cid, oRow);
-      orderTable.updateColumn(4, generator.getTime(), oRow);
-      orderTable.updateColumn(5, 0, oRow);
-      orderTable.updateColumn(6, olCnt, oRow);
-      orderTable.updateColumn(7, allLocal ? 1 : 0, oRow);
+      orderTable.putInt(0, dNextOid, oRow);
+      orderTable.putInt(1, did, oRow);
+      orderTable.putInt(2, wid, oRow);
+      orderTable.putInt(3, cid, oRow);
+      orderTable.putString(4, generator.getTime(), oRow);
+      orderTable.putInt(5, 0, oRow);
+      orderTable.putInt(6, olCnt, oRow);
+      orderTable.putInt(7, allLocal ? 1 : 0, oRow);
       ((RedisPostgresClient) client).write(TPCCConstants.kOrderTable, orderKey.str(), oRow,
               TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
 
@@ -383,18 +384,18 @@ public class NewOrderTransaction extends BenchmarkTransaction{
           client.abortTransaction();
           return true;
         }
-        price = (Integer) itemTable.getColumn(3, oRow);
-        iData = (String) itemTable.getColumn(4, oRow);
+        price = itemTable.getInt(3, oRow);
+        itemTable.getString(4, oRow, iData);
         stockKey = new StockKey(supplyWid, iid);
         results = ((RedisPostgresClient) client).readForUpdateAndExecute(TPCCConstants.kStockTable, stockKey.str(),
                 TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
         //   results = client.readAndExecute(TPCCConstants.kStockTable, stockKey.str());
         oRow = results.get(0);
-        sQuantity = (Integer) stockTable.getColumn(2, oRow);
-        distInfo = (String) stockTable.getColumn(3 + did, oRow);
-        sData = (String) stockTable.getColumn(16, oRow);
-        sYtd = (Integer) stockTable.getColumn(13, oRow);
-        remoteCount = (Integer) stockTable.getColumn(15, oRow);
+        sQuantity = stockTable.getInt(2, oRow);
+        stockTable.getString(3 + did, oRow, distInfo);
+        stockTable.getString(16, oRow, sData);
+        sYtd = stockTable.getInt(13, oRow);
+        remoteCount = stockTable.getInt(15, oRow);
         sYtd += olQuantity;
         stock = sQuantity - olQuantity;
         if (stock < 0) {
@@ -402,26 +403,26 @@ public class NewOrderTransaction extends BenchmarkTransaction{
         } else {
           stock = sQuantity - olQuantity;
         }
-        stockTable.updateColumn(2, stock, oRow);
-        stockTable.updateColumn(13, sYtd, oRow);
-        stockTable.updateColumn(14, 1, oRow);
-        stockTable.updateColumn(15, wid != supplyWid ? remoteCount + 1 : remoteCount, oRow);
+        stockTable.putInt(2, stock, oRow);
+        stockTable.putInt(13, sYtd, oRow);
+        stockTable.putInt(14, 1, oRow);
+        stockTable.putInt(15, wid != supplyWid ? remoteCount + 1 : remoteCount, oRow);
         ((RedisPostgresClient) client).update(TPCCConstants.kStockTable, stockKey.str(), oRow,
                 TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
 
         orderLineKey = new OrderLineKey(wid, did, dNextOid, itemId);
         oRow = orderLineTable.createNewRow(config.PAD_COLUMNS);
-        orderLineTable.updateColumn(0, dNextOid, oRow);
-        orderLineTable.updateColumn(1, did, oRow);
-        orderLineTable.updateColumn(2, wid, oRow);
-        orderLineTable.updateColumn(3, itemId, oRow);
-        orderLineTable.updateColumn(4, iid, oRow);
-        orderLineTable.updateColumn(5, supplyWid, oRow);
+        orderLineTable.putInt(0, dNextOid, oRow);
+        orderLineTable.putInt(1, did, oRow);
+        orderLineTable.putInt(2, wid, oRow);
+        orderLineTable.putInt(3, itemId, oRow);
+        orderLineTable.putInt(4, iid, oRow);
+        orderLineTable.putInt(5, supplyWid, oRow);
         // ol_deliver_g set to null
-        orderLineTable.updateColumn(6, "", oRow);
-        orderLineTable.updateColumn(7, olQuantity, oRow);
+        orderLineTable.putString(6, "", oRow);
+        orderLineTable.putInt(7, olQuantity, oRow);
         amount += (int) ((double) olQuantity * (double) price);
-        orderLineTable.updateColumn(8, olQuantity * price, oRow);
+        orderLineTable.putInt(8, olQuantity * price, oRow);
         ((RedisPostgresClient) client).writeAndExecute(TPCCConstants.kOrderLineTable, orderLineKey.str(),
             oRow, TPCCConstants.Transactions.NEW_ORDER.ordinal(), this.txn_id);
         itemId++;
@@ -473,19 +474,19 @@ public class NewOrderTransaction extends BenchmarkTransaction{
       byte[] cRow;
       byte[] oRow;
       int cDiscount;
-      String cLastName;
-      String cCredit;
+      StringView cLastName = new StringView();
+      StringView cCredit = new StringView();
       int itemId;
       int olQuantity;
       int supplyWid;
       int price;
       boolean allLocal;
       int sQuantity;
-      String distInfo;
+      StringView distInfo = new StringView();
       int stock;
       int amount = 0;
-      String sData;
-      String iData;
+      StringView sData = new StringView();
+      StringView iData = new StringView();
       int sYtd;
       int remoteCount;
       ArrayList<Integer> prices = new ArrayList<>();
@@ -519,14 +520,14 @@ public class NewOrderTransaction extends BenchmarkTransaction{
       dRow = results.get(1);
       cRow = results.get(2);
 
-      wTax = (Integer) warehouseTable.getColumn(7, wRow);
-      dTax = (Integer) districtTable.getColumn(8, dRow);
-      dNextOid = (Integer) districtTable.getColumn(10, dRow);
-      cDiscount = (Integer) customerTable.getColumn(15,cRow);
-      cLastName = (String) customerTable.getColumn(5, cRow);
-      cCredit = (String) customerTable.getColumn(13,cRow);
+      wTax = warehouseTable.getInt(7, wRow);
+      dTax = districtTable.getInt(8, dRow);
+      dNextOid = districtTable.getInt(10, dRow);
+      cDiscount = customerTable.getInt(15,cRow);
+      customerTable.getString(5, cRow, cLastName);
+      customerTable.getString(13, cRow, cCredit);
 
-      districtTable.updateColumn(10, dNextOid + 1, dRow);
+      districtTable.putInt(10, dNextOid + 1, dRow);
       client.write(TPCCConstants.kDistrictTable, dKey.str(), dRow);
 
       // Write new order
@@ -534,29 +535,29 @@ public class NewOrderTransaction extends BenchmarkTransaction{
 
       newOrderKey = new NewOrderKey(wid,did,dNextOid);
       oRow = newOrderTable.createNewRow(config.PAD_COLUMNS);
-      newOrderTable.updateColumn(0, dNextOid, oRow);
-      newOrderTable.updateColumn(1,did, oRow);
-      newOrderTable.updateColumn(2, wid, oRow);
+      newOrderTable.putInt(0, dNextOid, oRow);
+      newOrderTable.putInt(1,did, oRow);
+      newOrderTable.putInt(2, wid, oRow);
       client.write(TPCCConstants.kNewOrderTable,  newOrderKey.str(), oRow);
 
       // Write order - update secondary index
       oRow = orderByCustTable.createNewRow(config.PAD_COLUMNS);
       orderByCustomerKey = new OrderByCustomerKey(wid,did,cid);
-      orderByCustTable.updateColumn(0, dNextOid, oRow);
+      orderByCustTable.putInt(0, dNextOid, oRow);
       client.write(TPCCConstants.kOrderByCustomerTable, orderByCustomerKey.str(),
           oRow);
 
       // Write order
       oRow = orderTable.createNewRow(config.PAD_COLUMNS);
       orderKey = new OrderKey(wid,did,dNextOid);
-      orderTable.updateColumn(0,dNextOid, oRow);
-      orderTable.updateColumn(1,did,oRow);
-      orderTable.updateColumn(2,wid, oRow);
-      orderTable.updateColumn(3,cid,oRow);
-      orderTable.updateColumn(4,generator.getTime(), oRow);
-      orderTable.updateColumn(5,0,oRow);
-      orderTable.updateColumn(6, olCnt, oRow);
-      orderTable.updateColumn(7, allLocal? 1: 0, oRow);
+      orderTable.putInt(0,dNextOid, oRow);
+      orderTable.putInt(1,did,oRow);
+      orderTable.putInt(2,wid, oRow);
+      orderTable.putInt(3,cid,oRow);
+      orderTable.putInt(4,generator.getTime(), oRow);
+      orderTable.putInt(5,0,oRow);
+      orderTable.putInt(6, olCnt, oRow);
+      orderTable.putInt(7, allLocal? 1: 0, oRow);
       client.write(TPCCConstants.kOrderTable, orderKey.str(), oRow);
 
       // Write order line
@@ -581,9 +582,9 @@ public class NewOrderTransaction extends BenchmarkTransaction{
           client.abortTransaction();
           return true;
         }
-        price = (Integer) itemTable.getColumn(3,oRow);
+        price = itemTable.getInt(3,oRow);
         prices.add(price);
-        iData = (String) itemTable.getColumn(4, oRow);
+        itemTable.getString(4, oRow, iData);
         olQuantity = olQuantities.get(itemId);
         supplyWid  = swids.get(itemId);
         stockKey = new StockKey(supplyWid,iid);
@@ -595,11 +596,11 @@ public class NewOrderTransaction extends BenchmarkTransaction{
       itemId = 0;
       for (Integer iid: iids) {
         oRow = results.get(itemId);
-        sQuantity = (Integer) stockTable.getColumn(2,oRow);
-        distInfo = (String) stockTable.getColumn(3+ did, oRow);
-        sData = (String) stockTable.getColumn(16, oRow);
-        sYtd = (Integer) stockTable.getColumn(13, oRow);
-        remoteCount = (Integer) stockTable.getColumn(15, oRow);
+        sQuantity = stockTable.getInt(2,oRow);
+        stockTable.getString(3+ did, oRow, distInfo);
+        stockTable.getString(16, oRow, sData);
+        sYtd = stockTable.getInt(13, oRow);
+        remoteCount = stockTable.getInt(15, oRow);
         olQuantity = olQuantities.get(itemId);
         supplyWid  = swids.get(itemId);
         sYtd+=olQuantity;
@@ -609,25 +610,25 @@ public class NewOrderTransaction extends BenchmarkTransaction{
         } else {
           stock  = sQuantity- olQuantity;
         }
-        stockTable.updateColumn(2,stock,oRow);
-        stockTable.updateColumn(13,sYtd,oRow);
-        stockTable.updateColumn(14,1,oRow);
-        stockTable.updateColumn(15, wid != supplyWid? remoteCount+1:remoteCount, oRow);
+        stockTable.putInt(2,stock,oRow);
+        stockTable.putInt(13,sYtd,oRow);
+        stockTable.putInt(14,1,oRow);
+        stockTable.putInt(15, wid != supplyWid? remoteCount+1:remoteCount, oRow);
         stockKey = new StockKey(supplyWid,iid);
         client.write(TPCCConstants.kStockTable, stockKey.str(), oRow);
         orderLineKey = new OrderLineKey(wid,did,dNextOid,itemId);
         oRow = orderLineTable.createNewRow(config.PAD_COLUMNS);
-        orderLineTable.updateColumn(0, dNextOid,oRow);
-        orderLineTable.updateColumn(1, did, oRow);
-        orderLineTable.updateColumn(2, wid, oRow);
-        orderLineTable.updateColumn(3, itemId, oRow);
-        orderLineTable.updateColumn(4, iid, oRow);
-        orderLineTable.updateColumn(5, supplyWid, oRow);
+        orderLineTable.putInt(0, dNextOid,oRow);
+        orderLineTable.putInt(1, did, oRow);
+        orderLineTable.putInt(2, wid, oRow);
+        orderLineTable.putInt(3, itemId, oRow);
+        orderLineTable.putInt(4, iid, oRow);
+        orderLineTable.putInt(5, supplyWid, oRow);
         // ol_deliver_g set to null
-        orderLineTable.updateColumn(6, "", oRow);
-        orderLineTable.updateColumn(7, olQuantity, oRow);
+        orderLineTable.putInt(6, "", oRow);
+        orderLineTable.putInt(7, olQuantity, oRow);
         amount += (int) ((double) olQuantity * (double) prices.get(itemId));
-        orderLineTable.updateColumn(8, olQuantity*prices.get(itemId), oRow);
+        orderLineTable.putInt(8, olQuantity*prices.get(itemId), oRow);
         client.write(TPCCConstants.kOrderLineTable, orderLineKey.str(),
             oRow);
         itemId++;
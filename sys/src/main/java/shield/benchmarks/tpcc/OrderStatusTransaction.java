@@ -70,7 +70,7 @@ public class OrderStatusTransaction extends BenchmarkTransaction{
         results = ((RedisPostgresClient) client).readAndExecute(TPCCConstants.kCustomerByNameTable, cByNameKey.str(),
                 TPCCConstants.Transactions.ORDER_STATUS.ordinal(), this.txn_id);
         customerVal = results.get(0);
-        String customers = (String) custByNameTable.getColumn(0, customerVal);
+        String customers = custByNameTable.getString(0, customerVal);
         int nbCustomers = generator.getNbElements(customers);
         // Use the id of the n/2 customer (as specified in clause)
         cid = Integer.parseInt(generator.getElementAtIndex(customers, nbCustomers / 2));
@@ -90,7 +90,7 @@ public class OrderStatusTransaction extends BenchmarkTransaction{
       }
 
       // Get Order Count
-      oid =(Integer)  orderByCustTable.getColumn(0,obcVal);
+      oid =orderByCustTable.getInt(0,obcVal);
       oKey = new OrderKey(wid,did,oid);
       ((RedisPostgresClient) client).read(TPCCConstants.kOrderTable, oKey.str(), TPCCConstants.Transactions.ORDER_STATUS.ordinal(), this.txn_id);
       // Check Order Line
@@ -113,7 +113,7 @@ public class OrderStatusTransaction extends BenchmarkTransaction{
       results = client.commitTransaction();
 
       orderVal = results.get(0);
-      olCnt = (Integer) orderTable.getColumn(6,orderVal);
+      olCnt = orderTable.getInt(6,orderVal);
 //      System.out.println("Order Count " + olCnt);
       return true;
     } catch (DatabaseAbortException e) {
@@ -86,16 +86,16 @@ public class PaymentTransaction extends BenchmarkTransaction{
         results = ((RedisPostgresClient) client).readForUpdateAndExecute(TPCCConstants.kCustomerTable, cKey.str(),
                 TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
         result = results.get(0);
-        wName = (String) warehouseTable.getColumn(1, result);
-        wYtd = (Integer) warehouseTable.getColumn(8, result);
-        warehouseTable.updateColumn(8, wYtd + amount, result);
+        wName = warehouseTable.getString(1, result);
+        wYtd = warehouseTable.getInt(8, result);
+        warehouseTable.putInt(8, wYtd + amount, result);
         ((RedisPostgresClient) client).update(TPCCConstants.kWarehouseTable,wKey.str(), result,
                 TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
         result = results.get(1);
-        dName = (String) districtTable.getColumn(2, result);
-        dYtd = (Integer) districtTable.getColumn(9, result);
+        dName = districtTable.getString(2, result);
+        dYtd = districtTable.getInt(9, result);
         //TODO(natacha): need to also retrieve the aforementioned fields
-        districtTable.updateColumn(9, dYtd + amount, result);
+        districtTable.putInt(9, dYtd + amount, result);
         ((RedisPostgresClient) client).update(TPCCConstants.kDistrictTable,dKey.str(), result,
                 TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
         result = results.get(2);
@@ -105,17 +105,17 @@ public class PaymentTransaction extends BenchmarkTransaction{
         results = ((RedisPostgresClient) client).readAndExecute(TPCCConstants.kCustomerByNameTable, cByNameKey.str(),
                 TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
         result = results.get(0);
-        wName = (String) warehouseTable.getColumn(1, result);
-        wYtd = (Integer) warehouseTable.getColumn(8, result);
+        wName = warehouseTable.getString(1, result);
+        wYtd = warehouseTable.getInt(8, result);
         result = results.get(1);
-        dName = (String) districtTable.getColumn(2, result);
-        dYtd = (Integer) districtTable.getColumn(9, result);
+        dName = districtTable.getString(2, result);
+        dYtd = districtTable.getInt(9, result);
         //TODO(natacha): need to also retrieve the aforementioned fields
-        districtTable.updateColumn(9, dYtd + amount, result);
+        districtTable.putInt(9, dYtd + amount, result);
         ((RedisPostgresClient) client).update(TPCCConstants.kDistrictTable,dKey.str(), result,
                 TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
         result = results.get(2);
-        String customers = (String) customerByNameTable.getColumn(0, result);
+        String customers = customerByNameTable.getString(0, result);
         int nbCustomers = generator.getNbElements(customers);
         // Use the id of the n/2 customer (as specified in clause)
         cid = Integer.parseInt(generator.getElementAtIndex(customers,nbCustomers/2));
@@ -127,12 +127,12 @@ public class PaymentTransaction extends BenchmarkTransaction{
       //TODO(natacha): explicitly retrieve C_FIRST, C_MIDDLE, C_LAST, C_STREET_1, C_STREET_2, C_CITY,
       // C_STATE, C_ZIP, C_PH ON E, C_SIN CE, C_CREDIT, C_CREDIT_LIM, C_DISCOUN T
       // TODO(natacha): add the C_CREDIT/BC check
-      cBalance = (Integer) customerTable.getColumn(16, result);
-      cYtd = (Integer) customerTable.getColumn(17,result);
-      cPaymentCnt = (Integer) customerTable.getColumn(18, result);
-      customerTable.updateColumn(16,cBalance-amount, result);
-      customerTable.updateColumn(17, cYtd + amount, result);
-      customerTable.updateColumn(18,cPaymentCnt + 1, result);
+      cBalance = customerTable.getInt(16, result);
+      cYtd = customerTable.getInt(17,result);
+      cPaymentCnt = customerTable.getInt(18, result);
+      customerTable.putInt(16,cBalance-amount, result);
+      customerTable.putInt(17, cYtd + amount, result);
+      customerTable.putInt(18,cPaymentCnt + 1, result);
       ((RedisPostgresClient) client).update(TPCCConstants.kCustomerTable, cKey.str(), result,
               TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
 
@@ -140,14 +140,14 @@ public class PaymentTransaction extends BenchmarkTransaction{
       hData = wName + dName;
       now = generator.getTime();
       result = historyTable.createNewRow(config.PAD_COLUMNS);
-      historyTable.updateColumn(0,cid,result);
-      historyTable.updateColumn(1,cdid,result);
-      historyTable.updateColumn(2,cwid,result);
-      historyTable.updateColumn(3,did,result);
-      historyTable.updateColumn(4,wid,result);
-      historyTable.updateColumn(5,now,result);
-      historyTable.updateColumn(6, amount, result);
-      historyTable.updateColumn(7,hData,result);
+      historyTable.putInt(0,cid,result);
+      historyTable.putInt(1,cdid,result);
+      historyTable.putInt(2,cwid,result);
+      historyTable.putInt(3,did,result);
+      historyTable.putInt(4,wid,result);
+      historyTable.putString(5,now,result);
+      historyTable.putInt(6, amount, result);
+      historyTable.putString(7,hData,result);
       ((RedisPostgresClient) client).write(TPCCConstants.kHistoryTable,hKey.str(),result,
               TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
       client.commitTransaction();
@@ -203,23 +203,23 @@ public class PaymentTransaction extends BenchmarkTransaction{
 
       }
       result = results.get(0);
-      wName = (String) warehouseTable.getColumn(1, result, wKey.value());
-      wYtd = (Integer) warehouseTable.getColumn(8, result);
+      wName = warehouseTable.getString(1, result);
+      wYtd = warehouseTable.getInt(8, result);
       //TODO(natacha): need to also retrieve W_STREET_1, W_STREET_2, W_CITY,W_STATE,W_ZIP
-      warehouseTable.updateColumn(8, wYtd + amount, result);
+      warehouseTable.putInt(8, wYtd + amount, result);
       ((RedisPostgresClient) client).update(TPCCConstants.kWarehouseTable,wKey.str(), result,
               TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
       result = results.get(1);
-      dName = (String) districtTable.getColumn(2, result);
-      dYtd = (Integer) districtTable.getColumn(9, result);
+      dName = districtTable.getString(2, result);
+      dYtd = districtTable.getInt(9, result);
       //TODO(natacha): need to also retrieve the aforementioned fields
-      districtTable.updateColumn(9, dYtd + amount, result);
+      districtTable.putInt(9, dYtd + amount, result);
       ((RedisPostgresClient) client).update(TPCCConstants.kDistrictTable,dKey.str(), result,
               TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
 
       if (accessByLastName) {
         result = results.get(2);
-        String customers = (String) customerByNameTable.getColumn(0, result);
+        String customers = customerByNameTable.getString(0, result);
         int nbCustomers = generator.getNbElements(customers);
         // Use the id of the n/2 customer (as specified in clause)
         cid = Integer.parseInt(generator.getElementAtIndex(customers,nbCustomers/2));
@@ -234,12 +234,12 @@ public class PaymentTransaction extends BenchmarkTransaction{
       //TODO(natacha): explicitly retrieve C_FIRST, C_MIDDLE, C_LAST, C_STREET_1, C_STREET_2, C_CITY,
       // C_STATE, C_ZIP, C_PH ON E, C_SIN CE, C_CREDIT, C_CREDIT_LIM, C_DISCOUN T
       // TODO(natacha): add the C_CREDIT/BC check
-      cBalance = (Integer) customerTable.getColumn(16, result);
-      cYtd = (Integer) customerTable.getColumn(17,result);
-      cPaymentCnt = (Integer) customerTable.getColumn(18, result);
-      customerTable.updateColumn(16,cBalance-amount, result);
-      customerTable.updateColumn(17, cYtd + amount, result);
-      customerTable.updateColumn(18,cPaymentCnt + 1, result);
+      cBalance = customerTable.getInt(16, result);
+      cYtd = customerTable.getInt(17,result);
+      cPaymentCnt = customerTable.getInt(18, result);
+      customerTable.putInt(16,cBalance-amount, result);
+      customerTable.putInt(17, cYtd + amount, result);
+      customerTable.putInt(18,cPaymentCnt + 1, result);
       ((RedisPostgresClient) client).update(TPCCConstants.kCustomerTable, cKey.str(), result,
               TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
 
@@ -247,14 +247,14 @@ public class PaymentTransaction extends BenchmarkTransaction{
       hData = wName + dName;
       now = generator.getTime();
       result = historyTable.createNewRow(config.PAD_COLUMNS);
-      historyTable.updateColumn(0,cid,result);
-      historyTable.updateColumn(1,cdid,result);
-      historyTable.updateColumn(2,cwid,result);
-      historyTable.updateColumn(3,did,result);
-      historyTable.updateColumn(4,wid,result);
-      historyTable.updateColumn(5,now,result);
-      historyTable.updateColumn(6, amount, result);
-      historyTable.updateColumn(7,hData,result);
+      historyTable.putInt(0,cid,result);
+      historyTable.putInt(1,cdid,result);
+      historyTable.putInt(2,cwid,result);
+      historyTable.putInt(3,did,result);
+      historyTable.putInt(4,wid,result);
+      historyTable.putString(5,now,result);
+      historyTable.putInt(6, amount, result);
+      historyTable.putString(7,hData,result);
       ((RedisPostgresClient) client).write(TPCCConstants.kHistoryTable,hKey.str(),result,
               TPCCConstants.Transactions.PAYMENT.ordinal(), this.txn_id);
       client.commitTransaction();
@@ -5,9 +5,7 @@ import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReadWriteLock;
 
 import org.json.simple.parser.ParseException;
 import shield.benchmarks.tpcc.utils.TPCCConstants;
@@ -18,6 +16,8 @@ import shield.benchmarks.utils.StatisticsCollector;
 import shield.benchmarks.utils.TrxStats;
 import shield.client.ClientTransaction;
 import shield.client.DatabaseAbortException;
+import shield.client.KeyLockTable;
+import shield.client.NearCache;
 import shield.client.ClientBase;
 import shield.client.RedisPostgresClient;
 
@@ -34,15 +34,19 @@ public class StartTPCCTrxClient {
         public TPCCExperimentConfiguration tpcConfig;
         public String expConfigFile;
         public HashMap<TPCCConstants.Transactions, TrxStats> trxStats;
-        public Map<Long, ReadWriteLock> keyLocks;
+        public KeyLockTable keyLocks;
+        public long redisMemoryUsage;
         public long prefetchMemoryUsage;
+        public long prefetchModelEvictions;
 
-        BenchmarkRunnable(int threadNumber, TPCCExperimentConfiguration tpcConfig, String expConfigFile, Map<Long, ReadWriteLock> keyLocks) {
+        BenchmarkRunnable(int threadNumber, TPCCExperimentConfiguration tpcConfig, String expConfigFile, KeyLockTable keyLocks) {
             this.threadNumber = threadNumber;
             this.tpcConfig = tpcConfig;
             this.expConfigFile = expConfigFile;
             this.keyLocks = keyLocks;
+            this.redisMemoryUsage = -1;
             this.prefetchMemoryUsage = -1;
+            this.prefetchModelEvictions = -1;
         }
 
         @Override
@@ -59,7 +63,8 @@ public class StartTPCCTrxClient {
             boolean warmUp;
             boolean warmDown;
 
-            stats = new StatisticsCollector(tpcConfig.RUN_NAME + "_thread" + this.threadNumber);
+            stats = new StatisticsCollector(tpcConfig.RUN_NAME + "_thread" + this.threadNumber,
+                tpcConfig.STATS_FORMAT);
 
             try {
                 RedisPostgresClient client = (RedisPostgresClient) ClientUtils.createClient(tpcConfig.CLIENT_TYPE, expConfigFile, keyLocks, 7000 + this.threadNumber, this.threadNumber);
@@ -90,9 +95,9 @@ public class StartTPCCTrxClient {
                         measurementKey = StatisticsCollector.addBegin(stats);
                     }
 
-                    tpccGenerator.runNextTransaction();
+                    Transactions type = tpccGenerator.runNextTransaction();
                     if (!warmUp && !warmDown) {
-                        StatisticsCollector.addEnd(stats, measurementKey);
+                        StatisticsCollector.addEnd(stats, measurementKey, type.ordinal());
                     }
                     nbExecuted++;
                     expiredTime = System.currentTimeMillis() - beginTime;
@@ -110,7 +115,9 @@ public class StartTPCCTrxClient {
 
                 tpccGenerator.printStats();
                 trxStats = tpccGenerator.getTrxStats();
+                redisMemoryUsage = client.getRedisMemoryUsage();
                 prefetchMemoryUsage = client.getPrefetchMapSize();
+                prefetchModelEvictions = client.getPrefetchModelEvictions();
             } catch (Exception e) {}
         }
     }
@@ -128,7 +135,7 @@ public class StartTPCCTrxClient {
     // Contains the experiment paramaters
     expConfigFile = args[0];
     tpcConfig = new TPCCExperimentConfiguration(expConfigFile);
-    Map<Long, ReadWriteLock> keyLocks = new ConcurrentHashMap<>(); // only make one lock map for all clients
+    KeyLockTable keyLocks = new KeyLockTable(tpcConfig.KEY_LOCK_STRIPES); // only make one lock table for all clients
 
       Thread[] threads = new Thread[tpcConfig.THREADS];
      BenchmarkRunnable[] runnables = new BenchmarkRunnable[tpcConfig.THREADS];
@@ -138,10 +145,15 @@ public class StartTPCCTrxClient {
           threads[i].start();
       }
 
+      CacheStats.startIntervalReports(tpcConfig.METRICS_INTERVAL, TPCCConstants.Transactions.values());
+
       HashMap<TPCCConstants.Transactions, TrxStats> combinedStats = new HashMap<>();
-      long totalPrefetchMemoryUsage = 0;
+      long redisMemoryUsage = -1;
+      long prefetchMemoryUsage = 0;
+      long prefetchModelEvictions = 0;
       for (int i = 0; i < threads.length; i++) {
           threads[i].join();
+          redisMemoryUsage = Math.max(redisMemoryUsage, runnables[i].redisMemoryUsage);
 
           HashMap<TPCCConstants.Transactions, TrxStats> threadStats = runnables[i].trxStats;
           threadStats.forEach((txn, stat) -> {
@@ -149,7 +161,9 @@ public class StartTPCCTrxClient {
               combinedStats.get(txn).mergeTxnStats(stat);
           });
 
-          totalPrefetchMemoryUsage += runnables[i].prefetchMemoryUsage;
+          // The prefetch model is shared by all clients
+          prefetchMemoryUsage = Math.max(prefetchMemoryUsage, runnables[i].prefetchMemoryUsage);
+          prefetchModelEvictions = Math.max(prefetchModelEvictions, runnables[i].prefetchModelEvictions);
       }
 
       System.out.println("THREADS COMBINED STATS");
@@ -162,10 +176,19 @@ public class StartTPCCTrxClient {
       long txnsExecuted = combinedStats.values().stream().map(TrxStats::getExecuteCount).reduce(0L, Long::sum);
       System.out.println("Average throughput: " + txnsExecuted / tpcConfig.EXP_LENGTH + " txn/s");
       System.out.println("Average latency: " + ((float) combinedStats.values().stream().map(TrxStats::getTimeExecuted).reduce(0L, Long::sum)) / txnsExecuted + "ms");
-      System.out.println("Prefetching memory usage ~" + totalPrefetchMemoryUsage + " bytes");
+      System.out.println("Prefetching memory usage ~" + prefetchMemoryUsage + " bytes");
+      System.out.println("Prefetch trackers evicted: " + prefetchModelEvictions);
 
+      NearCache nearCache = RedisPostgresClient.getNearCache();
+      if (nearCache != null) {
+        System.out.println("Near cache (L1) memory usage ~" + nearCache.getBytes() + " bytes, " + nearCache.getNbEntries() + " entries; "
+                + nearCache.getEvictions() + " evicted, " + nearCache.getInvalidations() + " invalidated");
+      }
+      System.out.println("Redis (L2) memory usage: " + redisMemoryUsage + " bytes");
+      System.out.println();
+      CacheStats.printReport(TPCCConstants.Transactions.values());
       System.out.println();
-      CacheStats.printReport();
+      keyLocks.printReport(TPCCConstants.Transactions.values());
       System.exit(0);
     }
 }
@@ -54,7 +54,7 @@ public class StockLevelTransaction extends BenchmarkTransaction {
       results = ((RedisPostgresClient) client).readAndExecute(TPCCConstants.kDistrictTable, dKey.str(),
               TPCCConstants.Transactions.STOCK_LEVEL.ordinal(), this.txn_id);
       row = results.get(0);
-      nextOid = (Integer) districtTable.getColumn(10, row);
+      nextOid = districtTable.getInt(10, row);
 //      System.out.println("Next OID is " + nextOid);
       // Read the most 20 orders
       for (int i = 1; i <= 20 && (nextOid - i >= 0); i++) {
@@ -71,7 +71,7 @@ public class StockLevelTransaction extends BenchmarkTransaction {
       results = client.execute();
       for (byte[] order: results) {
         if (order.length != 0) {
-          // olCnt = (Integer) orderTable.getColumn(6, order);
+          // olCnt = orderTable.getInt(6, order);
           olCnt = 5;
 //          System.out.println("Order Count: wid " + wid + " " + did + " " + olCnt);
           int j = 0;
@@ -94,7 +94,7 @@ public class StockLevelTransaction extends BenchmarkTransaction {
 //          System.out.println("Order Line is Not Valid");
         } else {
           // Order line is valid
-          currentIid = (Integer) orderLineTable.getColumn(4, result);
+          currentIid = orderLineTable.getInt(4, result);
           iids.add(currentIid);
         }
       }
@@ -473,18 +473,25 @@ public class TPCCGenerator {
     return config;
   }
 
-  public void runNextTransaction() {
+  /**
+   * Runs a transaction drawn from the mix
+   *
+   * @return the type of the transaction that was run
+   */
+  public Transactions runNextTransaction() {
       long begin = System.currentTimeMillis();
       int x = Generator.generateInt(0,100);
       int nbAborts;
       long end = 0;
       BenchmarkTransaction trx;
+      Transactions type;
       if (x < config.PROB_TRX_PAYMENT) {
         trx = GeneratePaymentInput();
 //        System.out.println("[" + Transactions.PAYMENT + "] Begin");
         nbAborts = trx.run();
         end = System.currentTimeMillis();
-         trxStats.get(Transactions.PAYMENT).addTransaction(nbAborts, end-begin);
+         type = Transactions.PAYMENT;
+         trxStats.get(type).addTransaction(nbAborts, end-begin);
 //        System.out.println("[" + Transactions.PAYMENT + "] End");
         }
       else if (x <= config.PROB_TRX_PAYMENT + config.PROB_TRX_NEW_ORDER) {
@@ -493,7 +500,8 @@ public class TPCCGenerator {
          nbAborts = trx.run();
         end = System.currentTimeMillis();
 //         System.out.println("[" + Transactions.NEW_ORDER+ "] End");
-         trxStats.get(Transactions.NEW_ORDER).addTransaction(nbAborts,end-begin);
+         type = Transactions.NEW_ORDER;
+         trxStats.get(type).addTransaction(nbAborts,end-begin);
        } else if (x <= config.PROB_TRX_PAYMENT + config.PROB_TRX_NEW_ORDER +
           config.PROB_TRX_DELIVERY) {
         trx = GenerateDeliveryInput();
@@ -501,7 +509,8 @@ public class TPCCGenerator {
          nbAborts = trx.run();
         end = System.currentTimeMillis();
 //         System.out.println("[" + Transactions.DELIVERY+ "] End");
-         trxStats.get(Transactions.DELIVERY).addTransaction(nbAborts,end-begin);
+         type = Transactions.DELIVERY;
+         trxStats.get(type).addTransaction(nbAborts,end-begin);
        } else if (x <= config.PROB_TRX_PAYMENT + config.PROB_TRX_NEW_ORDER +
           config.PROB_TRX_DELIVERY + config.PROB_TRX_ORDER_STATUS){
         trx = GenerateOrderStatusInput();
@@ -509,16 +518,19 @@ public class TPCCGenerator {
          nbAborts = trx.run();
         end = System.currentTimeMillis();
 //         System.out.println("[" + Transactions.ORDER_STATUS+ "] End");
-         trxStats.get(Transactions.ORDER_STATUS).addTransaction(nbAborts,end-begin);
+         type = Transactions.ORDER_STATUS;
+         trxStats.get(type).addTransaction(nbAborts,end-begin);
        } else {
         trx = GenerateStockLevelInput();
 //        System.out.println("[" + Transactions.STOCK_LEVEL+ "] Begin");
         nbAborts = trx.run();
         end = System.currentTimeMillis();
 //        System.out.println("[" + Transactions.STOCK_LEVEL+ "] End");
-        trxStats.get(Transactions.STOCK_LEVEL).addTransaction(nbAborts,end-begin);
+        type = Transactions.STOCK_LEVEL;
+        trxStats.get(type).addTransaction(nbAborts,end-begin);
       }
 //      System.out.println("Executed in: " + (end-begin));
+      return type;
   }
 
   public void printStats() {
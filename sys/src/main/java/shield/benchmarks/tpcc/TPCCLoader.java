@@ -43,7 +43,9 @@ public class TPCCLoader {
 
     if (tpccConfig.MUST_LOAD_KEYS) {
       System.out.println("Begin loading data");
+      RedisPostgresClient.enableBulkLoad();
       loadData(tpccConfig, expConfigFile);
+      RedisPostgresClient.finishBulkLoad();
     }
 
     System.out.println("Data loaded");
@@ -176,16 +178,16 @@ public class TPCCLoader {
             row = itemTable.createNewRow(config.PAD_COLUMNS);
             System.out.println("[Item] " + iid);
             iKey = new ItemKey(iid);
-            itemTable.updateColumn(0, iid, row); //I_ID
-            itemTable.updateColumn(1, Generator.generateInt(1, 1000), row); // IMG_ID
+            itemTable.putInt(0, iid, row); //I_ID
+            itemTable.putInt(1, Generator.generateInt(1, 1000), row); // IMG_ID
             String name = generator.RandString(14, 24, false);
-            itemTable.updateColumn(2, name, row);
+            itemTable.putString(2, name, row);
             // Item price multipled by 100
             // TPC spec requires 10% of item contains ORIGINAL substring.
             // Ignore this as is only used to determine screen output
-            itemTable.updateColumn(3, Generator.generateInt(100, 10000), row);
+            itemTable.putInt(3, Generator.generateInt(100, 10000), row);
             String dat = generator.RandString(26, 50, false);
-            itemTable.updateColumn(4, dat, row);
+            itemTable.putString(4, dat, row);
             ((RedisPostgresClient) client).write(TPCCConstants.kItemTable, iKey.str(), row,
                     TPCCConstants.Transactions.LOAD.ordinal(), 0);
           }
@@ -247,22 +249,22 @@ public class TPCCLoader {
       wKey = new WarehouseKey(wid);
       System.out.println("[Warehouse]" + wid);
       row = warehouseTable.createNewRow(config.PAD_COLUMNS);
-      warehouseTable.updateColumn(0, wid, row);
+      warehouseTable.putInt(0, wid, row);
       String name = generator.RandString(6, 10, false);
-      warehouseTable.updateColumn(1, name, row);
+      warehouseTable.putString(1, name, row);
       String street1 = generator.RandString(10, 20, false);
-      warehouseTable.updateColumn(2, street1, row);
+      warehouseTable.putString(2, street1, row);
       String street2 = generator.RandString(10, 20, false);
-      warehouseTable.updateColumn(3, street2, row);
+      warehouseTable.putString(3, street2, row);
       String city = generator.RandString(10, 20, false);
-      warehouseTable.updateColumn(4, city, row);
+      warehouseTable.putString(4, city, row);
       String state = generator.RandString(2, 2, false);
-      warehouseTable.updateColumn(5, state, row);
+      warehouseTable.putString(5, state, row);
       String zip = generator.RandZipCode();
-      warehouseTable.updateColumn(6, zip, row);
+      warehouseTable.putString(6, zip, row);
       int tax = Generator.generateInt(0, 2000); // tax, multiplied by 10000 to get int
-      warehouseTable.updateColumn(7, tax, row);
-      warehouseTable.updateColumn(8, 3000000, row); // W_YTD, all money multipled by 100 to get int
+      warehouseTable.putInt(7, tax, row);
+      warehouseTable.putInt(8, 3000000, row); // W_YTD, all money multipled by 100 to get int
 
       while (!success) {
         try {
@@ -296,25 +298,25 @@ public class TPCCLoader {
             System.out.println("[District] " + wid + " " + did);
             dKey = new DistrictKey(wid, did);
             row = districtTable.createNewRow(config.PAD_COLUMNS);
-            districtTable.updateColumn(0, did, row);
-            districtTable.updateColumn(1, wid, row);
+            districtTable.putInt(0, did, row);
+            districtTable.putInt(1, wid, row);
             name = generator.RandString(6, 10, false);
-            districtTable.updateColumn(2, name, row);
+            districtTable.putString(2, name, row);
             street1 = generator.RandString(10, 20, false);
-            districtTable.updateColumn(3, street1, row);
+            districtTable.putString(3, street1, row);
             street2 = generator.RandString(10, 20, false);
-            districtTable.updateColumn(4, street2, row);
+            districtTable.putString(4, street2, row);
             city = generator.RandString(10, 20, false);
-            districtTable.updateColumn(5, city, row);
+            districtTable.putString(5, city, row);
             state = generator.RandString(2, 2, false);
-            districtTable.updateColumn(6, state, row);
+            districtTable.putString(6, state, row);
             zip = generator.RandZipCode();
-            districtTable.updateColumn(7, zip, row);
+            districtTable.putString(7, zip, row);
             tax = Generator.generateInt(0, 2000); // tax, multiplied by 10000 to get int
-            districtTable.updateColumn(8, tax, row);
+            districtTable.putInt(8, tax, row);
             districtTable
-                .updateColumn(9, 3000000, row); // W_YTD, all money multipled by 100 to get int
-            districtTable.updateColumn(10, config.INIT_NEW_ORDER_NB, row);
+                .putInt(9, 3000000, row); // W_YTD, all money multipled by 100 to get int
+            districtTable.putInt(10, config.INIT_NEW_ORDER_NB, row);
             System.out.println("District Write " + wid + " " + did + " " + Arrays.toString(row));
             ((RedisPostgresClient) client).write(TPCCConstants.kDistrictTable, dKey.str(), row,
                     TPCCConstants.Transactions.LOAD.ordinal(), 0);
@@ -365,45 +367,45 @@ public class TPCCLoader {
                     CustomerKey cKey = new CustomerKey(wid, d, c);
                     client.startTransaction();
                     byte[] row = customerTable.createNewRow(config.PAD_COLUMNS);
-                    customerTable.updateColumn(0, c, row);
-                    customerTable.updateColumn(1, d, row);
-                    customerTable.updateColumn(2, wid, row);
+                    customerTable.putInt(0, c, row);
+                    customerTable.putInt(1, d, row);
+                    customerTable.putInt(2, wid, row);
                     String first = generator.RandString(8, 16, false);
-                    customerTable.updateColumn(3, first, row);
-                    customerTable.updateColumn(4, "OE", row); // middle name
+                    customerTable.putString(3, first, row);
+                    customerTable.putString(4, "OE", row); // middle name
                     String last = generator.kCustomerNames[cid];
                    // String last = generator.RandString(9, 16, false);
-                    customerTable.updateColumn(5, last, row);
+                    customerTable.putString(5, last, row);
                     String street1 = generator.RandString(10, 20, false);
-                    customerTable.updateColumn(6, street1, row);
+                    customerTable.putString(6, street1, row);
                     String street2 = generator.RandString(10, 20, false);
-                    customerTable.updateColumn(7, street2, row);
+                    customerTable.putString(7, street2, row);
                     String city = generator.RandString(10, 20, false);
-                    customerTable.updateColumn(8, city, row);
+                    customerTable.putString(8, city, row);
                     String state = generator.RandString(2, 2, false);
-                    customerTable.updateColumn(9, state, row);
+                    customerTable.putString(9, state, row);
                     String zip = generator.RandZipCode();
-                    customerTable.updateColumn(10, zip, row);
+                    customerTable.putString(10, zip, row);
                     String phone = generator.RandString(16, 16, false);
-                    customerTable.updateColumn(11, phone, row);
+                    customerTable.putString(11, phone, row);
                     String now = generator.getTime();
-                    customerTable.updateColumn(12, now, row);
+                    customerTable.putString(12, now, row);
                     int r = Generator.generateInt(0, 10);
                     if (r == 0) {
-                      customerTable.updateColumn(13, "BC", row); // credit
+                      customerTable.putString(13, "BC", row); // credit
                     } else {
-                      customerTable.updateColumn(13, "GC", row); // credit
+                      customerTable.putString(13, "GC", row); // credit
                     }
-                    customerTable.updateColumn(14, 5000000, row); // Credit
+                    customerTable.putInt(14, 5000000, row); // Credit
                     r = Generator.generateInt(0, 5000);
                     customerTable
-                        .updateColumn(15, r, row); // discount, multipled by 1000 for integer
-                    customerTable.updateColumn(16, -1000, row); // balance, multipled by 100
-                    customerTable.updateColumn(17, 1000, row); // ytd payment, multipled by 100
-                    customerTable.updateColumn(18, 1, row); // payment cnt
-                    customerTable.updateColumn(19, 0, row); // delivery cnt
+                        .putInt(15, r, row); // discount, multipled by 1000 for integer
+                    customerTable.putInt(16, -1000, row); // balance, multipled by 100
+                    customerTable.putInt(17, 1000, row); // ytd payment, multipled by 100
+                    customerTable.putInt(18, 1, row); // payment cnt
+                    customerTable.putInt(19, 0, row); // delivery cnt
                     String data = generator.RandString(300, 500, false);
-                    customerTable.updateColumn(20, data, row);
+                    customerTable.putString(20, data, row);
                     ((RedisPostgresClient) client).write(TPCCConstants.kCustomerTable, cKey.str(), row,
                             TPCCConstants.Transactions.LOAD.ordinal(), 0);
 
@@ -421,7 +423,7 @@ public class TPCCLoader {
                       // Ignore: customer last name generated from three syllables only
                     }
                     row = row.length == 0? customerByNameTable.createNewRow(config.PAD_COLUMNS):row;
-                    customerByNameTable.updateColumn(0,update,row);
+                    customerByNameTable.putString(0,update,row);
                     ((RedisPostgresClient) client).write(TPCCConstants.kCustomerByNameTable, key.str(),row,
                             TPCCConstants.Transactions.LOAD.ordinal(), 0);
 
@@ -429,15 +431,15 @@ public class TPCCLoader {
                     row = historyTable.createNewRow(config.PAD_COLUMNS);
                     now = generator.getTime();
                     HistoryKey hKey = new HistoryKey(generator.GetNextHistoryKey());
-                    historyTable.updateColumn(0, c, row);
-                    historyTable.updateColumn(1, d, row);
-                    historyTable.updateColumn(2, wid, row);
-                    historyTable.updateColumn(3, d, row);
-                    historyTable.updateColumn(4, wid, row);
-                    historyTable.updateColumn(5, now, row);
-                    historyTable.updateColumn(6, 1000, row); // h_amount
+                    historyTable.putInt(0, c, row);
+                    historyTable.putInt(1, d, row);
+                    historyTable.putInt(2, wid, row);
+                    historyTable.putInt(3, d, row);
+                    historyTable.putInt(4, wid, row);
+                    historyTable.putString(5, now, row);
+                    historyTable.putInt(6, 1000, row); // h_amount
                     String hisData = generator.RandString(12, 24, false);
-                    historyTable.updateColumn(7, hisData, row);
+                    historyTable.putString(7, hisData, row);
                     ((RedisPostgresClient) client).write(TPCCConstants.kHistoryTable, hKey.str(), row,
                             TPCCConstants.Transactions.LOAD.ordinal(), 0);
                     client.commitTransaction();
@@ -496,25 +498,25 @@ public class TPCCLoader {
                   System.out.println("[Stock] " + wid + " " + iid);
                   StockKey sKey = new StockKey(wid, iid);
                   byte[] row = stockTable.createNewRow(config.PAD_COLUMNS);
-                  stockTable.updateColumn(0, iid, row); // s_i_id
-                  stockTable.updateColumn(1, wid, row); // s_w_id
-                  stockTable.updateColumn(2,
+                  stockTable.putInt(0, iid, row); // s_i_id
+                  stockTable.putInt(1, wid, row); // s_w_id
+                  stockTable.putInt(2,
                       Generator.generateInt(10, 100), row); // s_quantity
 
                   for (int sDistLoop = 0; sDistLoop < 10; sDistLoop++) {
                     String sDist = generator.RandString(24, 24, false);
-                    stockTable.updateColumn(3 + sDistLoop, sDist, row);
+                    stockTable.putString(3 + sDistLoop, sDist, row);
                   }
 
-                  stockTable.updateColumn(13, 0, row); // s_ytd (multipled by 100, init = 0)
-                  stockTable.updateColumn(14, 0, row); // s_order_cnt
-                  stockTable.updateColumn(15, 0, row); // s_remote_cnt
+                  stockTable.putInt(13, 0, row); // s_ytd (multipled by 100, init = 0)
+                  stockTable.putInt(14, 0, row); // s_order_cnt
+                  stockTable.putInt(15, 0, row); // s_remote_cnt
 
                   // ignore the 10% ORIGINAL substring in tpc-c spec.
                   // it is onlky used to determine a screen-output in new-ord
                   // and we are omitting the real calculation of screen-output
                   String sData = generator.RandString(26, 50, false);
-                  stockTable.updateColumn(16, sData, row); // s_data
+                  stockTable.putString(16, sData, row); // s_data
                   ((RedisPostgresClient) client).write(TPCCConstants.kStockTable, sKey.str(), row,
                           TPCCConstants.Transactions.LOAD.ordinal(), 0);
                   ij++;
@@ -547,9 +549,9 @@ public class TPCCLoader {
             eolKey = new EarliestNewOrderKey(wid, j);
             System.out.println("[EarliestNewOrder] " + wid + " " + j);
             row = earliestNewOrderTable.createNewRow(config.PAD_COLUMNS);
-            earliestNewOrderTable.updateColumn(0, wid, row);
-            earliestNewOrderTable.updateColumn(1, j, row);
-            earliestNewOrderTable.updateColumn(2, (int) (config.INIT_NEW_ORDER_NB * 0.7), row);
+            earliestNewOrderTable.putInt(0, wid, row);
+            earliestNewOrderTable.putInt(1, j, row);
+            earliestNewOrderTable.putInt(2, (int) (config.INIT_NEW_ORDER_NB * 0.7), row);
             ((RedisPostgresClient) client).write(TPCCConstants.kEarliestNewOrderTable, eolKey.str(), row,
                     TPCCConstants.Transactions.LOAD.ordinal(), 0);
           }
@@ -602,21 +604,21 @@ public class TPCCLoader {
                   // We use this as a walk-around to the scan in order-status
                   OrderByCustomerKey obcKey = new OrderByCustomerKey(wid, d, cid);
                   byte[] row = orderByCustTable.createNewRow(config.PAD_COLUMNS);
-                  orderByCustTable.updateColumn(0, custOrders, row);
+                  orderByCustTable.putInt(0, custOrders, row);
                   ((RedisPostgresClient) client).write(TPCCConstants.kOrderByCustomerTable, obcKey.str(), row,
                           TPCCConstants.Transactions.LOAD.ordinal(), 0);
 
                   // Write order
                   OrderKey oKey = new OrderKey(wid, d, oid);
                   row = orderTable.createNewRow(config.PAD_COLUMNS);
-                  orderTable.updateColumn(0, oid, row);
-                  orderTable.updateColumn(1, d, row);
-                  orderTable.updateColumn(2, wid, row);
-                  orderTable.updateColumn(3, cid, row);
-                  orderTable.updateColumn(4, generator.getTime(), row);
-                  orderTable.updateColumn(5, oCarrierId, row);
-                  orderTable.updateColumn(6, olCnt, row);
-                  orderTable.updateColumn(7, 1, row); // o_all_local
+                  orderTable.putInt(0, oid, row);
+                  orderTable.putInt(1, d, row);
+                  orderTable.putInt(2, wid, row);
+                  orderTable.putInt(3, cid, row);
+                  orderTable.putString(4, generator.getTime(), row);
+                  orderTable.putInt(5, oCarrierId, row);
+                  orderTable.putInt(6, olCnt, row);
+                  orderTable.putInt(7, 1, row); // o_all_local
                   ((RedisPostgresClient) client).write(TPCCConstants.kOrderTable, oKey.str(), row,
                           TPCCConstants.Transactions.LOAD.ordinal(), 0);
 
@@ -631,20 +633,20 @@ public class TPCCLoader {
                         "OrderLine " + wid + " " + d + " " + oid + " " + olid + " Key orderline"
                             + olKey.str());
                     row = orderLineTable.createNewRow(config.PAD_COLUMNS);
-                    orderLineTable.updateColumn(0, oid, row);
-                    orderLineTable.updateColumn(1, d, row);
-                    orderLineTable.updateColumn(2, wid, row); // ol_w_id
-                    orderLineTable.updateColumn(3, olid, row);
-                    orderLineTable.updateColumn(4, iid, row);
-                    orderLineTable.updateColumn(5, wid, row); // ol_supply_w_id
+                    orderLineTable.putInt(0, oid, row);
+                    orderLineTable.putInt(1, d, row);
+                    orderLineTable.putInt(2, wid, row); // ol_w_id
+                    orderLineTable.putInt(3, olid, row);
+                    orderLineTable.putInt(4, iid, row);
+                    orderLineTable.putInt(5, wid, row); // ol_supply_w_id
                     // ol_delivery_d is a date string, we ignore this.
                     // delivery txn also ignores update of this column
-                    orderLineTable.updateColumn(6, "", row);
+                    orderLineTable.putString(6, "", row);
                     // ol_quantity, spec define this to be 5 for all init orders
-                    orderLineTable.updateColumn(7, olQuantity, row);
-                    orderLineTable.updateColumn(8, amount, row);
+                    orderLineTable.putInt(7, olQuantity, row);
+                    orderLineTable.putInt(8, amount, row);
                     String olDist = generator.RandString(24, 24, false);
-                    orderLineTable.updateColumn(9, olDist, row);
+                    orderLineTable.putString(9, olDist, row);
                     ((RedisPostgresClient) client).write(TPCCConstants.kOrderLineTable, olKey.str(), row,
                             TPCCConstants.Transactions.LOAD.ordinal(), 0);
                   }
@@ -653,9 +655,9 @@ public class TPCCLoader {
                   if (oid >= config.INIT_NEW_ORDER_NB * 0.7) {
                     NewOrderKey noKey = new NewOrderKey(wid, d, oid);
                     row = newOrderTable.createNewRow(config.PAD_COLUMNS);
-                    newOrderTable.updateColumn(0, oid, row);
-                    newOrderTable.updateColumn(1, d, row);
-                    newOrderTable.updateColumn(2, wid, row);
+                    newOrderTable.putInt(0, oid, row);
+                    newOrderTable.putInt(1, d, row);
+                    newOrderTable.putInt(2, wid, row);
                     ((RedisPostgresClient) client).write(TPCCConstants.kNewOrderTable, noKey.str(), row,
                             TPCCConstants.Transactions.LOAD.ordinal(), 0);
                   }
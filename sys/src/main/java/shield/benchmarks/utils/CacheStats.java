@@ -1,52 +1,316 @@
 package shield.benchmarks.utils;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Cache and latency metrics, shared by all the clients of a process.
+ *
+ * Counters are LongAdders, so that the benchmark threads updating them on every layer do not
+ * contend on a single cache line, and they do not overflow on long runs. Latencies are kept in
+ * {@link LatencyHistogram}s, in microseconds, per transaction type and per layer of a
+ * transaction type.
+ *
+ * Besides the final report, {@link #startIntervalReports} periodically prints the metrics of the
+ * last interval, so that long runs can be followed as they go.
+ */
 public class CacheStats {
-    public static AtomicInteger totalLayers = new AtomicInteger(0);
-    public static AtomicInteger spedUpLayers = new AtomicInteger(0);
-    public static AtomicInteger readSpedUpLayers = new AtomicInteger(0);
-    public static AtomicInteger writeOnlyLayers = new AtomicInteger(0);
-    public static AtomicInteger totalRequests = new AtomicInteger(0);
-    public static AtomicInteger cachedRequests = new AtomicInteger(0);
-
-    public static AtomicInteger totalPrefetches = new AtomicInteger(0);
-    public static AtomicInteger redundantPrefetches = new AtomicInteger(0);
-    public static AtomicInteger prefetchesUsed = new AtomicInteger(0);
-    public static AtomicInteger redundantPrefetchesUsed = new AtomicInteger(0);
-
-    public static void ranLayer(int cachedRequests, int totalRequests, int totalReadRequests, int totalPrefetches, int redundantPrefetches, int prefetchesUsed, int redundantPrefetchesUsed) {
-        totalLayers.incrementAndGet();
-        if (cachedRequests == totalRequests) spedUpLayers.incrementAndGet();
-        if (cachedRequests == totalReadRequests) readSpedUpLayers.incrementAndGet();
-        if (totalReadRequests == 0) writeOnlyLayers.incrementAndGet();
-
-        CacheStats.totalRequests.addAndGet(totalRequests);
-        CacheStats.cachedRequests.addAndGet(cachedRequests);
-
-        CacheStats.totalPrefetches.addAndGet(totalPrefetches);
-        CacheStats.redundantPrefetches.addAndGet(redundantPrefetches);
-
-        CacheStats.prefetchesUsed.addAndGet(prefetchesUsed);
-        CacheStats.redundantPrefetchesUsed.addAndGet(redundantPrefetchesUsed);
-    }
-
-    public static void printReport() {
-        int s = spedUpLayers.get();
-        int t = totalLayers.get();
-        System.out.printf("%d layers sped up out of %d layers total; %.3f\n", s, t, ((float) s) / t);
-
-        int sr = readSpedUpLayers.get();
-        System.out.printf("%d layers had all reads sped up out of %d layers total; %.3f. %d of these layers were write-only.\n", sr, t, ((float) sr) / t, writeOnlyLayers.get());
-
-        int c = cachedRequests.get();
-        int r = totalRequests.get();
-        System.out.printf("%d requests cached out of %d requests total; %.3f\n", c, r, ((float) c) / r);
-
-        System.out.printf("Of %d prefetches made total, %d (%.3f) were used, %d (%.3f) were redundant, %d (%.3f) were used AND redundant",
-                totalPrefetches.get(),
-                prefetchesUsed.get(), ((float) prefetchesUsed.get()) / totalPrefetches.get(),
-                redundantPrefetches.get(), ((float) redundantPrefetches.get()) / totalPrefetches.get(),
-                redundantPrefetchesUsed.get(), ((float) redundantPrefetchesUsed.get()) / totalPrefetches.get());
+
+    /**
+     * Largest txn_type for which latencies are kept
+     */
+    private static final int MAX_TXN_TYPES = 64;
+
+    /**
+     * Layers beyond this index are accounted with the last one
+     */
+    private static final int MAX_LAYERS = 16;
+
+    /**
+     * Counters, indexed by the constants below
+     */
+    private static final int TOTAL_LAYERS = 0;
+    private static final int SPED_UP_LAYERS = 1;
+    private static final int READ_SPED_UP_LAYERS = 2;
+    private static final int WRITE_ONLY_LAYERS = 3;
+    private static final int TOTAL_REQUESTS = 4;
+    private static final int CACHED_REQUESTS = 5;
+    private static final int TOTAL_PREFETCHES = 6;
+    private static final int REDUNDANT_PREFETCHES = 7;
+    private static final int PREFETCHES_USED = 8;
+    private static final int REDUNDANT_PREFETCHES_USED = 9;
+    private static final int TOTAL_TRANSACTIONS = 10;
+    private static final int READ_TRANSACTIONS = 11;
+    private static final int CACHED_TRANSACTIONS = 12;
+    private static final int TOTAL_READ_REQUESTS = 13;
+    private static final int NEAR_CACHE_HITS = 14;
+    private static final int DROPPED_PREFETCHES = 15;
+    private static final int JOINED_PREFETCHES = 16;
+    private static final int PREFETCH_HIDDEN_MICROS = 17;
+    private static final int PREFETCH_ADDED_MICROS = 18;
+    private static final int CACHED_VALUES = 19;
+    private static final int CACHED_VALUE_BYTES = 20;
+    private static final int CACHED_ENCODED_BYTES = 21;
+    private static final int NB_COUNTERS = 22;
+
+    private static final LongAdder[] counters = new LongAdder[NB_COUNTERS];
+
+    static {
+        for (int i = 0; i < NB_COUNTERS; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Committed transaction latencies, by txn_type
+     */
+    private static final AtomicReferenceArray<LatencyHistogram> txnLatencies =
+            new AtomicReferenceArray<>(MAX_TXN_TYPES);
+
+    /**
+     * Layer latencies, by txn_type * MAX_LAYERS + layer
+     */
+    private static final AtomicReferenceArray<LatencyHistogram> layerLatencies =
+            new AtomicReferenceArray<>(MAX_TXN_TYPES * MAX_LAYERS);
+
+    /**
+     * Latencies of the prefetches, from their issue to their completion
+     */
+    private static final LatencyHistogram prefetchLatencies = new LatencyHistogram();
+
+    private static ScheduledExecutorService reporter;
+
+    /**
+     * Records a layer that completed
+     *
+     * @param txnType txn_type of the layer's transaction
+     * @param layer index of the layer in the transaction attempt
+     * @param latencyMicros time taken by the layer
+     * @param nearCacheHits number of cachedRequests served by the in-process cache tier (L1)
+     * rather than by Redis (L2)
+     */
+    public static void ranLayer(int txnType, int layer, long latencyMicros, int cachedRequests, int nearCacheHits, int totalRequests, int totalReadRequests, int prefetchesUsed, int redundantPrefetchesUsed) {
+        counters[TOTAL_LAYERS].increment();
+        if (cachedRequests == totalRequests) counters[SPED_UP_LAYERS].increment();
+        if (cachedRequests == totalReadRequests) counters[READ_SPED_UP_LAYERS].increment();
+        if (totalReadRequests == 0) counters[WRITE_ONLY_LAYERS].increment();
+
+        counters[TOTAL_REQUESTS].add(totalRequests);
+        counters[CACHED_REQUESTS].add(cachedRequests);
+        counters[TOTAL_READ_REQUESTS].add(totalReadRequests);
+        counters[NEAR_CACHE_HITS].add(nearCacheHits);
+
+        counters[PREFETCHES_USED].add(prefetchesUsed);
+        counters[REDUNDANT_PREFETCHES_USED].add(redundantPrefetchesUsed);
+
+        if (txnType >= 0 && txnType < MAX_TXN_TYPES) {
+            histogram(layerLatencies, txnType * MAX_LAYERS + Math.min(layer, MAX_LAYERS - 1))
+                    .record(latencyMicros);
+        }
+    }
+
+    /**
+     * Records a committed transaction
+     *
+     * @param latencyMicros time from the start of the transaction's first attempt to its commit
+     * @param hasReads whether the committed attempt read any key
+     * @param allReadsCached whether all the reads of the committed attempt were cache hits
+     */
+    public static void ranTransaction(int txnType, long latencyMicros, boolean hasReads, boolean allReadsCached) {
+        counters[TOTAL_TRANSACTIONS].increment();
+        if (hasReads) {
+            counters[READ_TRANSACTIONS].increment();
+            if (allReadsCached) counters[CACHED_TRANSACTIONS].increment();
+        }
+        if (txnType >= 0 && txnType < MAX_TXN_TYPES) {
+            histogram(txnLatencies, txnType).record(latencyMicros);
+        }
+    }
+
+    /**
+     * Records a prefetch that completed
+     *
+     * @param redundant whether the prefetched key was already cached
+     * @param latencyMicros time from the issue of the prefetch to its completion
+     */
+    public static void ranPrefetch(boolean redundant, long latencyMicros) {
+        counters[TOTAL_PREFETCHES].increment();
+        if (redundant) counters[REDUNDANT_PREFETCHES].increment();
+        prefetchLatencies.record(latencyMicros);
+    }
+
+    /**
+     * Records a prefetch that was not issued, as the prefetch executor was saturated
+     */
+    public static void droppedPrefetch() {
+        counters[DROPPED_PREFETCHES].increment();
+    }
+
+    /**
+     * Records a read that joined an in-flight prefetch rather than reading the key itself
+     *
+     * @param hiddenMicros latency of the prefetch that overlapped earlier work
+     * @param addedMicros time the reading layer waited for the prefetch to complete
+     */
+    public static void joinedPrefetch(long hiddenMicros, long addedMicros) {
+        counters[JOINED_PREFETCHES].increment();
+        counters[PREFETCH_HIDDEN_MICROS].add(hiddenMicros);
+        counters[PREFETCH_ADDED_MICROS].add(addedMicros);
+    }
+
+    /**
+     * Records a value written to Redis, of the given size before and after encoding
+     */
+    public static void cachedValue(int valueBytes, int encodedBytes) {
+        counters[CACHED_VALUES].increment();
+        counters[CACHED_VALUE_BYTES].add(valueBytes);
+        counters[CACHED_ENCODED_BYTES].add(encodedBytes);
+    }
+
+    private static LatencyHistogram histogram(AtomicReferenceArray<LatencyHistogram> histograms, int index) {
+        LatencyHistogram histogram = histograms.get(index);
+        if (histogram == null) {
+            histograms.compareAndSet(index, null, new LatencyHistogram());
+            histogram = histograms.get(index);
+        }
+        return histogram;
+    }
+
+    /**
+     * Values of the counters and histograms at a point in time
+     */
+    private static class Snapshot {
+        final long[] counts = new long[NB_COUNTERS];
+        final LatencyHistogram.Snapshot[] txnLatencies = new LatencyHistogram.Snapshot[MAX_TXN_TYPES];
+        final LatencyHistogram.Snapshot[] layerLatencies = new LatencyHistogram.Snapshot[MAX_TXN_TYPES * MAX_LAYERS];
+        final LatencyHistogram.Snapshot prefetchLatencies = CacheStats.prefetchLatencies.snapshot();
+
+        Snapshot() {
+            for (int i = 0; i < NB_COUNTERS; i++) {
+                counts[i] = counters[i].sum();
+            }
+            for (int i = 0; i < txnLatencies.length; i++) {
+                LatencyHistogram histogram = CacheStats.txnLatencies.get(i);
+                if (histogram != null) txnLatencies[i] = histogram.snapshot();
+            }
+            for (int i = 0; i < layerLatencies.length; i++) {
+                LatencyHistogram histogram = CacheStats.layerLatencies.get(i);
+                if (histogram != null) layerLatencies[i] = histogram.snapshot();
+            }
+        }
+    }
+
+    private static long delta(Snapshot current, Snapshot previous, int counter) {
+        return current.counts[counter] - (previous == null ? 0 : previous.counts[counter]);
+    }
+
+    private static LatencyHistogram.Snapshot delta(LatencyHistogram.Snapshot current, LatencyHistogram.Snapshot previous) {
+        return current == null ? null : current.minus(previous);
+    }
+
+    private static float ratio(long part, long total) {
+        return ((float) part) / total;
+    }
+
+    /**
+     * Prints the metrics accumulated between previous (or the start of the run) and current
+     */
+    private static void print(String prefix, Snapshot current, Snapshot previous, Enum<?>[] txnTypes) {
+        long s = delta(current, previous, SPED_UP_LAYERS);
+        long t = delta(current, previous, TOTAL_LAYERS);
+        System.out.printf("%s%d layers sped up out of %d layers total; %.3f\n", prefix, s, t, ratio(s, t));
+
+        long sr = delta(current, previous, READ_SPED_UP_LAYERS);
+        System.out.printf("%s%d layers had all reads sped up out of %d layers total; %.3f. %d of these layers were write-only.\n", prefix, sr, t, ratio(sr, t), delta(current, previous, WRITE_ONLY_LAYERS));
+
+        long c = delta(current, previous, CACHED_REQUESTS);
+        long r = delta(current, previous, TOTAL_REQUESTS);
+        System.out.printf("%s%d requests cached out of %d requests total; %.3f\n", prefix, c, r, ratio(c, r));
+
+        // Reads first look up L1 (if enabled), and L2 on an L1 miss
+        long reads = delta(current, previous, TOTAL_READ_REQUESTS);
+        long l1 = delta(current, previous, NEAR_CACHE_HITS);
+        System.out.printf("%sL1 (near cache): %d hits out of %d reads; %.3f. L2 (Redis): %d hits out of %d lookups; %.3f\n", prefix, l1, reads, ratio(l1, reads), c - l1, reads - l1, ratio(c - l1, reads - l1));
+
+        long v = delta(current, previous, CACHED_VALUES);
+        long vb = delta(current, previous, CACHED_VALUE_BYTES);
+        long eb = delta(current, previous, CACHED_ENCODED_BYTES);
+        System.out.printf("%s%d values written to Redis: %.1f bytes per row encoded, %.1f before encoding; %.3f of the size\n", prefix, v, ratio(eb, v), ratio(vb, v), ratio(eb, vb));
+
+        long ct = delta(current, previous, CACHED_TRANSACTIONS);
+        long rt = delta(current, previous, READ_TRANSACTIONS);
+        System.out.printf("%s%d transactions had all reads cached out of %d transactions with reads (%d committed); transactional hit rate %.3f\n", prefix, ct, rt, delta(current, previous, TOTAL_TRANSACTIONS), ratio(ct, rt));
+
+        long p = delta(current, previous, TOTAL_PREFETCHES);
+        long pu = delta(current, previous, PREFETCHES_USED);
+        long rp = delta(current, previous, REDUNDANT_PREFETCHES);
+        long rpu = delta(current, previous, REDUNDANT_PREFETCHES_USED);
+        System.out.printf("%sOf %d prefetches made total, %d (%.3f) were used, %d (%.3f) were redundant, %d (%.3f) were used AND redundant\n",
+                prefix, p, pu, ratio(pu, p), rp, ratio(rp, p), rpu, ratio(rpu, p));
+
+        long j = delta(current, previous, JOINED_PREFETCHES);
+        long hidden = delta(current, previous, PREFETCH_HIDDEN_MICROS);
+        long added = delta(current, previous, PREFETCH_ADDED_MICROS);
+        System.out.printf("%s%d prefetches dropped; %d reads joined an in-flight prefetch: %d us of prefetch latency hidden, %d us added; %.3f hidden\n",
+                prefix, delta(current, previous, DROPPED_PREFETCHES), j, hidden, added, ratio(hidden, hidden + added));
+        LatencyHistogram.Snapshot prefetches = delta(current.prefetchLatencies, previous == null ? null : previous.prefetchLatencies);
+        if (prefetches.getCount() > 0) {
+            System.out.printf("%s[LATENCY us] prefetch: %s\n", prefix, prefetches.summary());
+        }
+
+        for (Enum<?> txnType : txnTypes) {
+            int type = txnType.ordinal();
+            if (type >= MAX_TXN_TYPES) continue;
+            LatencyHistogram.Snapshot txn = delta(current.txnLatencies[type], previous == null ? null : previous.txnLatencies[type]);
+            if (txn != null && txn.getCount() > 0) {
+                System.out.printf("%s[LATENCY us] %s txn: %s\n", prefix, txnType, txn.summary());
+            }
+            for (int layer = 0; layer < MAX_LAYERS; layer++) {
+                int index = type * MAX_LAYERS + layer;
+                LatencyHistogram.Snapshot l = delta(current.layerLatencies[index], previous == null ? null : previous.layerLatencies[index]);
+                if (l != null && l.getCount() > 0) {
+                    System.out.printf("%s[LATENCY us] %s layer %d%s: %s\n", prefix, txnType, layer, layer == MAX_LAYERS - 1 ? "+" : "", l.summary());
+                }
+            }
+        }
+    }
+
+    /**
+     * Prints the metrics of every interval of the given number of seconds, until the process
+     * exits. Does nothing if intervalSeconds is not positive
+     *
+     * @param txnTypes transaction types, indexed by txn_type
+     */
+    public static synchronized void startIntervalReports(int intervalSeconds, Enum<?>[] txnTypes) {
+        if (intervalSeconds <= 0 || reporter != null) return;
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cache-stats-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Snapshot[] previous = { new Snapshot() };
+        long start = System.currentTimeMillis();
+        reporter.scheduleAtFixedRate(() -> {
+            Snapshot current = new Snapshot();
+            String prefix = "[INTERVAL " + (System.currentTimeMillis() - start) / 1000 + "s] ";
+            print(prefix, current, previous[0], txnTypes);
+            previous[0] = current;
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Prints the metrics accumulated since the start of the run
+     *
+     * @param txnTypes transaction types, indexed by txn_type
+     */
+    public static synchronized void printReport(Enum<?>[] txnTypes) {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+        print("", new Snapshot(), null, txnTypes);
     }
 }
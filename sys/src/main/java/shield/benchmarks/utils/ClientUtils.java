@@ -2,8 +2,6 @@ package shield.benchmarks.utils;
 
 import java.io.IOException;
 import java.sql.SQLException;
-import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
 
 import org.json.simple.parser.ParseException;
 import shield.client.*;
@@ -65,7 +63,7 @@ public class ClientUtils {
       return client;
   }
 
-  public static ClientBase createClient(ClientType ty, String expConfigFile, Map<Long, ReadWriteLock> keyLocks, int port, int uid)
+  public static ClientBase createClient(ClientType ty, String expConfigFile, KeyLockTable keyLocks, int port, int uid)
           throws InterruptedException, ParseException, IOException, SQLException {
     ClientBase client = null;
     switch (ty) {
@@ -0,0 +1,152 @@
+package shield.benchmarks.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of non-negative values (typically latencies in microseconds), with
+ * log-linear buckets in the style of HdrHistogram: values below 64 are counted exactly, larger
+ * values in 32 buckets per power of two, i.e. with a relative error of at most ~3%. Recording is
+ * a single atomic increment and never allocates.
+ *
+ * Interval statistics are obtained by subtracting two snapshots.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int EXACT = 2 * SUB_BUCKETS;
+  private static final int NB_BUCKETS = EXACT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(NB_BUCKETS);
+
+  static int bucketOf(long value) {
+    if (value < EXACT) {
+      return value < 0 ? 0 : (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    int mantissa = (int) (value >>> shift);
+    return EXACT + (shift - 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+  }
+
+  /**
+   * Largest value counted in bucket
+   */
+  static long upperBoundOf(int bucket) {
+    if (bucket < EXACT) {
+      return bucket;
+    }
+    int shift = (bucket - EXACT) / SUB_BUCKETS + 1;
+    long mantissa = (bucket - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+    return ((mantissa + 1) << shift) - 1;
+  }
+
+  /**
+   * Middle of the range of values counted in bucket
+   */
+  static long midpointOf(int bucket) {
+    if (bucket < EXACT) {
+      return bucket;
+    }
+    int shift = (bucket - EXACT) / SUB_BUCKETS + 1;
+    long mantissa = (bucket - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+    return (mantissa << shift) + (1L << (shift - 1));
+  }
+
+  public void record(long value) {
+    counts.incrementAndGet(bucketOf(value));
+  }
+
+  public Snapshot snapshot() {
+    long[] copy = new long[NB_BUCKETS];
+    for (int i = 0; i < NB_BUCKETS; i++) {
+      copy[i] = counts.get(i);
+    }
+    return new Snapshot(copy);
+  }
+
+  /**
+   * Immutable copy of the counts of a histogram
+   */
+  public static class Snapshot {
+
+    private final long[] counts;
+
+    private final long count;
+
+    Snapshot(long[] counts) {
+      this.counts = counts;
+      long total = 0;
+      for (long c : counts) {
+        total += c;
+      }
+      this.count = total;
+    }
+
+    /**
+     * Returns the values recorded after previous was taken
+     */
+    public Snapshot minus(Snapshot previous) {
+      if (previous == null) {
+        return this;
+      }
+      long[] diff = new long[counts.length];
+      for (int i = 0; i < counts.length; i++) {
+        diff[i] = counts[i] - previous.counts[i];
+      }
+      return new Snapshot(diff);
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public double getMean() {
+      if (count == 0) {
+        return 0;
+      }
+      double sum = 0;
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] != 0) {
+          sum += (double) counts[i] * midpointOf(i);
+        }
+      }
+      return sum / count;
+    }
+
+    /**
+     * Returns an upper bound on the value at the given percentile (between 0 and 100)
+     */
+    public long getPercentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return upperBoundOf(i);
+        }
+      }
+      return getMax();
+    }
+
+    public long getMax() {
+      for (int i = counts.length - 1; i >= 0; i--) {
+        if (counts[i] != 0) {
+          return upperBoundOf(i);
+        }
+      }
+      return 0;
+    }
+
+    /**
+     * Formats count, mean and tail percentiles
+     */
+    public String summary() {
+      return String.format("n=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d", count,
+          getMean(), getPercentile(50), getPercentile(90), getPercentile(99),
+          getPercentile(99.9), getMax());
+    }
+  }
+}
@@ -1,69 +1,150 @@
 package shield.benchmarks.utils;
 
-import shield.util.Pair;
-
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Utility class that collects statistics in the code, and asynchronously flushes out datapoints to
  * disk. Can be used to measure elapsed time between an addBegin() and an addEnd() call or to log
  * down a single point, by calling addPoint() instead NB: very addBegin must be followed by an
- * addEnd call. There cannot be multiple outstanding addBegin() calls
+ * addEnd call. At most MAX_OUTSTANDING addBegin() calls can be outstanding at once.
+ *
+ * Recording is lock-free and does not allocate (except for the object passed to addPoint): each
+ * recording thread appends primitive records to its own preallocated ring buffer, which a
+ * background thread drains to disk in batches. Records are written either as text, one per line,
+ * or in a compact binary format that {@link StatisticsReader} decodes offline.
  *
- * TODO: I haven't measured the performance impact of doing this over simply printing to stdout.
+ * Run main() to measure the cost of recording one transaction.
  *
  * @author ncrooks
  */
 public class StatisticsCollector {
 
+  public enum Format {
+    /**
+     * "key start_ms duration_ms type" lines for transactions, "time_ms point" lines for points
+     */
+    TEXT,
+    /**
+     * Records as decoded by StatisticsReader
+     */
+    BINARY
+  }
+
+  static final int MAGIC = 0x53544331; // "STC1"
+  static final byte RECORD_INTERVAL = 0;
+  static final byte RECORD_POINT = 1;
+
   /**
-   * Interval between two disk flushes
+   * Maximum number of addBegin() calls without a matching addEnd()
    */
-  private final long sleep_time = 10;
+  private static final int MAX_OUTSTANDING = 1 << 16;
+
+  /**
+   * Number of records buffered per recording thread
+   */
+  private static final int BUFFER_CAPACITY = 1 << 14;
 
   /**
-   * List of start times without a matching end time
+   * Interval between two disk flushes
    */
-  private ConcurrentHashMap<Integer, Long> startTimes =
-      new ConcurrentHashMap<Integer, Long>();
+  private final long sleep_time = 10;
+
   /**
-   * List of end times
+   * Records of one thread. Single producer (the owning thread), single consumer (the write-back
+   * thread). The producer publishes a record by advancing tail, the consumer frees it by
+   * advancing head
    */
-  private ConcurrentHashMap<Integer, Pair<Long, Long>> endTimes =
-      new ConcurrentHashMap<Integer, Pair<Long, Long>>();
+  private static final class RingBuffer {
+
+    final int[] keys = new int[BUFFER_CAPACITY];
+    final int[] types = new int[BUFFER_CAPACITY];
+    final long[] starts = new long[BUFFER_CAPACITY];
+    final long[] ends = new long[BUFFER_CAPACITY];
+    final Object[] points = new Object[BUFFER_CAPACITY];
+
+    final AtomicLong head = new AtomicLong();
+    final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Producer-side copies of head and tail
+     */
+    long cachedHead = 0;
+    long nextTail = 0;
+
+    /**
+     * Returns the index of a free slot, waiting for the consumer if the buffer is full
+     */
+    int claim() {
+      if (nextTail - cachedHead == BUFFER_CAPACITY) {
+        while (nextTail - (cachedHead = head.get()) == BUFFER_CAPACITY) {
+          Thread.yield();
+        }
+      }
+      return (int) (nextTail & (BUFFER_CAPACITY - 1));
+    }
+
+    void publish() {
+      tail.lazySet(++nextTail);
+    }
+  }
+
   /**
-   * List of single datapoints
+   * Start times of outstanding addBegin() calls, by key
    */
-  private ConcurrentLinkedQueue<Pair<Float, Object>> dataPoints =
-      new ConcurrentLinkedQueue<Pair<Float, Object>>();
+  private final long[] startTimes = new long[MAX_OUTSTANDING];
+
+  private final AtomicInteger nbTrx = new AtomicInteger();
+
+  private final List<RingBuffer> buffers = new CopyOnWriteArrayList<>();
+
+  private final ThreadLocal<RingBuffer> localBuffer = ThreadLocal.withInitial(() -> {
+    RingBuffer buffer = new RingBuffer();
+    buffers.add(buffer);
+    return buffer;
+  });
+
+  private final Format format;
   /**
-   * Buffered writer
+   * Output, depending on the format
    */
   private BufferedWriter out = null;
+  private DataOutputStream binaryOut = null;
   /**
    * Time at which this experiment started
    */
-  private long beginExperimentTime = 0;
-  /**
-   * Number of points logged
-   */
-  private int nbTrx = 0;
+  private final long beginExperimentTime = System.nanoTime();
   /**
    * File to which the data will be output
    */
   private String fileName = "";
 
+  private Thread writeBack;
+
+  private volatile boolean stopped = false;
+
   public StatisticsCollector(String fileName) {
+    this(fileName, Format.TEXT);
+  }
 
+  public StatisticsCollector(String fileName, Format format) {
+    this.format = format;
     try {
-      this.out = new BufferedWriter(new FileWriter(fileName));
+      if (format == Format.BINARY) {
+        this.binaryOut = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+        binaryOut.writeInt(MAGIC);
+      } else {
+        this.out = new BufferedWriter(new FileWriter(fileName), 1 << 16);
+      }
       this.fileName = fileName;
     } catch (IOException e) {
       e.printStackTrace();
@@ -74,13 +155,9 @@ public class StatisticsCollector {
   /**
    * Add begin point from which should start counting
    */
-  public synchronized int addBegin() {
-
-    if (beginExperimentTime == 0) {
-      beginExperimentTime = System.nanoTime();
-    }
-    int key = nbTrx++;
-    startTimes.put(key, System.nanoTime());
+  public int addBegin() {
+    int key = nbTrx.getAndIncrement();
+    startTimes[key & (MAX_OUTSTANDING - 1)] = System.nanoTime();
     return key;
   }
 
@@ -92,9 +169,24 @@ public class StatisticsCollector {
     }
   }
 
-  public synchronized void addEnd(int key) {
+  public void addEnd(int key) {
+    addEnd(key, -1);
+  }
 
-    endTimes.put(key, new Pair<Long, Long>(System.nanoTime(), 0L));
+  /**
+   * Ends the measurement started by addBegin() call key
+   *
+   * @param type type of the measured operation (e.g. transaction type), -1 if unknown
+   */
+  public void addEnd(int key, int type) {
+    long end = System.nanoTime();
+    RingBuffer buffer = localBuffer.get();
+    int slot = buffer.claim();
+    buffer.keys[slot] = key;
+    buffer.types[slot] = type;
+    buffer.starts[slot] = startTimes[key & (MAX_OUTSTANDING - 1)];
+    buffer.ends[slot] = end;
+    buffer.publish();
   }
 
   public static void addEnd(StatisticsCollector stats, int end) {
@@ -103,15 +195,19 @@ public class StatisticsCollector {
     }
   }
 
-
-  public synchronized void addPoint(Object obj) {
-
-    if (beginExperimentTime == 0) {
-      beginExperimentTime = System.nanoTime();
+  public static void addEnd(StatisticsCollector stats, int end, int type) {
+    if (stats != null) {
+      stats.addEnd(end, type);
     }
-    Pair<Float, Object> p = new Pair<Float, Object>(
-        toMillis(System.nanoTime() - beginExperimentTime), obj);
-    dataPoints.add(p);
+  }
+
+  public void addPoint(Object obj) {
+    long time = System.nanoTime();
+    RingBuffer buffer = localBuffer.get();
+    int slot = buffer.claim();
+    buffer.starts[slot] = time;
+    buffer.points[slot] = obj;
+    buffer.publish();
   }
 
   public static void addPoint(StatisticsCollector stats, Object obj) {
@@ -120,71 +216,107 @@ public class StatisticsCollector {
     }
   }
 
-
   public void createWriteBack() {
 
-    Thread wb = new Thread() {
+    writeBack = new Thread() {
       public void run() {
 
         try {
-          Set<Map.Entry<Integer, Long>> beginEntries = null;
-          Set<Map.Entry<Integer, Pair<Long, Long>>> endEntries = null;
-          Iterator<Map.Entry<Integer, Long>> iterator = null;
-          Map.Entry<Integer, Long> start = null;
-          Pair<Long, Long> end = null;
-          while (true) {
-            beginEntries = startTimes.entrySet();
-            endEntries = endTimes.entrySet();
-            iterator = beginEntries.iterator();
-            while (iterator.hasNext()) {
-              start = iterator.next();
-              end = endTimes.get(start.getKey());
-              if (end == null) {
-                /* Not yet added */
-              } else {
-                writeResults(start.getKey(), start.getValue(), end.getLeft());
-                startTimes.remove(start.getKey());
-                endTimes.remove(start.getKey());
-              }
-            }
-            Pair<Float, Object> point = null;
-            while ((point = dataPoints.poll()) != null) {
-              out.write(
-                  point.getLeft() + " " + point.getRight().toString() + " \n");
-              out.flush();
+          while (!stopped) {
+            if (drain()) {
+              flush();
             }
             sleep(sleep_time);
           }
+        } catch (InterruptedException e) {
+          // end() was called
         } catch (Exception e) {
           System.exit(-1);
         }
       }
     };
-    wb.setDaemon(true);
-    wb.start();
+    writeBack.setDaemon(true);
+    writeBack.start();
   }
 
-  public void end() {
+  /**
+   * Writes out all published records
+   *
+   * @return whether any record was written
+   */
+  private synchronized boolean drain() throws IOException {
+    boolean written = false;
+    for (RingBuffer buffer : buffers) {
+      long head = buffer.head.get();
+      long tail = buffer.tail.get();
+      for (long i = head; i < tail; i++) {
+        int slot = (int) (i & (BUFFER_CAPACITY - 1));
+        Object point = buffer.points[slot];
+        if (point != null) {
+          writePoint(buffer.starts[slot] - beginExperimentTime, point);
+          buffer.points[slot] = null;
+        } else {
+          writeResults(buffer.keys[slot], buffer.types[slot], buffer.starts[slot],
+              buffer.ends[slot]);
+        }
+      }
+      if (tail != head) {
+        buffer.head.lazySet(tail);
+        written = true;
+      }
+    }
+    return written;
+  }
 
+  private void flush() throws IOException {
+    if (binaryOut != null) {
+      binaryOut.flush();
+    } else if (out != null) {
+      out.flush();
+    }
+  }
+
+  /**
+   * Stops the write-back thread, writes out the remaining records and closes the file
+   */
+  public void end() {
+    stopped = true;
+    writeBack.interrupt();
     try {
-      out.close();
-    } catch (IOException ex) {
+      writeBack.join();
+      drain();
+      if (binaryOut != null) {
+        binaryOut.close();
+      } else if (out != null) {
+        out.close();
+      }
+    } catch (IOException | InterruptedException ex) {
       System.exit(-1);
     }
   }
 
-  public void writeResults(int trxId, long start, long end)
+  private void writeResults(int trxId, int type, long start, long end)
       throws IOException {
-
-    if ((toMillis(end - start)) < 100) {
+    if (binaryOut != null) {
+      binaryOut.writeByte(RECORD_INTERVAL);
+      binaryOut.writeInt(trxId);
+      binaryOut.writeInt(type);
+      binaryOut.writeLong(start - beginExperimentTime);
+      binaryOut.writeLong(end - start);
+    } else if (out != null) {
       out.write(trxId + " " + toMillis(start - beginExperimentTime) + " "
-          + toMillis(end - start) + " " + " \n");
-    } else {
-      out.write(trxId + " " + toMillis(start - beginExperimentTime) + " "
-          + toMillis(end - start) + " " + " \n");
+          + toMillis(end - start) + " " + type + "\n");
     }
+  }
 
-    out.flush();
+  private void writePoint(long time, Object point) throws IOException {
+    if (binaryOut != null) {
+      binaryOut.writeByte(RECORD_POINT);
+      binaryOut.writeLong(time);
+      binaryOut.writeUTF(point.toString());
+    } else if (out != null) {
+      out.write(toMillis(time) + " " + point.toString() + " \n");
+    }
   }
 
   public static float toMillis(long nano) {
@@ -197,5 +329,48 @@ public class StatisticsCollector {
     return fileName;
   }
 
+  public Format getFormat() {
+    return format;
+  }
+
+  /**
+   * Measures the time taken by an addBegin()/addEnd() pair, net of the two System.nanoTime()
+   * calls that any measurement needs anyway. Transactions are recorded in bursts that fit in the
+   * ring buffer, so that the cost measured is that of recording, not of waiting for the disk.
+   *
+   * Usage: StatisticsCollector [iterations] [output file]
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    String file = args.length > 1 ? args[1] : "/dev/null";
+    StatisticsCollector stats = new StatisticsCollector(file, Format.BINARY);
+    int burst = BUFFER_CAPACITY / 2;
+
+    for (int round = 0; round < 5; round++) {
+      long recorded = 0;
+      long baseline = 0;
+      long sink = 0;
+      for (int done = 0; done < iterations; done += burst) {
+        long begin = System.nanoTime();
+        for (int i = 0; i < burst; i++) {
+          stats.addEnd(stats.addBegin(), 0);
+        }
+        recorded += System.nanoTime() - begin;
 
+        begin = System.nanoTime();
+        for (int i = 0; i < burst; i++) {
+          sink += System.nanoTime() - System.nanoTime();
+        }
+        baseline += System.nanoTime() - begin;
+
+        // Let the write-back thread drain the buffer
+        Thread.sleep(2 * stats.sleep_time);
+      }
+      int total = (iterations + burst - 1) / burst * burst;
+      System.out.printf("Round %d: %.1f ns per transaction (%.1f ns including timestamps)%s\n",
+          round, (double) (recorded - baseline) / total, (double) recorded / total,
+          sink == 42 ? " " : "");
+    }
+    stats.end();
+  }
 }
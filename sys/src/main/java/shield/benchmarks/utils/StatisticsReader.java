@@ -0,0 +1,115 @@
+package shield.benchmarks.utils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Decodes the files written by a {@link StatisticsCollector} in binary format.
+ *
+ * Usage: StatisticsReader <file> [csv|summary]. By default, records are printed in the collector's
+ * text format; csv prints them with a header, summary only prints latency percentiles.
+ */
+public class StatisticsReader {
+
+  /**
+   * Receives the records of a file
+   */
+  public interface Visitor {
+
+    /**
+     * A measurement from addBegin() to addEnd(), times in ns since the collector was created
+     */
+    void interval(int key, int type, long start, long duration);
+
+    /**
+     * A point logged with addPoint(), time in ns since the collector was created
+     */
+    void point(long time, String point);
+  }
+
+  public static void read(String fileName, Visitor visitor) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(fileName), 1 << 16))) {
+      if (in.readInt() != StatisticsCollector.MAGIC) {
+        throw new IOException(fileName + " is not a binary statistics file");
+      }
+      while (true) {
+        int kind = in.read();
+        if (kind == -1) {
+          return;
+        }
+        try {
+          if (kind == StatisticsCollector.RECORD_INTERVAL) {
+            int key = in.readInt();
+            int type = in.readInt();
+            long start = in.readLong();
+            long duration = in.readLong();
+            visitor.interval(key, type, start, duration);
+          } else if (kind == StatisticsCollector.RECORD_POINT) {
+            long time = in.readLong();
+            visitor.point(time, in.readUTF());
+          } else {
+            throw new IOException("Unknown record kind " + kind + " in " + fileName);
+          }
+        } catch (EOFException e) {
+          // Truncated last record, e.g. the collector was not ended
+          return;
+        }
+      }
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: StatisticsReader <file> [csv|summary]");
+      System.exit(-1);
+    }
+    String mode = args.length > 1 ? args[1] : "text";
+
+    if (mode.equals("summary")) {
+      LatencyHistogram latencies = new LatencyHistogram();
+      long[] points = {0};
+      read(args[0], new Visitor() {
+        public void interval(int key, int type, long start, long duration) {
+          latencies.record(duration / 1000);
+        }
+
+        public void point(long time, String point) {
+          points[0]++;
+        }
+      });
+      System.out.println("[LATENCY us] " + latencies.snapshot().summary());
+      System.out.println(points[0] + " points");
+      return;
+    }
+
+    boolean csv = mode.equals("csv");
+    if (csv) {
+      System.out.println("kind,key,type,start_ms,duration_ms,point");
+    }
+    read(args[0], new Visitor() {
+      public void interval(int key, int type, long start, long duration) {
+        if (csv) {
+          System.out.println("interval," + key + "," + type + ","
+              + StatisticsCollector.toMillis(start) + "," + StatisticsCollector.toMillis(duration)
+              + ",");
+        } else {
+          System.out.println(key + " " + StatisticsCollector.toMillis(start) + " "
+              + StatisticsCollector.toMillis(duration) + " " + type);
+        }
+      }
+
+      public void point(long time, String point) {
+        if (csv) {
+          System.out.println("point,,," + StatisticsCollector.toMillis(time) + ",,"
+              + "\"" + point.replace("\"", "\"\"") + "\"");
+        } else {
+          System.out.println(StatisticsCollector.toMillis(time) + " " + point + " ");
+        }
+      }
+    });
+  }
+}
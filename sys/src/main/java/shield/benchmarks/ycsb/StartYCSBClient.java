@@ -82,7 +82,7 @@ public class StartYCSBClient {
     nodeConfig = new NodeConfiguration(expConfigFile);
     ycsbSimulator = new YCSBSimulator(ycsbConfig);
     value = new byte[ycsbConfig.VALUE_SIZE];
-    stats = new StatisticsCollector(ycsbConfig.RUN_NAME);
+    stats = new StatisticsCollector(ycsbConfig.RUN_NAME, ycsbConfig.STATS_FORMAT);
 
     if (ycsbConfig.KEY_FILE_NAME.equals("") || ycsbConfig.MUST_GENERATE_KEYS) {
       ycsbSimulator.setupExperiment();
@@ -49,7 +49,7 @@ public class StartYCSBSyncDataStore {
     ycsbConfig = new YCSBExperimentConfiguration(expConfigFile);
     ycsbSimulator = new YCSBSimulator(ycsbConfig);
     nodeConfig = new NodeConfiguration(expConfigFile);
-    stats = new StatisticsCollector(ycsbConfig.RUN_NAME);
+    stats = new StatisticsCollector(ycsbConfig.RUN_NAME, ycsbConfig.STATS_FORMAT);
 
     if (ycsbConfig.KEY_FILE_NAME.equals("") || ycsbConfig.MUST_GENERATE_KEYS) {
       ycsbSimulator.setupExperiment();
@@ -54,7 +54,7 @@ public class StartYCSBTrxClient {
       ycsbSimulator.setupExperimentFromFile(ycsbConfig.KEY_FILE_NAME);
     }
 
-    stats = new StatisticsCollector(ycsbConfig.RUN_NAME);
+    stats = new StatisticsCollector(ycsbConfig.RUN_NAME, ycsbConfig.STATS_FORMAT);
 
     ClientBase client = ClientUtils.createClient(ycsbConfig.CLIENT_TYPE, expConfigFile);
 
@@ -99,7 +99,8 @@ public class StartYCSBTrxClient {
       }
 
       if (!warmUp && !warmDown) {
-        StatisticsCollector.addEnd(stats, measurementKey);
+        // YCSB transactions are untyped: read-only ones are recorded as type 0, the others as 1
+        StatisticsCollector.addEnd(stats, measurementKey, ongoingTrx.getNbWrites() > 0 ? 1 : 0);
       } else {
       }
 
@@ -8,6 +8,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import shield.benchmarks.utils.ClientUtils;
 import shield.benchmarks.utils.ClientUtils.ClientType;
+import shield.benchmarks.utils.StatisticsCollector;
 import shield.config.Configuration;
 
 /**
@@ -120,6 +121,12 @@ public class YCSBExperimentConfiguration extends Configuration {
    */
   public String RUN_NAME = "";
 
+  /**
+   * Format of the latency files written by the clients: "text", or "binary" to be decoded offline
+   * by StatisticsReader
+   */
+  public StatisticsCollector.Format STATS_FORMAT = StatisticsCollector.Format.TEXT;
+
   /**
    * Experiment dir
    */
@@ -195,6 +202,8 @@ public class YCSBExperimentConfiguration extends Configuration {
     CLIENT_TYPE = ClientUtils.fromStringToClientType(getPropString(prop, "client_type", ""));
     EXP_LENGTH = getPropInt(prop, "exp_length", EXP_LENGTH);
     RUN_NAME = getPropString(prop, "run_name", RUN_NAME);
+    STATS_FORMAT = StatisticsCollector.Format.valueOf(
+        getPropString(prop, "stats_format", STATS_FORMAT.name()).toUpperCase());
     EXP_DIR = getPropString(prop, "exp_dir", EXP_DIR);
     KEY_FILE_NAME = getPropString(prop, "key_file_name", KEY_FILE_NAME);
     NB_CLIENT_THREADS = getPropInt(prop, "nb_client_threads", NB_CLIENT_THREADS);
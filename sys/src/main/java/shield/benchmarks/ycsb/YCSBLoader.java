@@ -10,6 +10,7 @@ import org.json.simple.parser.ParseException;
 import shield.benchmarks.utils.ClientUtils;
 import shield.benchmarks.ycsb.utils.YCSBSimulator;
 import shield.client.DatabaseAbortException;
+import shield.client.RedisPostgresClient;
 import shield.client.ClientBase;
 import shield.config.NodeConfiguration;
 
@@ -58,7 +59,9 @@ public class YCSBLoader {
 
     if (ycsbConfig.MUST_LOAD_KEYS) {
       System.out.println("Begin loading data");
+      RedisPostgresClient.enableBulkLoad();
       loadData(ycsbSimulator, ycsbConfig, expConfigFile);
+      RedisPostgresClient.finishBulkLoad();
     }
 
     System.out.println("Data loaded");
@@ -0,0 +1,372 @@
+package shield.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.tikv.common.BytePairWrapper;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.TiSession;
+
+/**
+ * Loads rows into the backing store in large batches rather than one transaction at a time. Used
+ * by the loaders, see {@link RedisPostgresClient#enableBulkLoad()}.
+ *
+ * Rows committed by the clients are partitioned by id between writer threads, each with its own
+ * connection to the backing store. A partition accumulates rows per table, the last value of a row
+ * replacing the previous ones, and hands full batches to its writer. Since a row always goes to
+ * the same writer, its values reach the backing store in commit order. If the writers fall behind,
+ * clients block when handing off batches.
+ *
+ * Rows that are not in the backing store yet are kept in memory, so that the loaders can read back
+ * what they wrote. Loading is not transactional: the rows of a transaction are written by
+ * different batches, and a failed load must be run again.
+ */
+public class BulkLoader {
+
+  /**
+   * A row to load. key is the row's TiKV key, null when loading into Postgres
+   */
+  static final class Row {
+
+    final String table;
+    final long id;
+    final byte[] key;
+    final byte[] value;
+
+    Row(String table, long id, byte[] key, byte[] value) {
+      this.table = table;
+      this.id = id;
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Rows of a table, at most one per id
+   */
+  static final class Batch {
+
+    final String table;
+    final List<Row> rows;
+    private final Map<Long, Integer> index;
+
+    Batch(String table, int capacity) {
+      this.table = table;
+      this.rows = new ArrayList<>(capacity);
+      this.index = new HashMap<>(capacity * 2);
+    }
+
+    void add(Row row) {
+      Integer position = index.putIfAbsent(row.id, rows.size());
+      if (position == null) {
+        rows.add(row);
+      } else {
+        rows.set(position, row);
+      }
+    }
+  }
+
+  /**
+   * Writes batches to the backing store, on the connection of one writer thread
+   */
+  interface Sink {
+
+    void write(Batch batch) throws Exception;
+
+    void close();
+  }
+
+  interface SinkFactory {
+
+    Sink open() throws Exception;
+  }
+
+  /**
+   * Number of times a batch is written before the load is given up
+   */
+  private static final int MAX_ATTEMPTS = 3;
+
+  /**
+   * Handed to the writers when there are no more batches
+   */
+  private static final Batch END = new Batch("", 0);
+
+  private final int batchRows;
+
+  private final Partition[] partitions;
+
+  /**
+   * Last value committed for each row that is not in the backing store yet
+   */
+  private final ConcurrentHashMap<Long, byte[]> pending = new ConcurrentHashMap<>();
+
+  private final AtomicLong rowsWritten = new AtomicLong();
+
+  private final AtomicLong batchesWritten = new AtomicLong();
+
+  private final long start = System.nanoTime();
+
+  private volatile boolean finished = false;
+
+  /**
+   * Rows of the partition that were not handed to its writer yet, the batches waiting for it, and
+   * the writer itself
+   */
+  private final class Partition {
+
+    private final Map<String, Batch> open = new LinkedHashMap<>();
+    private final BlockingQueue<Batch> full;
+    private final Sink sink;
+    private final Thread writer;
+
+    Partition(int number, int queueBatches, Sink sink) {
+      this.full = new ArrayBlockingQueue<>(queueBatches);
+      this.sink = sink;
+      this.writer = new Thread(this::write, "bulk-loader-" + number);
+      this.writer.setDaemon(true);
+    }
+
+    synchronized void add(Row row) throws InterruptedException {
+      Batch batch = open.get(row.table);
+      if (batch == null) {
+        batch = new Batch(row.table, batchRows);
+        open.put(row.table, batch);
+      }
+      batch.add(row);
+      if (batch.rows.size() >= batchRows) {
+        open.remove(row.table);
+        full.put(batch);
+      }
+    }
+
+    synchronized void flush() throws InterruptedException {
+      for (Batch batch : open.values()) {
+        full.put(batch);
+      }
+      open.clear();
+      full.put(END);
+    }
+
+    private void write() {
+      try {
+        while (true) {
+          Batch batch = full.take();
+          if (batch == END) {
+            return;
+          }
+          writeBatch(batch);
+          for (Row row : batch.rows) {
+            pending.remove(row.id, row.value);
+          }
+          rowsWritten.addAndGet(batch.rows.size());
+          batchesWritten.incrementAndGet();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        sink.close();
+      }
+    }
+
+    private void writeBatch(Batch batch) {
+      for (int attempt = 1; ; attempt++) {
+        try {
+          sink.write(batch);
+          return;
+        } catch (Exception e) {
+          System.err.println("Bulk load of " + batch.rows.size() + " rows of " + batch.table
+              + " failed (attempt " + attempt + "): " + e);
+          if (attempt == MAX_ATTEMPTS) {
+            System.exit(-1);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Opens one sink per writer and starts the writers
+   *
+   * @param nbWriters number of writer threads
+   * @param batchRows maximum number of rows per batch
+   * @param queueBatches number of full batches waiting for a writer before clients block
+   */
+  BulkLoader(int nbWriters, int batchRows, int queueBatches, SinkFactory sinks) throws Exception {
+    this.batchRows = batchRows;
+    this.partitions = new Partition[nbWriters];
+    for (int i = 0; i < nbWriters; i++) {
+      partitions[i] = new Partition(i, queueBatches, sinks.open());
+    }
+    for (Partition partition : partitions) {
+      partition.writer.start();
+    }
+  }
+
+  /**
+   * Queues the rows written by a committed transaction. Blocks while the writer of one of the rows
+   * has too many batches waiting
+   */
+  void add(Collection<Row> rows) {
+    if (finished) {
+      throw new IllegalStateException("Bulk load already finished");
+    }
+    try {
+      for (Row row : rows) {
+        pending.put(row.id, row.value);
+        partitions[partitionOf(row.id)].add(row);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while queueing rows", e);
+    }
+  }
+
+  /**
+   * Last value committed for the row, if it is not in the backing store yet, null otherwise
+   */
+  byte[] getPending(long id) {
+    return pending.get(id);
+  }
+
+  /**
+   * Writes the remaining rows and waits for the writers to exit. Rows can no longer be added
+   */
+  void finish() throws InterruptedException {
+    finished = true;
+    for (Partition partition : partitions) {
+      partition.flush();
+    }
+    for (Partition partition : partitions) {
+      partition.writer.join();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("Bulk loaded %d rows in %d batches in %.1fs (%.0f rows/s)\n",
+        rowsWritten.get(), batchesWritten.get(), seconds, rowsWritten.get() / seconds);
+  }
+
+  private int partitionOf(long id) {
+    // Ids are already hashes, this only spreads them over the writers
+    long h = id * 0x9E3779B97F4A7C15L;
+    return (int) ((h >>> 32) % partitions.length);
+  }
+
+  /**
+   * Loads batches into Postgres: each batch is copied, in binary format, into a temporary staging
+   * table, then upserted into its table with a single statement
+   */
+  static final class PostgresSink implements Sink {
+
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF,
+        '\r', '\n', 0};
+
+    private final Connection connection;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+
+    PostgresSink(String jdbcUrl) throws SQLException {
+      connection = DriverManager.getConnection(jdbcUrl);
+      connection.setAutoCommit(false);
+      try (Statement statement = connection.createStatement()) {
+        statement.executeUpdate("CREATE TEMPORARY TABLE bulk_load_staging "
+            + "(id BIGINT, data BYTEA) ON COMMIT DELETE ROWS");
+      }
+      connection.commit();
+    }
+
+    @Override
+    public void write(Batch batch) throws SQLException, IOException {
+      buffer.reset();
+      DataOutputStream out = new DataOutputStream(buffer);
+      out.write(COPY_SIGNATURE);
+      // Flags, then length of the header extension
+      out.writeInt(0);
+      out.writeInt(0);
+      for (Row row : batch.rows) {
+        out.writeShort(2);
+        out.writeInt(8);
+        out.writeLong(row.id);
+        out.writeInt(row.value.length);
+        out.write(row.value);
+      }
+      out.writeShort(-1);
+      out.flush();
+
+      try {
+        CopyIn copy = ((PGConnection) connection).getCopyAPI()
+            .copyIn("COPY bulk_load_staging (id, data) FROM STDIN WITH (FORMAT binary)");
+        try {
+          copy.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+          copy.endCopy();
+        } finally {
+          if (copy.isActive()) {
+            copy.cancelCopy();
+          }
+        }
+        try (Statement statement = connection.createStatement()) {
+          statement.executeUpdate("INSERT INTO " + batch.table + " (id, data) "
+              + "SELECT id, data FROM bulk_load_staging "
+              + "ON CONFLICT (id) DO UPDATE SET data = EXCLUDED.data");
+        }
+        connection.commit();
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      }
+    }
+
+    @Override
+    public void close() {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        System.err.println(e);
+      }
+    }
+  }
+
+  /**
+   * Loads batches into TiKV, each through one two-phase commit
+   */
+  static final class TiKVSink implements Sink {
+
+    private final TiSession session;
+
+    TiKVSink(String pdAddress) {
+      session = TiSession.create(TiConfiguration.createDefault(pdAddress));
+    }
+
+    @Override
+    public void write(Batch batch) {
+      List<BytePairWrapper> writes = new ArrayList<>(batch.rows.size());
+      for (Row row : batch.rows) {
+        writes.add(new BytePairWrapper(row.key, row.value));
+      }
+      TiKVStore.twoPhaseCommit(session, writes);
+    }
+
+    @Override
+    public void close() {
+      try {
+        session.close();
+      } catch (Exception e) {
+        System.err.println(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package shield.client;
+
+import shield.client.schema.Table;
+
+/**
+ * Encoding of the values stored in Redis. Values are encoded by {@link RedisStatement} when written
+ * to Redis, and decoded when read back, so that the rest of the client only sees rows.
+ */
+public interface CacheCodec {
+
+  /**
+   * Stores values as they are
+   */
+  CacheCodec RAW = new CacheCodec() {
+    @Override
+    public byte[] encode(String table, byte[] value) {
+      return value;
+    }
+
+    @Override
+    public byte[] decode(String table, byte[] encoded) {
+      return encoded;
+    }
+  };
+
+  byte[] encode(String table, byte[] value);
+
+  /**
+   * Returns the value that was encoded, or null if it cannot be decoded, in which case it is
+   * handled as a cache miss
+   */
+  byte[] decode(String table, byte[] encoded);
+
+  /**
+   * Makes the schema of a table known to the codec
+   */
+  default void registerTable(Table table) {
+  }
+
+  /**
+   * Returns the codec with the given name: "raw" or "compact" (see {@link CompactCacheCodec})
+   *
+   * @param compressionThreshold size above which compact values are compressed, 0 to never
+   * compress them
+   */
+  static CacheCodec create(String name, int compressionThreshold) {
+    switch (name) {
+      case "raw":
+        return RAW;
+      case "compact":
+        return new CompactCacheCodec(compressionThreshold);
+      default:
+        throw new IllegalArgumentException("Unknown cache codec " + name);
+    }
+  }
+}
@@ -0,0 +1,260 @@
+package shield.client;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import shield.client.schema.Column;
+import shield.client.schema.Table;
+
+/**
+ * Stores rows without their padding. Rows are fixed-width: integers take their full width, strings
+ * are padded with zeros up to the size of their column, and rows may be padded up to
+ * ORAM_VALUE_SIZE. Encoded values start with their format:
+ *
+ * <ul>
+ * <li>ROW, for rows of a known table: the length of the row, then each column, integers and longs
+ * as zigzag varints, strings as their length and their bytes without the trailing zeros, and
+ * finally whatever follows the columns, up to its last non-zero byte</li>
+ * <li>TRIMMED, for other values: the length of the value, then its bytes up to the last non-zero
+ * one</li>
+ * <li>LZ4, for encodings larger than the compression threshold that LZ4 makes smaller: the length
+ * of the encoding, then its LZ4 block</li>
+ * </ul>
+ *
+ * Lengths are varints. Decoding restores the value byte for byte.
+ */
+public class CompactCacheCodec implements CacheCodec {
+
+  private static final byte ROW = 1;
+  private static final byte TRIMMED = 2;
+  private static final byte LZ4 = 3;
+
+  private static final LZ4Factory lz4 = LZ4Factory.fastestInstance();
+
+  private final LZ4Compressor compressor = lz4.fastCompressor();
+  private final LZ4FastDecompressor decompressor = lz4.fastDecompressor();
+
+  private final int compressionThreshold;
+
+  private final ConcurrentHashMap<String, Table> tables = new ConcurrentHashMap<>();
+
+  public CompactCacheCodec(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  @Override
+  public void registerTable(Table table) {
+    tables.put(table.getTableName(), table);
+  }
+
+  @Override
+  public byte[] encode(String table, byte[] value) {
+    int end = value.length;
+    while (end > 0 && value[end - 1] == 0) {
+      end--;
+    }
+    // Format, length, bytes
+    int trimmedSize = 1 + 5 + end;
+
+    byte[] encoded = null;
+    Table schema = table == null ? null : tables.get(table);
+    if (schema != null && schema.getRowSize() > 0 && value.length >= schema.getRowSize()) {
+      encoded = encodeRow(schema.getColumns(), schema.getRowSize(), value, end, trimmedSize);
+    }
+    if (encoded == null) {
+      Writer out = new Writer(trimmedSize);
+      out.writeByte(TRIMMED);
+      out.writeVarint(value.length);
+      out.writeBytes(value, 0, end);
+      encoded = out.toByteArray();
+    }
+    if (compressionThreshold > 0 && encoded.length > compressionThreshold) {
+      encoded = compress(encoded);
+    }
+    return encoded;
+  }
+
+  /**
+   * ROW encoding of value, or null if it would not be smaller than maxSize
+   */
+  private static byte[] encodeRow(List<Column> columns, int rowSize, byte[] value, int end,
+      int maxSize) {
+    Writer out = new Writer(maxSize + 5 + 6 * columns.size());
+    out.writeByte(ROW);
+    out.writeVarint(value.length);
+    for (Column column : columns) {
+      Class<?> type = column.getColType();
+      if (type == Integer.class) {
+        int i = column.getInt(value);
+        out.writeVarint(((i << 1) ^ (i >> 31)) & 0xFFFFFFFFL);
+      } else if (type == Long.class) {
+        long l = column.getLong(value);
+        out.writeVarint((l << 1) ^ (l >> 63));
+      } else {
+        int start = column.getColIndex();
+        int length = column.getColSize();
+        while (length > 0 && value[start + length - 1] == 0) {
+          length--;
+        }
+        out.writeVarint(length);
+        out.writeBytes(value, start, length);
+      }
+    }
+    int rest = Math.max(end - rowSize, 0);
+    out.writeVarint(rest);
+    out.writeBytes(value, rowSize, rest);
+    return out.size < maxSize ? out.toByteArray() : null;
+  }
+
+  private byte[] compress(byte[] encoded) {
+    Writer out = new Writer(1 + 5 + compressor.maxCompressedLength(encoded.length));
+    out.writeByte(LZ4);
+    out.writeVarint(encoded.length);
+    out.size += compressor.compress(encoded, 0, encoded.length, out.buffer, out.size,
+        out.buffer.length - out.size);
+    return out.size < encoded.length ? out.toByteArray() : encoded;
+  }
+
+  @Override
+  public byte[] decode(String table, byte[] encoded) {
+    try {
+      Reader in = new Reader(encoded, 0);
+      switch (in.readByte()) {
+        case ROW:
+          return decodeRow(table, in);
+        case TRIMMED: {
+          byte[] value = new byte[in.readLength()];
+          in.readBytes(value, 0, encoded.length - in.position);
+          return value;
+        }
+        case LZ4: {
+          byte[] inner = new byte[in.readLength()];
+          decompressor.decompress(encoded, in.position, inner, 0, inner.length);
+          if (inner.length == 0 || inner[0] == LZ4) {
+            return null;
+          }
+          return decode(table, inner);
+        }
+        default:
+          return null;
+      }
+    } catch (ArrayIndexOutOfBoundsException | NegativeArraySizeException | LZ4Exception e) {
+      return null;
+    }
+  }
+
+  private byte[] decodeRow(String table, Reader in) {
+    Table schema = table == null ? null : tables.get(table);
+    if (schema == null) {
+      return null;
+    }
+    byte[] value = new byte[in.readLength()];
+    int rowSize = schema.getRowSize();
+    if (value.length < rowSize) {
+      return null;
+    }
+    for (Column column : schema.getColumns()) {
+      Class<?> type = column.getColType();
+      if (type == Integer.class) {
+        long zigzag = in.readVarint();
+        column.putInt((int) (zigzag >>> 1) ^ -(int) (zigzag & 1), value);
+      } else if (type == Long.class) {
+        long zigzag = in.readVarint();
+        column.putLong((zigzag >>> 1) ^ -(zigzag & 1), value);
+      } else {
+        int length = in.readLength();
+        if (length > column.getColSize()) {
+          return null;
+        }
+        in.readBytes(value, column.getColIndex(), length);
+      }
+    }
+    int rest = in.readLength();
+    in.readBytes(value, rowSize, rest);
+    return value;
+  }
+
+  /**
+   * Appends to a buffer large enough for the whole encoding
+   */
+  private static final class Writer {
+
+    final byte[] buffer;
+    int size = 0;
+
+    Writer(int capacity) {
+      buffer = new byte[capacity];
+    }
+
+    void writeByte(byte b) {
+      buffer[size++] = b;
+    }
+
+    void writeVarint(long v) {
+      while ((v & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((v & 0x7F) | 0x80);
+        v >>>= 7;
+      }
+      buffer[size++] = (byte) v;
+    }
+
+    void writeBytes(byte[] src, int offset, int length) {
+      System.arraycopy(src, offset, buffer, size, length);
+      size += length;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+  }
+
+  /**
+   * Reads an encoding. Reading past its end throws ArrayIndexOutOfBoundsException
+   */
+  private static final class Reader {
+
+    final byte[] buffer;
+    int position;
+
+    Reader(byte[] buffer, int position) {
+      this.buffer = buffer;
+      this.position = position;
+    }
+
+    byte readByte() {
+      return buffer[position++];
+    }
+
+    long readVarint() {
+      long v = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = buffer[position++];
+        v |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          return v;
+        }
+      }
+      throw new ArrayIndexOutOfBoundsException("Varint too long");
+    }
+
+    int readLength() {
+      long length = readVarint();
+      if (length > Integer.MAX_VALUE) {
+        throw new NegativeArraySizeException();
+      }
+      return (int) length;
+    }
+
+    void readBytes(byte[] dest, int offset, int length) {
+      if (position + length > buffer.length) {
+        throw new ArrayIndexOutOfBoundsException("Encoding too short");
+      }
+      System.arraycopy(buffer, position, dest, offset, length);
+      position += length;
+    }
+  }
+}
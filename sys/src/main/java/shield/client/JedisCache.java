@@ -0,0 +1,112 @@
+package shield.client;
+
+import java.util.function.Supplier;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
+
+/**
+ * A Redis server, accessed through a pool of Jedis connections. Batches hold one connection of the
+ * pool until they are closed
+ */
+final class JedisCache implements RedisCache {
+
+  private final JedisPooled jedis;
+
+  JedisCache(String hostname, int port) {
+    this.jedis = new JedisPooled(hostname, port);
+  }
+
+  @Override
+  public byte[] get(byte[] key) {
+    return jedis.get(key);
+  }
+
+  @Override
+  public void set(byte[] key, byte[] value) {
+    jedis.set(key, value);
+  }
+
+  @Override
+  public void setnx(byte[] key, byte[] value) {
+    jedis.setnx(key, value);
+  }
+
+  @Override
+  public void del(byte[] key) {
+    jedis.del(key);
+  }
+
+  @Override
+  public Batch batch() {
+    return new PipelineBatch(jedis.getPool().getResource());
+  }
+
+  /**
+   * Memory used by Redis, as reported by INFO
+   */
+  @Override
+  public long getMemoryUsage() {
+    try (Connection connection = jedis.getPool().getResource()) {
+      connection.sendCommand(Protocol.Command.INFO, "memory");
+      String info = connection.getBulkReply();
+      for (String line : info.split("\r?\n")) {
+        if (line.startsWith("used_memory:")) {
+          return Long.parseLong(line.substring("used_memory:".length()).trim());
+        }
+      }
+    } catch (Exception e) {
+      System.err.println(e);
+    }
+    return -1;
+  }
+
+  private static final class PipelineBatch implements Batch {
+
+    private final Connection connection;
+    private final Pipeline pipeline;
+
+    PipelineBatch(Connection connection) {
+      this.connection = connection;
+      this.pipeline = new Pipeline(connection);
+    }
+
+    @Override
+    public Supplier<byte[]> get(byte[] key) {
+      Response<byte[]> response = pipeline.get(key);
+      return response::get;
+    }
+
+    @Override
+    public void set(byte[] key, byte[] value) {
+      pipeline.set(key, value);
+    }
+
+    @Override
+    public void setnx(byte[] key, byte[] value) {
+      pipeline.setnx(key, value);
+    }
+
+    @Override
+    public void del(byte[] key) {
+      pipeline.del(key);
+    }
+
+    @Override
+    public void mget(byte[]... keys) {
+      pipeline.mget(keys);
+    }
+
+    @Override
+    public void sync() {
+      pipeline.sync();
+    }
+
+    @Override
+    public void close() {
+      connection.close();
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package shield.client;
+
+import java.util.List;
+import java.util.Map;
+import org.tikv.common.BytePairWrapper;
+import org.tikv.common.exception.TiBatchWriteException;
+import org.tikv.shade.com.google.protobuf.ByteString;
+
+/**
+ * The transactional key-value store behind the cache, as accessed by the client when it does not
+ * use SQL. Implemented over TiKV by {@link TiKVStore}; other implementations let the client run
+ * without a TiKV cluster, e.g. in benchmarks.
+ */
+public interface KVStore {
+
+  /**
+   * A timestamp from the store's oracle, at which reads see all the writes committed before
+   */
+  long getTimestamp();
+
+  /**
+   * Value of key at the given version, null or empty if it does not exist
+   */
+  ByteString get(ByteString key, long version);
+
+  /**
+   * Values of the keys that exist at the given version, by key
+   */
+  Map<ByteString, ByteString> batchGet(List<ByteString> keys, long version);
+
+  /**
+   * Commits writes atomically
+   *
+   * @throws TiBatchWriteException if the writes could not be committed
+   */
+  void commit(List<BytePairWrapper> writes);
+
+  /**
+   * Connects to the TiKV cluster whose placement driver is at pdAddress
+   */
+  static KVStore connect(String pdAddress) {
+    return new TiKVStore(pdAddress);
+  }
+}
@@ -0,0 +1,295 @@
+package shield.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size table of shared/exclusive locks shared by all the clients of a process. Keys are
+ * hashed onto a power-of-two number of lock stripes, so memory does not grow with the keyspace
+ * and finding a key's lock is a multiplication and a mask rather than a map lookup.
+ *
+ * Two keys may share a stripe, in which case transactions accessing them conflict even though
+ * the keys differ. Clients therefore track the locks they hold by stripe, not by key.
+ *
+ * Locks are owned by transactions rather than threads, and conflicts are resolved with wait-die:
+ * every transaction carries a timestamp from {@link #newTimestamp()}, kept across its retries. A
+ * transaction that is older than all the conflicting holders of a stripe waits for them, any
+ * other transaction aborts immediately. Transactions thus only ever wait for younger ones, which
+ * rules out deadlocks, and retried transactions eventually become the oldest and get through.
+ */
+public class KeyLockTable {
+
+  public enum AcquireResult {
+    /**
+     * The lock was granted
+     */
+    GRANTED,
+    /**
+     * A conflicting holder is older than the requester (wait-die)
+     */
+    DIED,
+    /**
+     * The requester waited longer than the lock wait timeout
+     */
+    TIMED_OUT,
+    /**
+     * The requester was interrupted while waiting
+     */
+    INTERRUPTED
+  }
+
+  private static final long NONE = -1;
+
+  /**
+   * Holders of a stripe, by transaction timestamp. Guarded by the stripe's monitor
+   */
+  private static final class Stripe {
+
+    long writer = NONE;
+
+    long[] readers;
+
+    int nbReaders = 0;
+
+    int nbWaiters = 0;
+
+    boolean isReader(long ts) {
+      for (int i = 0; i < nbReaders; i++) {
+        if (readers[i] == ts) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    void addReader(long ts) {
+      if (readers == null) {
+        readers = new long[4];
+      } else if (nbReaders == readers.length) {
+        long[] grown = new long[readers.length * 2];
+        System.arraycopy(readers, 0, grown, 0, nbReaders);
+        readers = grown;
+      }
+      readers[nbReaders++] = ts;
+    }
+
+    boolean removeReader(long ts) {
+      for (int i = 0; i < nbReaders; i++) {
+        if (readers[i] == ts) {
+          readers[i] = readers[--nbReaders];
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the timestamp of the oldest holder, other than ts, that conflicts with a request of
+     * ts, or NONE if there is no conflict
+     */
+    long oldestConflict(long ts, boolean exclusive) {
+      long oldest = writer != NONE && writer != ts ? writer : NONE;
+      if (exclusive) {
+        for (int i = 0; i < nbReaders; i++) {
+          if (readers[i] != ts && (oldest == NONE || readers[i] < oldest)) {
+            oldest = readers[i];
+          }
+        }
+      }
+      return oldest;
+    }
+  }
+
+  /**
+   * Largest txn_type for which statistics are kept
+   */
+  private static final int MAX_TXN_TYPES = 64;
+
+  private static final int STAT_ACQUIRED = 0;
+  private static final int STAT_WAITED = 1;
+  private static final int STAT_WAIT_NANOS = 2;
+  private static final int STAT_DIED = 3;
+  private static final int STAT_TIMED_OUT = 4;
+  private static final int STAT_INTERRUPTED = 5;
+  private static final int NB_STATS = 6;
+
+  private final Stripe[] stripes;
+
+  private final int mask;
+
+  private final AtomicLong clock = new AtomicLong();
+
+  /**
+   * Lock statistics, indexed by txn_type * NB_STATS + stat
+   */
+  private final AtomicLongArray stats = new AtomicLongArray(MAX_TXN_TYPES * NB_STATS);
+
+  /**
+   * @param nbStripes number of lock stripes, rounded up to a power of two
+   */
+  public KeyLockTable(int nbStripes) {
+    int size = Integer.highestOneBit(Math.max(1, nbStripes - 1)) << 1;
+    this.stripes = new Stripe[size];
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  /**
+   * Returns a new transaction timestamp. Smaller timestamps are older
+   */
+  public long newTimestamp() {
+    return clock.getAndIncrement();
+  }
+
+  /**
+   * Returns the stripe protecting key
+   */
+  public int stripeOf(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return (int) key & mask;
+  }
+
+  public int getNbStripes() {
+    return stripes.length;
+  }
+
+  /**
+   * Acquires stripe in shared mode on behalf of transaction ts
+   *
+   * @param timeoutMs maximum time to wait for younger holders, 0 to wait indefinitely
+   */
+  public AcquireResult lockShared(int stripe, long ts, int txnType, long timeoutMs) {
+    return acquire(stripes[stripe], ts, false, txnType, timeoutMs);
+  }
+
+  /**
+   * Acquires stripe in exclusive mode on behalf of transaction ts. If ts holds the stripe in
+   * shared mode, the lock is upgraded without being released in between
+   *
+   * @param timeoutMs maximum time to wait for younger holders, 0 to wait indefinitely
+   */
+  public AcquireResult lockExclusive(int stripe, long ts, int txnType, long timeoutMs) {
+    return acquire(stripes[stripe], ts, true, txnType, timeoutMs);
+  }
+
+  public void unlockShared(int stripe, long ts) {
+    Stripe s = stripes[stripe];
+    synchronized (s) {
+      if (s.removeReader(ts) && s.nbWaiters > 0) {
+        s.notifyAll();
+      }
+    }
+  }
+
+  public void unlockExclusive(int stripe, long ts) {
+    Stripe s = stripes[stripe];
+    synchronized (s) {
+      if (s.writer == ts) {
+        s.writer = NONE;
+        if (s.nbWaiters > 0) {
+          s.notifyAll();
+        }
+      }
+    }
+  }
+
+  private AcquireResult acquire(Stripe s, long ts, boolean exclusive, int txnType,
+      long timeoutMs) {
+    AcquireResult result;
+    long waitStart = 0;
+    synchronized (s) {
+      while (true) {
+        long oldest = s.oldestConflict(ts, exclusive);
+        if (oldest == NONE) {
+          if (exclusive) {
+            s.removeReader(ts);
+            s.writer = ts;
+          } else if (s.writer != ts && !s.isReader(ts)) {
+            s.addReader(ts);
+          }
+          result = AcquireResult.GRANTED;
+          break;
+        }
+        if (oldest < ts) {
+          result = AcquireResult.DIED;
+          break;
+        }
+
+        // Older than every conflicting holder: wait for them to release the stripe
+        long now = System.nanoTime();
+        if (waitStart == 0) {
+          waitStart = now;
+        }
+        long remainingMs = timeoutMs == 0 ? 0
+            : timeoutMs - (now - waitStart) / 1000000;
+        if (timeoutMs != 0 && remainingMs <= 0) {
+          result = AcquireResult.TIMED_OUT;
+          break;
+        }
+        s.nbWaiters++;
+        try {
+          s.wait(remainingMs);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          result = AcquireResult.INTERRUPTED;
+          break;
+        } finally {
+          s.nbWaiters--;
+        }
+      }
+    }
+    recordAcquire(txnType, result, waitStart == 0 ? 0 : System.nanoTime() - waitStart);
+    return result;
+  }
+
+  private void recordAcquire(int txnType, AcquireResult result, long waitNanos) {
+    if (txnType < 0 || txnType >= MAX_TXN_TYPES) {
+      return;
+    }
+    int base = txnType * NB_STATS;
+    if (waitNanos > 0) {
+      stats.incrementAndGet(base + STAT_WAITED);
+      stats.addAndGet(base + STAT_WAIT_NANOS, waitNanos);
+    }
+    switch (result) {
+      case GRANTED:
+        stats.incrementAndGet(base + STAT_ACQUIRED);
+        break;
+      case DIED:
+        stats.incrementAndGet(base + STAT_DIED);
+        break;
+      case TIMED_OUT:
+        stats.incrementAndGet(base + STAT_TIMED_OUT);
+        break;
+      case INTERRUPTED:
+        stats.incrementAndGet(base + STAT_INTERRUPTED);
+        break;
+    }
+  }
+
+  /**
+   * Prints lock waits and lock-related aborts for each transaction type
+   *
+   * @param txnTypes transaction types, indexed by txn_type
+   */
+  public void printReport(Enum<?>[] txnTypes) {
+    for (Enum<?> txnType : txnTypes) {
+      int type = txnType.ordinal();
+      if (type >= MAX_TXN_TYPES) {
+        continue;
+      }
+      int base = type * NB_STATS;
+      long waited = stats.get(base + STAT_WAITED);
+      long waitNanos = stats.get(base + STAT_WAIT_NANOS);
+      System.out.printf(
+          "[LOCKS] %s: %d acquired, %d waited (total %.3f ms, avg %.3f ms); aborts: %d wait-die, %d timed out, %d interrupted\n",
+          txnType, stats.get(base + STAT_ACQUIRED), waited, waitNanos / 1e6,
+          waited == 0 ? 0.0 : waitNanos / 1e6 / waited, stats.get(base + STAT_DIED),
+          stats.get(base + STAT_TIMED_OUT), stats.get(base + STAT_INTERRUPTED));
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package shield.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import shield.util.LongLruMap;
+
+/**
+ * In-process cache tier (L1) in front of Redis (L2), shared by all the RedisPostgresClients of a
+ * process, so that hot rows read by every benchmark thread are served without a round trip.
+ *
+ * Memory is bounded both in number of entries and in bytes. Like Redis' transactional eviction,
+ * recency is tracked per layer rather than per key: lookups do not update recency, instead the
+ * keys read by a layer are all promoted together once the layer has completed (commitLayer()).
+ * The keys of a layer are thus adjacent in LRU order and evicted together, as a layer only gets
+ * faster if all of its reads hit.
+ *
+ * Entries are invalidated by the writes of the process, and are only served for VALIDATE_MS after
+ * they were read from L2: older entries miss, are read again from Redis and replaced, which bounds
+ * the staleness caused by writes from other processes.
+ *
+ * The cache is split in segments, each guarded by its own lock.
+ */
+public class NearCache {
+
+  private static final int NB_SEGMENTS = 16;
+
+  /**
+   * Approximate per-entry overhead (entry object, array header, index slots), in bytes
+   */
+  private static final int ENTRY_OVERHEAD = 64;
+
+  private static final class Entry {
+
+    final byte[] value;
+
+    /**
+     * Time at which the value was read from L2 or the backing store
+     */
+    final long validatedAt;
+
+    Entry(byte[] value, long validatedAt) {
+      this.value = value;
+      this.validatedAt = validatedAt;
+    }
+
+    long getBytes() {
+      return value.length + ENTRY_OVERHEAD;
+    }
+  }
+
+  private static final class Segment {
+
+    final LongLruMap<Entry> entries;
+
+    long bytes = 0;
+
+    Segment(int capacity) {
+      this.entries = new LongLruMap<>(capacity);
+    }
+  }
+
+  private final Segment[] segments = new Segment[NB_SEGMENTS];
+
+  private final long maxSegmentBytes;
+
+  private final long validateNanos;
+
+  private final AtomicLong evictions = new AtomicLong();
+
+  private final AtomicLong invalidations = new AtomicLong();
+
+  /**
+   * @param maxEntries maximum number of cached keys
+   * @param maxBytes maximum memory used by cached values (approximate)
+   * @param validateMs time during which a value read from L2 is served without checking L2 again
+   */
+  public NearCache(int maxEntries, long maxBytes, long validateMs) {
+    for (int i = 0; i < NB_SEGMENTS; i++) {
+      segments[i] = new Segment(Math.max(1, maxEntries / NB_SEGMENTS));
+    }
+    this.maxSegmentBytes = maxBytes / NB_SEGMENTS;
+    this.validateNanos = validateMs * 1000000;
+  }
+
+  private Segment segmentOf(long id) {
+    long h = id * 0x9E3779B97F4A7C15L;
+    return segments[(int) (h >>> 60) & (NB_SEGMENTS - 1)];
+  }
+
+  /**
+   * Returns the cached value of id if it is still valid, or null. Does not update recency
+   */
+  public byte[] peek(long id) {
+    Segment segment = segmentOf(id);
+    Entry entry;
+    synchronized (segment) {
+      entry = segment.entries.peek(id);
+    }
+    if (entry == null || System.nanoTime() - entry.validatedAt > validateNanos) {
+      return null;
+    }
+    return entry.value;
+  }
+
+  /**
+   * Promotes the keys read by a completed layer, all together
+   *
+   * @param ids keys read by the layer
+   * @param values value read from L2 or the backing store for each key, or null if the key was
+   * served by this cache and only needs to be promoted
+   * @param count number of keys in ids and values
+   */
+  public void commitLayer(long[] ids, byte[][] values, int count) {
+    long now = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      Segment segment = segmentOf(ids[i]);
+      synchronized (segment) {
+        if (values[i] == null) {
+          segment.entries.get(ids[i]);
+          continue;
+        }
+        Entry entry = new Entry(values[i], now);
+        Entry previous = segment.entries.peek(ids[i]);
+        if (previous != null) {
+          segment.bytes -= previous.getBytes();
+        }
+        Entry evicted = segment.entries.put(ids[i], entry);
+        segment.bytes += entry.getBytes();
+        if (evicted != null) {
+          segment.bytes -= evicted.getBytes();
+          evictions.incrementAndGet();
+        }
+        while (segment.bytes > maxSegmentBytes && segment.entries.size() > 1) {
+          segment.bytes -= segment.entries.removeEldest().getBytes();
+          evictions.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops the cached value of id, which is being written
+   */
+  public void invalidate(long id) {
+    Segment segment = segmentOf(id);
+    Entry removed;
+    synchronized (segment) {
+      removed = segment.entries.remove(id);
+      if (removed != null) {
+        segment.bytes -= removed.getBytes();
+      }
+    }
+    if (removed != null) {
+      invalidations.incrementAndGet();
+    }
+  }
+
+  /**
+   * Approximate memory used by cached values, in bytes
+   */
+  public long getBytes() {
+    long bytes = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        bytes += segment.bytes;
+      }
+    }
+    return bytes;
+  }
+
+  public long getNbEntries() {
+    long entries = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        entries += segment.entries.size();
+      }
+    }
+    return entries;
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  public long getInvalidations() {
+    return invalidations.get();
+  }
+}
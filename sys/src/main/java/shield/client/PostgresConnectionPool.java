@@ -0,0 +1,184 @@
+package shield.client;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Pool of Postgres connections shared by all the RedisPostgresClients of a process.
+ *
+ * Each client opens one dedicated connection on which its transactions (writes, reads for update
+ * and reads of its own writes) are executed. Plain reads of a layer instead borrow a connection
+ * from a bounded set of autocommit, read-only connections, so that they run in parallel rather
+ * than queueing on the transaction's connection.
+ *
+ * Every connection caches its prepared statements by query text. As queries only vary with the
+ * table name, this amounts to a per-table statement cache, and parse/plan overhead is only paid
+ * once per connection.
+ */
+public class PostgresConnectionPool {
+
+  /**
+   * A connection together with its cache of prepared statements. Statements are checked out for
+   * the duration of one execution, so that a connection can be used by several threads at once.
+   */
+  public static class PooledConnection {
+
+    private final Connection connection;
+
+    private final int maxCachedStatements;
+
+    /**
+     * Idle statements, by query
+     */
+    private final Map<String, ArrayDeque<PreparedStatement>> idleStatements = new HashMap<>();
+
+    /**
+     * Statements currently checked out, and their query
+     */
+    private final Map<PreparedStatement, String> busyStatements = new IdentityHashMap<>();
+
+    private int nbIdleStatements = 0;
+
+    PooledConnection(Connection connection, int maxCachedStatements) {
+      this.connection = connection;
+      this.maxCachedStatements = maxCachedStatements;
+    }
+
+    public Connection getConnection() {
+      return connection;
+    }
+
+    /**
+     * Returns a prepared statement for this query, reusing an idle one if possible. The statement
+     * must be handed back through releaseStatement() once executed
+     */
+    public PreparedStatement prepareStatement(String query) throws SQLException {
+      PreparedStatement statement = null;
+      synchronized (this) {
+        ArrayDeque<PreparedStatement> idle = idleStatements.get(query);
+        if (idle != null && !idle.isEmpty()) {
+          statement = idle.pop();
+          nbIdleStatements--;
+        }
+      }
+      if (statement == null) {
+        statement = connection.prepareStatement(query);
+      }
+      synchronized (this) {
+        busyStatements.put(statement, query);
+      }
+      return statement;
+    }
+
+    /**
+     * Returns a statement to the cache, or closes it if the cache is full. Releasing a statement
+     * that is not checked out (e.g. a second time) has no effect
+     */
+    public void releaseStatement(PreparedStatement statement) {
+      String query;
+      boolean cache = false;
+      synchronized (this) {
+        query = busyStatements.remove(statement);
+        if (query == null) {
+          return;
+        }
+        if (nbIdleStatements < maxCachedStatements) {
+          cache = true;
+        }
+      }
+      try {
+        if (cache) {
+          statement.clearParameters();
+          synchronized (this) {
+            idleStatements.computeIfAbsent(query, q -> new ArrayDeque<>()).push(statement);
+            nbIdleStatements++;
+          }
+        } else {
+          statement.close();
+        }
+      } catch (SQLException e) {
+        System.err.println(e);
+      }
+    }
+
+    void close() {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        System.err.println(e);
+      }
+    }
+  }
+
+  private final String jdbcUrl;
+
+  private final int maxCachedStatements;
+
+  /**
+   * Bounds the number of read connections
+   */
+  private final Semaphore readPermits;
+
+  private final ConcurrentLinkedQueue<PooledConnection> idleReadConnections =
+      new ConcurrentLinkedQueue<>();
+
+  public PostgresConnectionPool(String jdbcUrl, int maxReadConnections, int maxCachedStatements) {
+    this.jdbcUrl = jdbcUrl;
+    this.maxCachedStatements = maxCachedStatements;
+    this.readPermits = new Semaphore(maxReadConnections, true);
+  }
+
+  /**
+   * Opens a connection dedicated to a client's transactions. It is not counted against the bound
+   * on read connections
+   */
+  public PooledConnection openTransactionConnection() throws SQLException {
+    return new PooledConnection(DriverManager.getConnection(jdbcUrl), maxCachedStatements);
+  }
+
+  /**
+   * Borrows an autocommit, read-only connection. Blocks if all read connections are in use.
+   */
+  public PooledConnection borrowReadConnection() throws SQLException {
+    readPermits.acquireUninterruptibly();
+    PooledConnection pooled = idleReadConnections.poll();
+    if (pooled != null) {
+      return pooled;
+    }
+    try {
+      Connection connection = DriverManager.getConnection(jdbcUrl);
+      connection.setAutoCommit(true);
+      connection.setReadOnly(true);
+      return new PooledConnection(connection, maxCachedStatements);
+    } catch (SQLException e) {
+      readPermits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns a read connection to the pool
+   */
+  public void returnReadConnection(PooledConnection pooled) {
+    idleReadConnections.add(pooled);
+    readPermits.release();
+  }
+
+  /**
+   * Closes all idle read connections
+   */
+  public void close() {
+    PooledConnection pooled;
+    while ((pooled = idleReadConnections.poll()) != null) {
+      pooled.close();
+    }
+  }
+}
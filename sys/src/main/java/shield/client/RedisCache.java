@@ -0,0 +1,60 @@
+package shield.client;
+
+import java.util.function.Supplier;
+
+/**
+ * The Redis commands issued by the client. Keys and values are passed as they are stored, values
+ * are encoded by {@link RedisStatement}. Implemented over Jedis by {@link JedisCache}; other
+ * implementations let the client run without a Redis server, e.g. in benchmarks.
+ */
+public interface RedisCache {
+
+  /**
+   * Commands queued to be sent in a single round trip
+   */
+  interface Batch extends AutoCloseable {
+
+    /**
+     * Queues a GET. The returned value can only be read once the batch has been synced
+     */
+    Supplier<byte[]> get(byte[] key);
+
+    void set(byte[] key, byte[] value);
+
+    void setnx(byte[] key, byte[] value);
+
+    void del(byte[] key);
+
+    void mget(byte[]... keys);
+
+    /**
+     * Sends the queued commands and waits for their replies
+     */
+    void sync();
+
+    @Override
+    void close();
+  }
+
+  byte[] get(byte[] key);
+
+  void set(byte[] key, byte[] value);
+
+  void setnx(byte[] key, byte[] value);
+
+  void del(byte[] key);
+
+  Batch batch();
+
+  /**
+   * Memory used by Redis, in bytes, or -1 if unknown
+   */
+  long getMemoryUsage();
+
+  /**
+   * Connects to the Redis server at hostname:port
+   */
+  static RedisCache connect(String hostname, int port) {
+    return new JedisCache(hostname, port);
+  }
+}
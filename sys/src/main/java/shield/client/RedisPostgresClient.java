@@ -2,20 +2,16 @@ package shield.client;
 
 import org.tikv.common.exception.TiBatchWriteException;
 import org.tikv.shade.com.google.protobuf.ByteString;
-import org.apache.commons.codec.DecoderException;
-import org.apache.commons.codec.binary.Hex;
 import org.json.simple.parser.ParseException;
-import org.tikv.common.TiConfiguration;
-import org.tikv.common.TiSession;
+import org.tikv.common.BytePairWrapper;
 import org.tikv.common.exception.TiKVException;
-import org.tikv.common.util.BackOffer;
-import org.tikv.common.util.ConcreteBackOffer;
-import org.tikv.txn.KVClient;
-import org.tikv.txn.TwoPhaseCommitter;
-import redis.clients.jedis.JedisPooled;
 import shield.benchmarks.smallbank.StartSmallBankTrxClient;
 import shield.benchmarks.taobench.StartTaoBenchTrxClient;
 import shield.benchmarks.utils.CacheStats;
+import shield.client.prefetch.InFlightPrefetches;
+import shield.client.prefetch.LayerKeys;
+import shield.client.prefetch.PrefetchModel;
+import shield.client.schema.ColumnInfo;
 import shield.client.schema.Table;
 import shield.network.messages.Msg.Message;
 import shield.util.Pair;
@@ -23,6 +19,7 @@ import shield.util.Utility;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.*;
 import java.util.concurrent.*;
@@ -39,11 +36,6 @@ import java.util.stream.Collectors;
  */
 public final class RedisPostgresClient extends ClientBase {
 
-  // TODO: Make this config parameters
-  private static final double PREFETCH_FREQ_THRESH = 0.2;
-  private static final double PREFETCH_LEN_THRES = 5;
-
-
   /**
    * Indicates whether we send SQL requests to postgres or KV requests to TiKV
    *
@@ -51,99 +43,101 @@ public final class RedisPostgresClient extends ClientBase {
    */
   private static boolean USE_SQL = false;
 
-  private class PrefetchTracker {
-    List<PrefetchSet> sets;
-    int totalFreq;
-    boolean trackDeps;
-
-    PrefetchTracker() {
-      this.sets = new LinkedList<>();
-      this.totalFreq = 0;
-      this.trackDeps = true;
-    }
+  /**
+   * Stores a list of tables that have already been created
+   */
+  private Set<String> tableNames;
 
-    void observeSubsequentLayer(Set<Pair<String, Long>> keys) {
-      this.totalFreq++;
-      for (PrefetchSet set : this.sets) {
-        if (set.keys.equals(keys)) {
-          set.freq++;
-          this.sets.sort((o1, o2) -> Long.compare(o2.freq, o1.freq));
-          return;
-        }
-      }
+  /**
+   * Postgres connection pool, shared by all clients in this process
+   */
+  private static PostgresConnectionPool postgresPool;
 
-      // Set didn't exist before
-      this.sets.add(new PrefetchSet(keys));
-      this.sets.sort((o1, o2) -> Long.compare(o2.freq, o1.freq));
+  /**
+   * In-process cache tier shared by all clients, null if disabled
+   */
+  private static NearCache nearCache;
 
-      // Enforce maximum number of sets
-      if (sets.size() > PREFETCH_LEN_THRES) {
-        this.trackDeps = false;
-      }
-    }
+  /**
+   * Encoding of the values cached in Redis, shared by all clients, null if Redis is disabled
+   */
+  private static CacheCodec cacheCodec;
 
-    public long getSize() {
-      long size = 8; // Assuming int and boolean both 4 bytes each
-      for (PrefetchSet s : this.sets) {
-        size += s.getSize();
-      }
-      return size;
-    }
-  }
+  /**
+   * Prefetches in flight, shared by all clients, null if prefetching is disabled
+   */
+  private static InFlightPrefetches prefetches;
 
-  private class PrefetchSet {
-    Set<Pair<String, Long>> keys;
-    int freq;
+  /**
+   * Trace of the committed transactions, shared by all clients, null if tracing is disabled
+   */
+  private static TraceRecorder traceRecorder;
 
-    PrefetchSet(Set<Pair<String, Long>> keys) {
-      this.keys = keys;
-      this.freq = 1;
-    }
+  /**
+   * This client's part of the trace, null if tracing is disabled
+   */
+  private TraceRecorder.Buffer traceBuffer;
 
-    public long getSize() {
-      // Assuming int is 4 bytes
-      long size = 4;
-      for (Pair<String, Long> key : keys) {
-        size += 8 + key.getLeft().length();
-      }
-      return size;
-    }
-  }
+  /**
+   * Set by enableBulkLoad(), for the clients created afterwards
+   */
+  private static boolean bulkLoadEnabled = false;
 
-  // Txn lock timeout from 500ms to 2000ms
-  private static int getRandomTimeout() {
-    return (int) (Math.random() * 1500) + 500;
-  }
+  /**
+   * Bulk loader shared by all clients, null unless bulk loading is enabled
+   */
+  private static volatile BulkLoader bulkLoader;
 
   /**
-   * Stores a list of tables that have already been created
+   * Rows written by the ongoing transaction when bulk loading, by id. They are handed to the bulk
+   * loader at commit time
    */
-  private Set<String> tableNames;
+  private Map<Long, BulkLoader.Row> bulkWrites = new LinkedHashMap<>();
 
   /**
-   * Postgres connection
+   * Postgres connection on which this client's transactions are executed
    */
+  private PostgresConnectionPool.PooledConnection txnConnection;
+
   private Connection connection;
 
+  /**
+   * IDs written by the ongoing transaction. Reads of these keys must see the transaction's
+   * uncommitted writes, and are therefore executed on its connection
+   */
+  private Set<Long> txnWrittenIds = new HashSet<>();
+
   /**
    * Redis Connection
    */
-  private JedisPooled jedis;
+  private RedisCache redis;
+
+  /**
+   * Prefetching model, shared by all clients. Maps (txn_type, id) -> keys accessed in the next
+   * layer
+   */
+  private static PrefetchModel prefetchModel;
+
+  /**
+   * Transaction whose last layer is recorded below
+   */
+  private long layerTxnId = -1;
 
   /**
-   * Prefetching map. Maps txn_type:id -> PrefetchTracker
+   * Keys accessed by the last layer of the ongoing transaction, valid if hasLastLayer
    */
-  private Map<String, PrefetchTracker> prefetchMap;
+  private LayerKeys lastLayerKeys = new LayerKeys();
+  private boolean hasLastLayer = false;
 
   /**
-   * Maps txn_id -> sets of IDs.
+   * Buffer reused to build the keys of the next layer
    */
-  private Map<Long, Set<Long>> lastLayerMap;
+  private LayerKeys spareLayerKeys = new LayerKeys();
 
   /**
-   * Maps txn_id -> last set of prefetched keys, and whether or not they were already in the cache
+   * Prefetches issued by the last layer of the ongoing transaction, by key
    */
-  private Map<Long, Map<Long, Boolean>> lastLayerPrefetched;
+  private Map<Long, InFlightPrefetches.Request> lastLayerPrefetched;
 
   /**
    * List of statements that have not yet been executed (SQL)
@@ -158,14 +152,9 @@ public final class RedisPostgresClient extends ClientBase {
   private String tiKVConf = config.POSTGRES_HOSTNAME;
 
   /**
-   * TiKV session
-   */
-  private TiSession tiKVSession;
-
-  /**
-   * Client associated with this TiKV session
+   * TiKV connection
    */
-  private KVClient kvClient;
+  private KVStore kvStore;
 
   /**
    * List of pending TiKV operations
@@ -174,14 +163,44 @@ public final class RedisPostgresClient extends ClientBase {
           = new ArrayList<>();
 
   /**
-   * List of <2PC object, version> associated with writes/updates yet to be committed
+   * Values written by the ongoing transaction, by key, in write order. They are only sent to TiKV
+   * at commit time, through a single two-phase commit
    */
-  private List<TiKVOp> pendingTiKVWrites
-          = new ArrayList<>();
+  private Map<ByteString, byte[]> tikvWriteBuffer = new LinkedHashMap<>();
 
-  private Map<Long, ReadWriteLock> keyLocks;
-  private Set<Long> readLockIds = new HashSet<>();
-  private Set<Long> writeLockIds = new HashSet<>();
+  private KeyLockTable keyLocks;
+  /**
+   * Stripes of keyLocks held by the current transaction
+   */
+  private Set<Integer> readLockStripes = new HashSet<>();
+  private Set<Integer> writeLockStripes = new HashSet<>();
+  /**
+   * Timestamps from keyLocks are never negative
+   */
+  private static final long NO_TIMESTAMP = -1;
+  /**
+   * Wait-die timestamp of the ongoing transaction, under which all its stripes are held, and its
+   * txn_id. NO_TIMESTAMP until the transaction takes its first lock
+   */
+  private long lockTxnId = -1;
+  private long lockTimestamp = NO_TIMESTAMP;
+  /**
+   * txn_id and wait-die timestamp of the last transaction that aborted, reused by its retry
+   */
+  private long abortedTxnId = -1;
+  private long abortedTimestamp = NO_TIMESTAMP;
+  /**
+   * Metrics of the ongoing transaction, which runs from its first layer to its commit or abort:
+   * its txn_id and type, the start of its first attempt, and the layers of its current attempt.
+   * metricsTxnId is kept after an abort, to recognize the retry
+   */
+  private boolean metricsStarted = false;
+  private long metricsTxnId = -1;
+  private int metricsTxnType = -1;
+  private long metricsTxnStart = 0;
+  private int attemptLayers = 0;
+  private boolean attemptHasReads = false;
+  private boolean attemptMissedCache = false;
   private int threadNumber;
 
   public ThreadPoolExecutor requestExecutor;
@@ -202,7 +221,7 @@ public final class RedisPostgresClient extends ClientBase {
     initClient();
   }
 
-  public RedisPostgresClient(String configFileName, Map<Long, ReadWriteLock> keyLocks, int port, int uid)
+  public RedisPostgresClient(String configFileName, KeyLockTable keyLocks, int port, int uid)
           throws InterruptedException, ParseException, IOException, SQLException {
     super(configFileName, port, uid);
     this.keyLocks = keyLocks;
@@ -221,20 +240,35 @@ public final class RedisPostgresClient extends ClientBase {
     initClient();
   }
 
+  /**
+   * Creates a client on the given cache and store instead of connecting to Redis and TiKV, e.g. to
+   * run the client against in-memory implementations. Only valid when the client does not use SQL
+   */
+  public RedisPostgresClient(String configFileName, KeyLockTable keyLocks, RedisCache redis,
+      KVStore kvStore) throws InterruptedException, ParseException, IOException, SQLException {
+    super(configFileName);
+    this.keyLocks = keyLocks;
+    this.redis = redis;
+    this.kvStore = kvStore;
+    initClient();
+  }
+
   private void initClient() {
     System.out.println("Initialising Clients");
 
-    this.lastLayerMap = new HashMap<>();
-    this.lastLayerPrefetched = new HashMap<>();
-    this.prefetchMap = new HashMap<>();
+    synchronized (RedisPostgresClient.class) {
+      if (prefetchModel == null) {
+        prefetchModel = createPrefetchModel(config.PREFETCH_MAX_TRACKERS, config.PREFETCH_MODEL_FILE);
+      }
+    }
 
     this.requestExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(config.REQ_THREADS_PER_BM_THREAD);
 
     tableNames = new HashSet<String>();
+    String jdbcUrl = "jdbc:postgresql://" + config.POSTGRES_HOSTNAME + ":" +
+            config.POSTGRES_PORT + "/" + config.POSTGRES_DB_NAME + "?user=" + config.POSTGRES_USERNAME + "&password="
+            + config.POSTGRES_PASSWORD;
     if (USE_SQL) {
-      String jdbcUrl = "jdbc:postgresql://" + config.POSTGRES_HOSTNAME + ":" +
-              config.POSTGRES_PORT + "/" + config.POSTGRES_DB_NAME + "?user=" + config.POSTGRES_USERNAME + "&password="
-              + config.POSTGRES_PASSWORD;
       // Load the JDBC driver
       try {
         System.out.println("Loading driver...");
@@ -245,7 +279,14 @@ public final class RedisPostgresClient extends ClientBase {
         throw new RuntimeException("Cannot find the driver in the classpath!", e);
       }
       try {
-        connection = DriverManager.getConnection(jdbcUrl);
+        synchronized (RedisPostgresClient.class) {
+          if (postgresPool == null) {
+            postgresPool = new PostgresConnectionPool(jdbcUrl, config.POSTGRES_POOL_SIZE,
+                    config.POSTGRES_STATEMENT_CACHE_SIZE);
+          }
+        }
+        txnConnection = postgresPool.openTransactionConnection();
+        connection = txnConnection.getConnection();
       } catch (SQLException e) {
         System.err.println(jdbcUrl);
         System.err.println(e);
@@ -253,25 +294,159 @@ public final class RedisPostgresClient extends ClientBase {
         System.err.println(e.getMessage());
         System.exit(-1);
       }
-    } else {
+    } else if (kvStore == null) {
+      kvStore = KVStore.connect(tiKVConf);
+    }
+
+    synchronized (RedisPostgresClient.class) {
+      if (bulkLoadEnabled && bulkLoader == null) {
+        try {
+          bulkLoader = new BulkLoader(config.BULK_LOAD_WRITERS, config.BULK_LOAD_BATCH_ROWS,
+                  config.BULK_LOAD_QUEUE_BATCHES,
+                  USE_SQL ? () -> new BulkLoader.PostgresSink(jdbcUrl) : () -> new BulkLoader.TiKVSink(tiKVConf));
+        } catch (Exception e) {
+          System.err.println("Could not start bulk loader: " + e);
+          System.exit(-1);
+        }
+      }
+    }
+
+    if (config.REDIS_ENABLED) {
+      synchronized (RedisPostgresClient.class) {
+        if (cacheCodec == null) {
+          cacheCodec = CacheCodec.create(config.REDIS_VALUE_CODEC, config.REDIS_COMPRESSION_THRESHOLD);
+        }
+      }
+    }
+
+    if (config.REDIS_ENABLED && config.NEAR_CACHE_ENABLED) {
+      synchronized (RedisPostgresClient.class) {
+        if (nearCache == null) {
+          nearCache = new NearCache(config.NEAR_CACHE_MAX_ENTRIES, config.NEAR_CACHE_MAX_BYTES,
+                  config.NEAR_CACHE_VALIDATE_MS);
+        }
+      }
+    }
+
+    if (config.REDIS_ENABLED && config.REDIS_PREFETCH) {
+      synchronized (RedisPostgresClient.class) {
+        if (prefetches == null) {
+          prefetches = new InFlightPrefetches(config.PREFETCH_THREADS, config.PREFETCH_QUEUE_SIZE);
+        }
+      }
+    }
+
+    if (!config.TRACE_FILE.isEmpty()) {
+      synchronized (RedisPostgresClient.class) {
+        if (traceRecorder == null) {
+          traceRecorder = createTraceRecorder(config.TRACE_FILE, config.TRACE_SAMPLING_RATE);
+        }
+      }
+      if (traceRecorder != null) {
+        traceBuffer = traceRecorder.newBuffer();
+      }
+    }
+
+    if (redis == null) {
       try {
-        tiKVSession = TiSession.create(TiConfiguration.createDefault(tiKVConf));
+        this.redis = RedisCache.connect(config.REDIS_HOSTNAME, Integer.parseInt(config.REDIS_PORT));
       } catch (Exception e) {
-        throw e;
+        System.err.println(e);
+        System.exit(-1);
+      }
+    }
+
+    databaseSchema = new HashMap<String, Table>();
+  }
+
+
+  /**
+   * Loads the prefetch model from modelFile if it exists. When modelFile is set, the model is saved
+   * back to it when the process exits
+   */
+  private static PrefetchModel createPrefetchModel(int maxTrackers, String modelFile) {
+    if (modelFile.isEmpty()) {
+      return new PrefetchModel(maxTrackers);
+    }
+    PrefetchModel model = null;
+    if (new java.io.File(modelFile).exists()) {
+      try {
+        model = PrefetchModel.load(modelFile, maxTrackers);
+        System.out.println("Loaded " + model.getNbTrackers() + " prefetch trackers from " + modelFile);
+      } catch (IOException e) {
+        System.err.println("Could not load prefetch model: " + e);
       }
-      kvClient = tiKVSession.createKVClient();
     }
+    if (model == null) {
+      model = new PrefetchModel(maxTrackers);
+    }
+    PrefetchModel saved = model;
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        saved.save(modelFile);
+      } catch (IOException e) {
+        System.err.println("Could not save prefetch model: " + e);
+      }
+    }));
+    return model;
+  }
 
+  /**
+   * Opens the trace, which is closed when the process exits. Returns null if the trace cannot be
+   * opened
+   */
+  private static TraceRecorder createTraceRecorder(String traceFile, double samplingRate) {
+    TraceRecorder recorder;
     try {
-      this.jedis = new JedisPooled(config.REDIS_HOSTNAME, Integer.parseInt(config.REDIS_PORT));
-    } catch (Exception e) {
-      System.err.println(e);
-      System.exit(-1);
+      recorder = new TraceRecorder(traceFile, samplingRate);
+    } catch (IOException e) {
+      System.err.println("Could not open trace: " + e);
+      return null;
     }
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      recorder.close();
+      System.out.println("Traced " + recorder.getTransactions() + " transactions to " + traceFile
+              + " (" + recorder.getDroppedTransactions() + " dropped)");
+    }));
+    return recorder;
+  }
 
-    databaseSchema = new HashMap<String, Table>();
+  /**
+   * Makes the clients created afterwards load their writes in bulk (see {@link BulkLoader}) until
+   * finishBulkLoad() is called. Meant for the loaders: writes skip the cache and are not
+   * transactional, but reads see the rows written
+   */
+  public static synchronized void enableBulkLoad() {
+    bulkLoadEnabled = true;
+  }
+
+  /**
+   * Writes the rows that are still queued by the bulk loader, and waits until they are in the
+   * backing store. Must be called once the clients have committed their last transaction
+   */
+  public static void finishBulkLoad() throws InterruptedException {
+    BulkLoader loader;
+    synchronized (RedisPostgresClient.class) {
+      loader = bulkLoader;
+      bulkLoadEnabled = false;
+    }
+    if (loader != null) {
+      loader.finish();
+      bulkLoader = null;
+    }
   }
 
+  /**
+   * Creates the table, and makes its schema known to the cache codec
+   */
+  @Override
+  public Table createTable(String name, ColumnInfo... columns) {
+    Table table = super.createTable(name, columns);
+    if (cacheCodec != null) {
+      cacheCodec.registerTable(table);
+    }
+    return table;
+  }
 
   private void createTable(String tableName) {
 //    System.out.println("CREATING TABLE " + tableName);
@@ -279,7 +454,7 @@ public final class RedisPostgresClient extends ClientBase {
       String createTable = (
               "CREATE TABLE " + tableName +
                       "(id BIGINT not null, " +
-                      "data VARCHAR," +
+                      "data BYTEA," +
                       "PRIMARY KEY (id))");
 //    System.out.println(createTable);
       tableNames.add(tableName);
@@ -327,12 +502,16 @@ public final class RedisPostgresClient extends ClientBase {
       createTable(table);
     }
 
-    String query = "SELECT data FROM " + table + " WHERE id = ?";
     String row = table + key;
     Long id = Utility.hashPersistent(row);
 
-    PreparedStatement prepStatement = connection.prepareStatement(query);
-    prepStatement.setLong(1, id);
+    // Plain reads are prepared when executed, on a pooled read connection, unless they must see
+    // this transaction's own writes
+    PreparedStatement prepStatement = null;
+    if (txnWrittenIds.contains(id)) {
+      prepStatement = txnConnection.prepareStatement(readQuery(table));
+      prepStatement.setLong(1, id);
+    }
 
     RedisStatement redisStatement = new RedisStatement(RedisStatement.RedisRequestType.GET, table, id, null, txn_type, txn_id);
 
@@ -349,9 +528,10 @@ public final class RedisPostgresClient extends ClientBase {
     String update = " UPDATE " +
             table +
             " SET data=? where id=?";
-    PreparedStatement preparedStatement = connection.prepareStatement(update);
+    PreparedStatement preparedStatement = txnConnection.prepareStatement(update);
     preparedStatement.setBytes(1, value);
     preparedStatement.setLong(2, id);
+    txnWrittenIds.add(id);
 //      preparedStatement.closeOnCompletion();
 
     RedisStatement redisStatement = new RedisStatement(RedisStatement.RedisRequestType.PUT, table, id, value, txn_type, txn_id);
@@ -370,10 +550,11 @@ public final class RedisPostgresClient extends ClientBase {
     String update = "INSERT INTO  " +
             table +
             "(id, data) VALUES(?,?) ON CONFLICT (id) DO UPDATE SET data=?";
-    PreparedStatement preparedStatement = connection.prepareStatement(update);
+    PreparedStatement preparedStatement = txnConnection.prepareStatement(update);
     preparedStatement.setLong(1, id);
     preparedStatement.setBytes(2, value);
     preparedStatement.setBytes(3, value);
+    txnWrittenIds.add(id);
 //      preparedStatement.closeOnCompletion();
 
     RedisStatement redisStatement = new RedisStatement(RedisStatement.RedisRequestType.PUT, table, id, value, txn_type, txn_id);
@@ -389,9 +570,10 @@ public final class RedisPostgresClient extends ClientBase {
     String query = "DELETE  FROM " + table + " WHERE id = ?";
     String row = table + key;
     Long id = Utility.hashPersistent(row);
-    PreparedStatement prepStatement = connection.prepareStatement(query);
+    PreparedStatement prepStatement = txnConnection.prepareStatement(query);
     //     prepStatement.closeOnCompletion();
     prepStatement.setLong(1, id);
+    txnWrittenIds.add(id);
 
     RedisStatement redisStatement = new RedisStatement(RedisStatement.RedisRequestType.DELETE, table, id, null, txn_type, txn_id);
 
@@ -406,15 +588,32 @@ public final class RedisPostgresClient extends ClientBase {
     String query = "SELECT data FROM " + table + " WHERE id = ? FOR UPDATE";
     String row = table + key;
     Long id = Utility.hashPersistent(row);
-    PreparedStatement prepStatement = connection.prepareStatement(query);
+    PreparedStatement prepStatement = txnConnection.prepareStatement(query);
     //    prepStatement.closeOnCompletion();
     prepStatement.setLong(1, id);
 
     RedisStatement redisStatement = new RedisStatement(RedisStatement.RedisRequestType.GET, table, id, null, txn_type, txn_id);
+    redisStatement.for_update = true;
 
     pendingStatements.add(new Pair<>(prepStatement, redisStatement));
   }
 
+  private static String readQuery(String table) {
+    return "SELECT data FROM " + table + " WHERE id = ?";
+  }
+
+  /**
+   * Drops the statements that have not been executed, returning them to the statement cache
+   */
+  private void clearPendingStatements() {
+    for (Pair<PreparedStatement, RedisStatement> pending : pendingStatements) {
+      if (pending.getLeft() != null) {
+        txnConnection.releaseStatement(pending.getLeft());
+      }
+    }
+    pendingStatements.clear();
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -476,20 +675,16 @@ public final class RedisPostgresClient extends ClientBase {
   }
 
   public void reset() {
+    bulkWrites.clear();
     if (USE_SQL) {
-      pendingStatements.clear();
-      pendingStatements.clear();
-      pendingStatements.clear();
-      pendingStatements.clear();
+      clearPendingStatements();
+      txnWrittenIds.clear();
     } else {
       pendingTiKVStatements.clear();
       pendingTiKVStatements.clear();
       pendingTiKVStatements.clear();
       pendingTiKVStatements.clear();
-      pendingTiKVWrites.clear();
-      pendingTiKVWrites.clear();
-      pendingTiKVWrites.clear();
-      pendingTiKVWrites.clear();
+      tikvWriteBuffer.clear();
     }
   }
 
@@ -532,7 +727,7 @@ public final class RedisPostgresClient extends ClientBase {
       if (USE_SQL) {
         createReadForUpdateStatement(table, row, txn_type, txn_id);
       } else {
-        readForUpdate(table, row);
+        readForUpdate(table, row, txn_type, txn_id);
       }
       List<byte[]> results = executeOps();
       return results;
@@ -563,6 +758,7 @@ public final class RedisPostgresClient extends ClientBase {
       TiKVOp tikvOp = new TiKVOp(key, null, true, null);
       tikvOp.is_read_for_update = true;
       RedisStatement redisStatement = new RedisStatement(RedisStatement.RedisRequestType.GET, tableName, id, null, txn_type, txn_id);
+      redisStatement.for_update = true;
       pendingTiKVStatements.add(new Pair<>(tikvOp, redisStatement));
     }
   }
@@ -626,7 +822,9 @@ public final class RedisPostgresClient extends ClientBase {
    */
   public void write(String table, String row, byte[] value, int txn_type, long txn_id) throws DatabaseAbortException {
 //    System.out.println("DEBUG: " + table + row);
-    if (USE_SQL) {
+    if (bulkLoader != null) {
+      bulkWrite(table, row, value);
+    } else if (USE_SQL) {
       try {
         createWriteStatement(table, row, value, txn_type, txn_id);
       } catch (SQLException e) {
@@ -650,9 +848,22 @@ public final class RedisPostgresClient extends ClientBase {
     }
   }
 
+  /**
+   * Buffers a row written by the ongoing transaction while bulk loading
+   */
+  private void bulkWrite(String table, String row, byte[] value) {
+    if (!tableNames.contains(table)) {
+      // Table may not have been created yet, so create it
+      createTable(table);
+    }
+    long id = Utility.hashPersistent(table + row);
+    byte[] key = USE_SQL ? null : (table + row).getBytes(StandardCharsets.UTF_8);
+    bulkWrites.put(id, new BulkLoader.Row(table, id, key, value));
+  }
+
   @Override
   public void update(String table, String key, byte[] value) throws DatabaseAbortException {
-    if (USE_SQL) {
+    if (USE_SQL && bulkLoader == null) {
       update(table, key, value, -1, -1);
     } else {
       write(table, key, value, -1, -1);
@@ -665,7 +876,7 @@ public final class RedisPostgresClient extends ClientBase {
    * @see shield.client.ClientBase#update(java.lang.String, byte[])
    */
   public void update(String table, String row, byte[] value, int txn_type, long txn_id) throws DatabaseAbortException {
-    if (USE_SQL) {
+    if (USE_SQL && bulkLoader == null) {
       try {
         createUpdateStatement(table, row, value, txn_type, txn_id);
       } catch (SQLException e) {
@@ -691,7 +902,7 @@ public final class RedisPostgresClient extends ClientBase {
           throws DatabaseAbortException {
 
     try {
-      if (USE_SQL) {
+      if (USE_SQL && bulkLoader == null) {
         createUpdateStatement(table, row, value, txn_type, txn_id);
       } else {
         write(table, row, value, txn_type, txn_id);
@@ -714,10 +925,10 @@ public final class RedisPostgresClient extends ClientBase {
           throws DatabaseAbortException {
 
     try {
-      if (USE_SQL) {
+      if (USE_SQL && bulkLoader == null) {
         createWriteStatement(table, row, value, txn_type, txn_id);
       } else {
-        write(table, row, value, -1, 1);
+        write(table, row, value, txn_type, txn_id);
       }
       List<byte[]> results = executeOps();
       return results;
@@ -743,33 +954,29 @@ public final class RedisPostgresClient extends ClientBase {
     try {
       List<byte[]> results = executeOps();
 
+      if (!bulkWrites.isEmpty()) {
+        bulkLoader.add(bulkWrites.values());
+        bulkWrites.clear();
+      }
       if (USE_SQL) {
         connection.commit();
+        txnWrittenIds.clear();
       } else {
-        while (pendingTiKVWrites.size() > 0) {
-          TiKVOp op = pendingTiKVWrites.remove(0);
-          BackOffer backOffer = ConcreteBackOffer.newCustomBackOff(5000);
-          TwoPhaseCommitter twoPC = op.twoPC;
-
-//          TwoPhaseCommitter twoPC = new TwoPhaseCommitter(tiKVSession, tiKVSession.getTimestamp().getVersion());
-//          twoPC.prewritePrimaryKey(backOffer, (op.key).toByteArray(), op.value);
-
-          long commitTS = tiKVSession.getTimestamp().getVersion();
-          twoPC.commitPrimaryKey(backOffer, op.key.toByteArray(), commitTS);
-        }
+        commitTiKVWrites();
       }
 
       if (config.REDIS_ENABLED) {
-        for (Long id : readLockIds) {
-//          System.out.printf("[TXN PROJ %d] READ UNLOCK %d\n", this.threadNumber, id);
-          keyLocks.get(id).readLock().unlock();
-        }
-        readLockIds.clear();
-        for (Long id : writeLockIds) {
-//          System.out.printf("[TXN PROJ %d] WRITE UNLOCK %d\n", this.threadNumber, id);
-          keyLocks.get(id).writeLock().unlock();
+        releaseLocks(false);
+      }
+      clearLayerState();
+      if (metricsStarted) {
+        CacheStats.ranTransaction(metricsTxnType, (System.nanoTime() - metricsTxnStart) / 1000,
+            attemptHasReads, !attemptMissedCache);
+        if (traceBuffer != null) {
+          traceBuffer.commit();
         }
-        writeLockIds.clear();
+        metricsStarted = false;
+        metricsTxnId = -1;
       }
 
       return results;
@@ -787,176 +994,637 @@ public final class RedisPostgresClient extends ClientBase {
    */
   @Override
   public synchronized void abortTransaction() throws DatabaseAbortException {
+    bulkWrites.clear();
     if (USE_SQL) {
       try {
-        pendingStatements.clear();
+        clearPendingStatements();
+        txnWrittenIds.clear();
         connection.rollback();
       } catch (SQLException e) {
         handleError(e);
       }
     } else {
       pendingTiKVStatements.clear();
-      pendingTiKVWrites.clear();
+      tikvWriteBuffer.clear();
     }
 
     if (config.REDIS_ENABLED) {
-      for (Long id : readLockIds) {
-//        System.out.printf("[TXN PROJ %d] READ UNLOCK %d\n", this.threadNumber, id);
-        keyLocks.get(id).readLock().unlock();
-      }
-      readLockIds.clear();
-      for (Long id : writeLockIds) {
-//        System.out.printf("[TXN PROJ %d] WRITE UNLOCK %d\n", this.threadNumber, id);
-        keyLocks.get(id).writeLock().unlock();
-      }
-      writeLockIds.clear();
+      releaseLocks(true);
     }
+    clearLayerState();
+    resetAttemptMetrics();
+    metricsStarted = false;
   }
 
+  /**
+   * Executes a single operation of a layer. Instances are run through {@link #submitOp} and
+   * their results are only read once the layer's future has completed, which guarantees that the
+   * writes performed by the worker thread are visible to the client thread.
+   */
   private class ExecuteOpRunnable implements Runnable {
-    private volatile PreparedStatement stat;
-    private volatile RedisStatement redisStatement;
-    private volatile TiKVOp tikvOp;
+    private final PreparedStatement stat;
+    private final RedisStatement redisStatement;
+    private final TiKVOp tikvOp;
 
-    private volatile boolean spedUp;
-    private volatile byte[] results;
-    private volatile SQLException sqlException;
-    private volatile boolean done;
+    private boolean spedUp;
+    private boolean nearCacheHit;
+    private InFlightPrefetches.Request joinedPrefetch;
+    private byte[] results;
 
     ExecuteOpRunnable(PreparedStatement stat, RedisStatement redisStatement) {
       this.stat = stat;
+      this.tikvOp = null;
       this.redisStatement = redisStatement;
 
       this.spedUp = false;
       this.results = null;
-      this.sqlException = null;
-      this.done = false;
     }
 
     ExecuteOpRunnable(TiKVOp stat, RedisStatement redisStatement) {
+      this.stat = null;
       this.tikvOp = stat;
       this.redisStatement = redisStatement;
 
       this.spedUp = false;
       this.results = null;
-      this.sqlException = null;
-      this.done = false;
     }
 
     public byte[] getResults() {
       return results;
     }
 
-    public SQLException getSqlException() {
-      return sqlException;
+    /**
+     * True if this operation reads a value from the backing store, and can therefore be batched
+     * with the other reads of its layer
+     */
+    boolean isBackendRead() {
+      if (USE_SQL) {
+        return redisStatement.type == RedisStatement.RedisRequestType.GET;
+      }
+      return tikvOp.is_read_op;
     }
 
-    @Override
-    public void run() {
-      if (config.REDIS_ENABLED) {
-        long start = System.currentTimeMillis();
-        byte[] redisResult;
-        try {
-          redisResult = redisStatement.execute(jedis);
-        } catch (IllegalArgumentException e) {
-//          System.out.println("debugging redis statement" + redisStatement.type + " " + redisStatement.table + " " + redisStatement.id + " " + redisStatement.value + " " + redisStatement.txn_type + " " + redisStatement.txn_id + " " + redisStatement.prefetch);
-          return;
-        }
+    /**
+     * True if this operation must run on the transaction's connection
+     */
+    boolean needsTxnConnection() {
+      return stat != null;
+    }
 
-        // Measure effective redis access time
-        // Don't want to be overwhelmed with text, take roughly 1 in 1000 samples
-//        if (start % 1000 == 0) System.out.println("redis access time: " + (System.currentTimeMillis() - start));
-
-        if (redisResult != null) {
-          // Result is not null ONLY when reading a value that Redis has
-          // If reading a value that Redis doesn't have, we have to go to SQL
-          // If writing, we write back to SQL too
-          this.results = redisResult;
-          this.spedUp = true;
-          this.done = true;
-          return;
-        }
+    /**
+     * Releases the statement of an operation that was executed as part of a batch
+     */
+    void closeStatement() {
+      if (stat != null) {
+        txnConnection.releaseStatement(stat);
       }
+    }
 
+    /**
+     * Marks this operation as served by the cache. It then does not need to be run against the
+     * backing store, and its statement is released
+     */
+    void setCachedResult(byte[] cachedResult) {
+      this.results = cachedResult;
+      this.spedUp = true;
+      closeStatement();
+    }
+
+    /**
+     * Executes the operation against the backing store. Cache lookups and fills are handled for
+     * the whole layer by executeLayer()
+     */
+    @Override
+    public void run() {
       if (USE_SQL) {
         try {
 //        if (config.LATENCY > 0) {
 //          Thread.sleep(config.LATENCY);
 //        }
-          if (stat.execute()) {
-            byte[] current;
-            try (ResultSet resultSet = stat.getResultSet()) {
-              if (resultSet.next()) {
-                current = Hex.decodeHex(resultSet.getString(1).substring(2).toCharArray());
-              } else {
-                current = new byte[0];
-              }
-
-              // If read and Redis miss, add to redis
-              if (config.REDIS_ENABLED && redisStatement.type == RedisStatement.RedisRequestType.GET) {
-                jedis.set(Long.toString(redisStatement.id).getBytes(), current);
-              }
-            }
-            this.results = current;
+          if (stat == null) {
+            this.results = readSQL(redisStatement.table, redisStatement.id);
+            return;
+          }
+          try {
+            this.results = readResult(stat);
+          } finally {
+            txnConnection.releaseStatement(stat);
           }
-          stat.close();
-          this.done = true;
         } catch (SQLException e) {
-          sqlException = e;
-          this.done = true;
-        } catch (DecoderException e) {
-          this.done = true;
+          // Surfaced to the client thread by awaitLayer()
+          throw new CompletionException(e);
         }
         return;
       }
 
-      tikvOp.version = tiKVSession.getTimestamp().getVersion();
-      if (tikvOp.is_read_op) {
-        ByteString result = kvClient.get(tikvOp.key, tikvOp.version);
-        if (result == null || result.equals(ByteString.EMPTY) || result.toByteArray() == null || result.toByteArray().length == 0) {
-          this.results = new byte[0];
-        } else {
-          this.results = result.toByteArray();
+      // Writes are buffered by executeLayer() until commit, only reads reach this point
+      tikvOp.version = kvStore.getTimestamp();
+      this.results = tikvResult(kvStore.get(tikvOp.key, tikvOp.version));
+    }
+  }
+
+  /**
+   * Reads a row on a pooled read connection, outside of the ongoing transaction
+   */
+  private static byte[] readSQL(String table, long id) throws SQLException {
+    PostgresConnectionPool.PooledConnection readConnection = postgresPool.borrowReadConnection();
+    try {
+      PreparedStatement readStatement = readConnection.prepareStatement(readQuery(table));
+      try {
+        readStatement.setLong(1, id);
+        return readResult(readStatement);
+      } finally {
+        readConnection.releaseStatement(readStatement);
+      }
+    } finally {
+      postgresPool.returnReadConnection(readConnection);
+    }
+  }
+
+  /**
+   * Value read from TiKV. Keys that do not exist are returned as empty values
+   */
+  private static byte[] tikvResult(ByteString result) {
+    if (result == null || result.isEmpty()) {
+      return new byte[0];
+    }
+    return result.toByteArray();
+  }
+
+  /**
+   * Executes a statement and returns the value it read, if any. Rows that do not exist are returned
+   * as empty values
+   */
+  private static byte[] readResult(PreparedStatement statement) throws SQLException {
+    if (!statement.execute()) {
+      return null;
+    }
+    try (ResultSet resultSet = statement.getResultSet()) {
+      if (resultSet.next()) {
+        return resultSet.getBytes(1);
+      }
+      return new byte[0];
+    }
+  }
+
+  /**
+   * Reads the rows of several missed reads on the same table with a single query, and scatters
+   * the results back to the operations. Rows that do not exist are returned as empty values, as for
+   * single reads.
+   */
+  private void batchReadSQL(String table, boolean forUpdate, List<ExecuteOpRunnable> reads) {
+    Long[] ids = new Long[reads.size()];
+    boolean useTxnConnection = forUpdate;
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = reads.get(i).redisStatement.id;
+      useTxnConnection |= reads.get(i).needsTxnConnection();
+    }
+    String query = "SELECT id, data FROM " + table + " WHERE id = ANY(?)" + (forUpdate ? " FOR UPDATE" : "");
+    Map<Long, byte[]> rows = new HashMap<>();
+    PostgresConnectionPool.PooledConnection pooled = null;
+    try {
+      pooled = useTxnConnection ? txnConnection : postgresPool.borrowReadConnection();
+      PreparedStatement prepStatement = pooled.prepareStatement(query);
+      try {
+        prepStatement.setArray(1, pooled.getConnection().createArrayOf("bigint", ids));
+        try (ResultSet resultSet = prepStatement.executeQuery()) {
+          while (resultSet.next()) {
+            rows.put(resultSet.getLong(1), resultSet.getBytes(2));
+          }
         }
+      } finally {
+        pooled.releaseStatement(prepStatement);
+      }
+    } catch (SQLException e) {
+      // Surfaced to the client thread by awaitLayer()
+      throw new CompletionException(e);
+    } finally {
+      if (pooled != null && !useTxnConnection) {
+        postgresPool.returnReadConnection(pooled);
+      }
+    }
 
-        // If read and Redis miss, add to redis
-        if (config.REDIS_ENABLED && redisStatement.type == RedisStatement.RedisRequestType.GET) {
-          jedis.set(Long.toString(redisStatement.id).getBytes(), this.results);
+    for (ExecuteOpRunnable r : reads) {
+      r.results = rows.getOrDefault(r.redisStatement.id, new byte[0]);
+      r.closeStatement();
+    }
+  }
+
+  /**
+   * Commits the writes buffered by the transaction atomically, through one two-phase commit on
+   * TiKV
+   */
+  private void commitTiKVWrites() throws DatabaseAbortException {
+    if (tikvWriteBuffer.isEmpty()) {
+      return;
+    }
+    List<BytePairWrapper> writes = new ArrayList<>(tikvWriteBuffer.size());
+    for (Map.Entry<ByteString, byte[]> write : tikvWriteBuffer.entrySet()) {
+      writes.add(new BytePairWrapper(write.getKey().toByteArray(), write.getValue()));
+    }
+    tikvWriteBuffer.clear();
+
+    try {
+      kvStore.commit(writes);
+    } catch (TiBatchWriteException e) {
+      this.abortTransaction();
+      throw new DatabaseAbortException("TiKV commit failed: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads the keys of several missed reads with a single batchGet at one snapshot timestamp, and
+   * scatters the results back to the operations.
+   */
+  private void batchReadTiKV(List<ExecuteOpRunnable> reads) {
+    List<ByteString> keys = new ArrayList<>(reads.size());
+    for (ExecuteOpRunnable r : reads) {
+      keys.add(r.tikvOp.key);
+    }
+    long version = kvStore.getTimestamp();
+    Map<ByteString, ByteString> values = kvStore.batchGet(keys, version);
+
+    for (ExecuteOpRunnable r : reads) {
+      r.tikvOp.version = version;
+      r.results = tikvResult(values.get(r.tikvOp.key));
+    }
+  }
+
+  /**
+   * Tracks the operations of a layer that run on the request executor. Once the fence is closed,
+   * operations that have not started are skipped, and close() waits for the ones that have, so
+   * that nothing uses the transaction's connection or state anymore
+   */
+  private static final class LayerFence {
+
+    private int running = 0;
+    private boolean closed = false;
+
+    Runnable wrap(Runnable op) {
+      return () -> {
+        synchronized (this) {
+          if (closed) {
+            return;
+          }
+          running++;
+        }
+        try {
+          op.run();
+        } finally {
+          synchronized (this) {
+            if (--running == 0 && closed) {
+              notifyAll();
+            }
+          }
+        }
+      };
+    }
+
+    synchronized void close() {
+      closed = true;
+      boolean interrupted = false;
+      while (running > 0) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
         }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Schedules an operation of a layer on the request executor
+   */
+  private CompletableFuture<Void> submitOp(Runnable op, LayerFence fence) {
+    return CompletableFuture.runAsync(fence.wrap(op), this.requestExecutor);
+  }
+
+  /**
+   * Parks the calling thread until every operation of the layer has completed, or until
+   * LAYER_TIMEOUT_MS has elapsed. A SQLException raised by an operation is rethrown as is (the
+   * caller rolls back through handleError), any other failure or a timeout aborts the transaction.
+   * Before aborting on a timeout or an interrupt, the layer is fenced: the transaction is only
+   * rolled back once the operations already running have returned.
+   */
+  private void awaitLayer(List<CompletableFuture<Void>> layer, LayerFence fence)
+          throws DatabaseAbortException, SQLException {
+    CompletableFuture<Void> allOps = CompletableFuture.allOf(layer.toArray(new CompletableFuture<?>[0]));
+    try {
+      if (config.LAYER_TIMEOUT_MS > 0) {
+        allOps.get(config.LAYER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
       } else {
-        tikvOp.twoPC = new TwoPhaseCommitter(tiKVSession, tikvOp.version);
-        BackOffer backOffer = ConcreteBackOffer.newCustomBackOff(5000);
-//        System.out.println("DEBUG: writing something to " + tikvOp.key.toStringUtf8());
-        tikvOp.twoPC.prewritePrimaryKey(backOffer, (tikvOp.key).toByteArray(), tikvOp.value);
-
-//        boolean retry = true;
-//        while (retry) {
-//          try {
-////            try {
-////              System.err.println("TRY: thread: " + Thread.currentThread().getId() + " on key=" + tikvOp.key.toString("UTF-8"));
-////            } catch (UnsupportedEncodingException exception) {
-////              // do nothing
-////            }
-//            tikvOp.twoPC.prewritePrimaryKey(backOffer, (tikvOp.key).toByteArray(), tikvOp.value);
-//            retry = false;
-//          } catch (TiBatchWriteException e) {
-////            try {
-////              System.err.println("FAIL: thread: " + Thread.currentThread().getId() + " on key=" + tikvOp.key.toString("UTF-8"));
-////            } catch (UnsupportedEncodingException exception) {
-////              // do nothing
-////            }
-//            System.err.println(e);
-//            try {
-//              Thread.sleep(getRandomTimeout());
-//            } catch (InterruptedException exc) {
-//              System.err.println(exc);
-//            }
-//          }
-//        }
-        pendingTiKVWrites.add(tikvOp);
+        allOps.get();
+      }
+    } catch (TimeoutException e) {
+      fence.close();
+      this.abortTransaction();
+      throw new DatabaseAbortException("Layer timed out after " + config.LAYER_TIMEOUT_MS + "ms");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      fence.close();
+      this.abortTransaction();
+      throw new DatabaseAbortException("Interrupted while waiting for layer");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      while (cause instanceof CompletionException && cause.getCause() != null) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      }
+      this.abortTransaction();
+      throw new DatabaseAbortException("Layer operation failed: " + cause);
+    }
+  }
+
+  /**
+   * Runs the operations of a layer. The cache accesses of the whole layer (prefetches included)
+   * are sent to Redis as a single pipeline, the misses and writes are then executed against the
+   * backing store in parallel (TiKV writes are only buffered, see commitTiKVWrites()), and the
+   * values read on a miss are written back to Redis in one pipeline together with the MGET that
+   * commits the layer's eviction scores. Reads of keys that are still being prefetched join the
+   * prefetch instead, and only fall back to the backing store if it fails.
+   *
+   * While bulk loading, writes skip the caches, so the caches are neither read nor filled: rows
+   * are read from the bulk loader's memory or from the backing store.
+   */
+  private void executeLayer(List<ExecuteOpRunnable> opRunnables)
+          throws DatabaseAbortException, SQLException {
+    List<CompletableFuture<Void>> layerFutures = new ArrayList<>();
+    LayerFence fence = new LayerFence();
+    List<ExecuteOpRunnable> joined = new ArrayList<>();
+    boolean useCache = config.REDIS_ENABLED && bulkLoader == null;
+
+    if (useCache) {
+      List<ExecuteOpRunnable> redisOps = new ArrayList<>(opRunnables.size());
+      List<RedisStatement> redisStatements = new ArrayList<>(opRunnables.size());
+      for (ExecuteOpRunnable r : opRunnables) {
+        if (prefetches != null) {
+          if (r.redisStatement.type != RedisStatement.RedisRequestType.GET) {
+            prefetches.invalidate(r.redisStatement.id);
+          } else if (canJoinPrefetch(r)) {
+            InFlightPrefetches.Request request = prefetches.get(r.redisStatement.id);
+            if (request != null) {
+              r.joinedPrefetch = request;
+              joined.add(r);
+              continue;
+            }
+          }
+        }
+        if (nearCache != null) {
+          if (r.redisStatement.type != RedisStatement.RedisRequestType.GET) {
+            nearCache.invalidate(r.redisStatement.id);
+          } else {
+            byte[] nearCached = nearCache.peek(r.redisStatement.id);
+            if (nearCached != null) {
+              r.setCachedResult(nearCached);
+              r.nearCacheHit = true;
+              continue;
+            }
+          }
+        }
+        redisOps.add(r);
+        redisStatements.add(r.redisStatement);
+      }
+      if (!redisStatements.isEmpty()) {
+        List<byte[]> cached = RedisStatement.executeLayer(redis, cacheCodec, redisStatements);
+        for (int i = 0; i < redisOps.size(); i++) {
+          // Result is not null ONLY when reading a value that Redis has. If reading a value that
+          // Redis doesn't have, or if writing, we go to the backing store
+          if (cached.get(i) != null) {
+            redisOps.get(i).setCachedResult(cached.get(i));
+          }
+        }
+      }
+    }
+
+    // Reads that missed in the cache are batched per table, everything else runs on its own
+    Map<Pair<String, Boolean>, List<ExecuteOpRunnable>> missedReads = new LinkedHashMap<>();
+    for (ExecuteOpRunnable r : opRunnables) {
+      if (r.spedUp || r.joinedPrefetch != null) {
+        continue;
+      }
+      if (bulkLoader != null && r.redisStatement.type == RedisStatement.RedisRequestType.GET) {
+        // Rows loaded in bulk are read from memory until they reach the backing store
+        byte[] loaded = bulkLoaded(r.redisStatement.id);
+        if (loaded != null) {
+          r.results = loaded;
+          r.closeStatement();
+          continue;
+        }
+      }
+      if (!USE_SQL && !r.tikvOp.is_read_op) {
+        tikvWriteBuffer.put(r.tikvOp.key, r.tikvOp.value);
+        continue;
+      }
+      if (!USE_SQL && tikvWriteBuffer.containsKey(r.tikvOp.key)) {
+        // Reads of the transaction's own writes are served from the write buffer
+        byte[] written = tikvWriteBuffer.get(r.tikvOp.key);
+        r.results = written == null ? new byte[0] : written;
+        continue;
+      }
+      if (r.isBackendRead()) {
+        missedReads.computeIfAbsent(
+                new Pair<>(USE_SQL ? r.redisStatement.table : "", USE_SQL && r.redisStatement.for_update),
+                k -> new ArrayList<>()).add(r);
+      } else {
+        layerFutures.add(submitOp(r, fence));
+      }
+    }
+    for (Map.Entry<Pair<String, Boolean>, List<ExecuteOpRunnable>> batch : missedReads.entrySet()) {
+      String table = batch.getKey().getLeft();
+      boolean forUpdate = batch.getKey().getRight();
+      List<ExecuteOpRunnable> reads = batch.getValue();
+      if (reads.size() == 1) {
+        layerFutures.add(submitOp(reads.get(0), fence));
+      } else if (USE_SQL) {
+        layerFutures.add(submitOp(() -> batchReadSQL(table, forUpdate, reads), fence));
+      } else {
+        layerFutures.add(submitOp(() -> batchReadTiKV(reads), fence));
+      }
+    }
+
+    // Joined prefetches complete while the layer's own reads run
+    for (ExecuteOpRunnable r : joined) {
+      byte[] prefetched = r.joinedPrefetch.await(config.LAYER_TIMEOUT_MS);
+      if (prefetched != null) {
+        r.setCachedResult(prefetched);
+      } else {
+        r.joinedPrefetch = null;
+        layerFutures.add(submitOp(r, fence));
       }
-      this.done = true;
     }
+
+    // Park until the whole layer has completed
+    awaitLayer(layerFutures, fence);
+
+    if (useCache) {
+      List<RedisStatement> fills = new ArrayList<>();
+      List<byte[]> fillValues = new ArrayList<>();
+      List<byte[]> layerKeys = new ArrayList<>();
+      boolean servedByNearCache = true;
+      for (ExecuteOpRunnable r : opRunnables) {
+        if (!r.redisStatement.prefetch && !r.nearCacheHit) {
+          servedByNearCache = false;
+        }
+        // If read and Redis miss, add to redis
+        if (!r.spedUp && r.redisStatement.type == RedisStatement.RedisRequestType.GET
+                && r.getResults() != null) {
+          fills.add(r.redisStatement);
+          fillValues.add(r.getResults());
+        }
+        // Run MGET on this layer (excepting prefetches) to update score
+        if (!r.redisStatement.prefetch) {
+          layerKeys.add(r.redisStatement.getKey());
+        }
+      }
+      if (!servedByNearCache || !fills.isEmpty()) {
+        RedisStatement.fillAndCommitLayer(redis, cacheCodec, fills, fillValues, layerKeys);
+      } else if (!layerKeys.isEmpty()) {
+        // A layer entirely served by the near cache still commits its keys, so that Redis keeps
+        // the scores of the hottest keys fresh rather than evicting them, but off the critical path
+        CompletableFuture.runAsync(() -> RedisStatement.fillAndCommitLayer(redis, cacheCodec,
+            Collections.emptyList(), Collections.emptyList(), layerKeys), requestExecutor)
+            .exceptionally(t -> {
+              System.err.println("Could not commit layer to Redis: " + t);
+              return null;
+            });
+      }
+      if (nearCache != null) {
+        commitNearCacheLayer(opRunnables);
+      }
+    }
+  }
+
+  /**
+   * Value of a row written while bulk loading, by the ongoing transaction or by a committed one
+   * whose rows are not in the backing store yet. Null if there is none
+   */
+  private byte[] bulkLoaded(long id) {
+    BulkLoader.Row written = bulkWrites.get(id);
+    if (written != null) {
+      return written.value;
+    }
+    return bulkLoader.getPending(id);
+  }
+
+  /**
+   * True if op may be served by a prefetch of its key: the prefetch reads the committed value, so
+   * reads that must see the transaction's own writes or lock their row in the backing store cannot
+   * use it
+   */
+  private boolean canJoinPrefetch(ExecuteOpRunnable op) {
+    if (USE_SQL) {
+      return !op.needsTxnConnection() && !op.redisStatement.for_update;
+    }
+    return !tikvWriteBuffer.containsKey(op.tikvOp.key);
+  }
+
+  /**
+   * Starts prefetching the keys of the given sets, asynchronously. Keys accessed by the current
+   * layer are not prefetched, as they are already being read
+   *
+   * @return the prefetches issued, by key
+   */
+  private Map<Long, InFlightPrefetches.Request> issuePrefetches(List<LayerKeys> prefetchSets,
+      LayerKeys layer) {
+    Map<Long, InFlightPrefetches.Request> issued = new HashMap<>();
+    for (LayerKeys prefetchSet : prefetchSets) {
+      for (int i = 0; i < prefetchSet.size(); i++) {
+        long id = prefetchSet.getId(i);
+        if (layer.contains(id) || issued.containsKey(id)) {
+          continue;
+        }
+        InFlightPrefetches.Request request = prefetches.prefetch(prefetchSet.getTable(i), id,
+            prefetchSet.getRowKey(i), this::fetchPrefetch);
+        if (request != null) {
+          issued.put(id, request);
+        }
+      }
+    }
+    return issued;
+  }
+
+  /**
+   * Reads a prefetched key on a prefetch thread: from the near cache or Redis if cached, otherwise
+   * from the backing store, in which case the value is written back to Redis. Keys the backing
+   * store has no value for are not written back, nor are keys written since the prefetch was
+   * issued, as the value read may predate the write
+   */
+  private byte[] fetchPrefetch(InFlightPrefetches.Request request) throws Exception {
+    if (nearCache != null) {
+      byte[] nearCached = nearCache.peek(request.getId());
+      if (nearCached != null) {
+        request.markRedundant();
+        return nearCached;
+      }
+    }
+    RedisStatement statement = new RedisStatement(RedisStatement.RedisRequestType.GET,
+            request.getTable(), request.getId(), null, -1, -1, true);
+    byte[] cached = statement.execute(redis, cacheCodec);
+    if (cached != null) {
+      request.markRedundant();
+      return cached;
+    }
+    byte[] value;
+    if (USE_SQL) {
+      value = readSQL(request.getTable(), request.getId());
+    } else if (request.getRowKey() != null) {
+      value = tikvResult(kvStore.get(request.getRowKey(), kvStore.getTimestamp()));
+    } else {
+      // Model recorded without row keys: the row cannot be located in TiKV
+      return null;
+    }
+    if (value != null && value.length > 0) {
+      byte[] fill = value;
+      request.fillUnlessInvalidated(() -> statement.fill(redis, cacheCodec, fill));
+    }
+    return value;
+  }
+
+  /**
+   * Promotes the keys read by a layer in the near cache, inserting the values read from Redis or
+   * the backing store. Values the transaction wrote itself are not inserted, as they are not
+   * committed yet
+   */
+  private void commitNearCacheLayer(List<ExecuteOpRunnable> opRunnables) {
+    long[] ids = new long[opRunnables.size()];
+    byte[][] values = new byte[opRunnables.size()][];
+    int count = 0;
+    for (ExecuteOpRunnable r : opRunnables) {
+      if (r.redisStatement.type != RedisStatement.RedisRequestType.GET || r.getResults() == null) {
+        continue;
+      }
+      if (!r.nearCacheHit && (USE_SQL ? txnWrittenIds.contains(r.redisStatement.id)
+              : tikvWriteBuffer.containsKey(r.tikvOp.key))) {
+        continue;
+      }
+      ids[count] = r.redisStatement.id;
+      values[count] = r.nearCacheHit ? null : r.getResults();
+      count++;
+    }
+    nearCache.commitLayer(ids, values, count);
+  }
+
+  /**
+   * The near cache shared by the clients of this process, or null if it is disabled
+   */
+  public static NearCache getNearCache() {
+    return nearCache;
+  }
+
+  /**
+   * Memory used by Redis, in bytes, as reported by INFO, or -1 if unknown
+   */
+  public long getRedisMemoryUsage() {
+    if (!config.REDIS_ENABLED) {
+      return -1;
+    }
+    return redis.getMemoryUsage();
   }
 
   /**
@@ -975,85 +1643,63 @@ public final class RedisPostgresClient extends ClientBase {
     }
 
     LinkedList<byte[]> readResults = new LinkedList<byte[]>();
-    List<ExecuteOpRunnable> opRunnables = new LinkedList<>();
+    List<ExecuteOpRunnable> opRunnables = new ArrayList<>();
 
     if (pendingStatements.size() <= 0) return readResults;
 
+    long layerStart = System.nanoTime();
     long txn_id = pendingStatements.get(0).getRight().txn_id;
 
     int prefetchesUsed = 0;
     int redundantPrefetchesUsed = 0;
-    if (config.REDIS_ENABLED && config.REDIS_PREFETCH) {
+    if (config.REDIS_ENABLED && config.REDIS_PREFETCH && bulkLoader == null) {
       // Update the prefetch data structure for the keys in the previous layer for this txn, if exists
       int txn_type = pendingStatements.get(0).getRight().txn_type;
-      Set<Long> lastLayer = lastLayerMap.get(txn_id);
-      Set<Pair<String, Long>> thisLayerWithTables = pendingStatements.stream().map(cs -> new Pair<String, Long>(cs.getRight().table, cs.getRight().id)).collect(Collectors.toSet());
-      Set<Long> thisLayer = pendingStatements.stream().map(cs -> cs.getRight().id).collect(Collectors.toSet());
+      LayerKeys lastLayer = hasLastLayer && txn_id == layerTxnId ? lastLayerKeys : null;
+      // Reuse the buffer of the layer before last
+      LayerKeys thisLayer = spareLayerKeys;
+      thisLayer.clear();
+      for (Pair<?, RedisStatement> cs : pendingStatements) {
+        thisLayer.add(cs.getRight().table, cs.getRight().id, null);
+      }
+      thisLayer.seal();
 //      System.out.printf("[TXN PROJ %d] txn_id: %d; last_layer: %s; this_layer: %s\n", this.threadNumber, txn_id, lastLayer == null ? "NULL" : lastLayer.toString(), thisLayer.toString());
 
       if (lastLayer != null) {
-        Map<Long, Boolean> prefetchedLastLayer = lastLayerPrefetched.get(txn_id);
+        Map<Long, InFlightPrefetches.Request> prefetchedLastLayer = lastLayerPrefetched;
 
         // Determine how many of the current layer's requests would hit due to a prefetch
-        for (long currentLayerId : pendingStatements.stream().map(cs -> cs.getRight().id).collect(Collectors.toList())) {
+        for (Pair<?, RedisStatement> cs : pendingStatements) {
+          InFlightPrefetches.Request prefetched = prefetchedLastLayer.get(cs.getRight().id);
           // Track if this req. is a hit due to a prefetch last layer
-          if (prefetchedLastLayer.containsKey(currentLayerId)) {
+          if (prefetched != null) {
             prefetchesUsed++;
-            if (prefetchedLastLayer.get(currentLayerId)) redundantPrefetchesUsed++;
+            if (prefetched.isRedundant()) redundantPrefetchesUsed++;
           }
         }
 
-        for (long lastLayerId : lastLayer) {
-          String prefetchIndex = txn_type + ":" + lastLayerId;
-          PrefetchTracker tracker = prefetchMap.get(prefetchIndex);
-
-          if (tracker == null) {
-            tracker = new PrefetchTracker();
-            prefetchMap.put(prefetchIndex, tracker);
-          }
-
-          if (tracker.trackDeps) {
-            tracker.observeSubsequentLayer(thisLayerWithTables);
-          }
-        }
+        prefetchModel.observeLayer(txn_type, lastLayer, thisLayer);
       }
-      lastLayerMap.put(txn_id, thisLayer);
+      layerTxnId = txn_id;
+      spareLayerKeys = lastLayerKeys;
+      lastLayerKeys = thisLayer;
+      hasLastLayer = true;
 
       // Determine what keys to prefetch
-      Set<Pair<String, Long>> prefetchKeys = new HashSet<>();
+      List<LayerKeys> prefetchSets = new ArrayList<>();
       for (Pair<PreparedStatement, RedisStatement> combinedStatement : pendingStatements) {
         Long id = combinedStatement.getRight().id;
         int type = combinedStatement.getRight().txn_type;
-        String prefetchIndex = type + ":" + id;
-
-        PrefetchTracker tracker = prefetchMap.get(prefetchIndex);
-//        System.out.printf("[TXN PROJ %d] %s prefetch object: %s\n", this.threadNumber, prefetchIndex, tracker == null ? "NULL" : tracker.toString());
-        if (tracker != null && tracker.trackDeps && tracker.sets.size() > 0 && ((double) tracker.sets.get(0).freq) / tracker.totalFreq > PREFETCH_FREQ_THRESH)
-          prefetchKeys.addAll(tracker.sets.get(0).keys);
+        LayerKeys prefetchSet = prefetchModel.getPrefetchSet(type, id);
+        if (prefetchSet != null) {
+          prefetchSets.add(prefetchSet);
+        }
       }
 
 //      System.out.printf("[TXN PROJ %d] Prefetch: %s\n", this.threadNumber, prefetchKeys.stream().map(k -> Long.toString(k.getRight())).collect(Collectors.toSet()));
 
-      // Remember which keys we prefetched for this txn
-      Map<Long, Boolean> thisLayerPrefetched = new HashMap<>();
-
-      // Add all keys to prefetch as reads
-      for (Pair<String, Long> key : prefetchKeys) {
-        String table = key.getLeft();
-        long id = key.getRight();
-        thisLayerPrefetched.put(id, false);
-
-        String query = "SELECT data FROM " + table + " WHERE id = ?";
-
-        PreparedStatement prepStatement = connection.prepareStatement(query);
-        prepStatement.setLong(1, id);
-
-        RedisStatement redisStatement = new RedisStatement(RedisStatement.RedisRequestType.GET, table, id, null, -1, -1, true);
-
-        pendingStatements.add(new Pair<>(prepStatement, redisStatement));
-      }
-
-      lastLayerPrefetched.put(txn_id, thisLayerPrefetched);
+      // Prefetch off the critical path, and remember which keys we prefetched for this txn
+      lastLayerPrefetched = issuePrefetches(prefetchSets, thisLayer);
     }
 
     for (Pair<PreparedStatement, RedisStatement> combinedStatement : pendingStatements) {
@@ -1061,93 +1707,28 @@ public final class RedisPostgresClient extends ClientBase {
 
 //      System.out.printf("[TXN PROJ %d] processing %d\n", this.threadNumber, id);
       if (config.REDIS_ENABLED && !combinedStatement.getRight().prefetch) {
-        keyLocks.computeIfAbsent(id, key -> new ReentrantReadWriteLock());
         if (combinedStatement.getRight().type == RedisStatement.RedisRequestType.GET) {
-//          System.out.printf("[TXN PROJ %d] READING %d\n", this.threadNumber, id);
-          if (!readLockIds.contains(id)) {
-            try {
-//              System.out.printf("[TXN PROJ %d] READ LOCK %d\n", this.threadNumber, id);
-              if (!keyLocks.get(id).readLock().tryLock(getRandomTimeout(), TimeUnit.MILLISECONDS)) {
-                this.abortTransaction();
-                throw new DatabaseAbortException("Failed to acquire lock");
-              }
-            } catch (InterruptedException e) {}
-
-            readLockIds.add(id);
-          }
+          acquireReadLock(combinedStatement.getRight());
         } else {
-//          System.out.printf("[TXN PROJ %d] WRITING %d\n", this.threadNumber, id);
-          // Unlock read lock first if holding it
-          if (readLockIds.contains(id)) {
-//            System.out.printf("[TXN PROJ %d] READ UNLOCK %d\n", this.threadNumber, id);
-            keyLocks.get(id).readLock().unlock();
-            readLockIds.remove(id);
-          }
-          if (!writeLockIds.contains(id)) {
-            try {
-//              System.out.printf("[TXN PROJ %d] WRITE LOCK %d\n", this.threadNumber, id);
-              if (!keyLocks.get(id).writeLock().tryLock(getRandomTimeout(), TimeUnit.MILLISECONDS)) {
-                this.abortTransaction();
-                throw new DatabaseAbortException("Failed to acquire lock");
-              }
-            } catch (InterruptedException e) {}
-
-            writeLockIds.add(id);
-          }
+          acquireWriteLock(combinedStatement.getRight());
         }
       }
 
-      ExecuteOpRunnable opRunnable = new ExecuteOpRunnable(combinedStatement.getLeft(), combinedStatement.getRight());
-      this.requestExecutor.execute(opRunnable);
-
-      opRunnables.add(opRunnable);
+      opRunnables.add(new ExecuteOpRunnable(combinedStatement.getLeft(), combinedStatement.getRight()));
     }
 
-    int numRequestsSpedUp = 0;
+    executeLayer(opRunnables);
 
-    List<byte[]> layerIds = new LinkedList<>();
+    int numRequestsSpedUp = 0;
 
     for (ExecuteOpRunnable r : opRunnables) {
-      // Don't wait for or track stats for prefetches
-//      if (r.redisStatement.prefetch) continue;
-
-      // Wait for request to finish
-      while (!r.done) {}
-
-      // Don't track stats for prefetches
-      if (r.redisStatement.prefetch) {
-        if (r.spedUp) {
-          lastLayerPrefetched.get(txn_id).put(r.redisStatement.id, true);
-        }
-        continue;
-      }
-
-      layerIds.add(Long.toString(r.redisStatement.id).getBytes());
-
-      // If thread threw SQL exception inside, throw it here
-      SQLException e = r.getSqlException();
-      if (e != null) throw e;
-
       // Track speedup and add to results
       if (r.spedUp) numRequestsSpedUp++;
       if (r.getResults() != null)
         readResults.add(r.getResults());
     }
 
-    // Run MGET on this layer (excepting prefetches) to update score
-    if (config.REDIS_ENABLED) {
-      jedis.mget(layerIds.toArray(new byte[0][]));
-    }
-
-    CacheStats.ranLayer(
-            numRequestsSpedUp,
-            (int) opRunnables.stream().filter(r -> !r.redisStatement.prefetch).count(),
-            (int) opRunnables.stream().filter(r -> !r.redisStatement.prefetch && r.redisStatement.type == RedisStatement.RedisRequestType.GET).count(),
-            (int) opRunnables.stream().filter(r -> r.redisStatement.prefetch).count(),
-            (int) opRunnables.stream().filter(r -> r.redisStatement.prefetch && r.spedUp).count(),
-            prefetchesUsed,
-            redundantPrefetchesUsed
-    );
+    recordLayer(opRunnables, numRequestsSpedUp, prefetchesUsed, redundantPrefetchesUsed, layerStart);
     pendingStatements.clear();
 
     return readResults;
@@ -1157,87 +1738,63 @@ public final class RedisPostgresClient extends ClientBase {
   public synchronized LinkedList<byte[]> executeOpsTiKV() throws DatabaseAbortException, SQLException {
 
     LinkedList<byte[]> readResults = new LinkedList<byte[]>();
-    List<ExecuteOpRunnable> opRunnables = new LinkedList<>();
+    List<ExecuteOpRunnable> opRunnables = new ArrayList<>();
 
     if (pendingTiKVStatements.size() <= 0) return readResults;
 
+    long layerStart = System.nanoTime();
     long txn_id = pendingTiKVStatements.get(0).getRight().txn_id;
 
     int prefetchesUsed = 0;
     int redundantPrefetchesUsed = 0;
-    if (config.REDIS_ENABLED && config.REDIS_PREFETCH) {
+    if (config.REDIS_ENABLED && config.REDIS_PREFETCH && bulkLoader == null) {
       // Update the prefetch data structure for the keys in the previous layer for this txn, if exists
       int txn_type = pendingTiKVStatements.get(0).getRight().txn_type;
-      Set<Long> lastLayer = lastLayerMap.get(txn_id);
-      Set<Pair<String, Long>> thisLayerWithTables = pendingTiKVStatements.stream().map(cs -> new Pair<String, Long>(cs.getRight().table, cs.getRight().id)).collect(Collectors.toSet());
-      Set<Long> thisLayer = pendingTiKVStatements.stream().map(cs -> cs.getRight().id).collect(Collectors.toSet());
+      LayerKeys lastLayer = hasLastLayer && txn_id == layerTxnId ? lastLayerKeys : null;
+      // Reuse the buffer of the layer before last
+      LayerKeys thisLayer = spareLayerKeys;
+      thisLayer.clear();
+      for (Pair<TiKVOp, RedisStatement> cs : pendingTiKVStatements) {
+        thisLayer.add(cs.getRight().table, cs.getRight().id, cs.getLeft().key);
+      }
+      thisLayer.seal();
 //      System.out.printf("[TXN PROJ %d] txn_id: %d; last_layer: %s; this_layer: %s\n", this.threadNumber, txn_id, lastLayer == null ? "NULL" : lastLayer.toString(), thisLayer.toString());
 
       if (lastLayer != null) {
-        Map<Long, Boolean> prefetchedLastLayer = lastLayerPrefetched.get(txn_id);
+        Map<Long, InFlightPrefetches.Request> prefetchedLastLayer = lastLayerPrefetched;
 
         // Determine how many of the current layer's requests would hit due to a prefetch
-        for (long currentLayerId : pendingTiKVStatements.stream().map(cs -> cs.getRight().id).collect(Collectors.toList())) {
+        for (Pair<?, RedisStatement> cs : pendingTiKVStatements) {
+          InFlightPrefetches.Request prefetched = prefetchedLastLayer.get(cs.getRight().id);
           // Track if this req. is a hit due to a prefetch last layer
-          if (prefetchedLastLayer.containsKey(currentLayerId)) {
+          if (prefetched != null) {
             prefetchesUsed++;
-            if (prefetchedLastLayer.get(currentLayerId)) redundantPrefetchesUsed++;
+            if (prefetched.isRedundant()) redundantPrefetchesUsed++;
           }
         }
 
-        for (long lastLayerId : lastLayer) {
-          String prefetchIndex = txn_type + ":" + lastLayerId;
-          PrefetchTracker tracker = prefetchMap.get(prefetchIndex);
-
-          if (tracker == null) {
-            tracker = new PrefetchTracker();
-            prefetchMap.put(prefetchIndex, tracker);
-          }
-
-          if (tracker.trackDeps) {
-            tracker.observeSubsequentLayer(thisLayerWithTables);
-          }
-        }
+        prefetchModel.observeLayer(txn_type, lastLayer, thisLayer);
       }
-      lastLayerMap.put(txn_id, thisLayer);
+      layerTxnId = txn_id;
+      spareLayerKeys = lastLayerKeys;
+      lastLayerKeys = thisLayer;
+      hasLastLayer = true;
 
       // Determine what keys to prefetch
-      Set<Pair<String, Long>> prefetchKeys = new HashSet<>();
+      List<LayerKeys> prefetchSets = new ArrayList<>();
       for (Pair<TiKVOp, RedisStatement> combinedStatement : pendingTiKVStatements) {
         Long id = combinedStatement.getRight().id;
         int type = combinedStatement.getRight().txn_type;
-        String prefetchIndex = type + ":" + id;
-
-        PrefetchTracker tracker = prefetchMap.get(prefetchIndex);
-//        System.out.printf("[TXN PROJ %d] %s prefetch object: %s\n", this.threadNumber, prefetchIndex, tracker == null ? "NULL" : tracker.toString());
-        if (tracker != null && tracker.trackDeps && tracker.sets.size() > 0 && ((double) tracker.sets.get(0).freq) / tracker.totalFreq > PREFETCH_FREQ_THRESH)
-          prefetchKeys.addAll(tracker.sets.get(0).keys);
+        LayerKeys prefetchSet = prefetchModel.getPrefetchSet(type, id);
+        if (prefetchSet != null) {
+          prefetchSets.add(prefetchSet);
+        }
       }
 
 //      System.out.printf("[TXN PROJ %d] Prefetch: %s\n", this.threadNumber, prefetchKeys.stream().map(k -> Long.toString(k.getRight())).collect(Collectors.toSet()));
 
-      // Remember which keys we prefetched for this txn
-      Map<Long, Boolean> thisLayerPrefetched = new HashMap<>();
-
-      // Add all keys to prefetch as reads
-      for (Pair<String, Long> key : prefetchKeys) {
-        String table = key.getLeft();
-        long id = key.getRight();
-        thisLayerPrefetched.put(id, false);
-
-//        String query = "SELECT data FROM " + table + " WHERE id = ?";
-//        PreparedStatement prepStatement = connection.prepareStatement(query);
-//        prepStatement.setLong(1, id);
-
-        ByteString kvKey = ByteString.copyFromUtf8(table+id);
-        TiKVOp tikvStatement = new TiKVOp(kvKey, null, true, null);
-
-        RedisStatement redisStatement = new RedisStatement(RedisStatement.RedisRequestType.GET, table, id, null, -1, -1, true);
-
-        pendingTiKVStatements.add(new Pair<>(tikvStatement, redisStatement));
-      }
-
-      lastLayerPrefetched.put(txn_id, thisLayerPrefetched);
+      // Prefetch off the critical path, and remember which keys we prefetched for this txn
+      lastLayerPrefetched = issuePrefetches(prefetchSets, thisLayer);
     }
 
     for (Pair<TiKVOp, RedisStatement> combinedStatement : pendingTiKVStatements) {
@@ -1245,105 +1802,191 @@ public final class RedisPostgresClient extends ClientBase {
 
 //      System.out.printf("[TXN PROJ %d] processing %d\n", this.threadNumber, id);
       if (config.REDIS_ENABLED && !combinedStatement.getRight().prefetch) {
-        keyLocks.computeIfAbsent(id, key -> new ReentrantReadWriteLock());
         if (combinedStatement.getRight().type == RedisStatement.RedisRequestType.GET && !combinedStatement.getLeft().is_read_for_update) {
-//          System.out.printf("[TXN PROJ %d] READING %d\n", this.threadNumber, id);
-          if (!readLockIds.contains(id)) {
-            try {
-//              System.out.printf("[TXN PROJ %d] READ LOCK %d\n", this.threadNumber, id);
-              if (!keyLocks.get(id).readLock().tryLock(getRandomTimeout(), TimeUnit.MILLISECONDS)) {
-                this.abortTransaction();
-                throw new DatabaseAbortException("Failed to acquire lock");
-              }
-            } catch (InterruptedException e) {}
-
-            readLockIds.add(id);
-          }
+          acquireReadLock(combinedStatement.getRight());
         } else {
-//          System.out.printf("[TXN PROJ %d] WRITING %d\n", this.threadNumber, id);
-          // Unlock read lock first if holding it
-          if (readLockIds.contains(id)) {
-//            System.out.printf("[TXN PROJ %d] READ UNLOCK %d\n", this.threadNumber, id);
-            keyLocks.get(id).readLock().unlock();
-            readLockIds.remove(id);
-          }
-          if (!writeLockIds.contains(id)) {
-            try {
-//              System.out.printf("[TXN PROJ %d] WRITE LOCK %d\n", this.threadNumber, id);
-              if (!keyLocks.get(id).writeLock().tryLock(getRandomTimeout(), TimeUnit.MILLISECONDS)) {
-                this.abortTransaction();
-                throw new DatabaseAbortException("Failed to acquire lock");
-              }
-            } catch (InterruptedException e) {}
-
-            writeLockIds.add(id);
-          }
+          acquireWriteLock(combinedStatement.getRight());
         }
       }
 
-      ExecuteOpRunnable opRunnable = new ExecuteOpRunnable(combinedStatement.getLeft(), combinedStatement.getRight());
-      this.requestExecutor.execute(opRunnable);
-
-      opRunnables.add(opRunnable);
+      opRunnables.add(new ExecuteOpRunnable(combinedStatement.getLeft(), combinedStatement.getRight()));
     }
 
-    int numRequestsSpedUp = 0;
+    executeLayer(opRunnables);
 
-    List<byte[]> layerIds = new LinkedList<>();
+    int numRequestsSpedUp = 0;
 
     for (ExecuteOpRunnable r : opRunnables) {
-      // Don't wait for or track stats for prefetches
-//      if (r.redisStatement.prefetch) continue;
+      // Track speedup and add to results
+      if (r.spedUp) numRequestsSpedUp++;
+      if (r.getResults() != null)
+        readResults.add(r.getResults());
+    }
 
-      // Wait for request to finish
-      while (!r.done) {}
+    recordLayer(opRunnables, numRequestsSpedUp, prefetchesUsed, redundantPrefetchesUsed, layerStart);
+    pendingTiKVStatements.clear();
 
-      // Don't track stats for prefetches
-      if (r.redisStatement.prefetch) {
-        if (r.spedUp) {
-          lastLayerPrefetched.get(txn_id).put(r.redisStatement.id, true);
-        }
-        continue;
-      }
+    return readResults;
+  }
 
-      layerIds.add(Long.toString(r.redisStatement.id).getBytes());
+  /**
+   * Estimated memory footprint of the prefetch model, in bytes. The model is shared by all the
+   * clients of the process
+   */
+  public long getPrefetchMapSize() {
+    return prefetchModel.getSize();
+  }
 
-      // If thread threw SQL exception inside, throw it here
-      SQLException e = r.getSqlException();
-      if (e != null) throw e;
+  /**
+   * Number of prefetch trackers evicted to keep the prefetch model within its bound
+   */
+  public long getPrefetchModelEvictions() {
+    return prefetchModel.getEvictions();
+  }
 
-      // Track speedup and add to results
-      if (r.spedUp) numRequestsSpedUp++;
-      if (r.getResults() != null)
-        readResults.add(r.getResults());
+  /**
+   * Takes a shared lock on id's stripe, unless the transaction already holds that stripe. Aborts
+   * the transaction if the lock is not granted
+   */
+  private void acquireReadLock(RedisStatement statement) throws DatabaseAbortException {
+    int stripe = keyLocks.stripeOf(statement.id);
+    if (readLockStripes.contains(stripe) || writeLockStripes.contains(stripe)) {
+      return;
     }
+    checkGranted(keyLocks.lockShared(stripe, lockTimestamp(statement.txn_id),
+        statement.txn_type, config.LOCK_WAIT_TIMEOUT_MS));
+    readLockStripes.add(stripe);
+  }
 
-    // Run MGET on this layer (excepting prefetches) to update score
-    if (config.REDIS_ENABLED) {
-      jedis.mget(layerIds.toArray(new byte[0][]));
+  /**
+   * Takes an exclusive lock on id's stripe, upgrading the shared lock on that stripe if the
+   * transaction holds it. Aborts the transaction if the lock is not granted
+   */
+  private void acquireWriteLock(RedisStatement statement) throws DatabaseAbortException {
+    int stripe = keyLocks.stripeOf(statement.id);
+    if (writeLockStripes.contains(stripe)) {
+      return;
+    }
+    checkGranted(keyLocks.lockExclusive(stripe, lockTimestamp(statement.txn_id),
+        statement.txn_type, config.LOCK_WAIT_TIMEOUT_MS));
+    readLockStripes.remove(stripe);
+    writeLockStripes.add(stripe);
+  }
+
+  /**
+   * Returns the wait-die timestamp of the ongoing transaction, allocating it when the transaction
+   * takes its first lock. It is kept until the transaction commits or aborts, whatever the txn_id
+   * of its later statements. The retry of an aborted transaction (same txn_id) reuses the
+   * timestamp of its first attempt, so that it grows older relative to newer transactions
+   */
+  private long lockTimestamp(long txnId) {
+    if (lockTimestamp == NO_TIMESTAMP) {
+      lockTxnId = txnId;
+      lockTimestamp = txnId != -1 && txnId == abortedTxnId ? abortedTimestamp
+          : keyLocks.newTimestamp();
+    }
+    return lockTimestamp;
+  }
+
+  private void checkGranted(KeyLockTable.AcquireResult result) throws DatabaseAbortException {
+    if (result != KeyLockTable.AcquireResult.GRANTED) {
+      this.abortTransaction();
+      throw new DatabaseAbortException("Failed to acquire lock: " + result);
+    }
+  }
+
+  /**
+   * Releases all the lock stripes held by the current transaction, which were all acquired under
+   * its timestamp, and ends the transaction's timestamp
+   *
+   * @param aborted true if the transaction aborted, in which case its retry reuses the timestamp
+   */
+  private void releaseLocks(boolean aborted) {
+    for (int stripe : readLockStripes) {
+      keyLocks.unlockShared(stripe, lockTimestamp);
+    }
+    readLockStripes.clear();
+    for (int stripe : writeLockStripes) {
+      keyLocks.unlockExclusive(stripe, lockTimestamp);
+    }
+    writeLockStripes.clear();
+    if (aborted && lockTimestamp != NO_TIMESTAMP) {
+      abortedTxnId = lockTxnId;
+      abortedTimestamp = lockTimestamp;
+    } else if (!aborted) {
+      abortedTxnId = -1;
+      abortedTimestamp = NO_TIMESTAMP;
+    }
+    lockTxnId = -1;
+    lockTimestamp = NO_TIMESTAMP;
+  }
+
+  /**
+   * Records the metrics of a layer that completed, and folds it into the metrics of its
+   * transaction. The first layer after a commit or an abort starts a new transaction
+   */
+  private void recordLayer(List<ExecuteOpRunnable> opRunnables, int numRequestsSpedUp,
+      int prefetchesUsed, int redundantPrefetchesUsed, long layerStart) {
+    RedisStatement first = opRunnables.get(0).redisStatement;
+    if (!metricsStarted) {
+      // First layer of a transaction. The retry of an aborted one (same txn_id) keeps its start
+      if (first.txn_id == -1 || first.txn_id != metricsTxnId) {
+        metricsTxnStart = layerStart;
+      }
+      metricsStarted = true;
+      metricsTxnId = first.txn_id;
+      metricsTxnType = first.txn_type;
+      resetAttemptMetrics();
+      if (traceBuffer != null) {
+        traceBuffer.startTransaction(metricsTxnType);
+      }
+    }
+
+    int totalRequests = 0;
+    int totalReadRequests = 0;
+    int nearCacheHits = 0;
+    for (ExecuteOpRunnable r : opRunnables) {
+      totalRequests++;
+      if (r.redisStatement.type == RedisStatement.RedisRequestType.GET) totalReadRequests++;
+      if (r.nearCacheHit) nearCacheHits++;
+    }
+    attemptHasReads |= totalReadRequests > 0;
+    attemptMissedCache |= numRequestsSpedUp < totalReadRequests;
+
+    if (traceBuffer != null && traceBuffer.isRecording()) {
+      for (ExecuteOpRunnable r : opRunnables) {
+        traceBuffer.addKey(r.redisStatement.table, r.redisStatement.id,
+                r.redisStatement.type != RedisStatement.RedisRequestType.GET, r.spedUp);
+      }
+      traceBuffer.endLayer();
     }
 
     CacheStats.ranLayer(
+            metricsTxnType,
+            attemptLayers++,
+            (System.nanoTime() - layerStart) / 1000,
             numRequestsSpedUp,
-            (int) opRunnables.stream().filter(r -> !r.redisStatement.prefetch).count(),
-            (int) opRunnables.stream().filter(r -> !r.redisStatement.prefetch && r.redisStatement.type == RedisStatement.RedisRequestType.GET).count(),
-            (int) opRunnables.stream().filter(r -> r.redisStatement.prefetch).count(),
-            (int) opRunnables.stream().filter(r -> r.redisStatement.prefetch && r.spedUp).count(),
+            nearCacheHits,
+            totalRequests,
+            totalReadRequests,
             prefetchesUsed,
             redundantPrefetchesUsed
     );
-    pendingTiKVStatements.clear();
-
-    return readResults;
   }
 
-  public long getPrefetchMapSize() {
-    long size = 0;
-    for (Map.Entry<String, PrefetchTracker> prefetchMapEntry : this.prefetchMap.entrySet()) {
-      size += prefetchMapEntry.getKey().length();
-      size += prefetchMapEntry.getValue().getSize();
+  private void resetAttemptMetrics() {
+    attemptLayers = 0;
+    attemptHasReads = false;
+    attemptMissedCache = false;
+    if (traceBuffer != null) {
+      traceBuffer.discard();
     }
-    return size;
+  }
+
+  private void clearLayerState() {
+    layerTxnId = -1;
+    hasLastLayer = false;
+    lastLayerPrefetched = null;
   }
 
   /**
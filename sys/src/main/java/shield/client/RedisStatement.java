@@ -1,7 +1,15 @@
 package shield.client;
 
-import redis.clients.jedis.JedisPooled;
+import shield.benchmarks.utils.CacheStats;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A request on a row, and its execution against the Redis cache. Rows are stored under their id, as
+ * 8 bytes, and their values are encoded by a {@link CacheCodec}
+ */
 public class RedisStatement {
 
     public enum RedisRequestType {
@@ -17,6 +25,7 @@ public class RedisStatement {
     public int txn_type;
     public long txn_id;
     public boolean prefetch;
+    public boolean for_update = false;
 
     public RedisStatement(RedisRequestType type, String table, Long id, byte[] value, int txn_type, long txn_id) {
         this(type, table, id, value, txn_type, txn_id, false);
@@ -32,17 +41,117 @@ public class RedisStatement {
         this.prefetch = prefetch;
     }
 
-    public byte[] execute(JedisPooled jedis) {
+    /**
+     * Key under which this statement's row is stored in Redis: its id, big-endian
+     */
+    public byte[] getKey() {
+        long key = id;
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) key;
+            key >>>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * Encodes a value of this statement's row, as stored in Redis
+     */
+    private byte[] encode(CacheCodec codec, byte[] value) {
+        byte[] encoded = codec.encode(table, value);
+        CacheStats.cachedValue(value.length, encoded.length);
+        return encoded;
+    }
+
+    private byte[] decode(CacheCodec codec, byte[] encoded) {
+        return encoded == null ? null : codec.decode(table, encoded);
+    }
+
+    public byte[] execute(RedisCache cache, CacheCodec codec) {
         switch (this.type) {
             case GET:
-                return jedis.get(Long.toString(id).getBytes());
+                return decode(codec, cache.get(getKey()));
             case PUT:
-                jedis.setnx(Long.toString(id).getBytes(), this.value);
+                if (this.value != null) {
+                    cache.setnx(getKey(), encode(codec, this.value));
+                }
                 break;
             case DELETE:
-                jedis.del(Long.toString(id).getBytes());
+                cache.del(getKey());
                 break;
         }
         return null;
     }
+
+    /**
+     * Writes back a value of this statement's row, read from the backing store
+     */
+    public void fill(RedisCache cache, CacheCodec codec, byte[] value) {
+        cache.set(getKey(), encode(codec, value));
+    }
+
+    /**
+     * Queues this statement on a batch. Only GETs return a response, as they are the only
+     * statements whose result is read back. PUTs without a value are not cached
+     */
+    public Supplier<byte[]> queue(RedisCache.Batch batch, CacheCodec codec) {
+        switch (this.type) {
+            case GET:
+                return batch.get(getKey());
+            case PUT:
+                if (this.value != null) {
+                    batch.setnx(getKey(), encode(codec, this.value));
+                }
+                break;
+            case DELETE:
+                batch.del(getKey());
+                break;
+        }
+        return null;
+    }
+
+    /**
+     * Executes all the statements of a layer in a single round trip to Redis.
+     *
+     * @return for each statement, in order, the cached value if it is a GET that hit in the cache,
+     * null otherwise
+     */
+    public static List<byte[]> executeLayer(RedisCache cache, CacheCodec codec,
+                                            List<RedisStatement> statements) {
+        List<Supplier<byte[]>> responses = new ArrayList<>(statements.size());
+        try (RedisCache.Batch batch = cache.batch()) {
+            for (RedisStatement statement : statements) {
+                responses.add(statement.queue(batch, codec));
+            }
+            batch.sync();
+        }
+
+        List<byte[]> results = new ArrayList<>(statements.size());
+        for (int i = 0; i < responses.size(); i++) {
+            Supplier<byte[]> response = responses.get(i);
+            results.add(response == null ? null : statements.get(i).decode(codec, response.get()));
+        }
+        return results;
+    }
+
+    /**
+     * Writes back the values fetched from the backing store on cache misses and commits the layer
+     * in a single round trip. The commit is an MGET over the layer's keys, which our Redis uses to
+     * update the transactional eviction scores, so it is sent after the fills.
+     */
+    public static void fillAndCommitLayer(RedisCache cache, CacheCodec codec, List<RedisStatement> fills,
+                                          List<byte[]> fillValues, List<byte[]> layerKeys) {
+        if (fills.isEmpty() && layerKeys.isEmpty()) {
+            return;
+        }
+        try (RedisCache.Batch batch = cache.batch()) {
+            for (int i = 0; i < fills.size(); i++) {
+                batch.set(fills.get(i).getKey(), fills.get(i).encode(codec, fillValues.get(i)));
+            }
+            if (!layerKeys.isEmpty()) {
+                batch.mget(layerKeys.toArray(new byte[0][]));
+            }
+            batch.sync();
+        }
+    }
 }
@@ -1,7 +1,6 @@
 package shield.client;
 
 import org.tikv.shade.com.google.protobuf.ByteString;
-import org.tikv.txn.TwoPhaseCommitter;
 
 public class TiKVOp {
     public ByteString key;
@@ -11,9 +10,6 @@ public class TiKVOp {
     public byte[] result; // not used
     public long version; // not used anymore (timestamp taken a time of prewrite and commit separately)
 
-    // for use when committing the txn (if it is a write)
-    public TwoPhaseCommitter twoPC;
-
     public TiKVOp(ByteString key, byte[] value, boolean is_read_op, byte[] result) {
         this.key = key;
         this.value = value;
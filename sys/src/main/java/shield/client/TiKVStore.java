@@ -0,0 +1,105 @@
+package shield.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.tikv.common.ByteWrapper;
+import org.tikv.common.BytePairWrapper;
+import org.tikv.common.TiConfiguration;
+import org.tikv.common.TiSession;
+import org.tikv.common.exception.TiBatchWriteException;
+import org.tikv.common.util.ConcreteBackOffer;
+import org.tikv.kvproto.Kvrpcpb;
+import org.tikv.shade.com.google.protobuf.ByteString;
+import org.tikv.txn.KVClient;
+import org.tikv.txn.TwoPhaseCommitter;
+
+/**
+ * A TiKV cluster, accessed through one session and its KV client
+ */
+final class TiKVStore implements KVStore {
+
+  /**
+   * Maximum time (in ms) TiKV requests back off before failing
+   */
+  private static final int TIKV_BACKOFF_MS = 5000;
+
+  private final TiSession session;
+
+  private final KVClient kvClient;
+
+  TiKVStore(String pdAddress) {
+    this.session = TiSession.create(TiConfiguration.createDefault(pdAddress));
+    this.kvClient = session.createKVClient();
+  }
+
+  @Override
+  public long getTimestamp() {
+    return session.getTimestamp().getVersion();
+  }
+
+  @Override
+  public ByteString get(ByteString key, long version) {
+    return kvClient.get(key, version);
+  }
+
+  @Override
+  public Map<ByteString, ByteString> batchGet(List<ByteString> keys, long version) {
+    Map<ByteString, ByteString> values = new HashMap<>();
+    for (Kvrpcpb.KvPair pair : kvClient.batchGet(ConcreteBackOffer.newCustomBackOff(TIKV_BACKOFF_MS),
+        keys, version)) {
+      values.put(pair.getKey(), pair.getValue());
+    }
+    return values;
+  }
+
+  /**
+   * Commits writes through one two-phase commit, see twoPhaseCommit()
+   */
+  @Override
+  public void commit(List<BytePairWrapper> writes) {
+    twoPhaseCommit(session, writes);
+  }
+
+  /**
+   * Commits writes through one two-phase commit: the first key written is the primary, the others
+   * are prewritten as secondaries in region batches, and all keys are committed at a single commit
+   * timestamp. The writes are committed as soon as the primary key is, so a failure to commit
+   * secondaries is only logged (their locks are resolved from the primary).
+   *
+   * @throws TiBatchWriteException if the primary key could not be committed
+   */
+  static void twoPhaseCommit(TiSession session, List<BytePairWrapper> writes) {
+    byte[] primaryKey = writes.get(0).getKey();
+    List<BytePairWrapper> secondaries = writes.subList(1, writes.size());
+    List<ByteWrapper> secondaryKeys = new ArrayList<>(secondaries.size());
+    for (BytePairWrapper write : secondaries) {
+      secondaryKeys.add(new ByteWrapper(write.getKey()));
+    }
+
+    TwoPhaseCommitter twoPC = new TwoPhaseCommitter(session, session.getTimestamp().getVersion());
+    try {
+      twoPC.prewritePrimaryKey(ConcreteBackOffer.newCustomBackOff(TIKV_BACKOFF_MS), primaryKey,
+              writes.get(0).getValue());
+      if (!secondaries.isEmpty()) {
+        twoPC.prewriteSecondaryKeys(primaryKey, secondaries.iterator(), TIKV_BACKOFF_MS);
+      }
+      long commitTS = session.getTimestamp().getVersion();
+      twoPC.commitPrimaryKey(ConcreteBackOffer.newCustomBackOff(TIKV_BACKOFF_MS), primaryKey, commitTS);
+      if (!secondaryKeys.isEmpty()) {
+        try {
+          twoPC.commitSecondaryKeys(secondaryKeys.iterator(), commitTS, TIKV_BACKOFF_MS);
+        } catch (TiBatchWriteException e) {
+          System.err.println(e);
+        }
+      }
+    } finally {
+      try {
+        twoPC.close();
+      } catch (Exception e) {
+        System.err.println(e);
+      }
+    }
+  }
+}
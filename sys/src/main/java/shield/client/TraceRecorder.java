@@ -0,0 +1,236 @@
+package shield.client;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the layers of committed transactions to a file, in the input format of the offline
+ * simulator (simulator/dag_txn_belady.py): one transaction per line, each key id followed by ','
+ * and each layer by ';'.
+ *
+ * Each line is followed by annotations that the simulator ignores (it drops whatever follows the
+ * last ';'): "# txn_type" then, for each layer, the table, R(ead) or W(rite) and H(it) or M(iss)
+ * of each key, e.g.
+ *
+ * <pre>12,34,;56,;# 2 warehouse.R.H district.R.M|stock.W.-</pre>
+ *
+ * Each client appends to its own {@link Buffer}, without synchronizing with the others. Full
+ * batches are handed to a background writer; if the writer falls behind, batches are dropped
+ * rather than slowing down the clients.
+ */
+public class TraceRecorder {
+
+  /**
+   * Size (in chars) of the batches handed to the writer
+   */
+  private static final int BATCH_CHARS = 1 << 16;
+
+  /**
+   * Number of batches waiting for the writer before new ones are dropped
+   */
+  private static final int MAX_PENDING_BATCHES = 64;
+
+  private final double samplingRate;
+
+  private final Writer out;
+
+  private final BlockingQueue<StringBuilder> pending = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+
+  private final BlockingQueue<StringBuilder> free = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+
+  private final List<Buffer> buffers = new CopyOnWriteArrayList<>();
+
+  private final AtomicLong transactions = new AtomicLong();
+
+  private final AtomicLong droppedTransactions = new AtomicLong();
+
+  private final Thread writer;
+
+  private volatile boolean closed = false;
+
+  /**
+   * Layers of the ongoing transaction of a client, and the batch of transactions it committed
+   * that was not handed to the writer yet. Only used by the thread of its client, except for the
+   * final flush
+   */
+  public final class Buffer {
+
+    private final StringBuilder keys = new StringBuilder();
+    private final StringBuilder annotations = new StringBuilder();
+    private StringBuilder batch = new StringBuilder(BATCH_CHARS);
+    private int batchTransactions = 0;
+    private int txnType;
+    private boolean sampled = false;
+    private boolean layerStarted = false;
+
+    /**
+     * Starts a transaction, which is traced with probability samplingRate
+     */
+    public void startTransaction(int txnType) {
+      this.txnType = txnType;
+      this.sampled = samplingRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < samplingRate;
+      discard();
+    }
+
+    public boolean isRecording() {
+      return sampled;
+    }
+
+    public void addKey(String table, long id, boolean write, boolean hit) {
+      keys.append(id).append(',');
+      annotations.append(layerStarted ? ' ' : '|')
+          .append(table).append('.')
+          .append(write ? 'W' : 'R').append('.')
+          .append(write ? '-' : hit ? 'H' : 'M');
+      layerStarted = true;
+    }
+
+    public void endLayer() {
+      keys.append(';');
+      layerStarted = false;
+    }
+
+    /**
+     * Drops the layers of the ongoing attempt, e.g. because it aborted
+     */
+    public void discard() {
+      keys.setLength(0);
+      annotations.setLength(0);
+      layerStarted = false;
+    }
+
+    /**
+     * Appends the ongoing transaction to the trace
+     */
+    public synchronized void commit() {
+      if (!sampled || closed || keys.length() == 0) {
+        return;
+      }
+      batch.append(keys).append("# ").append(txnType);
+      // The first layer's separator is a space
+      if (annotations.length() > 0) {
+        batch.append(' ').append(annotations, 1, annotations.length());
+      }
+      batch.append('\n');
+      batchTransactions++;
+      discard();
+      if (batch.length() >= BATCH_CHARS) {
+        handOff(false);
+      }
+    }
+
+    /**
+     * Hands the batch to the writer. Unless wait is set, the batch is dropped if the writer is
+     * behind. It is dropped in any case if the writer has exited, e.g. on an I/O error
+     */
+    private void handOff(boolean wait) {
+      if (batchTransactions == 0) {
+        return;
+      }
+      boolean queued = false;
+      if (wait) {
+        try {
+          while (!queued && writer.isAlive()) {
+            queued = pending.offer(batch, 100, TimeUnit.MILLISECONDS);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      } else {
+        queued = pending.offer(batch);
+      }
+      if (queued) {
+        transactions.addAndGet(batchTransactions);
+        StringBuilder next = free.poll();
+        batch = next != null ? next : new StringBuilder(BATCH_CHARS);
+      } else {
+        droppedTransactions.addAndGet(batchTransactions);
+        batch.setLength(0);
+      }
+      batchTransactions = 0;
+    }
+  }
+
+  public TraceRecorder(String fileName, double samplingRate) throws IOException {
+    this.samplingRate = samplingRate;
+    this.out = new BufferedWriter(new FileWriter(fileName), 1 << 16);
+    this.writer = new Thread(this::writeBatches, "trace-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Creates the buffer of a client
+   */
+  public Buffer newBuffer() {
+    Buffer buffer = new Buffer();
+    buffers.add(buffer);
+    return buffer;
+  }
+
+  private void writeBatches() {
+    try {
+      while (true) {
+        StringBuilder batch = pending.poll(100, TimeUnit.MILLISECONDS);
+        if (batch == null) {
+          if (closed) {
+            break;
+          }
+          continue;
+        }
+        out.append(batch);
+        batch.setLength(0);
+        free.offer(batch);
+      }
+      out.flush();
+    } catch (IOException e) {
+      System.err.println("Trace writer failed: " + e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Writes out the batches of all clients and closes the file. Transactions committed afterwards
+   * are not traced
+   */
+  public void close() {
+    for (Buffer buffer : buffers) {
+      synchronized (buffer) {
+        buffer.handOff(true);
+      }
+    }
+    closed = true;
+    try {
+      writer.join();
+      out.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      System.err.println("Could not close trace: " + e);
+    }
+  }
+
+  /**
+   * Number of transactions handed to the writer
+   */
+  public long getTransactions() {
+    return transactions.get();
+  }
+
+  /**
+   * Number of transactions dropped because the writer was behind
+   */
+  public long getDroppedTransactions() {
+    return droppedTransactions.get();
+  }
+}
@@ -0,0 +1,200 @@
+package shield.client.prefetch;
+
+import org.tikv.shade.com.google.protobuf.ByteString;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import shield.benchmarks.utils.CacheStats;
+
+/**
+ * Prefetches issued by the clients of a process, run asynchronously on a dedicated executor so
+ * that they stay off the critical path of the layers that issue them.
+ *
+ * Prefetches are indexed by key while they are in flight: a layer that needs a key still being
+ * prefetched joins the prefetch instead of issuing a duplicate read, and a key is only prefetched
+ * once at a time. When the executor is saturated, new prefetches are dropped.
+ */
+public class InFlightPrefetches {
+
+  /**
+   * Reads the value of a prefetched key
+   */
+  public interface Fetcher {
+
+    /**
+     * @return the value of request's key. Calls request.markRedundant() if the key was already
+     * cached
+     */
+    byte[] fetch(Request request) throws Exception;
+  }
+
+  public static final class Request {
+
+    private final String table;
+    private final long id;
+    private final ByteString rowKey;
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos;
+    private volatile boolean redundant = false;
+    private boolean invalidated = false;
+    private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+    Request(String table, long id, ByteString rowKey) {
+      this.table = table;
+      this.id = id;
+      this.rowKey = rowKey;
+    }
+
+    public String getTable() {
+      return table;
+    }
+
+    public long getId() {
+      return id;
+    }
+
+    /**
+     * Key of the row in the backing store, or null if the store is addressed by id
+     */
+    public ByteString getRowKey() {
+      return rowKey;
+    }
+
+    /**
+     * Records that the key was already cached when it was prefetched
+     */
+    public void markRedundant() {
+      redundant = true;
+    }
+
+    public boolean isRedundant() {
+      return redundant;
+    }
+
+    /**
+     * Runs fill, which writes the prefetched value back to the cache, unless the key was
+     * invalidated since the prefetch was issued. Invalidating waits for a fill in progress, so a
+     * write that invalidated the key is never overwritten by the value prefetched before it
+     *
+     * @return true if fill was run
+     */
+    public synchronized boolean fillUnlessInvalidated(Runnable fill) {
+      if (invalidated) {
+        return false;
+      }
+      fill.run();
+      return true;
+    }
+
+    private synchronized void invalidate() {
+      invalidated = true;
+    }
+
+    /**
+     * Waits for the prefetched value, for at most timeoutMs (indefinitely if 0). The latency of
+     * the prefetch that overlapped the joining layer is accounted as hidden, the time spent
+     * waiting for it as added.
+     *
+     * @return the value, or null if the prefetch failed or did not complete in time
+     */
+    public byte[] await(long timeoutMs) {
+      long waitStart = System.nanoTime();
+      byte[] value;
+      try {
+        value = timeoutMs > 0 ? result.get(timeoutMs, TimeUnit.MILLISECONDS) : result.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      } catch (ExecutionException | TimeoutException e) {
+        return null;
+      }
+      long waited = Math.max(0, System.nanoTime() - waitStart);
+      long latency = endNanos - startNanos;
+      CacheStats.joinedPrefetch(Math.max(0, latency - waited) / 1000, waited / 1000);
+      return value;
+    }
+  }
+
+  private final ConcurrentHashMap<Long, Request> inFlight = new ConcurrentHashMap<>();
+
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * @param nbThreads number of threads running prefetches
+   * @param queueSize number of prefetches that can wait for a thread before new ones are dropped
+   */
+  public InFlightPrefetches(int nbThreads, int queueSize) {
+    AtomicInteger nbCreated = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(nbThreads, nbThreads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueSize), r -> {
+          Thread thread = new Thread(r, "prefetch-" + nbCreated.getAndIncrement());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Starts prefetching id, unless it is already in flight
+   *
+   * @return the request prefetching id, or null if the prefetch was dropped
+   */
+  public Request prefetch(String table, long id, ByteString rowKey, Fetcher fetcher) {
+    Request request = new Request(table, id, rowKey);
+    Request existing = inFlight.putIfAbsent(id, request);
+    if (existing != null) {
+      return existing;
+    }
+    try {
+      executor.execute(() -> run(request, fetcher));
+    } catch (RejectedExecutionException e) {
+      inFlight.remove(id, request);
+      request.result.complete(null);
+      CacheStats.droppedPrefetch();
+      return null;
+    }
+    return request;
+  }
+
+  private void run(Request request, Fetcher fetcher) {
+    try {
+      byte[] value = fetcher.fetch(request);
+      request.endNanos = System.nanoTime();
+      request.result.complete(value);
+      CacheStats.ranPrefetch(request.redundant, (request.endNanos - request.startNanos) / 1000);
+    } catch (Throwable t) {
+      request.endNanos = System.nanoTime();
+      request.result.completeExceptionally(t);
+    } finally {
+      inFlight.remove(request.id, request);
+    }
+  }
+
+  /**
+   * Returns the prefetch of id that is in flight, or null
+   */
+  public Request get(long id) {
+    return inFlight.get(id);
+  }
+
+  /**
+   * Stops id from being joined, as it is being written: its prefetched value may be stale. A
+   * prefetch of id in flight no longer writes its value back to the cache; if it is doing so,
+   * this waits for it to finish
+   */
+  public void invalidate(long id) {
+    Request request = inFlight.remove(id);
+    if (request != null) {
+      request.invalidate();
+    }
+  }
+
+  public int getNbInFlight() {
+    return inFlight.size();
+  }
+}
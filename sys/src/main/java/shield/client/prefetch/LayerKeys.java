@@ -0,0 +1,195 @@
+package shield.client.prefetch;
+
+import org.tikv.shade.com.google.protobuf.ByteString;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The set of keys accessed by one layer of a transaction, as parallel arrays of ids, tables and
+ * row keys sorted by id. The row key is the key under which a store that is not addressed by id
+ * (TiKV) holds the row, and is null otherwise. Instances are meant to be reused from one layer to
+ * the next: once the buffers have grown to the size of the largest layer, building a layer
+ * allocates nothing.
+ *
+ * The fingerprint is a 64-bit hash of the sorted ids, so that two layers can be compared in
+ * constant time.
+ */
+public class LayerKeys {
+
+  private long[] ids;
+  private String[] tables;
+  private ByteString[] rowKeys;
+  private int size;
+  private long fingerprint;
+
+  public LayerKeys() {
+    this(16);
+  }
+
+  private LayerKeys(int capacity) {
+    this.ids = new long[capacity];
+    this.tables = new String[capacity];
+    this.rowKeys = new ByteString[capacity];
+    this.size = 0;
+  }
+
+  public void clear() {
+    Arrays.fill(tables, 0, size, null);
+    Arrays.fill(rowKeys, 0, size, null);
+    size = 0;
+    fingerprint = 0;
+  }
+
+  public void add(String table, long id, ByteString rowKey) {
+    if (size == ids.length) {
+      ids = Arrays.copyOf(ids, size * 2);
+      tables = Arrays.copyOf(tables, size * 2);
+      rowKeys = Arrays.copyOf(rowKeys, size * 2);
+    }
+    ids[size] = id;
+    tables[size] = table;
+    rowKeys[size] = rowKey;
+    size++;
+  }
+
+  /**
+   * Sorts the keys by id, removes duplicates and computes the fingerprint. Must be called once all
+   * keys of the layer have been added
+   */
+  public void seal() {
+    // Layers are small, insertion sort avoids boxing and allocation
+    for (int i = 1; i < size; i++) {
+      long id = ids[i];
+      String table = tables[i];
+      ByteString rowKey = rowKeys[i];
+      int j = i - 1;
+      while (j >= 0 && ids[j] > id) {
+        ids[j + 1] = ids[j];
+        tables[j + 1] = tables[j];
+        rowKeys[j + 1] = rowKeys[j];
+        j--;
+      }
+      ids[j + 1] = id;
+      tables[j + 1] = table;
+      rowKeys[j + 1] = rowKey;
+    }
+    int distinct = 0;
+    for (int i = 0; i < size; i++) {
+      if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+        ids[distinct] = ids[i];
+        tables[distinct] = tables[i];
+        rowKeys[distinct] = rowKeys[i];
+        distinct++;
+      }
+    }
+    Arrays.fill(tables, distinct, size, null);
+    Arrays.fill(rowKeys, distinct, size, null);
+    size = distinct;
+
+    long h = 0x9E3779B97F4A7C15L * (size + 1);
+    for (int i = 0; i < size; i++) {
+      h = mix(h ^ ids[i]);
+    }
+    fingerprint = h;
+  }
+
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long getId(int i) {
+    return ids[i];
+  }
+
+  public String getTable(int i) {
+    return tables[i];
+  }
+
+  /**
+   * Key of the i-th row in the backing store, or null if the store is addressed by id
+   */
+  public ByteString getRowKey(int i) {
+    return rowKeys[i];
+  }
+
+  public long getFingerprint() {
+    return fingerprint;
+  }
+
+  public boolean contains(long id) {
+    return Arrays.binarySearch(ids, 0, size, id) >= 0;
+  }
+
+  /**
+   * Returns an immutable copy of these keys, trimmed to size
+   */
+  LayerKeys snapshot() {
+    LayerKeys copy = new LayerKeys(Math.max(1, size));
+    System.arraycopy(ids, 0, copy.ids, 0, size);
+    System.arraycopy(tables, 0, copy.tables, 0, size);
+    System.arraycopy(rowKeys, 0, copy.rowKeys, 0, size);
+    copy.size = size;
+    copy.fingerprint = fingerprint;
+    return copy;
+  }
+
+  void write(DataOutputStream out) throws IOException {
+    out.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      out.writeLong(ids[i]);
+      out.writeUTF(tables[i]);
+      if (rowKeys[i] == null) {
+        out.writeInt(-1);
+      } else {
+        out.writeInt(rowKeys[i].size());
+        rowKeys[i].writeTo(out);
+      }
+    }
+    out.writeLong(fingerprint);
+  }
+
+  /**
+   * Reads keys written by write(). Table names are interned, as they are shared by many layers
+   */
+  static LayerKeys read(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    LayerKeys keys = new LayerKeys(Math.max(1, size));
+    for (int i = 0; i < size; i++) {
+      keys.ids[i] = in.readLong();
+      keys.tables[i] = in.readUTF().intern();
+      int rowKeySize = in.readInt();
+      if (rowKeySize >= 0) {
+        byte[] rowKey = new byte[rowKeySize];
+        in.readFully(rowKey);
+        keys.rowKeys[i] = ByteString.copyFrom(rowKey);
+      }
+    }
+    keys.size = size;
+    keys.fingerprint = in.readLong();
+    return keys;
+  }
+
+  /**
+   * Estimated memory footprint, in bytes. Table names are shared with the schema and not counted
+   */
+  long getSize() {
+    long size = 8 + 4 + (long) ids.length * (8 + 8 + 8);
+    for (int i = 0; i < this.size; i++) {
+      if (rowKeys[i] != null) {
+        size += 16 + rowKeys[i].size();
+      }
+    }
+    return size;
+  }
+}
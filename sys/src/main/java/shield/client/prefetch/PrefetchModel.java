@@ -0,0 +1,189 @@
+package shield.client.prefetch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import shield.util.LongLruMap;
+
+/**
+ * Learns, for each (transaction type, key) pair, which keys the transaction accesses in the
+ * following layer, so that they can be prefetched.
+ *
+ * The number of trackers is bounded: once full, the least recently used tracker is evicted to make
+ * room for a new one. Trackers are indexed by a 64-bit fingerprint of the transaction type and key,
+ * and never by boxed or string keys.
+ *
+ * One model is shared by all the clients of a process, so that dependencies observed by one client
+ * benefit all the others. Trackers are split in stripes, each an LRU map guarded by its own lock,
+ * so that clients updating different keys do not contend. A model can be saved to disk and loaded
+ * back, so that a restarted process starts warm.
+ */
+public class PrefetchModel {
+
+  private static final int NB_STRIPES = 64;
+
+  private static final int MAGIC = 0x50464d32; // "PFM2"
+
+  /**
+   * Estimated per-tracker overhead of the index (key, value reference, recency links, hash slots)
+   */
+  private static final long INDEX_BYTES_PER_TRACKER = 8 + 8 + 4 + 4 + 2 * 4;
+
+  private final List<LongLruMap<PrefetchTracker>> stripes = new ArrayList<>(NB_STRIPES);
+
+  public PrefetchModel(int maxTrackers) {
+    for (int i = 0; i < NB_STRIPES; i++) {
+      stripes.add(new LongLruMap<>(Math.max(1, maxTrackers / NB_STRIPES)));
+    }
+  }
+
+  static long trackerKey(int txnType, long id) {
+    return id ^ (txnType * 0x9E3779B97F4A7C15L);
+  }
+
+  private LongLruMap<PrefetchTracker> stripeOf(long key) {
+    long h = key * 0xff51afd7ed558ccdL;
+    return stripes.get((int) (h >>> 58) & (NB_STRIPES - 1));
+  }
+
+  /**
+   * Records that the keys of layer were accessed by a transaction of type txnType in the layer
+   * following the one that accessed previousLayer. Both layers must be sealed
+   */
+  public void observeLayer(int txnType, LayerKeys previousLayer, LayerKeys layer) {
+    for (int i = 0; i < previousLayer.size(); i++) {
+      long key = trackerKey(txnType, previousLayer.getId(i));
+      LongLruMap<PrefetchTracker> stripe = stripeOf(key);
+      synchronized (stripe) {
+        PrefetchTracker tracker = stripe.get(key);
+        if (tracker == null) {
+          tracker = new PrefetchTracker();
+          stripe.put(key, tracker);
+        }
+        tracker.observeSubsequentLayer(layer);
+      }
+    }
+  }
+
+  /**
+   * Returns the keys a transaction of type txnType is expected to access in the layer after the one
+   * accessing id, or null if there is no confident prediction. The keys returned are immutable
+   */
+  public LayerKeys getPrefetchSet(int txnType, long id) {
+    long key = trackerKey(txnType, id);
+    LongLruMap<PrefetchTracker> stripe = stripeOf(key);
+    synchronized (stripe) {
+      PrefetchTracker tracker = stripe.peek(key);
+      return tracker == null ? null : tracker.getPrefetchSet();
+    }
+  }
+
+  public int getNbTrackers() {
+    int nbTrackers = 0;
+    for (LongLruMap<PrefetchTracker> stripe : stripes) {
+      synchronized (stripe) {
+        nbTrackers += stripe.size();
+      }
+    }
+    return nbTrackers;
+  }
+
+  public int getMaxTrackers() {
+    return stripes.get(0).capacity() * NB_STRIPES;
+  }
+
+  /**
+   * Number of trackers evicted to enforce the size bound
+   */
+  public long getEvictions() {
+    long evictions = 0;
+    for (LongLruMap<PrefetchTracker> stripe : stripes) {
+      synchronized (stripe) {
+        evictions += stripe.getEvictions();
+      }
+    }
+    return evictions;
+  }
+
+  /**
+   * Estimated memory footprint of the model, in bytes
+   */
+  public long getSize() {
+    long[] size = {(long) getMaxTrackers() * INDEX_BYTES_PER_TRACKER};
+    for (LongLruMap<PrefetchTracker> stripe : stripes) {
+      synchronized (stripe) {
+        stripe.forEachValue(tracker -> size[0] += tracker.getSize());
+      }
+    }
+    return size[0];
+  }
+
+  /**
+   * Writes the trackers to fileName. Each stripe is serialized while it is locked, so the clients
+   * can keep updating the model meanwhile
+   */
+  public void save(String fileName) throws IOException {
+    File file = new File(fileName);
+    File tmp = new File(fileName + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+      out.writeInt(MAGIC);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream stripeOut = new DataOutputStream(bytes);
+      for (LongLruMap<PrefetchTracker> stripe : stripes) {
+        bytes.reset();
+        synchronized (stripe) {
+          stripeOut.writeInt(stripe.size());
+          try {
+            stripe.forEachEntry((key, tracker) -> {
+              try {
+                stripeOut.writeLong(key);
+                tracker.write(stripeOut);
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+          } catch (UncheckedIOException e) {
+            throw e.getCause();
+          }
+        }
+        stripeOut.flush();
+        bytes.writeTo(out);
+      }
+    }
+    if (!tmp.renameTo(file)) {
+      throw new IOException("Could not rename " + tmp + " to " + file);
+    }
+  }
+
+  /**
+   * Reads a model written by save(). Trackers beyond maxTrackers are evicted as usual
+   */
+  public static PrefetchModel load(String fileName, int maxTrackers) throws IOException {
+    PrefetchModel model = new PrefetchModel(maxTrackers);
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(fileName), 1 << 16))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(fileName + " is not a prefetch model");
+      }
+      for (int i = 0; i < NB_STRIPES; i++) {
+        int nbTrackers = in.readInt();
+        for (int j = 0; j < nbTrackers; j++) {
+          long key = in.readLong();
+          PrefetchTracker tracker = PrefetchTracker.read(in);
+          model.stripeOf(key).put(key, tracker);
+        }
+      }
+    }
+    return model;
+  }
+}
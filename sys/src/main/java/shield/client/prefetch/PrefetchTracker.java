@@ -0,0 +1,123 @@
+package shield.client.prefetch;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Tracks, for one key of one transaction type, the sets of keys accessed in the layer that follows
+ * it, and how often each set was observed.
+ *
+ * Sets are identified by their fingerprint, and their frequencies are kept in small primitive
+ * arrays along with the index of the most frequent set, so that an observation is a bounded scan
+ * over at most PREFETCH_LEN_THRES + 1 fingerprints. The keys of a set are only copied the first
+ * time the set is seen.
+ */
+public class PrefetchTracker {
+
+  /**
+   * Minimum fraction of observations the most frequent set must account for to be prefetched
+   */
+  static final double PREFETCH_FREQ_THRESH = 0.2;
+
+  /**
+   * Maximum number of distinct sets tracked before the key is deemed unpredictable
+   */
+  static final int PREFETCH_LEN_THRES = 5;
+
+  private final long[] fingerprints = new long[PREFETCH_LEN_THRES + 1];
+  private final int[] freqs = new int[PREFETCH_LEN_THRES + 1];
+  private final LayerKeys[] sets = new LayerKeys[PREFETCH_LEN_THRES + 1];
+  private int nbSets = 0;
+  private int top = -1;
+  private int totalFreq = 0;
+  private boolean trackDeps = true;
+
+  boolean isTrackingDeps() {
+    return trackDeps;
+  }
+
+  void observeSubsequentLayer(LayerKeys keys) {
+    if (!trackDeps) {
+      return;
+    }
+    totalFreq++;
+    long fingerprint = keys.getFingerprint();
+    for (int i = 0; i < nbSets; i++) {
+      if (fingerprints[i] == fingerprint) {
+        freqs[i]++;
+        // Ties go to the set seen first
+        if (freqs[i] > freqs[top]) {
+          top = i;
+        }
+        return;
+      }
+    }
+
+    // Set didn't exist before. Enforce maximum number of sets
+    fingerprints[nbSets] = fingerprint;
+    freqs[nbSets] = 1;
+    sets[nbSets] = keys.snapshot();
+    if (top == -1) {
+      top = nbSets;
+    }
+    nbSets++;
+    if (nbSets > PREFETCH_LEN_THRES) {
+      trackDeps = false;
+    }
+  }
+
+  /**
+   * Returns the set of keys to prefetch, or null if no set is frequent enough
+   */
+  LayerKeys getPrefetchSet() {
+    if (trackDeps && top >= 0 && ((double) freqs[top]) / totalFreq > PREFETCH_FREQ_THRESH) {
+      return sets[top];
+    }
+    return null;
+  }
+
+  /**
+   * Serializes this tracker. The sets of a key deemed unpredictable are not written, as they are
+   * never prefetched
+   */
+  void write(DataOutputStream out) throws IOException {
+    out.writeBoolean(trackDeps);
+    out.writeInt(totalFreq);
+    if (!trackDeps) {
+      return;
+    }
+    out.writeInt(top);
+    out.writeInt(nbSets);
+    for (int i = 0; i < nbSets; i++) {
+      out.writeLong(fingerprints[i]);
+      out.writeInt(freqs[i]);
+      sets[i].write(out);
+    }
+  }
+
+  static PrefetchTracker read(DataInputStream in) throws IOException {
+    PrefetchTracker tracker = new PrefetchTracker();
+    tracker.trackDeps = in.readBoolean();
+    tracker.totalFreq = in.readInt();
+    if (!tracker.trackDeps) {
+      return tracker;
+    }
+    tracker.top = in.readInt();
+    tracker.nbSets = in.readInt();
+    for (int i = 0; i < tracker.nbSets; i++) {
+      tracker.fingerprints[i] = in.readLong();
+      tracker.freqs[i] = in.readInt();
+      tracker.sets[i] = LayerKeys.read(in);
+    }
+    return tracker;
+  }
+
+  public long getSize() {
+    long size = 4 * 4 + (long) fingerprints.length * (8 + 4 + 8);
+    for (int i = 0; i < nbSets; i++) {
+      size += sets[i].getSize();
+    }
+    return size;
+  }
+}
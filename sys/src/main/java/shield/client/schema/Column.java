@@ -1,14 +1,18 @@
 package shield.client.schema;
 
-import com.google.common.primitives.Ints;
-import com.google.common.primitives.Longs;
-
-import shield.util.Utility;
+import java.util.Arrays;
 
 /**
  * Represents a column in a table structure. A column has a type, a size (if the column is a string,
  * it defaults to maxColSize), and an index
  *
+ * Integers and longs are stored big-endian. Strings are stored as their bytes, padded with zeros up
+ * to the column size.
+ *
+ * The typed accessors (getInt, putInt, ...) read and write the row in place, without boxing or
+ * temporary arrays. The Object-based getColData and setColumn are kept for callers that do not know
+ * the type of the column.
+ *
  * @author ncrooks
  */
 public class Column {
@@ -35,31 +39,106 @@ public class Column {
     return colIndex;
   }
 
+  public Class<?> getColType() {
+    return colType;
+  }
+
+  private void checkType(Class<?> type) {
+    if (colType != type) {
+      throw new RuntimeException("Mismatch in column types. Try to access an " + colType);
+    }
+  }
+
+  public int getInt(byte[] value) {
+    checkType(Integer.class);
+    int i = colIndex;
+    return (value[i] << 24) | ((value[i + 1] & 0xFF) << 16) | ((value[i + 2] & 0xFF) << 8)
+        | (value[i + 3] & 0xFF);
+  }
+
+  public long getLong(byte[] value) {
+    checkType(Long.class);
+    long result = 0;
+    for (int i = colIndex; i < colIndex + 8; i++) {
+      result = (result << 8) | (value[i] & 0xFF);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the string stored in the column, zero padding included, as getColData does
+   */
+  public String getString(byte[] value) {
+    checkType(String.class);
+    return new String(value, colIndex, colSize);
+  }
+
+  /**
+   * Points view at the string stored in the column, zero padding excluded. The view reads the row
+   * directly, so it changes if the row is updated
+   */
+  public StringView getString(byte[] value, StringView view) {
+    checkType(String.class);
+    int length = colSize;
+    while (length > 0 && value[colIndex + length - 1] == 0) {
+      length--;
+    }
+    return view.wrap(value, colIndex, length);
+  }
+
+  public void putInt(int newColValue, byte[] value) {
+    checkType(Integer.class);
+    int i = colIndex;
+    value[i] = (byte) (newColValue >>> 24);
+    value[i + 1] = (byte) (newColValue >>> 16);
+    value[i + 2] = (byte) (newColValue >>> 8);
+    value[i + 3] = (byte) newColValue;
+  }
+
+  public void putLong(long newColValue, byte[] value) {
+    checkType(Long.class);
+    for (int i = colIndex + 7; i >= colIndex; i--) {
+      value[i] = (byte) newColValue;
+      newColValue >>>= 8;
+    }
+  }
+
+  /**
+   * Stores newColValue in the column, padded with zeros. ASCII strings are copied char by char,
+   * others are encoded with the platform charset
+   */
+  public void putString(String newColValue, byte[] value) {
+    checkType(String.class);
+    int length = newColValue.length();
+    if (length > colSize) {
+      throw new RuntimeException("String too long");
+    }
+    for (int i = 0; i < length; i++) {
+      char c = newColValue.charAt(i);
+      if (c >= 0x80) {
+        // As before, only the first length bytes of the encoding are kept
+        System.arraycopy(newColValue.getBytes(), 0, value, colIndex, length);
+        break;
+      }
+      value[colIndex + i] = (byte) c;
+    }
+    Arrays.fill(value, colIndex + length, colIndex + colSize, (byte) 0);
+  }
+
   /**
    * Updates the appropriate column entry
    */
   public void setColumn(Object newColValue, byte[] value) {
-    byte[] newColBytes;
     try {
       if (colType.equals(String.class)) {
-        String newColValueString = (String) newColValue;
-        if (newColValueString.length() > colSize) {
-          throw new RuntimeException("String too long");
-        }
-        newColBytes = new byte[colSize];
-        System.arraycopy(newColValueString.getBytes(), 0, newColBytes, 0, newColValueString.length());
+        putString((String) newColValue, value);
       } else if (colType.equals(Long.class)) {
-        Long newColValueLong = (Long) newColValue;
-        newColBytes = Longs.toByteArray(newColValueLong);
-        assert (newColBytes.equals(colSize));
+        putLong((Long) newColValue, value);
       } else if (colType.equals(Integer.class)) {
-        Integer newColValueInteger = (Integer) newColValue;
-        newColBytes = Ints.toByteArray(newColValueInteger);
-        assert (newColBytes.length == (colSize));
+        putInt((Integer) newColValue, value);
       } else {
         throw new RuntimeException("Unsupported column type");
       }
-      System.arraycopy(newColBytes, 0, value, colIndex, colSize);
     } catch (ClassCastException e) {
       throw new RuntimeException("Mismatch in column types. Try to write an"
           + colType);
@@ -73,19 +152,15 @@ public class Column {
    * @param value - the underlying value
    */
   public Object getColData(byte[] value) {
-    byte[] col = new byte[colSize];
-    System.arraycopy(value, colIndex, col, 0, colSize);
     if (colType.equals(String.class)) {
-      return new String(col);
+      return getString(value);
     } else if (colType.equals(Long.class)) {
-      return Longs.fromByteArray(col);
+      return getLong(value);
     } else if (colType.equals(Integer.class)) {
-      return Ints.fromByteArray(col);
+      return getInt(value);
     } else {
       throw new RuntimeException("Unsupported column type");
     }
   }
 
 }
-
-
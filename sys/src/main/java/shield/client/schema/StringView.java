@@ -0,0 +1,65 @@
+package shield.client.schema;
+
+/**
+ * A string column read in place: the chars are the bytes of the row, taken as Latin-1. Views are
+ * meant to be reused, e.g. one per transaction, so that reading a string column allocates nothing.
+ * toString() copies the chars into a new String
+ */
+public class StringView implements CharSequence {
+
+  private byte[] row;
+  private int offset;
+  private int length;
+
+  StringView wrap(byte[] row, int offset, int length) {
+    this.row = row;
+    this.offset = offset;
+    this.length = length;
+    return this;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("Index " + index + ", length " + length);
+    }
+    return (char) (row[offset + index] & 0xFF);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    if (start < 0 || end > length || start > end) {
+      throw new IndexOutOfBoundsException("Range " + start + "-" + end + ", length " + length);
+    }
+    return new StringView().wrap(row, offset + start, end - start);
+  }
+
+  /**
+   * Whether the view holds the same chars as s, without copying them
+   */
+  public boolean contentEquals(CharSequence s) {
+    if (s.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if ((char) (row[offset + i] & 0xFF) != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) (row[offset + i] & 0xFF);
+    }
+    return new String(chars);
+  }
+}
@@ -1,7 +1,10 @@
 package shield.client.schema;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import shield.BaseNode;
@@ -13,13 +16,17 @@ import shield.BaseNode;
  * Supported types are Integer, Long, String. To add a new type, modify the convertinging functions
  * in the {@code Column} class.
  *
+ * Transactions should prefer the typed accessors (getInt, putInt, getString with a
+ * {@link StringView}, ...), which read and write the row in place, over getColumn and updateColumn,
+ * which box every value.
+ *
  * @author ncrooks
  */
 public class Table {
 
   private final String name;
   private final Map<String, Integer> columnIndex;
-  private final Map<Integer, Column> columnInfo;
+  private final List<Column> columnInfo;
   private final BaseNode node;
   private int currentRowSize;
   private int currentNbCols;
@@ -27,7 +34,7 @@ public class Table {
 
   public Table(String name, BaseNode node) {
     this.name = name;
-    this.columnInfo = new HashMap<Integer, Column>();
+    this.columnInfo = new ArrayList<Column>();
     this.columnIndex = new HashMap<String, Integer>();
     this.node = node;
     this.currentRowSize = 0;
@@ -59,10 +66,7 @@ public class Table {
 
   public Object getColumn(Integer column, byte[] value, long key) {
     Object result = null;
-    Column col = columnInfo.get(column);
-    if (col == null) {
-      throw new RuntimeException("Unrecognised column name");
-    }
+    Column col = column(column);
     try {
       result = col.getColData(value);
     } catch (Exception e) {
@@ -74,10 +78,7 @@ public class Table {
   }
   public Object getColumn(Integer column, byte[] value) {
     Object result = null;
-    Column col = columnInfo.get(column);
-    if (col == null) {
-      throw new RuntimeException("Unrecognised column name");
-    }
+    Column col = column(column);
     try {
       result = col.getColData(value);
     } catch (Exception e) {
@@ -95,10 +96,7 @@ public class Table {
    * @param column - the index of the column
    */
   public void updateColumn(Integer column, Object value, byte[] colData) {
-    Column col = columnInfo.get(column);
-    if (col == null) {
-      throw new RuntimeException("Unrecognised column name");
-    }
+    Column col = column(column);
     col.setColumn(value, colData);
   }
 
@@ -117,6 +115,80 @@ public class Table {
     updateColumn(index, value, colData);
   }
 
+  private Column column(int column) {
+    if (column < 0 || column >= currentNbCols) {
+      throw new RuntimeException("Unrecognised column name");
+    }
+    return columnInfo.get(column);
+  }
+
+  private Column column(String column) {
+    Integer index = columnIndex.get(column);
+    if (index == null) {
+      throw new RuntimeException("Unrecognised column name");
+    }
+    return columnInfo.get(index);
+  }
+
+  public int getInt(int column, byte[] row) {
+    return column(column).getInt(row);
+  }
+
+  public int getInt(String column, byte[] row) {
+    return column(column).getInt(row);
+  }
+
+  public long getLong(int column, byte[] row) {
+    return column(column).getLong(row);
+  }
+
+  public long getLong(String column, byte[] row) {
+    return column(column).getLong(row);
+  }
+
+  public String getString(int column, byte[] row) {
+    return column(column).getString(row);
+  }
+
+  public String getString(String column, byte[] row) {
+    return column(column).getString(row);
+  }
+
+  /**
+   * Points view at a string column of row, without copying it
+   */
+  public StringView getString(int column, byte[] row, StringView view) {
+    return column(column).getString(row, view);
+  }
+
+  public StringView getString(String column, byte[] row, StringView view) {
+    return column(column).getString(row, view);
+  }
+
+  public void putInt(int column, int value, byte[] row) {
+    column(column).putInt(value, row);
+  }
+
+  public void putInt(String column, int value, byte[] row) {
+    column(column).putInt(value, row);
+  }
+
+  public void putLong(int column, long value, byte[] row) {
+    column(column).putLong(value, row);
+  }
+
+  public void putLong(String column, long value, byte[] row) {
+    column(column).putLong(value, row);
+  }
+
+  public void putString(int column, String value, byte[] row) {
+    column(column).putString(value, row);
+  }
+
+  public void putString(String column, String value, byte[] row) {
+    column(column).putString(value, row);
+  }
+
   public String getTableName() {
     return name;
   }
@@ -147,7 +219,7 @@ public class Table {
     Column col = new Column(c.getType(), currentRowSize, size);
     Integer index = currentNbCols++;
     columnIndex.put(c.getName(), index);
-    columnInfo.put(index, col);
+    columnInfo.add(col);
     int colSize = col.getColSize();
     currentRowSize += colSize;
   }
@@ -156,6 +228,13 @@ public class Table {
   public int getRowSize() {
     return currentRowSize;
   }
+
+  /**
+   * Columns of the table, in the order of their index in the row
+   */
+  public List<Column> getColumns() {
+    return Collections.unmodifiableList(columnInfo);
+  }
 }
 
 class StringLength<T extends Integer> {
@@ -75,6 +75,12 @@ public class NodeConfiguration extends Configuration {
    */
   public int N_SENDER_NET_THREADS = 1;
 
+  /**
+   * Number of bytes waiting to be written to a node above which senders block, until half of them
+   * have been written
+   */
+  public int NET_WRITE_BUFFER_HIGH_WATER_MARK = 4 << 20;
+
   /**
    * Proxy address
    */
@@ -116,6 +122,23 @@ public class NodeConfiguration extends Configuration {
    */
   public int GC_THREADS = 4;
 
+  /**
+   * Minimum number of versions a garbage collection thread reclaims before yielding. Threads that
+   * fall behind reclaim as many versions per run as were created since their previous run
+   */
+  public int GC_BATCH_SIZE = 1000;
+
+  /**
+   * Store for the TSO versions and their cached data: "heap" (hash maps) or "offheap" (primitive
+   * tables and off-heap slabs, see {@link shield.proxy.trx.concurrency.OffHeapVersionStore})
+   */
+  public String TSO_VERSION_STORE = "heap";
+
+  /**
+   * Size of the off-heap slabs that hold the cached data of the TSO versions, in bytes
+   */
+  public int OFFHEAP_SLAB_SIZE = 1 << 20;
+
   /**
    * True if return commit only when a transaction has been durably flushed (ak:
    */
@@ -281,10 +304,17 @@ public class NodeConfiguration extends Configuration {
   public int MAX_PENDING_BATCHES = 5;
 
   /**
-   * Time between two successive strides
+   * Time between two successive strides. With adaptive strides, maximum time between two strides
    */
   public int TIME_BETWEEN_STRIDE = 10000;
 
+  /**
+   * True if strides are dispatched as soon as they fill, or earlier depending on the arrival rate
+   * and backing store latency, false if they are dispatched at a fixed time interval (see {@link
+   * shield.proxy.trx.data.StrideScheduler}). Defaults to fixed intervals for ORAM backing stores
+   */
+  public boolean ADAPTIVE_STRIDES = true;
+
   /**
    * Minimum time between last stride in a batch and finalising that batch This is to ensure that
    * transactions have time to send the commit request
@@ -423,13 +453,89 @@ public class NodeConfiguration extends Configuration {
   public String REDIS_PORT = "6379";
   public boolean REDIS_ENABLED = true;
   public boolean REDIS_PREFETCH = true;
+  /**
+   * Maximum number of (transaction type, key) dependency trackers kept by a client's prefetch
+   * model. The least recently used trackers are evicted beyond this bound
+   */
+  public int PREFETCH_MAX_TRACKERS = 1 << 16;
+  /**
+   * File from which the process-wide prefetch model is loaded at startup, if it exists, and to
+   * which it is saved when the process exits. Empty to always start with an empty model
+   */
+  public String PREFETCH_MODEL_FILE = "";
+  /**
+   * Number of threads running the prefetches of a process, and number of prefetches that can wait
+   * for one of them. Prefetches issued beyond that are dropped
+   */
+  public int PREFETCH_THREADS = 8;
+  public int PREFETCH_QUEUE_SIZE = 1024;
+  /**
+   * Encoding of the values cached in Redis: "compact" drops the padding of rows and varint-encodes
+   * their numeric columns, "raw" stores them as they are
+   */
+  public String REDIS_VALUE_CODEC = "compact";
+  /**
+   * Size (in bytes) above which compact values are compressed with LZ4. 0 to never compress them
+   */
+  public int REDIS_COMPRESSION_THRESHOLD = 256;
+  /**
+   * Enables the in-process cache tier (L1) shared by all the RedisPostgresClients of a process
+   */
+  public boolean NEAR_CACHE_ENABLED = false;
+  /**
+   * Maximum number of keys, and approximate memory (in bytes), of the in-process cache tier
+   */
+  public int NEAR_CACHE_MAX_ENTRIES = 1 << 18;
+  public long NEAR_CACHE_MAX_BYTES = 64L << 20;
+  /**
+   * Time (in ms) during which a value read from Redis is served by the in-process cache tier
+   * without being read from Redis again
+   */
+  public long NEAR_CACHE_VALIDATE_MS = 1000;
   public long LATENCY = 0;
+  /**
+   * Maximum time (in ms) a client waits for all the operations of a layer to complete before
+   * aborting the transaction. A value of 0 waits indefinitely
+   */
+  public long LAYER_TIMEOUT_MS = 10000;
+  /**
+   * Maximum time (in ms) an older transaction waits for a key lock held by younger ones before
+   * aborting. Younger transactions never wait (wait-die), so this only bounds waits on stalled
+   * lock holders. A value of 0 waits indefinitely
+   */
+  public long LOCK_WAIT_TIMEOUT_MS = 10000;
+  /**
+   * File to which the layers of committed transactions are traced, in the simulator's input
+   * format. Empty to disable tracing
+   */
+  public String TRACE_FILE = "";
+  /**
+   * Fraction of the transactions that are traced
+   */
+  public double TRACE_SAMPLING_RATE = 1.0;
+  /**
+   * Bulk loading (see RedisPostgresClient.enableBulkLoad): number of writer threads, each with its
+   * own connection, maximum number of rows per batch, and number of full batches that can wait for
+   * a writer before loader threads block
+   */
+  public int BULK_LOAD_WRITERS = 4;
+  public int BULK_LOAD_BATCH_ROWS = 5000;
+  public int BULK_LOAD_QUEUE_BATCHES = 4;
 
   public String POSTGRES_HOSTNAME = "";
   public String POSTGRES_PORT = "5432";
   public String POSTGRES_USERNAME = "admin";
   public String POSTGRES_PASSWORD = "password";
   public String POSTGRES_DB_NAME = "benchmark";
+  /**
+   * Maximum number of pooled Postgres connections used for the plain reads of a layer, shared by
+   * all clients of a process (each client additionally holds one connection for its transactions)
+   */
+  public int POSTGRES_POOL_SIZE = 32;
+  /**
+   * Maximum number of idle prepared statements cached per Postgres connection
+   */
+  public int POSTGRES_STATEMENT_CACHE_SIZE = 64;
 
   /*
    * =========================================================
@@ -499,6 +605,10 @@ public class NodeConfiguration extends Configuration {
   public StatisticsCollector statsStorageReadsPerBatch = null;
   public StatisticsCollector statsStorageWritesPerBatch = null;
 
+  public boolean LOG_STRIDES = false;
+  public StatisticsCollector statsStrideFillRatio = null;
+  public StatisticsCollector statsStrideQueueingDelay = null;
+
   public NodeConfiguration(String configFileName)
       throws IOException, ParseException {
     this.configFileName = configFileName;
@@ -541,6 +651,8 @@ public class NodeConfiguration extends Configuration {
         getPropInt(prop, "n_receiver_net_threads", N_RECEIVER_NET_THREADS);
     N_SENDER_NET_THREADS =
         getPropInt(prop, "n_sender_net_threads", N_SENDER_NET_THREADS);
+    NET_WRITE_BUFFER_HIGH_WATER_MARK = getPropInt(prop, "net_write_buffer_high_water_mark",
+        NET_WRITE_BUFFER_HIGH_WATER_MARK);
     N_RECEIVER_NET_THREADS =
         getPropInt(prop, "n_receiver_net_threads", N_RECEIVER_NET_THREADS);
     PROXY_IP_ADDRESS =
@@ -566,6 +678,8 @@ public class NodeConfiguration extends Configuration {
         fromStringToCC(getPropString(prop, "cc_manager_type", ""));
     BACKING_STORE_TYPE =
         fromStringToDataStore(getPropString(prop, "backing_store_type", ""));
+    ADAPTIVE_STRIDES = getPropBool(prop, "adaptive_strides",
+        !BACKING_STORE_TYPE.name().startsWith("ORAM"));
     REMOTE_BACKING_STORE_TYPE =
         fromStringToDataStore(getPropString(prop, "remote_backing_store_type", ""));
     REMOTE_STORE_IP_ADDRESS =
@@ -575,6 +689,9 @@ public class NodeConfiguration extends Configuration {
     GC_ACTIVATED = getPropBool(prop, "gc_activated", GC_ACTIVATED);
     if (CC_MANAGER_TYPE == CCManagerType.BATCH) GC_ACTIVATED = false;
     GC_THREADS = getPropInt(prop, "gc_threads", GC_THREADS);
+    GC_BATCH_SIZE = getPropInt(prop, "gc_batch_size", GC_BATCH_SIZE);
+    TSO_VERSION_STORE = getPropString(prop, "tso_version_store", TSO_VERSION_STORE);
+    OFFHEAP_SLAB_SIZE = getPropInt(prop, "offheap_slab_size", OFFHEAP_SLAB_SIZE);
      COMMIT_ON_DURABLE =
      //   getPropBool(prop, "commit_on_durable", COMMIT_ON_DURABLE);
          true;
@@ -641,13 +758,33 @@ public class NodeConfiguration extends Configuration {
     REDIS_PORT = getPropString(prop, "redis_post", REDIS_PORT);
     REDIS_ENABLED = getPropBool(prop, "redis_enabled", REDIS_ENABLED);
     REDIS_PREFETCH = getPropBool(prop, "redis_prefetch", REDIS_PREFETCH);
+    PREFETCH_MAX_TRACKERS = getPropInt(prop, "prefetch_max_trackers", PREFETCH_MAX_TRACKERS);
+    PREFETCH_MODEL_FILE = getPropString(prop, "prefetch_model_file", PREFETCH_MODEL_FILE);
+    PREFETCH_THREADS = getPropInt(prop, "prefetch_threads", PREFETCH_THREADS);
+    PREFETCH_QUEUE_SIZE = getPropInt(prop, "prefetch_queue_size", PREFETCH_QUEUE_SIZE);
+    REDIS_VALUE_CODEC = getPropString(prop, "redis_value_codec", REDIS_VALUE_CODEC);
+    REDIS_COMPRESSION_THRESHOLD = getPropInt(prop, "redis_compression_threshold", REDIS_COMPRESSION_THRESHOLD);
+    NEAR_CACHE_ENABLED = getPropBool(prop, "near_cache_enabled", NEAR_CACHE_ENABLED);
+    NEAR_CACHE_MAX_ENTRIES = getPropInt(prop, "near_cache_max_entries", NEAR_CACHE_MAX_ENTRIES);
+    NEAR_CACHE_MAX_BYTES = getPropLong(prop, "near_cache_max_bytes", NEAR_CACHE_MAX_BYTES);
+    NEAR_CACHE_VALIDATE_MS = getPropLong(prop, "near_cache_validate_ms", NEAR_CACHE_VALIDATE_MS);
     LATENCY = getPropLong(prop, "latency", LATENCY);
+    LAYER_TIMEOUT_MS = getPropLong(prop, "layer_timeout_ms", LAYER_TIMEOUT_MS);
+    LOCK_WAIT_TIMEOUT_MS = getPropLong(prop, "lock_wait_timeout_ms", LOCK_WAIT_TIMEOUT_MS);
+    TRACE_FILE = getPropString(prop, "trace_file", TRACE_FILE);
+    TRACE_SAMPLING_RATE = getPropDouble(prop, "trace_sampling_rate", TRACE_SAMPLING_RATE);
+    BULK_LOAD_WRITERS = getPropInt(prop, "bulk_load_writers", BULK_LOAD_WRITERS);
+    BULK_LOAD_BATCH_ROWS = getPropInt(prop, "bulk_load_batch_rows", BULK_LOAD_BATCH_ROWS);
+    BULK_LOAD_QUEUE_BATCHES = getPropInt(prop, "bulk_load_queue_batches", BULK_LOAD_QUEUE_BATCHES);
 
     POSTGRES_HOSTNAME = getPropString(prop, "postgres_hostname", POSTGRES_HOSTNAME);
     POSTGRES_PORT = getPropString(prop, "postgres_port", POSTGRES_PORT);
     POSTGRES_USERNAME = getPropString(prop, "postgres_username", POSTGRES_USERNAME);
     POSTGRES_PASSWORD = getPropString(prop, "postgres_password", POSTGRES_PASSWORD);
     POSTGRES_DB_NAME = getPropString(prop, "postgres_db_name", POSTGRES_DB_NAME);
+    POSTGRES_POOL_SIZE = getPropInt(prop, "postgres_pool_size", POSTGRES_POOL_SIZE);
+    POSTGRES_STATEMENT_CACHE_SIZE =
+        getPropInt(prop, "postgres_statement_cache_size", POSTGRES_STATEMENT_CACHE_SIZE);
 
     USE_PROXY = getPropBool(prop, "useproxy", USE_PROXY);
     USE_BACKOFF = getPropBool(prop, "use_backoff", USE_BACKOFF);
@@ -743,6 +880,10 @@ public class NodeConfiguration extends Configuration {
     LOG_STORAGE_ACCESSES_PER_BATCH = getPropBool(logging, "logging_storage_accesses_per_batch", LOG_STORAGE_ACCESSES_PER_BATCH);
     statsStorageReadsPerBatch = LOG_STORAGE_ACCESSES_PER_BATCH ? new StatisticsCollector(EXP_DIR + "log_storage_reads_per_batch.txt") : null;
     statsStorageWritesPerBatch = LOG_STORAGE_ACCESSES_PER_BATCH ? new StatisticsCollector(EXP_DIR + "log_storage_reads_per_batch.txt") : null;
+
+    LOG_STRIDES = getPropBool(logging, "logging_strides", LOG_STRIDES);
+    statsStrideFillRatio = LOG_STRIDES ? new StatisticsCollector(EXP_DIR + "log_stride_fill_ratio.txt") : null;
+    statsStrideQueueingDelay = LOG_STRIDES ? new StatisticsCollector(EXP_DIR + "log_stride_queueing_delay.txt") : null;
   }
 
   public boolean isInitialised() {
@@ -1,6 +1,7 @@
 package shield.network;
 
 import java.net.InetSocketAddress;
+import shield.network.messages.Msg;
 
 public class DiscardNetworkQueue implements NetworkQueue {
 
@@ -12,4 +13,8 @@ public class DiscardNetworkQueue implements NetworkQueue {
     // do nothing
   }
 
+  public void addWork(Msg.Message m) {
+    // do nothing
+  }
+
 }
@@ -12,11 +12,6 @@ import java.net.InetSocketAddress;
 
 public class NetworkManager {
 
-  /**
-   * TODO(natacha): currently does a copy of every protobuf. Is it possible to implement it such
-   * that 0 copy?
-   */
-
   private final BaseNode block;
   private final InetSocketAddress currentAddress;
   private final NettyTCPReceiver receiver;
@@ -46,17 +41,17 @@ public class NetworkManager {
             config.N_RECEIVER_NET_THREADS);
     receiver.setTCPNoDelay(true);
     sender.setTCPNoDelay(true);
+    sender.setWriteBufferWaterMark(config.NET_WRITE_BUFFER_HIGH_WATER_MARK / 2,
+        config.NET_WRITE_BUFFER_HIGH_WATER_MARK);
 
   }
 
   public void sendMsg(Message msg, InetSocketAddress addr) {
-    byte[] bytes = msg.toByteArray();
-    sender.send(bytes, addr);
+    sender.send(msg, addr, true);
   }
 
   public void sendMsg(Message msg, InetSocketAddress addr, boolean flush) {
-    byte[] bytes = msg.toByteArray();
-    sender.send(bytes, addr, flush);
+    sender.send(msg, addr, flush);
   }
 
   public String getNodeHost() {
@@ -1,8 +1,11 @@
 package shield.network;
 
 import java.net.InetSocketAddress;
+import shield.network.messages.Msg;
 
 public interface NetworkQueue {
 
   abstract public void addWork(byte[] msg);
+
+  abstract public void addWork(Msg.Message msg);
 }
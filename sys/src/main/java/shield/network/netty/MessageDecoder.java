@@ -1,13 +1,28 @@
 package shield.network.netty;
 
+import com.google.protobuf.CodedInputStream;
+import java.io.IOException;
 import java.util.List;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import shield.network.messages.Msg;
 
+/**
+ * Splits the stream into length-prefixed frames and parses each frame as a {@link Msg.Message} on
+ * the event loop, without allocating a copy of the frame. Frames in heap buffers are parsed in
+ * place. Frames in direct buffers are first copied into a scratch array owned by the decoder, as
+ * the protobuf runtime accesses direct buffers through Unsafe offsets that are not valid on every
+ * JVM. Fields are copied out while parsing, so messages do not reference the buffers
+ */
 public class MessageDecoder extends ByteToMessageDecoder {
 
+  /**
+   * Holds the frame being parsed when it is in a direct buffer. Grows to the largest frame
+   */
+  private byte[] scratch = new byte[4096];
+
   public MessageDecoder() {
   }
 
@@ -22,12 +37,35 @@ public class MessageDecoder extends ByteToMessageDecoder {
       if (in.readableBytes() < len) {
         in.resetReaderIndex();
       } else {
-        byte[] msg = new byte[len];
-        in.readBytes(msg);
-        out.add(msg);
+        try {
+          out.add(parse(in, len));
+        } catch (IOException e) {
+          System.err.println("Dropping malformed message from " + ctx.channel().remoteAddress()
+              + ": " + e.getMessage());
+        }
+        in.skipBytes(len);
         // System.out.println("Left over " + len + " " + in.readableBytes());
       }
     }
   }
 
+  /**
+   * Parses the message in the next len bytes of the buffer, without moving its reader index
+   */
+  Msg.Message parse(ByteBuf in, int len) throws IOException {
+    CodedInputStream input;
+    if (in.hasArray()) {
+      input = CodedInputStream.newInstance(in.array(), in.arrayOffset() + in.readerIndex(), len);
+    } else {
+      if (scratch.length < len) {
+        scratch = new byte[Math.max(len, scratch.length * 2)];
+      }
+      in.getBytes(in.readerIndex(), scratch, 0, len);
+      input = CodedInputStream.newInstance(scratch, 0, len);
+    }
+    // The frame already bounds the message
+    input.setSizeLimit(Integer.MAX_VALUE);
+    return Msg.Message.parseFrom(input);
+  }
+
 }
@@ -1,5 +1,8 @@
 package shield.network.netty;
 
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import java.io.IOException;
 import java.util.concurrent.Executor;
 import shield.network.DiscardNetworkQueue;
 import shield.network.NetworkSender;
@@ -15,15 +18,37 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioSocketChannel;
 
 
+/**
+ * Sends length-prefixed messages. Messages are serialized directly into pooled buffers, without
+ * an intermediate byte array, and flushes are coalesced per event loop tick (see {@link
+ * ShieldChannelInitializer}). Buffers are heap buffers, as the protobuf runtime accesses direct
+ * buffers through Unsafe offsets that are not valid on every JVM; the transport copies them into
+ * its pooled direct buffers when writing.
+ *
+ * Senders block while the channel to the recipient has more than the high water mark of bytes
+ * waiting to be written, until they drop below the low water mark, so that a slow recipient slows
+ * its senders down rather than filling the heap with pending writes.
+ */
 public class NettyTCPSender implements NetworkSender {
 
+  /**
+   * Maximum time (in ms) between two checks of the writability of a channel
+   */
+  private static final long WRITABILITY_CHECK_INTERVAL = 10;
+
   private ConcurrentHashMap<InetSocketAddress, Channel> openChannels;
   Bootstrap clientBootstrap;
 
+  /**
+   * Notified when a channel becomes writable again
+   */
+  private final Object writableLock = new Object();
+
   public NettyTCPSender() {
     this(1);
   }
@@ -36,6 +61,15 @@ public class NettyTCPSender implements NetworkSender {
     clientBootstrap.option(ChannelOption.SO_KEEPALIVE, alive);
   }
 
+  /**
+   * Sets the number of bytes waiting to be written above which senders block, and below which they
+   * resume. Only applies to channels opened afterwards
+   */
+  public void setWriteBufferWaterMark(int low, int high) {
+    clientBootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK,
+        new WriteBufferWaterMark(low, high));
+  }
+
   public NettyTCPSender(int threadCount) {
     this(threadCount, Executors.newCachedThreadPool());
   }
@@ -67,10 +101,67 @@ public class NettyTCPSender implements NetworkSender {
     ByteBuf buf = alloc.buffer(m.length + 4);
     buf.writeInt(m.length);
     buf.writeBytes(m);
+    write(channel, buf, flush);
+  }
+
+  /**
+   * Serializes the message into a pooled buffer, behind its length
+   */
+  public void send(MessageLite msg, InetSocketAddress recipient, boolean flush) {
+    Channel channel = getChannel(recipient);
+    write(channel, encode(channel.alloc(), msg), flush);
+  }
+
+  static ByteBuf encode(ByteBufAllocator alloc, MessageLite msg) {
+    int size = msg.getSerializedSize();
+    ByteBuf buf = alloc.heapBuffer(size + 4);
+    try {
+      buf.writeInt(size);
+      CodedOutputStream output = CodedOutputStream
+          .newInstance(buf.array(), buf.arrayOffset() + buf.writerIndex(), size);
+      msg.writeTo(output);
+      output.checkNoSpaceLeft();
+      buf.writerIndex(buf.writerIndex() + size);
+      return buf;
+    } catch (IOException | RuntimeException e) {
+      buf.release();
+      throw new IllegalStateException("Failed to serialize " + msg.getClass().getSimpleName(), e);
+    }
+  }
+
+  private void write(Channel channel, ByteBuf buf, boolean flush) {
+    awaitWritable(channel);
     if (flush) {
-      channel.writeAndFlush(buf);
+      channel.writeAndFlush(buf, channel.voidPromise());
     } else {
-      channel.write(buf);
+      channel.write(buf, channel.voidPromise());
+    }
+  }
+
+  /**
+   * Blocks while the channel has too many bytes waiting to be written. Never blocks the event loop
+   */
+  private void awaitWritable(Channel channel) {
+    if (channel.isWritable() || channel.eventLoop().inEventLoop()) {
+      return;
+    }
+    synchronized (writableLock) {
+      while (!channel.isWritable() && channel.isActive()) {
+        try {
+          writableLock.wait(WRITABILITY_CHECK_INTERVAL);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  public void onWritabilityChanged(Channel channel) {
+    if (channel.isWritable()) {
+      synchronized (writableLock) {
+        writableLock.notifyAll();
+      }
     }
   }
 
@@ -112,12 +203,7 @@ public class NettyTCPSender implements NetworkSender {
 
   @Override
   public void send(Msg.Message msg, InetSocketAddress rcpt, boolean flush) {
-    Channel channel = getChannel(rcpt);
-    if (flush) {
-      channel.writeAndFlush(msg);
-    } else {
-      channel.write(msg);
-    }
+    send((MessageLite) msg, rcpt, flush);
   }
 
   @Override
@@ -6,6 +6,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import shield.network.NetworkQueue;
+import shield.network.messages.Msg;
 import shield.util.Pair;
 
 import java.net.InetSocketAddress;
@@ -27,7 +28,19 @@ public class ServerHandler extends ChannelInboundHandlerAdapter {
 
   @Override
   public void channelRead(ChannelHandlerContext ctx, Object msg) {
-    NWQ.addWork((byte[]) msg);
+    if (msg instanceof Msg.Message) {
+      NWQ.addWork((Msg.Message) msg);
+    } else {
+      NWQ.addWork((byte[]) msg);
+    }
+  }
+
+  @Override
+  public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+    if (sender != null) {
+      sender.onWritabilityChanged(ctx.channel());
+    }
+    super.channelWritabilityChanged(ctx);
   }
 
   @Override
@@ -4,11 +4,19 @@ package shield.network.netty;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import shield.network.NetworkQueue;
 
 public class ShieldChannelInitializer
     extends ChannelInitializer<SocketChannel> {
 
+  /**
+   * Flushes requested while a flush is already pending are coalesced into it, so that the messages
+   * sent by the workers during one event loop tick share a single flush. Flushes anyway once this
+   * many flushes are pending
+   */
+  private static final int MAX_COALESCED_FLUSHES = 256;
+
   NetworkQueue NWQ;
   NettyTCPSender sender;
 
@@ -22,6 +30,8 @@ public class ShieldChannelInitializer
     ChannelPipeline pipeline = ch.pipeline();
     ServerHandler handler = new ServerHandler(NWQ, sender);
     MessageDecoder decoder = new MessageDecoder();
+    pipeline.addLast("flush",
+        new FlushConsolidationHandler(MAX_COALESCED_FLUSHES, true));
     pipeline.addLast("decoder", decoder);
     pipeline.addLast("handler", handler);
   }
@@ -0,0 +1,79 @@
+package shield.proxy.trx.concurrency;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps chains and data in concurrent hash maps on the heap
+ */
+public class HeapVersionStore implements VersionStore {
+
+  private static HashFunction hf = Hashing.goodFastHash(64);
+
+  /**
+   * Data-structure contains the metadata that is necessary to run TSO. It does not contain any of
+   * the cached data
+   */
+  private final ConcurrentHashMap<Long, VersionChain> versionInfo;
+
+  /**
+   * Data-structure contains only the cached data. Cached data is inserted with key hash(key,
+   * versionId)
+   */
+  private final ConcurrentMap<Long, byte[]> dataCache;
+
+  public HeapVersionStore(int initialCapacity, int concurrencyLevel) {
+    this.versionInfo = new ConcurrentHashMap<Long, VersionChain>(initialCapacity, 0.9f,
+        concurrencyLevel);
+    this.dataCache = new ConcurrentHashMap<Long, byte[]>();
+  }
+
+  private long hash(long key, long versionId) {
+    // TODO(natacha): check if making copy of array can be removed
+    HashCode hc =
+        hf.newHasher().putLong(key).putLong(versionId).hash();
+    return hc.asLong();
+  }
+
+  @Override
+  public VersionChain getChain(long key) {
+    return versionInfo.get(key);
+  }
+
+  @Override
+  public VersionChain getOrCreateChain(long key) {
+    return versionInfo.computeIfAbsent(key, k -> new VersionChain());
+  }
+
+  @Override
+  public byte[] getData(long key, long versionId) {
+    return dataCache.get(hash(key, versionId));
+  }
+
+  /**
+   * If we find data that is already in, it must be a hash collision
+   */
+  @Override
+  public void putData(long key, long versionId, byte[] data) {
+    long hash = hash(key, versionId);
+    byte[] oldData = dataCache.put(hash, data);
+    if (oldData != null) {
+      // TODO(natacha) handle properly
+      throw new RuntimeException("Collision " + key + " " + " " + hash);
+    }
+  }
+
+  @Override
+  public void removeData(long key, long versionId) {
+    dataCache.remove(hash(key, versionId));
+  }
+
+  @Override
+  public void clear() {
+    versionInfo.clear();
+    dataCache.clear();
+  }
+}
@@ -0,0 +1,557 @@
+package shield.proxy.trx.concurrency;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Keeps chains and data out of boxed hash maps, so that the heap does not grow with the number of
+ * keys and versions.
+ *
+ * Chains are indexed by open-addressing tables of primitive keys. Data is copied into off-heap
+ * slabs, and indexed by open-addressing tables of (key, versionId) pairs, which record where the
+ * data of each version is in the slabs. Slabs are filled in order; a slab is reused once all the
+ * versions it holds have been removed. Versions that stay live long after their neighbours (the
+ * latest version of a cold key) would otherwise pin their slab: once less than a quarter of a
+ * slab is live, its remaining data is moved to the current slab, and the slab is reused. Data
+ * larger than a slab gets a slab of its own.
+ *
+ * Tables are striped, each stripe with its own lock and, for data, its own slabs. Chains are looked
+ * up without locking, unless a chain is being added to the same stripe.
+ */
+public class OffHeapVersionStore implements VersionStore {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final ChainTable[] chainTables;
+
+  private final DataTable[] dataTables;
+
+  private final int stripeMask;
+
+  /**
+   * @param concurrency expected number of threads accessing the store
+   * @param slabSize size of the off-heap slabs, in bytes
+   */
+  public OffHeapVersionStore(int concurrency, int slabSize) {
+    int stripes = 1;
+    while (stripes < 4 * concurrency) {
+      stripes <<= 1;
+    }
+    this.stripeMask = stripes - 1;
+    this.chainTables = new ChainTable[stripes];
+    this.dataTables = new DataTable[stripes];
+    for (int i = 0; i < stripes; i++) {
+      chainTables[i] = new ChainTable();
+      dataTables[i] = new DataTable(slabSize);
+    }
+  }
+
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static long hash(long key, long versionId) {
+    return mix(key * 0x9E3779B97F4A7C15L + versionId);
+  }
+
+  private int stripe(long hash) {
+    return (int) (hash >>> 48) & stripeMask;
+  }
+
+  @Override
+  public VersionChain getChain(long key) {
+    long hash = mix(key);
+    return chainTables[stripe(hash)].get(key, (int) hash);
+  }
+
+  @Override
+  public VersionChain getOrCreateChain(long key) {
+    long hash = mix(key);
+    return chainTables[stripe(hash)].getOrCreate(key, (int) hash);
+  }
+
+  @Override
+  public byte[] getData(long key, long versionId) {
+    long hash = hash(key, versionId);
+    return dataTables[stripe(hash)].get(key, versionId, (int) hash);
+  }
+
+  @Override
+  public void putData(long key, long versionId, byte[] data) {
+    long hash = hash(key, versionId);
+    if (!dataTables[stripe(hash)].put(key, versionId, (int) hash, data)) {
+      throw new RuntimeException("Collision " + key + " " + versionId);
+    }
+  }
+
+  @Override
+  public void removeData(long key, long versionId) {
+    long hash = hash(key, versionId);
+    dataTables[stripe(hash)].remove(key, versionId, (int) hash);
+  }
+
+  @Override
+  public void clear() {
+    for (ChainTable table : chainTables) {
+      table.clear();
+    }
+    for (DataTable table : dataTables) {
+      table.clear();
+    }
+  }
+
+  /**
+   * Key to chain table, with linear probing. Chains are never removed, except by clear()
+   */
+  private static final class ChainTable {
+
+    private final StampedLock lock = new StampedLock();
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private VersionChain[] chains = new VersionChain[INITIAL_CAPACITY];
+    private int size = 0;
+
+    VersionChain get(long key, int hash) {
+      long stamp = lock.tryOptimisticRead();
+      VersionChain chain = find(key, hash);
+      if (!lock.validate(stamp)) {
+        stamp = lock.readLock();
+        try {
+          chain = find(key, hash);
+        } finally {
+          lock.unlockRead(stamp);
+        }
+      }
+      return chain;
+    }
+
+    VersionChain getOrCreate(long key, int hash) {
+      VersionChain chain = get(key, hash);
+      if (chain != null) {
+        return chain;
+      }
+      long stamp = lock.writeLock();
+      try {
+        chain = find(key, hash);
+        if (chain == null) {
+          if ((size + 1) * 4 > chains.length * 3) {
+            resize();
+          }
+          chain = new VersionChain();
+          insert(keys, chains, key, hash, chain);
+          size++;
+        }
+        return chain;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    /**
+     * May run concurrently with a writer when reading optimistically, in which case the result is
+     * discarded. It must then only terminate without throwing
+     */
+    private VersionChain find(long key, int hash) {
+      long[] keys = this.keys;
+      VersionChain[] chains = this.chains;
+      if (keys.length != chains.length) {
+        return null;
+      }
+      int mask = chains.length - 1;
+      for (int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+        VersionChain chain = chains[i];
+        if (chain == null) {
+          return null;
+        }
+        if (keys[i] == key) {
+          return chain;
+        }
+      }
+      return null;
+    }
+
+    private static void insert(long[] keys, VersionChain[] chains, long key, int hash,
+        VersionChain chain) {
+      int mask = chains.length - 1;
+      int i = hash & mask;
+      while (chains[i] != null) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = key;
+      chains[i] = chain;
+    }
+
+    private void resize() {
+      long[] newKeys = new long[keys.length * 2];
+      VersionChain[] newChains = new VersionChain[chains.length * 2];
+      for (int i = 0; i < chains.length; i++) {
+        if (chains[i] != null) {
+          insert(newKeys, newChains, keys[i], (int) mix(keys[i]), chains[i]);
+        }
+      }
+      keys = newKeys;
+      chains = newChains;
+    }
+
+    void clear() {
+      long stamp = lock.writeLock();
+      try {
+        keys = new long[INITIAL_CAPACITY];
+        chains = new VersionChain[INITIAL_CAPACITY];
+        size = 0;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /**
+   * (key, versionId) to data table, with linear probing. Removed entries are filled by shifting the
+   * entries that follow them back, so that tables do not fill up with tombstones
+   */
+  private static final class DataTable {
+
+    /**
+     * Address of versions whose data is null
+     */
+    private static final long NULL_ADDRESS = -1;
+
+    private final StampedLock lock = new StampedLock();
+    private final Arena arena;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] versionIds = new long[INITIAL_CAPACITY];
+    /**
+     * Address of the data in the arena, 0 for empty entries
+     */
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    DataTable(int slabSize) {
+      this.arena = new Arena(slabSize);
+    }
+
+    byte[] get(long key, long versionId, int hash) {
+      long stamp = lock.readLock();
+      try {
+        int i = find(key, versionId, hash);
+        if (i < 0 || addresses[i] == NULL_ADDRESS) {
+          return null;
+        }
+        return arena.read(addresses[i], lengths[i]);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    /**
+     * @return false if the version already has data
+     */
+    boolean put(long key, long versionId, int hash, byte[] data) {
+      long stamp = lock.writeLock();
+      try {
+        if (find(key, versionId, hash) >= 0) {
+          return false;
+        }
+        if ((size + 1) * 4 > addresses.length * 3) {
+          resize();
+        }
+        int mask = addresses.length - 1;
+        int i = hash & mask;
+        while (addresses[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        versionIds[i] = versionId;
+        if (data == null) {
+          addresses[i] = NULL_ADDRESS;
+          lengths[i] = 0;
+        } else {
+          addresses[i] = arena.allocate(data.length);
+          lengths[i] = data.length;
+          arena.write(addresses[i], data);
+        }
+        size++;
+        if (arena.needsCompaction()) {
+          compact();
+        }
+        return true;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    void remove(long key, long versionId, int hash) {
+      long stamp = lock.writeLock();
+      try {
+        int i = find(key, versionId, hash);
+        if (i >= 0) {
+          if (addresses[i] != NULL_ADDRESS) {
+            arena.free(addresses[i], lengths[i]);
+          }
+          delete(i);
+          size--;
+          if (arena.needsCompaction()) {
+            compact();
+          }
+        }
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    /**
+     * Moves the data held by sparse slabs to the current slab, so that the sparse slabs can be
+     * reused. One pass over the table relocates the data of every sparse slab
+     */
+    private void compact() {
+      arena.beginCompaction();
+      for (int i = 0; i < addresses.length; i++) {
+        long address = addresses[i];
+        if (address != 0 && address != NULL_ADDRESS && arena.isSparse(address)) {
+          addresses[i] = arena.relocate(address, lengths[i]);
+        }
+      }
+    }
+
+    private int find(long key, long versionId, int hash) {
+      int mask = addresses.length - 1;
+      for (int i = hash & mask; addresses[i] != 0; i = (i + 1) & mask) {
+        if (keys[i] == key && versionIds[i] == versionId) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Empties entry i, moving back the entries of the same probe sequence that follow it
+     */
+    private void delete(int i) {
+      int mask = addresses.length - 1;
+      int hole = i;
+      for (int j = (i + 1) & mask; addresses[j] != 0; j = (j + 1) & mask) {
+        int home = (int) hash(keys[j], versionIds[j]) & mask;
+        // The entry can move to the hole if the hole is between its home and j
+        if (((j - home) & mask) >= ((j - hole) & mask)) {
+          keys[hole] = keys[j];
+          versionIds[hole] = versionIds[j];
+          addresses[hole] = addresses[j];
+          lengths[hole] = lengths[j];
+          hole = j;
+        }
+      }
+      addresses[hole] = 0;
+    }
+
+    private void resize() {
+      long[] oldKeys = keys;
+      long[] oldVersionIds = versionIds;
+      long[] oldAddresses = addresses;
+      int[] oldLengths = lengths;
+      int capacity = oldAddresses.length * 2;
+      keys = new long[capacity];
+      versionIds = new long[capacity];
+      addresses = new long[capacity];
+      lengths = new int[capacity];
+      int mask = capacity - 1;
+      for (int j = 0; j < oldAddresses.length; j++) {
+        if (oldAddresses[j] != 0) {
+          int i = (int) hash(oldKeys[j], oldVersionIds[j]) & mask;
+          while (addresses[i] != 0) {
+            i = (i + 1) & mask;
+          }
+          keys[i] = oldKeys[j];
+          versionIds[i] = oldVersionIds[j];
+          addresses[i] = oldAddresses[j];
+          lengths[i] = oldLengths[j];
+        }
+      }
+    }
+
+    void clear() {
+      long stamp = lock.writeLock();
+      try {
+        keys = new long[INITIAL_CAPACITY];
+        versionIds = new long[INITIAL_CAPACITY];
+        addresses = new long[INITIAL_CAPACITY];
+        lengths = new int[INITIAL_CAPACITY];
+        size = 0;
+        arena.clear();
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /**
+   * Off-heap slabs, allocated from by bumping an offset in the current slab. Addresses are (slab
+   * number + 1, offset) pairs, so that no address is 0. Not thread-safe
+   */
+  private static final class Arena {
+
+    /**
+     * A filled slab with less than 1 / SPARSE_RATIO of its bytes live is compacted
+     */
+    private static final int SPARSE_RATIO = 4;
+
+    private final int slabSize;
+    private final ArrayList<ByteBuffer> slabs = new ArrayList<>();
+    /**
+     * Bytes allocated and not yet freed, per slab
+     */
+    private int[] live = new int[16];
+    /**
+     * Empty slabs of slabSize bytes
+     */
+    private final ArrayDeque<Integer> freeSlabs = new ArrayDeque<>();
+    /**
+     * Slab numbers whose (larger than slabSize) slab was released
+     */
+    private final ArrayDeque<Integer> freeNumbers = new ArrayDeque<>();
+    private int current = -1;
+    private int top = 0;
+    /**
+     * Whether a slab became sparse since the last compaction
+     */
+    private boolean hasSparseSlabs = false;
+
+    Arena(int slabSize) {
+      this.slabSize = slabSize;
+    }
+
+    long allocate(int length) {
+      if (length > slabSize) {
+        int slab = newNumber();
+        slabs.set(slab, ByteBuffer.allocateDirect(length));
+        live[slab] = length;
+        return address(slab, 0);
+      }
+      if (current < 0 || top + length > slabSize) {
+        int retired = current;
+        current = takeSlab();
+        top = 0;
+        if (retired >= 0 && live[retired] == 0) {
+          freeSlabs.push(retired);
+        } else if (retired >= 0 && live[retired] < slabSize / SPARSE_RATIO) {
+          hasSparseSlabs = true;
+        }
+      }
+      int offset = top;
+      top += length;
+      live[current] += length;
+      return address(current, offset);
+    }
+
+    void free(long address, int length) {
+      if (length == 0) {
+        return;
+      }
+      int slab = (int) (address >>> 32) - 1;
+      live[slab] -= length;
+      if (live[slab] == 0 && slab != current) {
+        if (slabs.get(slab).capacity() > slabSize) {
+          slabs.set(slab, null);
+          freeNumbers.push(slab);
+        } else {
+          freeSlabs.push(slab);
+        }
+      } else if (isSparse(address) && live[slab] + length >= slabSize / SPARSE_RATIO) {
+        hasSparseSlabs = true;
+      }
+    }
+
+    /**
+     * True if the slab holding address is a filled slab of slabSize bytes with little live data
+     */
+    boolean isSparse(long address) {
+      int slab = (int) (address >>> 32) - 1;
+      return slab != current && live[slab] < slabSize / SPARSE_RATIO
+          && slabs.get(slab).capacity() == slabSize;
+    }
+
+    boolean needsCompaction() {
+      return hasSparseSlabs;
+    }
+
+    /**
+     * Clears the sparse flag. Slabs retired sparse while compacting set it again
+     */
+    void beginCompaction() {
+      hasSparseSlabs = false;
+    }
+
+    /**
+     * Copies the data at address to a new allocation, and frees the old one
+     *
+     * @return the new address of the data
+     */
+    long relocate(long address, int length) {
+      long moved = allocate(length);
+      ByteBuffer source = slabs.get((int) (address >>> 32) - 1).duplicate();
+      ((Buffer) source).position((int) address);
+      ((Buffer) source).limit((int) address + length);
+      ByteBuffer target = slabs.get((int) (moved >>> 32) - 1).duplicate();
+      ((Buffer) target).position((int) moved);
+      target.put(source);
+      free(address, length);
+      return moved;
+    }
+
+    void write(long address, byte[] data) {
+      ByteBuffer buffer = slabs.get((int) (address >>> 32) - 1).duplicate();
+      ((Buffer) buffer).position((int) address);
+      buffer.put(data);
+    }
+
+    byte[] read(long address, int length) {
+      ByteBuffer buffer = slabs.get((int) (address >>> 32) - 1).duplicate();
+      ((Buffer) buffer).position((int) address);
+      byte[] data = new byte[length];
+      buffer.get(data);
+      return data;
+    }
+
+    void clear() {
+      slabs.clear();
+      Arrays.fill(live, 0);
+      freeSlabs.clear();
+      freeNumbers.clear();
+      current = -1;
+      top = 0;
+      hasSparseSlabs = false;
+    }
+
+    private int takeSlab() {
+      if (!freeSlabs.isEmpty()) {
+        return freeSlabs.pop();
+      }
+      int slab = newNumber();
+      slabs.set(slab, ByteBuffer.allocateDirect(slabSize));
+      return slab;
+    }
+
+    private int newNumber() {
+      if (!freeNumbers.isEmpty()) {
+        return freeNumbers.pop();
+      }
+      slabs.add(null);
+      if (slabs.size() > live.length) {
+        live = Arrays.copyOf(live, live.length * 2);
+      }
+      return slabs.size() - 1;
+    }
+
+    private static long address(int slab, int offset) {
+      return ((long) (slab + 1) << 32) | offset;
+    }
+  }
+}
@@ -1,8 +1,5 @@
 package shield.proxy.trx.concurrency;
 
-import com.google.common.hash.HashCode;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hashing;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -11,11 +8,11 @@ import java.util.Queue;
 import java.util.SortedSet;
 import java.util.Spliterators;
 import java.util.TreeSet;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.mapdb.Atomic;
 import shield.proxy.Proxy;
@@ -32,18 +29,10 @@ import shield.util.Pair;
  */
 public class TSOMetadata {
 
-  private static HashFunction hf = Hashing.goodFastHash(64);
-
   /**
-   * Data-structure contains the metadata that is necessary to run TSO. It does not contain any of
-   * the cached data
+   * Version chains and the cached data of their versions (see {@link VersionStore})
    */
-  private final ConcurrentHashMap<Long, VersionChain> versionInfo;
-
-  /**
-   * Data-structure contains only the cached data. Cached data is inserted with key hash(
-   */
-  private final ConcurrentMap<Long, byte[]> dataCache;
+  private final VersionStore store;
 
   /**
    * Reference to the transaction manager
@@ -57,52 +46,100 @@ public class TSOMetadata {
 
   private AtomicLong cacheHits = new AtomicLong();
 
+  /**
+   * Garbage collectors, each responsible for a partition of the keys. Null if garbage collection is
+   * not activated
+   */
+  private final Collector[] collectors;
+
+  /**
+   * Versions that will become garbage once the low-water mark passes them, and the task that
+   * reclaims them. Versions are queued in roughly timestamp order, and reclaimed in queue order, by
+   * at most one task at a time
+   */
+  private final class Collector {
+
+    /**
+     * (key, timestamp) of every version created since its chain was last truncated
+     */
+    private final ConcurrentLinkedQueue<Pair<Long, Long>> versions = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of versions queued since the last run
+     */
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private boolean hasGarbage(long lowWaterMark) {
+      Pair<Long, Long> next = versions.peek();
+      return next != null && next.getRight() < lowWaterMark;
+    }
+
+    private void schedule() {
+      if (hasGarbage(trxManager.getLowestCommittedTransaction())
+          && scheduled.compareAndSet(false, true)) {
+        trxManager.getProxy()
+            .executeAsync(this::collect, trxManager.getProxy().getDefaultExpHandler());
+      }
+    }
 
+    /**
+     * Truncates the chains of the versions that the low-water mark passed, then yields. Reclaims at
+     * least GC_BATCH_SIZE versions per run, or as many as were created since the previous run, so
+     * as to keep up with the transactions
+     */
+    private void collect() {
+      long lowWaterMark = trxManager.getLowestCommittedTransaction();
+      int budget = Math.max(trxManager.getConfig().GC_BATCH_SIZE, created.getAndSet(0));
+      while (budget-- > 0 && hasGarbage(lowWaterMark)) {
+        Pair<Long, Long> version = versions.poll();
+        VersionChain chain = store.getChain(version.getLeft());
+        // A truncation at a later low-water mark already reclaimed
+        // the version that this one replaced
+        if (chain != null && version.getRight() >= chain.getTruncatedTimestamp()) {
+          chain.truncateChain(version.getLeft(), lowWaterMark, TSOMetadata.this);
+        }
+      }
+      scheduled.set(false);
+      // The low-water mark may have moved while the task was running
+      schedule();
+    }
+  }
 
   public TSOMetadata(TSOTransactionManager trxManager, DataHandler handler,
       Proxy proxy) {
     this.trxManager = trxManager;
-    this.versionInfo = new ConcurrentHashMap<Long, VersionChain>(
-        trxManager.getConfig().STRIDE_SIZE, 0.9f,
-        trxManager.getConfig().N_WORKER_THREADS);
-    this.dataCache = new ConcurrentHashMap<Long, byte[]>();
+    this.store = VersionStore.create(trxManager.getConfig());
     this.handler = handler;
     this.cacheHits = new AtomicLong();
-  }
-
-  private long hash(Long key, long versionId) {
-    // TODO(natacha): check if making copy of array can be removed
-    HashCode hc =
-        hf.newHasher().putLong(key).putLong(versionId).hash();
-    return hc.asLong();
+    if (trxManager.getConfig().GC_ACTIVATED) {
+      this.collectors = new Collector[trxManager.getConfig().GC_THREADS];
+      for (int i = 0; i < collectors.length; i++) {
+        collectors[i] = new Collector();
+      }
+    } else {
+      this.collectors = null;
+    }
   }
 
   /**
    * Returns the data if it is currently stored at the proxy and null otherwise
    */
   private byte[] getCachedData(Long key, long versionId) {
-    long hash = hash(key, versionId);
-    byte[] retValue = dataCache.get(hash);
-    return retValue;
+    return store.getData(key, versionId);
   }
 
   /**
    * Adds data to the cache. NB: as we only allow transactions to write once, the data should never
-   * already be present in the cache (key,id) pairs should be unique. Hence, if we find data that is
-   * already in, it must be a hash collision
+   * already be present in the cache (key,id) pairs should be unique
    */
   private void addDataToCache(Long key, long versionId, byte[] data) {
-    long hash = hash(key, versionId);
-    byte[] oldData = dataCache.put(hash, data);
-    if (oldData != null) {
-      // TODO(natacha) handle properly
-      throw new RuntimeException("Collision " + key + " " + " " + hash);
-    }
+    store.putData(key, versionId, data);
   }
 
   void removeDataFromCache(Long key, long versionId) {
-   long hash = hash(key, versionId);
-    byte[] removed = dataCache.remove(hash);
+    store.removeData(key, versionId);
   }
 
   public void doRead(Long key, Operation op) {
@@ -112,7 +149,7 @@ public class TSOMetadata {
     // Find version chain or create a new one if none exist
 
     VersionChain chain =
-        versionInfo.computeIfAbsent(key, k -> new VersionChain());
+        store.getOrCreateChain(key);
 
     // Identify the correct version to read. Also updates
     // the dependency list
@@ -147,7 +184,7 @@ public class TSOMetadata {
     // operation reads the data, it will always find it in the cache
     addDataToCache(key, op.getTrx().getTimestamp(), op.getWriteValue());
     VersionChain chain =
-        versionInfo.computeIfAbsent(key, k -> new VersionChain());
+        store.getOrCreateChain(key);
     // Write operations never block, so no need to implement it as callbacks
     chain.write(op);
     if (op.wasSuccessful()) {
@@ -159,6 +196,7 @@ public class TSOMetadata {
               .executeAsync(() -> completeRead(key, blockedOp, false),
                     trxManager.getProxy().getDefaultExpHandler());
       }
+      addGarbageCandidate(key, op);
       handler.handleRequest(op);
     } else {
       System.out.println("Failed to schedule op conflict " + "Trx " + op.getTrx().getTimestamp() + " " + op.getKey());
@@ -214,7 +252,7 @@ public class TSOMetadata {
   public void doReadForUpdate(Long key, Operation op) {
     //System.out.println("[ReadFor] doReadForUpdate");
    VersionChain chain =
-        versionInfo.computeIfAbsent(key, k -> new VersionChain());
+        store.getOrCreateChain(key);
    boolean dummy = chain.read(op, true);
    if (op.wasSuccessful()) {
       completeRead(key, op, dummy);
@@ -230,10 +268,11 @@ public class TSOMetadata {
     // Find version chain or create a new one if none exist
 
     VersionChain chain =
-        versionInfo.computeIfAbsent(key, k -> new VersionChain());
+        store.getOrCreateChain(key);
 
     chain.delete(op);
     if (op.wasSuccessful()) {
+      addGarbageCandidate(key, op);
       handler.handleRequest(op);
     } else {
       trxManager.onOperationExecuted(op);
@@ -246,13 +285,17 @@ public class TSOMetadata {
 
   /**
    * Undoes an operation: if it is a read, removes read from set of transactions that observed this
-   * version. if it is a write, removes version
+   * version. if it is a write, removes version and its cached data, which the garbage collector
+   * will not reach once the version is unlinked
    *
    * @param op - the operation to undo
    */
   public void cleanupOnAbort(Operation op) {
-    VersionChain chain = versionInfo.get(op.getKey());
+    VersionChain chain = store.getChain(op.getKey());
     SortedSet<Operation> blockedOps = chain.undoOperation(op);
+    if (op.isWrite() || op.isDelete()) {
+      removeDataFromCache(op.getKey(), op.getTrx().getTimestamp());
+    }
     System.out.println("Cleaning up " + op.getTrx().getTimestamp() + " " + op.getKey() + " " + blockedOps);
       for (Operation blockedOp:  blockedOps) {
         System.out.println("Terminating blocked operations " + op.getKey());
@@ -264,21 +307,27 @@ public class TSOMetadata {
 
 
   /**
-   * Removes all versions that have a smaller timestamp than this as they will no longer be read
+   * Queues a new version for garbage collection: the version it overwrites can be removed once the
+   * low-water mark passes it
    */
-  public void garbageCollect(int i) {
-    int totalNumberVersions = 0;
-    int count = 0;
-    // TODO(natacha): java 8 options might be more efficient here
-    for (Entry<Long, VersionChain> chain : versionInfo.entrySet()) {
-      if (count++ % trxManager.getConfig().GC_THREADS == i) {
-        // Remove logical versions
-        int versions = chain.getValue()
-            .truncateChain(chain.getKey(), trxManager.getLowestCommittedTransaction(), this);
-        totalNumberVersions += versions;
+  private void addGarbageCandidate(Long key, Operation op) {
+    if (collectors != null) {
+      Collector collector = collectors[(int) Math.floorMod(key, (long) collectors.length)];
+      collector.versions.add(new Pair<>(key, op.getTrx().getTimestamp()));
+      collector.created.incrementAndGet();
+    }
+  }
+
+  /**
+   * Removes the versions that will no longer be read, now that the low-water mark moved. Only the
+   * chains that gained versions below the low-water mark are truncated
+   */
+  public void garbageCollect() {
+    if (collectors != null) {
+      for (Collector collector : collectors) {
+        collector.schedule();
       }
     }
-    trxManager.getProxy().executeAsync(() -> garbageCollect(i), trxManager.getProxy().getDefaultExpHandler());
   }
 
 
@@ -293,7 +342,7 @@ public class TSOMetadata {
     if (!trxManager.getConfig().ALLOW_DUPLICATES) {
       //versionInfo.forEach((key, v) -> {
       for (Long key: keys) {
-        VersionChain v = versionInfo.get(key);
+        VersionChain v = store.getChain(key);
         Version head = v.getLast();
         byte[] data;
         if (head.getVersionId() > 0) {
@@ -311,7 +360,7 @@ public class TSOMetadata {
       }
     } else {
       for (Long key: keys) {
-          VersionChain v = versionInfo.get(key);
+          VersionChain v = store.getChain(key);
           Version head = v.getLast();
           byte[] data;
           while (head.getVersionId() > 0) {
@@ -335,8 +384,12 @@ public class TSOMetadata {
    * Assumes that appropriate locks are owned.
    */
   public void clear() {
-    versionInfo.clear();
-    dataCache.clear();
+    store.clear();
+    if (collectors != null) {
+      for (Collector collector : collectors) {
+        collector.versions.clear();
+      }
+    }
   }
 
   /**
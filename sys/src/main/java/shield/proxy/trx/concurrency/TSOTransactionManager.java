@@ -32,9 +32,9 @@ public class TSOTransactionManager extends TransactionManager {
   private final AtomicLong nextTimestamp;
 
   /**
-   * Low-water mark
+   * Low-water mark. Written under gcLock, read by the garbage collectors
    */
-  private long lowestCommittedTransaction;
+  private volatile long lowestCommittedTransaction;
 
   /**
    * Sorted list of aborted/committed transactions. A transaction is inserted here when a reject
@@ -364,6 +364,7 @@ public class TSOTransactionManager extends TransactionManager {
   public void updateLowWaterMark(Transaction trx) {
     gcLock.lock();
     long timestamp = trx.getTimestamp();
+    long previousLowWaterMark = lowestCommittedTransaction;
     abortedOrCommittedTrxs.add(trx.getTimestamp());
 
     while (timestamp == lowestCommittedTransaction) {
@@ -373,29 +374,23 @@ public class TSOTransactionManager extends TransactionManager {
         timestamp = abortedOrCommittedTrxs.first();
       }
     }
+    boolean moved = lowestCommittedTransaction != previousLowWaterMark;
     gcLock.unlock();
+    if (moved) {
+      metadata.garbageCollect();
+    }
 
   }
 
 
   public void startTrxManager() {
-    if (gcActivated) {
-      doGarbageCollection();
-    }
+    // Garbage collection runs as the low-water mark advances, see updateLowWaterMark()
   }
 
   public Proxy getProxy() {
     return proxy;
   }
 
-  public void doGarbageCollection() {
-    System.out.println("[Garbage Collection] " + lowestCommittedTransaction);
-    for (int i = 0; i < config.GC_THREADS; i++) {
-      final int index = i;
-      proxy.executeAsync(() -> metadata.garbageCollect(index), proxy.getDefaultExpHandler());
-    }
-  }
-
   long getLowestCommittedTransaction() {
       return lowestCommittedTransaction;
   }
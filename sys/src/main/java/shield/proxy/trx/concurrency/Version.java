@@ -2,6 +2,8 @@ package shield.proxy.trx.concurrency;
 
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicMarkableReference;
 import shield.network.messages.Msg.Statement.Type;
 
 /**
@@ -10,10 +12,12 @@ import shield.network.messages.Msg.Statement.Type;
  * denotes the set of transactions that read this version. This is used to determine whether writer
  * transactions should abort.
  *
- * Versions also contain pointers to previous and past version.
+ * Versions are linked from the newest to the oldest, see {@link VersionChain}. The link to the
+ * previous version is marked once the version is removed from the chain.
  *
  * Versions can be real or dummy. Dummy versions also have a set of transactions that are currently
- * blocking on the dummy to be created.
+ * blocking on the dummy to be created. The transitions of a dummy version (an operation blocks on
+ * it, it becomes real, it is removed) are synchronized on the version.
  *
  * @author ncrooks
  */
@@ -40,20 +44,21 @@ public class Version {
   private final Operation op;
 
   /**
-   * Previous version in the chain
+   * Previous version in the chain. Marked once this version is removed from the chain
    */
-  private Version prevVersion = null;
+  private final AtomicMarkableReference<Version> prevVersion =
+      new AtomicMarkableReference<>(null, false);
 
   /**
-   * Next version in the chain
+   * Type of the version: normal, dummy (operation pending),
+   * or tombstone
    */
-  private Version nextVersion = null;
+  private volatile VersionType versionType;
 
   /**
-   * Type of the version: normal, dummy (operation pending),
-   * or tombstone
+   * Set when a dummy version is removed before becoming real. Operations can no longer block on it
    */
-  private VersionType versionType;
+  private boolean abandoned = false;
 
 
   /**
@@ -65,7 +70,10 @@ public class Version {
    * Transactions that have read this version
    */
   // private final SortedSet<Transaction> readTransactions;
-  private long readTransaction;
+  private volatile long readTransaction;
+
+  private static final AtomicLongFieldUpdater<Version> readTransactionUpdater =
+      AtomicLongFieldUpdater.newUpdater(Version.class, "readTransaction");
 
 
   public Version(Operation op) {
@@ -85,6 +93,17 @@ public class Version {
     this.readTransaction = 0;
   }
 
+  /**
+   * Place-holder version with the given id, which no transaction created
+   */
+  Version(long versionId) {
+    this.versionId = versionId;
+    this.op = null;
+    this.versionType = VersionType.NORMAL;
+    this.blockedOperations = new TreeSet<Operation>();
+    this.readTransaction = 0;
+  }
+
 
   /**
    * Returns true if the transaction that created this version has aborted or will abort.
@@ -97,40 +116,60 @@ public class Version {
     }
   }
 
-  public void addBlockedOperation(Operation op) {
-    System.out.println("Op blocked on " + op.getKey() + " TrxId " + op.getTrx().getTimestamp() + "  by Tx " + this.getVersionId() + " " + this.getBlockedOperations().size());
+  /**
+   * Blocks op until this dummy version becomes real. Returns false if the version is no longer a
+   * pending dummy: it became real, or was abandoned
+   */
+  public synchronized boolean addBlockedOperation(Operation op) {
+    if (versionType != VersionType.DUMMY || abandoned) {
+      return false;
+    }
     blockedOperations.add(op);
+    return true;
   }
 
   /**
    * Marks a dummy version as a real
    */
-  public void markReal(boolean delete) {
+  public synchronized void markReal(boolean delete) {
     assert(versionType == VersionType.DUMMY);
     versionType = delete? VersionType.TOMBSTONE:
         VersionType.NORMAL;
   }
 
   /**
-   * Returns previous version in the chain
+   * Abandons a dummy version that will not become real
+   *
+   * @return the operations blocked on it
    */
-  public Version getPrevious() {
-    return prevVersion;
+  synchronized SortedSet<Operation> abandon() {
+    abandoned = true;
+    return blockedOperations;
   }
 
   /**
-   * Returns next version in the chain
+   * Returns previous version in the chain, skipping removed versions
    */
-  public Version getNext() {
-    return nextVersion;
+  public Version getPrevious() {
+    Version previous = prevVersion.getReference();
+    while (previous != null && previous.isRemoved()) {
+      previous = previous.prevVersion.getReference();
+    }
+    return previous;
   }
 
-  public void setNext(Version version) {
-    nextVersion = version;
+  /**
+   * Link to the previous version, as updated by {@link VersionChain}
+   */
+  AtomicMarkableReference<Version> getPreviousLink() {
+    return prevVersion;
   }
 
-  public void setPrev(Version version) {
-    prevVersion = version;
+  /**
+   * Returns whether this version was removed from the chain
+   */
+  boolean isRemoved() {
+    return prevVersion.isMarked();
   }
 
   /**
@@ -158,7 +197,11 @@ public class Version {
     // System.out.println("Read Timestamp Size " + readTransactions.size());
     assert (t.getTimestamp() >= versionId);
     // readTransactions.add(t);
-    readTransaction = readTransaction < t.getTimestamp()? t.getTimestamp(): readTransaction;
+    long current;
+    do {
+      current = readTransaction;
+    } while (current < t.getTimestamp()
+        && !readTransactionUpdater.compareAndSet(this, current, t.getTimestamp()));
   }
 
   /**
@@ -168,10 +211,7 @@ public class Version {
    * cycle.
    */
   public boolean shouldWriteAbort(Transaction t) {
-    boolean shouldAbort = false;
-    shouldAbort = t.getTimestamp() < readTransaction;
-    if (shouldAbort) System.out.println("Abort. Write is " + t.getTimestamp() + " but Read is " + readTransaction);
-    return shouldAbort;
+    return t.getTimestamp() < readTransaction;
   }
 
   public SortedSet<Operation> getBlockedOperations() {
@@ -1,22 +1,25 @@
 package shield.proxy.trx.concurrency;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
 
 import shield.proxy.trx.concurrency.Transaction.TxState;
 
 /**
  * Chain of TSO versions
  *
- * To maximise concurrency, all versions are equipped with individual reader/writer locks. To
- * prevent deadlocks, these locks must always be acquired starting by the version with the highest
- * timestamp first
+ * The chain is a lock-free list of versions ordered by timestamp, from the newest to the oldest:
+ * each version links to the previous one. Versions are inserted with a compare-and-set on the link
+ * of the newer version, and removed by first marking their own link, then unlinking them (Harris'
+ * list). Readers walk the chain without taking any lock.
+ *
+ * A write must abort if a newer transaction read the version it overwrites. Writers check the read
+ * marker of that version both before and after linking their version, and readers check that no
+ * newer version was linked after they set their read marker, so that either the writer sees the
+ * read, or the reader sees the write and reads it instead.
  *
  * @author ncrooks
  */
@@ -25,37 +28,51 @@ public class VersionChain {
 
   public static long kBaseTimestamp = 0;
 
+  /**
+   * Place-holder version, newer than all versions. Its link points to the latest version
+   */
+  private final Version head;
+
   /**
    * Oldest version the chain. This is always a place-holder version with ts @link{kBaseTimestamp}.
    * Hence, value can never be null.
    */
-  private Version oldestVersion;
+  private final Version oldestVersion;
 
   /**
-   * Latest version in the chain
+   * Ongoing dummy versions
    */
-  private Version latestVersion;
+  private final ConcurrentHashMap<Long, Version> currentDummyVersions;
+
+  private final AtomicInteger versionCount;
 
   /**
-   * Ongoing dummy versions
+   * Timestamp at which the chain was last truncated. Only written by the garbage collector in
+   * charge of the chain
    */
-  private HashMap<Long, Version> currentDummyVersions;
+  private volatile long truncatedTimestamp = kBaseTimestamp;
 
   /**
-   * Big fat lock protecting the version chain. TODO(natacha): remove and make use of the individual
-   * version locks
+   * Two adjacent versions of the chain
    */
-  private Lock lock;
+  private static final class Window {
 
-  private int versionCount;
+    final Version newer;
+    final Version older;
+
+    Window(Version newer, Version older) {
+      this.newer = newer;
+      this.older = older;
+    }
+  }
 
 
   public VersionChain() {
     oldestVersion = new Version(null);
-    latestVersion = oldestVersion;
-    lock = new ReentrantLock();
-    versionCount = 0;
-    currentDummyVersions = new HashMap<>();
+    head = new Version(Long.MAX_VALUE);
+    head.getPreviousLink().set(oldestVersion, false);
+    versionCount = new AtomicInteger();
+    currentDummyVersions = new ConcurrentHashMap<>();
   }
 
   /**
@@ -66,160 +83,127 @@ public class VersionChain {
     throw new RuntimeException("Unimplemented");
   }
 
+  public long getTruncatedTimestamp() {
+    return truncatedTimestamp;
+  }
+
   public long getVersionCount() {
-    return versionCount;
+    return versionCount.get();
   }
 
   public void write(Operation op) {
 
-    long timestamp;
-    Version versionToOverwrite;
     Transaction t = op.getTrx();
     Version dummyVersion;
 
-    try {
-      lock.lock();
-
-      dummyVersion = currentDummyVersions.get(t.getTimestamp());
-      if (dummyVersion != null) {
-        // This write is for a dummy version. Update it to
-        // real version
-        // System.out.println("[ReadFor] This was a dummy version " + op.getKey() + " Updating " + op.getTrx().getTimestamp() + " Blocked ops " + dummyVersion.getBlockedOperations());
-        currentDummyVersions.remove(t.getTimestamp());
-        dummyVersion.markReal(op.isDelete());
-        op.setVersion(dummyVersion);
-        versionCount++;
-      } else {
-        // The new version that will be inserted in the version chain
-        Version newVersion = new Version(op);
-        op.setVersion(newVersion);
-
-        versionCount++;
-        timestamp = t.getTimestamp();
-        // Find the latest version with a timestamp that is smaller
-        // than this transaction's timestamp
-        versionToOverwrite = findVersion(timestamp);
-        // Check whether a writer with a higher timestamp than the writer
-        // transaction has read this value. If yes, then this transaction
-        // must be aborted
-        if (versionToOverwrite.shouldWriteAbort(t)) {
-          op.markError();
-        } else {
-          // If not, then insert new version in between the version to
-          // overwrite and the next version
-          newVersion.setPrev(versionToOverwrite);
-          newVersion.setNext(versionToOverwrite.getNext());
-          if (versionToOverwrite.getNext() != null) {
-            versionToOverwrite.getNext().setPrev(newVersion);
-          }
-          versionToOverwrite.setNext(newVersion);
-
-          if (latestVersion.equals(versionToOverwrite)) {
-            latestVersion = newVersion;
-          }
-        }
+    dummyVersion = currentDummyVersions.remove(t.getTimestamp());
+    if (dummyVersion != null) {
+      // This write is for a dummy version. Update it to
+      // real version
+      // System.out.println("[ReadFor] This was a dummy version " + op.getKey() + " Updating " + op.getTrx().getTimestamp() + " Blocked ops " + dummyVersion.getBlockedOperations());
+      dummyVersion.markReal(op.isDelete());
+      op.setVersion(dummyVersion);
+      versionCount.incrementAndGet();
+    } else {
+      // The new version that will be inserted in the version chain
+      Version newVersion = new Version(op);
+      op.setVersion(newVersion);
+      versionCount.incrementAndGet();
+      if (!insertVersion(newVersion, t)) {
+        op.markError();
       }
-    } finally {
-      lock.unlock();
     }
   }
 
   /**
    * Identifies appropriate version to read. A version always exist
    *
-   * @return true if read a real value
+   * @return true if the read blocked on a dummy version
    */
   public boolean read(Operation op, boolean isForUpdate) {
     long timestamp;
-    Version versionToRead = null;
+    Version versionToRead;
     Transaction versionCreatorTrx;
-    boolean aborted = true;
-    Version newVersionForUpdate;
-    boolean isDummy = false;
+    boolean aborted;
+    boolean isDummy;
 
-    try {
-      lock.lock();
-      timestamp = op.getTrx().getTimestamp();
-      // Identify what version this transaction should read
-      while (aborted) {
-        aborted = false;
-        isDummy = false;
-
-        versionToRead = findVersion(timestamp);
-
-        if (!isForUpdate || !versionToRead.shouldWriteAbort(op.getTrx())) {
-          op.setVersion(versionToRead);
-
-          versionCreatorTrx = versionToRead.getTrx();
-          if (versionCreatorTrx != null) {
-            versionCreatorTrx.lock();
-            op.getTrx().lock();
-            // Add transaction to dependencies
-            // Read may fail if the transaction that read from
-            // has aborted in the meantime. Retry
-            if (!versionCreatorTrx.equals(op.getTrx())) {
-              aborted = addDependency(op.getTrx(), versionCreatorTrx);
-            } else {
-              // Transaction just read a version that it itself wrote
-            }
-            // Mark that this transaction read this version
-            if (!aborted) {
-              versionToRead.addReadTimestamp(op.getTrx());
-              if (versionToRead.isDummy()) {
-                isDummy = true;
-                versionToRead.addBlockedOperation(op);
-              }
-            }
-            versionCreatorTrx.unlock();
-            op.getTrx().unlock();
-          } else {
-            // else: this was initinial version
-            StringBuilder b = new StringBuilder();
-           b.append("Initial Version " + op.getKey() + " " + timestamp);
-            Version v = latestVersion;
-            while (v!=null) {
-              b.append(" " + v.getVersionId());
-              v = v.getPrevious();
-            }
-            System.err.println(b.toString());
-          }
-        } else {
-            // only do the read if the write is not about to
-            // fail, as otherwise can get two undo notifications
-            aborted = false;
-        }
+    timestamp = op.getTrx().getTimestamp();
+    // Identify what version this transaction should read
+    do {
+      aborted = false;
+      isDummy = false;
+
+      versionToRead = findVersion(timestamp);
 
+      if (isForUpdate && versionToRead.shouldWriteAbort(op.getTrx())) {
+        // only do the read if the write is not about to
+        // fail, as otherwise can get two undo notifications
+        break;
+      }
+      op.setVersion(versionToRead);
+
+      versionCreatorTrx = versionToRead.getTrx();
+      if (versionCreatorTrx == null) {
+        // This was the initial version
+        StringBuilder b = new StringBuilder();
+        b.append("Initial Version " + op.getKey() + " " + timestamp);
+        Version v = getLast();
+        while (v != null) {
+          b.append(" " + v.getVersionId());
+          v = v.getPrevious();
+        }
+        System.err.println(b.toString());
+        break;
       }
 
-      // Now create the dummy write version
-      // The version to read is necessarily the version that will be overwritten
-      if (isForUpdate) {
-        aborted = versionToRead.shouldWriteAbort(op.getTrx());
-        if (aborted) {
-          op.markError();
-        } else {
-          // If not, then insert new version in between the version to
-          // overwrite and the next version
-          newVersionForUpdate = new Version(op);
-          //op.setVersion(newVersionForUpdate);
-          newVersionForUpdate.setPrev(versionToRead);
-          newVersionForUpdate.setNext(versionToRead.getNext());
-          if (versionToRead.getNext() != null) {
-            versionToRead.getNext().setPrev(newVersionForUpdate);
-          }
-          versionToRead.setNext(newVersionForUpdate);
+      versionCreatorTrx.lock();
+      op.getTrx().lock();
+      // Add transaction to dependencies
+      // Read may fail if the transaction that read from
+      // has aborted in the meantime. Retry
+      if (!versionCreatorTrx.equals(op.getTrx())) {
+        aborted = addDependency(op.getTrx(), versionCreatorTrx);
+      } else {
+        // Transaction just read a version that it itself wrote
+      }
+      // Mark that this transaction read this version
+      if (!aborted) {
+        versionToRead.addReadTimestamp(op.getTrx());
+      }
+      versionCreatorTrx.unlock();
+      op.getTrx().unlock();
+      if (aborted) {
+        continue;
+      }
 
-          if (latestVersion.equals(versionToRead)) {
-            latestVersion = newVersionForUpdate;
-          }
+      // A writer may have linked a newer version before seeing the read
+      // marker. This transaction must then read that version instead
+      if (findVersion(timestamp) != versionToRead) {
+        aborted = true;
+        continue;
+      }
 
-          currentDummyVersions.put(op.getTrx().getTimestamp(), newVersionForUpdate);
+      if (versionToRead.isDummy()) {
+        if (versionToRead.addBlockedOperation(op)) {
+          isDummy = true;
+        } else if (versionToRead.isDummy()) {
+          // The dummy version was abandoned in the meantime
+          aborted = true;
         }
       }
-
-    } finally {
-      lock.unlock();
+    } while (aborted);
+
+    // Now create the dummy write version
+    // The version to read is necessarily the version that will be overwritten
+    if (isForUpdate) {
+      Version newVersionForUpdate = new Version(op);
+      if (!insertVersion(newVersionForUpdate, op.getTrx())) {
+        op.markError();
+      } else {
+        currentDummyVersions.put(op.getTrx().getTimestamp(), newVersionForUpdate);
+      }
     }
+
     return isDummy;
   }
 
@@ -255,29 +239,91 @@ public class VersionChain {
     }
   }
 
+  /**
+   * Returns the two adjacent versions between which a version with the specified timestamp belongs:
+   * the oldest version that is newer (possibly the head), and the latest version that is not.
+   * Removed versions found on the way are unlinked
+   */
+  private Window findWindow(long timestamp) {
+    boolean[] marked = {false};
+    retry:
+    while (true) {
+      Version newer = head;
+      Version older = newer.getPreviousLink().getReference();
+      while (true) {
+        // Previous version is never null before reaching the timestamp,
+        // as the chain always ends with a place-holder
+        Version previous = older.getPreviousLink().get(marked);
+        while (marked[0]) {
+          if (!newer.getPreviousLink().compareAndSet(older, previous, false, false)) {
+            continue retry;
+          }
+          older = previous;
+          previous = older.getPreviousLink().get(marked);
+        }
+        if (older.getVersionId() <= timestamp) {
+          return new Window(newer, older);
+        }
+        newer = older;
+        older = previous;
+      }
+    }
+  }
+
   /**
    * This function returns the latest version that has a timestamp smaller or equal to the specified
    * timestamp
    */
   private Version findVersion(long timestamp) {
+    return visibleVersion(findWindow(timestamp).older);
+  }
 
-    Version currentVersion;
-    long currentTimestamp;
-
-    assert (latestVersion != null);
-
-    currentVersion = latestVersion;
+  /**
+   * Returns the first version, starting from currentVersion, that has not been removed and whose
+   * transaction is not aborting
+   */
+  private Version visibleVersion(Version currentVersion) {
     while (true) {
       // Previous version should never be null
       // as always initialise a version chain with a place
       // older
       assert (currentVersion != null);
-      currentTimestamp = currentVersion.getVersionId();
-      if (currentVersion.isZombie()) System.out.println("Trx " + timestamp + " Found Zombie " + currentTimestamp);
-      if (currentTimestamp <= timestamp && !currentVersion.isZombie()) {
+      if (!currentVersion.isZombie() && !currentVersion.isRemoved()) {
         return currentVersion;
       }
-      currentVersion = currentVersion.getPrevious();
+      currentVersion = currentVersion.getPreviousLink().getReference();
+    }
+  }
+
+  /**
+   * Links version in the chain after the latest version that it overwrites, unless a transaction
+   * newer than t has read that version
+   *
+   * @return false if the write must abort
+   */
+  private boolean insertVersion(Version version, Transaction t) {
+    long timestamp = t.getTimestamp();
+    while (true) {
+      Window window = findWindow(timestamp);
+      // Check whether a writer with a higher timestamp than the writer
+      // transaction has read this value. If yes, then this transaction
+      // must be aborted
+      Version versionToOverwrite = visibleVersion(window.older);
+      if (versionToOverwrite.shouldWriteAbort(t)) {
+        return false;
+      }
+      // If not, then insert new version in between the version to
+      // overwrite and the next version
+      version.getPreviousLink().set(window.older, false);
+      if (!window.newer.getPreviousLink().compareAndSet(window.older, version, false, false)) {
+        continue;
+      }
+      // A reader may have marked the version before this one was linked
+      if (versionToOverwrite.shouldWriteAbort(t)) {
+        removeVersion(version);
+        return false;
+      }
+      return true;
     }
   }
 
@@ -297,104 +343,74 @@ public class VersionChain {
    */
   public SortedSet<Operation> undoOperation(Operation op) {
     SortedSet<Operation> blockedOps = new TreeSet<Operation>();
-    try {
-      lock.lock();
-      Version version = op.getVersion();
-      assert (version != null);
-      if (op.isRead()) {
-        // If it is a read operation, simply remove
-        // its id from the read timestamps.
-        // NB: we do not remove T from the list of
-        // transactions that depend on this version's
-        // creating transaction. It is not necessary but
-        // may cause notifications to aborted transactions
-      } else if (op.isReadForUpdate()) {
-        version = currentDummyVersions.remove(op.getTrx().getTimestamp());
-        if (version != null) {
-          removeVersion(version, true);
-          blockedOps.addAll(version.getBlockedOperations());
-        }
-
-      } else {
-        // Mark all depending transactions as aborted.
-        // Remove version from chain
-        removeVersion(version, true);
+    Version version = op.getVersion();
+    assert (version != null);
+    if (op.isRead()) {
+      // If it is a read operation, simply remove
+      // its id from the read timestamps.
+      // NB: we do not remove T from the list of
+      // transactions that depend on this version's
+      // creating transaction. It is not necessary but
+      // may cause notifications to aborted transactions
+    } else if (op.isReadForUpdate()) {
+      version = currentDummyVersions.remove(op.getTrx().getTimestamp());
+      if (version != null) {
+        blockedOps.addAll(version.abandon());
+        removeVersion(version);
       }
-    } finally {
-      lock.unlock();
+
+    } else {
+      // Mark all depending transactions as aborted.
+      // Remove version from chain
+      removeVersion(version);
     }
     return blockedOps;
   }
 
-  private void removeVersion(Version version, boolean isAbort) {
-
-    // Remove version from chain
-
-    Version prevVersion = version.getPrevious();
-    Version nextVersion = version.getNext();
-
-    if (prevVersion != null) {
-      prevVersion.setNext(nextVersion);
-    }
-    if (nextVersion != null) {
-      nextVersion.setPrev(prevVersion);
-    }
-
-    if (latestVersion.equals(version)) {
-      latestVersion = prevVersion;
-    }
-
-    // If we are removing this value because an abort, mark dependent
-    // operations as aborted
-   /* if (isAbort) {
-      // Mark all transactions that read that value as aborted
-      for (Transaction t : version.getReadTransactions()) {
-        if (t.getTrxState() != TxState.ABORTED) {
-          t.markRollbacked();
-        }
+  /**
+   * Marks version as removed, then unlinks it. Versions that were never linked are only marked
+   */
+  private void removeVersion(Version version) {
+    AtomicMarkableReference<Version> link = version.getPreviousLink();
+    while (true) {
+      Version previous = link.getReference();
+      if (link.isMarked()) {
+        return;
       }
-    } */
-
+      if (link.attemptMark(previous, true)) {
+        break;
+      }
+    }
+    findWindow(version.getVersionId());
   }
 
+  /**
+   * Returns the latest version of the chain
+   */
   public Version getLast() {
-    try {
-      lock.lock();
-      return latestVersion;
-    } finally {
-      lock.unlock();
-    }
+    return head.getPrevious();
   }
 
   /**
-   * Garbage collect versions that will no longer be accessed: all versions that are < than the
-   * timestamp, and not the oldest version in the system
+   * Garbage collect versions that will no longer be accessed: all versions that are older than the
+   * latest version below the timestamp, which transactions that are still running may read, and
+   * not the oldest version in the system
    *
-   * @return list of timestamps that were removed
+   * @return number of versions that were removed
    */
   public int truncateChain(Long key, long timestamp, TSOMetadata metadata) {
-    // Get the first real version of the chain
     int removedTimestamps = 0;
-    Version currentVersion = oldestVersion.getNext();
-    if (currentVersion == null) {
-      return removedTimestamps; // the chain is empty
-    } else {
-      // Now begin pruning
-      // remove any version that has a lower timestamp and is not
-      // the head of the chain
-       currentVersion = currentVersion.getNext();
-      long ts = currentVersion == null ? 0 : currentVersion.getVersionId();
-      while (currentVersion != null && currentVersion.getVersionId() < timestamp) {
-        assert (currentVersion.getVersionId() > 0);
-        removedTimestamps++;
-        System.out.println("GC Removing " + key + " " + currentVersion.getVersionId());
-        metadata.removeDataFromCache(key, currentVersion.getVersionId());
-        removeVersion(currentVersion, false);
-        currentVersion = currentVersion.getNext();
-      }
-      // metadata.removeDataFromCache(key, 0);
-      return removedTimestamps;
+    Version currentVersion = findVersion(timestamp - 1).getPrevious();
+    // Now begin pruning
+    while (currentVersion != null && currentVersion.getVersionId() > kBaseTimestamp) {
+      Version previousVersion = currentVersion.getPrevious();
+      removedTimestamps++;
+      metadata.removeDataFromCache(key, currentVersion.getVersionId());
+      removeVersion(currentVersion);
+      currentVersion = previousVersion;
     }
+    truncatedTimestamp = Math.max(truncatedTimestamp, timestamp);
+    return removedTimestamps;
   }
 
 
@@ -0,0 +1,53 @@
+package shield.proxy.trx.concurrency;
+
+import shield.config.NodeConfiguration;
+
+/**
+ * Storage behind {@link TSOMetadata}: the version chain of every key, and the data written by
+ * every version that is still cached at the proxy
+ */
+public interface VersionStore {
+
+  /**
+   * Returns the version chain of the key, or null if the key has no chain
+   */
+  VersionChain getChain(long key);
+
+  /**
+   * Returns the version chain of the key, creating it if none exists
+   */
+  VersionChain getOrCreateChain(long key);
+
+  /**
+   * Returns the data written by the version, or null if it is not cached
+   */
+  byte[] getData(long key, long versionId);
+
+  /**
+   * Caches the data written by a version. As transactions only write a key once, (key, versionId)
+   * pairs are unique, and the data is never already present
+   */
+  void putData(long key, long versionId, byte[] data);
+
+  void removeData(long key, long versionId);
+
+  /**
+   * Removes all chains and data
+   */
+  void clear();
+
+  /**
+   * Returns the store selected by TSO_VERSION_STORE: "heap" or "offheap" (see {@link
+   * OffHeapVersionStore})
+   */
+  static VersionStore create(NodeConfiguration config) {
+    switch (config.TSO_VERSION_STORE) {
+      case "heap":
+        return new HeapVersionStore(config.STRIDE_SIZE, config.N_WORKER_THREADS);
+      case "offheap":
+        return new OffHeapVersionStore(config.N_WORKER_THREADS, config.OFFHEAP_SLAB_SIZE);
+      default:
+        throw new IllegalArgumentException("Unknown version store " + config.TSO_VERSION_STORE);
+    }
+  }
+}
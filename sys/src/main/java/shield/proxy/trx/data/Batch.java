@@ -80,11 +80,21 @@ public class Batch {
   private final IAsyncBackingStore dataManager;
 
   /**
-   * Time since the last stride was executed. All strides are executed at a fixed time interval,
-   * regardless of how many operations are in the set
+   * Time since the last stride was executed. This is when the next stride starts waiting to be
+   * dispatched (see {@link StrideScheduler})
    */
   private long timeSinceLastStride;
 
+  /**
+   * Decides when the next stride is dispatched
+   */
+  private final StrideScheduler strideScheduler;
+
+  /**
+   * Notified when the next stride gets its first read or fills up
+   */
+  private final Object strideDispatchLock;
+
   /**
    * Reference to the batch data handler that manages the execution of batches
    */
@@ -123,6 +133,8 @@ public class Batch {
     this.finishing = false;
     this.dataManager = proxy.getDataManager();
     this.timeSinceLastStride = System.currentTimeMillis();
+    this.strideScheduler = dataHandler.getStrideScheduler();
+    this.strideDispatchLock = new Object();
     this.nbBatches = new AtomicInteger();
     this.writeKeys = new ConcurrentSkipListSet<>();
     this.writeKeysWithDuplicates = new ConcurrentLinkedQueue<>();
@@ -260,36 +272,52 @@ public class Batch {
 
 
   /**
-   * Starts next stride within a batch. NB: currently using a busy-wait loop as the probability that
-   * there will not be a next stride to execute is extremely low in the steady-state
+   * Starts next stride within a batch, once the stride scheduler decides that it is time. Blocks
+   * until then; new reads added to the stride wake the batch up, as they may bring the dispatch
+   * forward
    */
   public void startNextStride() {
 
-    long elapsed;
     long now;
     long toSleep;
+    Stride nextStride = batchStrides.peek();
+    // Even if there is no stride to execute, we should always
+    // execute strides at a fixed time interval
+    assert (nextStride != null);
 
-    while (executingStride == null) {
-      try {
-        // Calculate minimum time between two strides
+    synchronized (strideDispatchLock) {
+      while (true) {
         now = System.currentTimeMillis();
-        elapsed = now - timeSinceLastStride;
-        toSleep = proxy.getConfig().TIME_BETWEEN_STRIDE - elapsed;
-        if (toSleep > 0) {
-          Thread.sleep(toSleep);
+        toSleep = strideScheduler.dispatchTime(nextStride, timeSinceLastStride) - now;
+        if (toSleep <= 0) {
+          break;
+        }
+        try {
+          strideDispatchLock.wait(toSleep);
+        } catch (InterruptedException e) {
+          e.printStackTrace();
         }
-      } catch (InterruptedException e) {
-        e.printStackTrace();
       }
-      executingStride =  batchStrides.poll();
-      // Even if there is no stride to execute, we should always
-      // execute strides at a fixed time interval
-      assert (executingStride != null);
     }
 
+    executingStride = batchStrides.poll();
+    strideScheduler.onStrideDispatched(executingStride, timeSinceLastStride);
     executingStride.executeReads();
   }
 
+  /**
+   * Called by a stride when it reads a new key. Wakes up the dispatch of the stride on its first
+   * key, and when it is full
+   */
+  void onReadAdded(Stride stride, int readCount) {
+    if (strideScheduler.isAdaptive()
+        && (readCount == 1 || readCount >= proxy.getConfig().STRIDE_SIZE)) {
+      synchronized (strideDispatchLock) {
+        strideDispatchLock.notifyAll();
+      }
+    }
+  }
+
 
   /**
    * Operation successfully executed inside a stride, notify the transaction that scheduled the
@@ -307,6 +335,7 @@ public class Batch {
   public void onStrideExecuted(Stride stride) {
     // Notify all the operations in the stride that executed.
     Queue<Operation> operations = stride.getOperationsInStride();
+    strideScheduler.onStrideExecuted(stride, stride.getExecutionTime());
     for (Operation op : operations) {
       proxy.executeAsync(() -> onOperationExecuted(op),
           proxy.getDefaultExpHandler());
@@ -86,6 +86,11 @@ public class BatchDataHandler extends DataHandler {
 
   public AtomicLong duplicateReads = new AtomicLong(0);
 
+  /**
+   * Decides when strides are dispatched. Shared by all batches, so that it keeps its estimates of
+   * the load and of the backing store latency across batches
+   */
+  private final StrideScheduler strideScheduler;
 
 
   public BatchDataHandler(Proxy proxy) {
@@ -97,9 +102,14 @@ public class BatchDataHandler extends DataHandler {
     batchSwitchLock = new ReentrantLock();
     pendingBatchLock = new ReentrantReadWriteLock();
     pendingStartTrxsRequests = new ConcurrentLinkedQueue<>();
+    strideScheduler = new StrideScheduler(config);
     System.out.println("Creating new batch handler");
   }
 
+  public StrideScheduler getStrideScheduler() {
+    return strideScheduler;
+  }
+
   @Override
   public void handleRequest(Operation op) {
     Transaction trx;
@@ -79,6 +79,16 @@ public class Stride {
    */
   private Lock addOpLock;
 
+  /**
+   * Time (in ms) at which the first key was added to the stride
+   */
+  private volatile long firstReadTime;
+
+  /**
+   * Time (in ns) at which the stride was handed to the datastore
+   */
+  private long dispatchTime;
+
   public Stride(Proxy proxy, Batch batch) {
     this.proxy = proxy;
     this.batch = batch;
@@ -134,6 +144,7 @@ public class Stride {
 
     boolean success = false;
     boolean addedOp = false;
+    int readCount = 0;
 
     if (rLock.tryLock() == false) {
       // Fail to acquire read lock, means that
@@ -151,8 +162,8 @@ public class Stride {
               success = false;
             } else {
               addOperation(op);
-              readOpsToExecuteCount.incrementAndGet();
               keysToSend.add(op.getKey());
+              readCount = onReadAdded();
               success = true;
             }
             addOpLock.unlock();
@@ -170,8 +181,8 @@ public class Stride {
               } else {
                 addedOp = addOperation(op);
                 if (addedOp) {
-                  readOpsToExecuteCount.incrementAndGet();
                   keysToSend.add(op.getKey());
+                  readCount = onReadAdded();
                 }
                 success = true;
               }
@@ -196,11 +207,44 @@ public class Stride {
 
     if (success) {
       operationsInStride.add(op);
+      if (readCount > 0) {
+        batch.onReadAdded(this, readCount);
+      }
     }
 
     return success;
   }
 
+  /**
+   * Counts a new key. Must hold addOpLock
+   *
+   * @return the number of keys in the stride
+   */
+  private int onReadAdded() {
+    if (readOpsToExecuteCount.get() == 0) {
+      firstReadTime = System.currentTimeMillis();
+    }
+    return readOpsToExecuteCount.incrementAndGet();
+  }
+
+  /**
+   * Number of distinct keys read in this stride
+   */
+  public int getReadCount() {
+    return readOpsToExecuteCount.get();
+  }
+
+  public long getFirstReadTime() {
+    return firstReadTime;
+  }
+
+  /**
+   * Time (in ms) the datastore took to serve the stride
+   */
+  double getExecutionTime() {
+    return (System.nanoTime() - dispatchTime) / 1000000.0;
+  }
+
   /**
    * Upon received this callback, the operation has been executed by the datastore. If it is a read,
    * the op value should contain a non-null readValue byte array (assuming the key existed)
@@ -232,6 +276,7 @@ public class Stride {
 
     wLock.lock();
     finishing = true;
+    dispatchTime = System.nanoTime();
 
     System.out.println("[Stride] Number of Operations " + readOpsToExecuteCount.get());
     assert (readOpsToExecuteCount.get() <= proxy.getConfig().STRIDE_SIZE);
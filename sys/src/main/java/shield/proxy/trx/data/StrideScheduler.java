@@ -0,0 +1,102 @@
+package shield.proxy.trx.data;
+
+import shield.config.NodeConfiguration;
+
+/**
+ * Decides when the next stride of a batch is dispatched to the backing store.
+ *
+ * In fixed mode, strides are dispatched every TIME_BETWEEN_STRIDE ms, however many reads they
+ * contain, so that the backing store sees the same access pattern whatever the load. This is the
+ * mode oblivious configurations need.
+ *
+ * In adaptive mode, a stride is dispatched as soon as it is full. Otherwise, it waits after its
+ * first read for as long as the backing store takes to serve a stride, so that the reads that
+ * arrive in the meantime share the round-trip, but only if enough reads are expected to arrive to
+ * make it worth it: when fewer than one read arrives per round-trip, the stride is dispatched
+ * immediately. Idle strides still wait TIME_BETWEEN_STRIDE ms, so that batches keep moving. Arrival
+ * rate and backing store latency are exponentially weighted averages over the past strides.
+ *
+ * Shared by all the batches of a data handler. Strides are dispatched one at a time.
+ */
+public class StrideScheduler {
+
+  /**
+   * Weight of the latest stride in the averages
+   */
+  private static final double ALPHA = 0.2;
+
+  private final NodeConfiguration config;
+
+  private final boolean adaptive;
+
+  /**
+   * Reads per ms
+   */
+  private double arrivalRate = 0;
+
+  /**
+   * Time the backing store takes to serve a stride, in ms
+   */
+  private double storeLatency = 0;
+
+  public StrideScheduler(NodeConfiguration config) {
+    this.config = config;
+    this.adaptive = config.ADAPTIVE_STRIDES;
+  }
+
+  public boolean isAdaptive() {
+    return adaptive;
+  }
+
+  /**
+   * Time (in ms) at which the stride should be dispatched
+   *
+   * @param openedAt time at which the stride started accepting reads, after the previous one
+   * executed
+   */
+  public synchronized long dispatchTime(Stride stride, long openedAt) {
+    if (!adaptive) {
+      return openedAt + config.TIME_BETWEEN_STRIDE;
+    }
+    int reads = stride.getReadCount();
+    if (reads >= config.STRIDE_SIZE) {
+      return 0;
+    } else if (reads == 0) {
+      return openedAt + config.TIME_BETWEEN_STRIDE;
+    } else if (arrivalRate * storeLatency < 1) {
+      // Waiting would not coalesce any read
+      return 0;
+    } else {
+      return stride.getFirstReadTime()
+          + Math.min((long) storeLatency, config.TIME_BETWEEN_STRIDE);
+    }
+  }
+
+  /**
+   * Called when the stride is handed to the backing store
+   */
+  public synchronized void onStrideDispatched(Stride stride, long openedAt) {
+    long now = System.currentTimeMillis();
+    int reads = stride.getReadCount();
+    double rate = (double) reads / Math.max(now - openedAt, 1);
+    arrivalRate = ALPHA * rate + (1 - ALPHA) * arrivalRate;
+
+    if (config.LOG_STRIDES) {
+      config.statsStrideFillRatio.addPoint((double) reads / config.STRIDE_SIZE);
+      if (reads > 0) {
+        config.statsStrideQueueingDelay.addPoint(now - stride.getFirstReadTime());
+      }
+    }
+  }
+
+  /**
+   * Called when the backing store served the stride
+   *
+   * @param latency time the backing store took, in ms
+   */
+  public synchronized void onStrideExecuted(Stride stride, double latency) {
+    if (stride.getReadCount() > 0) {
+      storeLatency = ALPHA * latency + (1 - ALPHA) * storeLatency;
+    }
+  }
+}
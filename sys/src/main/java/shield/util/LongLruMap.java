@@ -0,0 +1,294 @@
+package shield.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Map from primitive long keys to objects, holding at most a fixed number of entries. Inserting a
+ * new key in a full map evicts the least recently used entry.
+ *
+ * Entries live in preallocated arrays, linked in recency order, and are indexed by an open
+ * addressing (linear probing) table. No object is allocated per entry, and keys are never boxed.
+ *
+ * Not thread safe.
+ */
+public class LongLruMap<V> {
+
+  private static final int NONE = -1;
+
+  private final int capacity;
+
+  /**
+   * Entry data, by entry index
+   */
+  private final long[] keys;
+  private final Object[] values;
+
+  /**
+   * Recency list, by entry index. Head is the most recently used entry. next[] also chains free
+   * entries
+   */
+  private final int[] prev;
+  private final int[] next;
+  private int head = NONE;
+  private int tail = NONE;
+
+  /**
+   * Hash slot -> entry index
+   */
+  private final int[] table;
+  private final int mask;
+
+  private int freeEntries = NONE;
+  private int nbAllocatedEntries = 0;
+  private int size = 0;
+  private long evictions = 0;
+
+  public LongLruMap(int capacity) {
+    assert capacity > 0;
+    this.capacity = capacity;
+    this.keys = new long[capacity];
+    this.values = new Object[capacity];
+    this.prev = new int[capacity];
+    this.next = new int[capacity];
+    int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+    this.table = new int[tableSize];
+    this.mask = tableSize - 1;
+    Arrays.fill(table, NONE);
+  }
+
+  private static int mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+
+  /**
+   * Returns the slot holding key, or NONE
+   */
+  private int findSlot(long key) {
+    int slot = mix(key) & mask;
+    int entry;
+    while ((entry = table[slot]) != NONE) {
+      if (keys[entry] == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return NONE;
+  }
+
+  /**
+   * Returns the value associated with key, or null, and marks it as most recently used
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int slot = findSlot(key);
+    if (slot == NONE) {
+      return null;
+    }
+    int entry = table[slot];
+    moveToHead(entry);
+    return (V) values[entry];
+  }
+
+  /**
+   * Returns the value associated with key, or null, without updating recency
+   */
+  @SuppressWarnings("unchecked")
+  public V peek(long key) {
+    int slot = findSlot(key);
+    return slot == NONE ? null : (V) values[table[slot]];
+  }
+
+  public boolean containsKey(long key) {
+    return findSlot(key) != NONE;
+  }
+
+  /**
+   * Associates value with key, and marks it as most recently used.
+   *
+   * @return the value evicted to make room for key, if any
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    int slot = findSlot(key);
+    if (slot != NONE) {
+      int entry = table[slot];
+      values[entry] = value;
+      moveToHead(entry);
+      return null;
+    }
+
+    V evicted = null;
+    if (size == capacity) {
+      evicted = (V) values[tail];
+      removeSlot(findSlot(keys[tail]));
+      evictions++;
+    }
+
+    int entry = allocateEntry();
+    keys[entry] = key;
+    values[entry] = value;
+    linkAtHead(entry);
+    slot = mix(key) & mask;
+    while (table[slot] != NONE) {
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = entry;
+    size++;
+    return evicted;
+  }
+
+  /**
+   * Removes key from the map
+   *
+   * @return the value that was associated with key, if any
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    int slot = findSlot(key);
+    if (slot == NONE) {
+      return null;
+    }
+    V value = (V) values[table[slot]];
+    removeSlot(slot);
+    return value;
+  }
+
+  /**
+   * Removes the least recently used entry, if any
+   *
+   * @return the value of the removed entry, or null if the map is empty
+   */
+  @SuppressWarnings("unchecked")
+  public V removeEldest() {
+    if (tail == NONE) {
+      return null;
+    }
+    V value = (V) values[tail];
+    removeSlot(findSlot(keys[tail]));
+    return value;
+  }
+
+  public void clear() {
+    Arrays.fill(table, NONE);
+    Arrays.fill(values, null);
+    head = tail = freeEntries = NONE;
+    nbAllocatedEntries = 0;
+    size = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEachValue(Consumer<V> consumer) {
+    for (int entry = head; entry != NONE; entry = next[entry]) {
+      consumer.accept((V) values[entry]);
+    }
+  }
+
+  public interface EntryVisitor<V> {
+
+    void visit(long key, V value);
+  }
+
+  /**
+   * Visits the entries from the least to the most recently used, so that putting them in that
+   * order in another map reproduces the recency order
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachEntry(EntryVisitor<V> visitor) {
+    for (int entry = tail; entry != NONE; entry = prev[entry]) {
+      visitor.visit(keys[entry], (V) values[entry]);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Number of entries evicted since the map was created
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  private int allocateEntry() {
+    if (freeEntries != NONE) {
+      int entry = freeEntries;
+      freeEntries = next[entry];
+      return entry;
+    }
+    return nbAllocatedEntries++;
+  }
+
+  /**
+   * Removes the entry in slot, and shifts back the entries that follow it in its probe sequence
+   */
+  private void removeSlot(int slot) {
+    int entry = table[slot];
+    unlink(entry);
+    values[entry] = null;
+    next[entry] = freeEntries;
+    freeEntries = entry;
+    size--;
+
+    int hole = slot;
+    int current = slot;
+    table[hole] = NONE;
+    while (true) {
+      current = (current + 1) & mask;
+      int moved = table[current];
+      if (moved == NONE) {
+        return;
+      }
+      int home = mix(keys[moved]) & mask;
+      // Entries whose home lies cyclically in (hole, current] stay where they are
+      boolean stays = hole <= current ? (hole < home && home <= current)
+          : (hole < home || home <= current);
+      if (!stays) {
+        table[hole] = moved;
+        table[current] = NONE;
+        hole = current;
+      }
+    }
+  }
+
+  private void linkAtHead(int entry) {
+    prev[entry] = NONE;
+    next[entry] = head;
+    if (head != NONE) {
+      prev[head] = entry;
+    }
+    head = entry;
+    if (tail == NONE) {
+      tail = entry;
+    }
+  }
+
+  private void unlink(int entry) {
+    if (prev[entry] != NONE) {
+      next[prev[entry]] = next[entry];
+    } else {
+      head = next[entry];
+    }
+    if (next[entry] != NONE) {
+      prev[next[entry]] = prev[entry];
+    } else {
+      tail = prev[entry];
+    }
+  }
+
+  private void moveToHead(int entry) {
+    if (head == entry) {
+      return;
+    }
+    unlink(entry);
+    linkAtHead(entry);
+  }
+}
@@ -0,0 +1,149 @@
+package shield.client;
+
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.TestCase;
+import shield.client.schema.ColumnInfo;
+import shield.client.schema.Table;
+
+/**
+ * CompactCacheCodec encodings decode to the original value, byte for byte
+ */
+public class CompactCacheCodecTest extends TestCase {
+
+  private static final int VALUE_SIZE = 256;
+
+  private Table customer;
+
+  @Override
+  protected void setUp() {
+    customer = new Table("customer", null);
+    customer.addColumn(new ColumnInfo("c_id", Integer.class));
+    customer.addColumn(new ColumnInfo("c_balance", Long.class));
+    customer.addColumn(new ColumnInfo("c_last", String.class, 16));
+    customer.addColumn(new ColumnInfo("c_delta", Integer.class));
+  }
+
+  private byte[] customerRow(int id, long balance, String last, int delta, int size) {
+    byte[] row = new byte[size];
+    customer.putInt("c_id", id, row);
+    customer.putLong("c_balance", balance, row);
+    customer.putString("c_last", last, row);
+    customer.putInt("c_delta", delta, row);
+    return row;
+  }
+
+  private static void assertRoundTrip(CacheCodec codec, String table, byte[] value) {
+    byte[] encoded = codec.encode(table, value);
+    assertTrue(Arrays.equals(value, codec.decode(table, encoded)));
+  }
+
+  public void testRawValuesRoundTrip() {
+    CacheCodec codec = new CompactCacheCodec(0);
+    Random random = new Random(42);
+    for (int size : new int[]{0, 1, 7, 100, VALUE_SIZE, 4096}) {
+      byte[] value = new byte[size];
+      random.nextBytes(value);
+      assertRoundTrip(codec, "item", value);
+      assertRoundTrip(codec, null, value);
+    }
+  }
+
+  public void testPaddingIsTrimmed() {
+    CacheCodec codec = new CompactCacheCodec(0);
+    byte[] value = new byte[VALUE_SIZE];
+    Arrays.fill(value, 0, 10, (byte) 7);
+    byte[] encoded = codec.encode("item", value);
+    assertTrue(encoded.length < 20);
+    assertTrue(Arrays.equals(value, codec.decode("item", encoded)));
+
+    assertRoundTrip(codec, "item", new byte[VALUE_SIZE]);
+    byte[] lastByte = new byte[VALUE_SIZE];
+    lastByte[VALUE_SIZE - 1] = 1;
+    assertRoundTrip(codec, "item", lastByte);
+  }
+
+  public void testRowsRoundTrip() {
+    CacheCodec codec = new CompactCacheCodec(0);
+    codec.registerTable(customer);
+    int rowSize = customer.getRowSize();
+
+    assertRoundTrip(codec, "customer", customerRow(1, 10, "BARBARBAR", -10, rowSize));
+    assertRoundTrip(codec, "customer", customerRow(0, 0, "", 0, rowSize));
+    assertRoundTrip(codec, "customer",
+        customerRow(Integer.MIN_VALUE, Long.MAX_VALUE, "0123456789ABCDEF", Integer.MAX_VALUE,
+            rowSize));
+    assertRoundTrip(codec, "customer",
+        customerRow(-1, Long.MIN_VALUE, "OUGHT", -1, rowSize));
+  }
+
+  public void testPaddedRowsRoundTrip() {
+    CacheCodec codec = new CompactCacheCodec(0);
+    codec.registerTable(customer);
+
+    byte[] row = customerRow(3, -42, "ABLE", 5, VALUE_SIZE);
+    byte[] encoded = codec.encode("customer", row);
+    assertTrue(encoded.length < customer.getRowSize());
+    assertTrue(Arrays.equals(row, codec.decode("customer", encoded)));
+
+    // Data after the columns is kept
+    row[customer.getRowSize() + 3] = 9;
+    row[VALUE_SIZE - 1] = 1;
+    assertRoundTrip(codec, "customer", row);
+  }
+
+  public void testValuesShorterThanTheRowRoundTrip() {
+    CacheCodec codec = new CompactCacheCodec(0);
+    codec.registerTable(customer);
+    byte[] value = new byte[customer.getRowSize() - 1];
+    Arrays.fill(value, (byte) 1);
+    assertRoundTrip(codec, "customer", value);
+  }
+
+  public void testCompressedValuesRoundTrip() {
+    CacheCodec codec = new CompactCacheCodec(64);
+    codec.registerTable(customer);
+
+    byte[] value = new byte[4096];
+    for (int i = 0; i < value.length; i++) {
+      value[i] = (byte) (i % 16 + 1);
+    }
+    byte[] encoded = codec.encode("item", value);
+    assertTrue(encoded.length < value.length / 2);
+    assertTrue(Arrays.equals(value, codec.decode("item", encoded)));
+
+    // Incompressible values are stored as they are
+    byte[] random = new byte[4096];
+    new Random(7).nextBytes(random);
+    assertRoundTrip(codec, "item", random);
+
+    assertRoundTrip(codec, "customer", customerRow(1, 10, "BARBARBAR", -10, VALUE_SIZE));
+  }
+
+  public void testRowsOfUnknownTablesAreNotDecoded() {
+    CacheCodec codec = new CompactCacheCodec(0);
+    codec.registerTable(customer);
+    byte[] encoded = codec.encode("customer",
+        customerRow(1, 10, "BARBARBAR", -10, customer.getRowSize()));
+    assertNull(new CompactCacheCodec(0).decode("customer", encoded));
+  }
+
+  public void testGarbageIsNotDecoded() {
+    CacheCodec codec = new CompactCacheCodec(64);
+    codec.registerTable(customer);
+    assertNull(codec.decode("item", new byte[]{42, 1, 2}));
+    // Values shorter than their bytes
+    assertNull(codec.decode("item", new byte[]{2, 1, 5, 5}));
+    // Lengths larger than the encoding
+    assertNull(codec.decode("customer", new byte[]{1, 100, 1}));
+    assertNull(codec.decode("item", new byte[]{3, 100, 1}));
+  }
+
+  public void testRawCodecIsTheIdentity() {
+    CacheCodec codec = CacheCodec.create("raw", 0);
+    byte[] value = new byte[VALUE_SIZE];
+    value[0] = 1;
+    assertSame(value, codec.encode("item", value));
+    assertSame(value, codec.decode("item", value));
+  }
+}
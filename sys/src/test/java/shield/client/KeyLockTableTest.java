@@ -0,0 +1,171 @@
+package shield.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+import shield.client.KeyLockTable.AcquireResult;
+
+/**
+ * Shared/exclusive locking and wait-die resolution of conflicts in KeyLockTable
+ */
+public class KeyLockTableTest extends TestCase {
+
+  private static final int STRIPE = 3;
+
+  private static final int TXN_TYPE = 0;
+
+  private KeyLockTable locks;
+  private ExecutorService executor;
+
+  @Override
+  protected void setUp() {
+    locks = new KeyLockTable(16);
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @Override
+  protected void tearDown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Gives task time to reach the stripe, and checks that it is still waiting for it
+   */
+  private void awaitBlocked(Future<AcquireResult> task) throws Exception {
+    Thread.sleep(100);
+    assertFalse("requester did not wait", task.isDone());
+  }
+
+  public void testStripesAreRoundedUpToAPowerOfTwo() {
+    KeyLockTable table = new KeyLockTable(1000);
+    assertEquals(1024, table.getNbStripes());
+    for (long key = 0; key < 10000; key++) {
+      int stripe = table.stripeOf(key);
+      assertTrue(stripe >= 0 && stripe < 1024);
+    }
+  }
+
+  public void testTimestampsIncrease() {
+    long older = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertTrue(older < younger);
+  }
+
+  public void testSharedLocksAreCompatible() {
+    long older = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, older, TXN_TYPE, 100));
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, younger, TXN_TYPE, 100));
+  }
+
+  public void testYoungerRequesterDies() {
+    long older = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE, older, TXN_TYPE, 100));
+    assertEquals(AcquireResult.DIED, locks.lockShared(STRIPE, younger, TXN_TYPE, 100));
+    assertEquals(AcquireResult.DIED, locks.lockExclusive(STRIPE, younger, TXN_TYPE, 100));
+  }
+
+  public void testYoungerWriterDiesOnOlderReader() {
+    long older = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, older, TXN_TYPE, 100));
+    assertEquals(AcquireResult.DIED, locks.lockExclusive(STRIPE, younger, TXN_TYPE, 100));
+  }
+
+  public void testOlderRequesterWaitsForYoungerHolder() throws Exception {
+    long older = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE, younger, TXN_TYPE, 100));
+
+    Future<AcquireResult> waiter = executor.submit(
+        () -> locks.lockExclusive(STRIPE, older, TXN_TYPE, 0));
+    awaitBlocked(waiter);
+    locks.unlockExclusive(STRIPE, younger);
+    assertEquals(AcquireResult.GRANTED, waiter.get(5, TimeUnit.SECONDS));
+
+    // The stripe now belongs to the older transaction
+    assertEquals(AcquireResult.DIED, locks.lockShared(STRIPE, younger, TXN_TYPE, 100));
+  }
+
+  public void testOlderWriterWaitsForAllYoungerReaders() throws Exception {
+    long older = locks.newTimestamp();
+    long reader1 = locks.newTimestamp();
+    long reader2 = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, reader1, TXN_TYPE, 100));
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, reader2, TXN_TYPE, 100));
+
+    Future<AcquireResult> waiter = executor.submit(
+        () -> locks.lockExclusive(STRIPE, older, TXN_TYPE, 0));
+    awaitBlocked(waiter);
+    locks.unlockShared(STRIPE, reader1);
+    awaitBlocked(waiter);
+    locks.unlockShared(STRIPE, reader2);
+    assertEquals(AcquireResult.GRANTED, waiter.get(5, TimeUnit.SECONDS));
+  }
+
+  public void testOlderRequesterTimesOut() {
+    long older = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE, younger, TXN_TYPE, 100));
+
+    long start = System.nanoTime();
+    assertEquals(AcquireResult.TIMED_OUT, locks.lockShared(STRIPE, older, TXN_TYPE, 50));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  public void testWaitingRequesterIsInterrupted() throws Exception {
+    long older = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE, younger, TXN_TYPE, 100));
+
+    Future<AcquireResult> waiter = executor.submit(
+        () -> locks.lockShared(STRIPE, older, TXN_TYPE, 0));
+    awaitBlocked(waiter);
+    executor.shutdownNow();
+    assertEquals(AcquireResult.INTERRUPTED, waiter.get(5, TimeUnit.SECONDS));
+  }
+
+  public void testSharedLockIsUpgraded() {
+    long ts = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, ts, TXN_TYPE, 100));
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE, ts, TXN_TYPE, 100));
+    assertEquals(AcquireResult.DIED, locks.lockShared(STRIPE, younger, TXN_TYPE, 100));
+
+    // The upgraded lock is released by unlockExclusive alone
+    locks.unlockExclusive(STRIPE, ts);
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE, younger, TXN_TYPE, 100));
+  }
+
+  public void testYoungerUpgradeDiesOnOlderReader() {
+    long older = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, older, TXN_TYPE, 100));
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, younger, TXN_TYPE, 100));
+    assertEquals(AcquireResult.DIED, locks.lockExclusive(STRIPE, younger, TXN_TYPE, 100));
+  }
+
+  public void testRelockingIsIdempotent() {
+    long ts = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, ts, TXN_TYPE, 100));
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, ts, TXN_TYPE, 100));
+    locks.unlockShared(STRIPE, ts);
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE, younger, TXN_TYPE, 100));
+
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE, younger, TXN_TYPE, 100));
+    assertEquals(AcquireResult.GRANTED, locks.lockShared(STRIPE, younger, TXN_TYPE, 100));
+    locks.unlockExclusive(STRIPE, younger);
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE, ts, TXN_TYPE, 100));
+  }
+
+  public void testStripesAreIndependent() {
+    long older = locks.newTimestamp();
+    long younger = locks.newTimestamp();
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE, older, TXN_TYPE, 100));
+    assertEquals(AcquireResult.GRANTED, locks.lockExclusive(STRIPE + 1, younger, TXN_TYPE, 100));
+  }
+}
@@ -0,0 +1,48 @@
+package shield.client;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.tikv.common.BytePairWrapper;
+import org.tikv.shade.com.google.protobuf.ByteString;
+
+/**
+ * TiKV, as a map from the keys of the rows to their last committed value
+ */
+class MemoryKVStore implements KVStore {
+
+  final Map<ByteString, ByteString> values = new ConcurrentHashMap<>();
+
+  private final AtomicLong clock = new AtomicLong();
+
+  @Override
+  public long getTimestamp() {
+    return clock.incrementAndGet();
+  }
+
+  @Override
+  public ByteString get(ByteString key, long version) {
+    return values.get(key);
+  }
+
+  @Override
+  public Map<ByteString, ByteString> batchGet(List<ByteString> keys, long version) {
+    Map<ByteString, ByteString> found = new HashMap<>();
+    for (ByteString key : keys) {
+      ByteString value = values.get(key);
+      if (value != null) {
+        found.put(key, value);
+      }
+    }
+    return found;
+  }
+
+  @Override
+  public void commit(List<BytePairWrapper> writes) {
+    for (BytePairWrapper write : writes) {
+      values.put(ByteString.copyFrom(write.getKey()), ByteString.copyFrom(write.getValue()));
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package shield.client;
+
+import junit.framework.TestCase;
+import shield.util.Utility;
+
+/**
+ * Key locks taken by RedisPostgresClient transactions, run against an in-memory cache and store
+ */
+public class RedisPostgresClientLockTest extends TestCase {
+
+  private static final int TXN_TYPE = 1;
+
+  private KeyLockTable keyLocks;
+  private RedisPostgresClient client;
+
+  @Override
+  protected void setUp() throws Exception {
+    keyLocks = new KeyLockTable(1024);
+    client = new RedisPostgresClient(null, keyLocks, new MemoryRedisCache(), new MemoryKVStore());
+  }
+
+  @Override
+  protected void tearDown() {
+    client.requestExecutor.shutdownNow();
+  }
+
+  /**
+   * Asserts that a new transaction can lock the row exclusively without waiting
+   */
+  private void assertFree(String table, String row) {
+    int stripe = keyLocks.stripeOf(Utility.hashPersistent(table + row));
+    long ts = keyLocks.newTimestamp();
+    assertEquals(table + row, KeyLockTable.AcquireResult.GRANTED,
+        keyLocks.lockExclusive(stripe, ts, -1, 100));
+    keyLocks.unlockExclusive(stripe, ts);
+  }
+
+  /**
+   * Payment-shaped transaction: buffered reads for update, reads for update and writes executed
+   * on their own, and plain reads
+   */
+  private void runMixedTransaction(long txnId) throws DatabaseAbortException {
+    client.readForUpdate("warehouse", "1", TXN_TYPE, txnId);
+    client.readForUpdate("district", "1", TXN_TYPE, txnId);
+    client.readForUpdateAndExecute("customer", "1", TXN_TYPE, txnId);
+    client.readAndExecute("item", "1", TXN_TYPE, txnId);
+    client.writeAndExecute("history", "1", new byte[16], TXN_TYPE, txnId);
+    client.write("customer", "1", new byte[16], TXN_TYPE, txnId);
+  }
+
+  private void assertAllFree() {
+    assertFree("warehouse", "1");
+    assertFree("district", "1");
+    assertFree("customer", "1");
+    assertFree("item", "1");
+    assertFree("history", "1");
+  }
+
+  public void testLocksAreReleasedOnCommit() throws Exception {
+    runMixedTransaction(7);
+    client.commitTransaction();
+    assertAllFree();
+  }
+
+  public void testLocksAreReleasedOnAbort() throws Exception {
+    runMixedTransaction(8);
+    client.abortTransaction();
+    assertAllFree();
+  }
+
+  public void testLocksAreReleasedWithoutTxnIds() throws Exception {
+    client.readForUpdate("warehouse", "1");
+    client.readForUpdateAndExecute("customer", "1");
+    client.writeAndExecute("history", "1", new byte[16]);
+    client.commitTransaction();
+    assertAllFree();
+  }
+
+  public void testNextTransactionIsNotBlocked() throws Exception {
+    runMixedTransaction(9);
+    client.commitTransaction();
+    runMixedTransaction(10);
+    client.commitTransaction();
+    assertAllFree();
+  }
+}
@@ -0,0 +1,193 @@
+package shield.proxy.trx.concurrency;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * OffHeapVersionStore keeps the data of every version until it is removed, and reuses the slabs
+ * of removed versions
+ */
+public class OffHeapVersionStoreTest extends TestCase {
+
+  private static final int SLAB_SIZE = 1024;
+
+  private static byte[] data(long key, long versionId, int length) {
+    byte[] data = new byte[length];
+    Arrays.fill(data, (byte) (key * 31 + versionId));
+    if (length > 0) {
+      data[0] = (byte) key;
+      data[length - 1] = (byte) versionId;
+    }
+    return data;
+  }
+
+  /**
+   * Bytes of off-heap memory allocated by the JVM
+   */
+  private static long directMemoryUsed() {
+    for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+      if (pool.getName().equals("direct")) {
+        return pool.getMemoryUsed();
+      }
+    }
+    throw new IllegalStateException("No direct buffer pool");
+  }
+
+  private static void assertData(VersionStore store, Map<List<Long>, byte[]> expected) {
+    for (Map.Entry<List<Long>, byte[]> entry : expected.entrySet()) {
+      long key = entry.getKey().get(0);
+      long versionId = entry.getKey().get(1);
+      assertTrue(key + " " + versionId,
+          Arrays.equals(entry.getValue(), store.getData(key, versionId)));
+    }
+  }
+
+  public void testChainsAreCreatedOnce() {
+    VersionStore store = new OffHeapVersionStore(1, SLAB_SIZE);
+    assertNull(store.getChain(5));
+    VersionChain chain = store.getOrCreateChain(5);
+    assertSame(chain, store.getChain(5));
+    assertSame(chain, store.getOrCreateChain(5));
+    assertNull(store.getChain(6));
+
+    // Past the initial capacity of the tables
+    List<VersionChain> chains = new ArrayList<>();
+    for (long key = 0; key < 10000; key++) {
+      chains.add(store.getOrCreateChain(key));
+    }
+    for (long key = 0; key < 10000; key++) {
+      assertSame(chains.get((int) key), store.getChain(key));
+    }
+  }
+
+  public void testDataIsKeptUntilRemoved() {
+    VersionStore store = new OffHeapVersionStore(1, SLAB_SIZE);
+    store.putData(1, 1, data(1, 1, 100));
+    store.putData(1, 2, data(1, 2, 0));
+    store.putData(2, 1, null);
+    // Larger than a slab
+    store.putData(3, 1, data(3, 1, 3 * SLAB_SIZE));
+
+    assertTrue(Arrays.equals(data(1, 1, 100), store.getData(1, 1)));
+    assertEquals(0, store.getData(1, 2).length);
+    assertNull(store.getData(2, 1));
+    assertTrue(Arrays.equals(data(3, 1, 3 * SLAB_SIZE), store.getData(3, 1)));
+    assertNull(store.getData(1, 3));
+
+    store.removeData(1, 1);
+    store.removeData(2, 1);
+    store.removeData(3, 1);
+    assertNull(store.getData(1, 1));
+    assertNull(store.getData(3, 1));
+    assertEquals(0, store.getData(1, 2).length);
+    // Removing missing data does nothing
+    store.removeData(1, 1);
+  }
+
+  public void testVersionsAreNotOverwritten() {
+    VersionStore store = new OffHeapVersionStore(1, SLAB_SIZE);
+    store.putData(1, 1, data(1, 1, 10));
+    try {
+      store.putData(1, 1, data(1, 2, 10));
+      fail();
+    } catch (RuntimeException e) {
+      // Expected
+    }
+    assertTrue(Arrays.equals(data(1, 1, 10), store.getData(1, 1)));
+  }
+
+  /**
+   * Random puts and removes, checked against a map
+   */
+  public void testRandomOperations() {
+    VersionStore store = new OffHeapVersionStore(2, SLAB_SIZE);
+    Map<List<Long>, byte[]> expected = new HashMap<>();
+    Random random = new Random(42);
+    long[] nextVersion = new long[64];
+    for (int i = 0; i < 50000; i++) {
+      long key = random.nextInt(nextVersion.length);
+      if (random.nextInt(3) > 0 || expected.isEmpty()) {
+        long versionId = nextVersion[(int) key]++;
+        int length = random.nextInt(20) == 0 ? SLAB_SIZE + random.nextInt(SLAB_SIZE)
+            : random.nextInt(200);
+        byte[] data = data(key, versionId, length);
+        store.putData(key, versionId, data);
+        expected.put(Arrays.asList(key, versionId), data);
+      } else {
+        // Remove the oldest version of the key, as garbage collection does
+        for (long versionId = 0; versionId < nextVersion[(int) key]; versionId++) {
+          if (expected.remove(Arrays.asList(key, versionId)) != null) {
+            store.removeData(key, versionId);
+            assertNull(store.getData(key, versionId));
+            break;
+          }
+        }
+      }
+    }
+    assertData(store, expected);
+  }
+
+  /**
+   * Hot keys get a new version every round, and their previous version is removed. Cold keys get
+   * one every few rounds, so that each of their versions ends up alone in a slab of removed hot
+   * versions. Compaction moves them out, so the store only needs slabs for the live data
+   */
+  public void testSlabsOfRemovedVersionsAreReused() {
+    int nbHot = 16;
+    int nbCold = 64;
+    int length = 64;
+    long before = directMemoryUsed();
+    VersionStore store = new OffHeapVersionStore(1, SLAB_SIZE);
+    Map<List<Long>, byte[]> expected = new HashMap<>();
+    long[] coldVersion = new long[nbCold];
+    for (long round = 0; round < 20000; round++) {
+      for (long key = 0; key < nbHot; key++) {
+        byte[] data = data(key, round, length);
+        store.putData(key, round, data);
+        expected.put(Arrays.asList(key, round), data);
+        if (round > 0) {
+          store.removeData(key, round - 1);
+          expected.remove(Arrays.asList(key, round - 1));
+        }
+      }
+      int cold = (int) (round % nbCold);
+      long key = nbHot + cold;
+      if (round >= nbCold) {
+        store.removeData(key, coldVersion[cold]);
+        expected.remove(Arrays.asList(key, coldVersion[cold]));
+      }
+      coldVersion[cold] = round;
+      byte[] data = data(key, round, length);
+      store.putData(key, round, data);
+      expected.put(Arrays.asList(key, round), data);
+    }
+    assertData(store, expected);
+
+    // Without compaction, every cold version would pin a slab of its own
+    long live = (long) (nbHot + nbCold) * length;
+    long used = directMemoryUsed() - before;
+    assertTrue("store uses " + used + " bytes for " + live + " live bytes",
+        used < (long) nbCold * SLAB_SIZE * 3 / 4);
+  }
+
+  public void testClearRemovesEverything() {
+    VersionStore store = new OffHeapVersionStore(1, SLAB_SIZE);
+    store.getOrCreateChain(1);
+    store.putData(1, 1, data(1, 1, 100));
+    store.putData(2, 1, data(2, 1, 2 * SLAB_SIZE));
+    store.clear();
+    assertNull(store.getChain(1));
+    assertNull(store.getData(1, 1));
+    assertNull(store.getData(2, 1));
+
+    store.putData(1, 1, data(1, 2, 100));
+    assertTrue(Arrays.equals(data(1, 2, 100), store.getData(1, 1)));
+  }
+}